@@ -46,6 +46,14 @@ public class App extends Application {
         stage.show();
     }
 
+    /**
+     * Runs when the app closes. Writes every queued save.
+     */
+    @Override
+    public void stop() {
+        FACADE.close();
+    }
+
     static void setRoot(String fxml) throws IOException {
         if (scene == null) {
             throw new IllegalStateException("Scene has not been initialised");
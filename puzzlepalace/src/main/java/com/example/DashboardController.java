@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.model.Leaderboard;
 import com.model.Player;
 import com.model.PlayerProgressReport;
 import com.model.PuzzlePalaceFacade;
@@ -11,6 +12,7 @@ import com.model.PuzzleProgressSnapshot;
 import com.model.Score;
 import com.model.Settings;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.ChoiceBox;
@@ -49,6 +51,9 @@ public class DashboardController {
     @FXML
     private ListView<String> hintUsageList;
 
+    @FXML
+    private ListView<String> topScoresList;
+
     @FXML
     private TextArea saveFilePreview;
 
@@ -75,6 +80,23 @@ public class DashboardController {
         resetSaveFilePreview();
         refreshProgressDetails(PlayerProgressReport.empty());
         refreshPlayerDetails();
+        refreshTopScores();
+        App.getFacade().whenLeaderboardReady(() -> Platform.runLater(this::refreshTopScores));
+    }
+
+    /** Shows the best players, from the saved leaderboard until the live one is ready. */
+    private void refreshTopScores() {
+        if (topScoresList == null) {
+            return;
+        }
+        List<String> rows = new ArrayList<>();
+        for (Leaderboard.Entry entry : App.getFacade().getTopScores(Leaderboard.DEFAULT_TOP)) {
+            rows.add(entry.getRank() + ". " + entry.getUsername() + " - " + entry.getScore() + " pts");
+        }
+        if (rows.isEmpty()) {
+            rows.add("No scores yet.");
+        }
+        topScoresList.setItems(FXCollections.observableArrayList(rows));
     }
 
         /** Logs out and goes back to the login screen. */
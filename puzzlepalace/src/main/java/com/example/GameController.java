@@ -9,6 +9,7 @@ import com.model.Puzzle;
 import com.model.PuzzlePalaceFacade;
 import com.model.Room;
 import com.model.Score;
+import com.model.ScoringPolicy;
 import com.model.Settings;
 
 import javafx.animation.KeyFrame;
@@ -202,6 +203,8 @@ public class GameController {
                 showEscapeCompletionAlert();
             }
             displaySolvedState();
+        } else if (App.getFacade().isCloseAnswer(activePuzzle.getPuzzleId(), answer)) {
+            feedbackLabel.setText("So close! Those letters spell a real word, just not the one the lock wants.");
         } else {
             feedbackLabel.setText("That's not quite right. Try another combination.");
         }
@@ -466,9 +469,10 @@ public class GameController {
         Player player = facade.getCurrentPlayer();
         Score score = player != null ? player.getScoreDetails() : null;
         int baseScore = score != null ? Math.max(0, score.calculateScore()) : 0;
-        int difficultyMultiplier = resolveDifficultyMultiplier(difficulty);
-        int hintPenaltyPer = 10;
-        int finalScore = Math.max(0, baseScore * difficultyMultiplier - totalHintsUsed * hintPenaltyPer);
+        ScoringPolicy policy = facade.getScoringPolicy();
+        int difficultyMultiplier = policy.certificateMultiplier(difficulty);
+        int hintPenaltyPer = policy.certificateHintPenalty(difficulty);
+        int finalScore = policy.certificateScore(difficulty, baseScore, totalHintsUsed);
         if (score != null) {
             score.setHintsUsed(totalHintsUsed);
         }
@@ -651,18 +655,4 @@ public class GameController {
         int used = Math.max(0, puzzle.getHintsUsed());
         return used < maxHints;
     }
-
-        /** Difficulty multiplier: EASY=1, MEDIUM=2, HARD=3. */
-    private int resolveDifficultyMultiplier(Settings.Difficulty difficulty) {
-        Settings.Difficulty resolved = difficulty == null ? Settings.Difficulty.EASY : difficulty;
-        switch (resolved) {
-            case HARD:
-                return 3;
-            case MEDIUM:
-                return 2;
-            case EASY:
-            default:
-                return 1;
-        }
-    }
 }
\ No newline at end of file
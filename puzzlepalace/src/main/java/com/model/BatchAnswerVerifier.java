@@ -0,0 +1,174 @@
+package com.model;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Checks many numeric answers against math puzzle equations at once, for
+ * bulk grading, replaying answer logs and anti-cheat checks.
+ *
+ * The verifier holds a table of equations, compiled once; an equation's id
+ * is its index in the list it was created from. A batch is given in columns:
+ * {@code equationIds[i]} and {@code answers[i]} describe row {@code i}. The
+ * answer is bound to {@code x}, as in
+ * {@link MathPuzzleEvaluateSolution#evaluateSolution(String, String)}, and
+ * row {@code i} of the result is set when the equation holds. Rows whose
+ * equation id is unknown, whose equation did not compile, or whose equation
+ * uses a variable other than {@code x} are never set.
+ *
+ * Rows are split into ranges evaluated on a {@link ForkJoinPool}. Each range
+ * covers whole 64-bit words of the result, so tasks write disjoint words and
+ * need no locking, and evaluation creates no strings or boxed values.
+ */
+public final class BatchAnswerVerifier {
+
+    /** Rows below this count are checked on the calling thread. */
+    static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+
+    private final CompiledEquation[] equations;
+    private final ForkJoinPool pool;
+    private final int stackSize;
+
+    /**
+     * Create a verifier for {@code equations} that runs on the common pool.
+     */
+    public BatchAnswerVerifier(List<String> equations) {
+        this(equations, ForkJoinPool.commonPool());
+    }
+
+    public BatchAnswerVerifier(List<String> equations, ForkJoinPool pool) {
+        this.pool = pool;
+        this.equations = new CompiledEquation[equations.size()];
+        int stack = 1;
+        for (int id = 0; id < this.equations.length; id++) {
+            CompiledEquation compiled = compileForX(equations.get(id));
+            this.equations[id] = compiled;
+            if (compiled != null) {
+                stack = Math.max(stack, compiled.getStackSize());
+            }
+        }
+        this.stackSize = stack;
+    }
+
+    /**
+     * Returns the compiled equation if it uses no variable other than x, or null.
+     */
+    private static CompiledEquation compileForX(String equation) {
+        if (equation == null || equation.isBlank()) {
+            return null;
+        }
+        try {
+            CompiledEquation compiled = CompiledEquation.of(equation);
+            for (int slot = 0; slot < compiled.getVariableCount(); slot++) {
+                if (!"x".equals(compiled.getVariable(slot))) {
+                    return null;
+                }
+            }
+            return compiled;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** Return the number of equations in the table. */
+    public int getEquationCount() {
+        return equations.length;
+    }
+
+    /** Return true if an equation id refers to an equation answers can be checked against. */
+    public boolean isCheckable(int equationId) {
+        return equationId >= 0 && equationId < equations.length && equations[equationId] != null;
+    }
+
+    /**
+     * Check a batch of answers.
+     *
+     * @param equationIds the equation of each row
+     * @param answers the answer given in each row
+     * @return the rows whose answer satisfies their equation
+     * @throws IllegalArgumentException if the columns differ in length
+     */
+    public BitSet verify(int[] equationIds, double[] answers) {
+        if (equationIds.length != answers.length) {
+            throw new IllegalArgumentException("equationIds and answers differ in length: "
+                    + equationIds.length + " and " + answers.length);
+        }
+        long[] words = new long[(answers.length + 63) >>> 6];
+        VerifyTask task = new VerifyTask(equationIds, answers, words, 0, answers.length);
+        if (answers.length <= SEQUENTIAL_THRESHOLD) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Check a batch of answers into a caller-provided array.
+     *
+     * @param equationIds the equation of each row
+     * @param answers the answer given in each row
+     * @param results receives whether each row's answer satisfies its equation
+     * @throws IllegalArgumentException if the columns differ in length
+     */
+    public void verify(int[] equationIds, double[] answers, boolean[] results) {
+        if (equationIds.length != answers.length || results.length < answers.length) {
+            throw new IllegalArgumentException("columns differ in length");
+        }
+        BitSet satisfied = verify(equationIds, answers);
+        for (int row = 0; row < answers.length; row++) {
+            results[row] = satisfied.get(row);
+        }
+    }
+
+    private final class VerifyTask extends RecursiveAction {
+        private final int[] equationIds;
+        private final double[] answers;
+        private final long[] words;
+        private final int from;
+        private final int to;
+
+        VerifyTask(int[] equationIds, double[] answers, long[] words, int from, int to) {
+            this.equationIds = equationIds;
+            this.answers = answers;
+            this.words = words;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                verifyRange();
+                return;
+            }
+            // Split on a word boundary so the halves never write the same word.
+            int middle = ((from + (to - from) / 2) + 63) & ~63;
+            invokeAll(new VerifyTask(equationIds, answers, words, from, middle),
+                    new VerifyTask(equationIds, answers, words, middle, to));
+        }
+
+        private void verifyRange() {
+            double[] stack = new double[stackSize];
+            double[] values = new double[1];
+            for (int row = from; row < to; row++) {
+                int id = equationIds[row];
+                if (id < 0 || id >= equations.length) {
+                    continue;
+                }
+                CompiledEquation equation = equations[id];
+                if (equation == null) {
+                    continue;
+                }
+                values[0] = answers[row];
+                double left = equation.evaluateLeft(values, stack);
+                double right = equation.evaluateRight(values, stack);
+                if (Math.abs(left - right) < CompiledEquation.TOLERANCE) {
+                    words[row >>> 6] |= 1L << row;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.model;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Passes decoded characters through to a parser and remembers the byte
+ * offset in the file at which each recently read chunk starts, so a
+ * character position reported by the parser can be turned into the byte
+ * offset of that character.
+ *
+ * Only chunks at or after the last position passed to {@link #forget(long)}
+ * are kept, so memory is bounded by the parser's look-ahead. A surrogate
+ * pair is never split between chunks.
+ */
+class ByteOffsetReader extends FilterReader {
+
+    private final Charset charset;
+    private final boolean singleByte;
+    private final boolean utf8;
+    private final Deque<Chunk> chunks = new ArrayDeque<>();
+    /** Characters handed to the reader's caller so far. */
+    private long charsRead;
+    /** Bytes taken by the characters of every chunk so far. */
+    private long bytesRead;
+    /** A high surrogate held back from the last chunk so its pair stays whole. */
+    private char carried;
+
+    /**
+     * Creates a reader over characters decoded from a file.
+     *
+     * @param in      reader decoding the file from its first byte
+     * @param charset charset the file is decoded with
+     */
+    ByteOffsetReader(Reader in, Charset charset) {
+        super(in);
+        this.charset = charset;
+        this.singleByte = charset.equals(StandardCharsets.US_ASCII) || charset.equals(StandardCharsets.ISO_8859_1);
+        this.utf8 = charset.equals(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int read() throws IOException {
+        char[] one = new char[1];
+        return read(one, 0, 1) <= 0 ? -1 : one[0];
+    }
+
+    @Override
+    public int read(char[] buffer, int off, int len) throws IOException {
+        int n = in.read(buffer, off, len);
+        if (n > 0) {
+            remember(buffer, off, n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        char[] skipped = new char[(int) Math.min(n, 8192)];
+        int read = read(skipped, 0, skipped.length);
+        return Math.max(read, 0);
+    }
+
+    private void remember(char[] buffer, int off, int n) {
+        char[] text;
+        long start;
+        if (carried != 0) {
+            text = new char[n + 1];
+            text[0] = carried;
+            System.arraycopy(buffer, off, text, 1, n);
+            start = charsRead - 1;
+        } else {
+            text = Arrays.copyOfRange(buffer, off, off + n);
+            start = charsRead;
+        }
+        int kept = text.length;
+        carried = 0;
+        if (Character.isHighSurrogate(text[kept - 1])) {
+            carried = text[--kept];
+        }
+        chunks.addLast(new Chunk(start, bytesRead, text, kept));
+        bytesRead += encodedLength(text, kept);
+        charsRead += n;
+    }
+
+    /**
+     * Returns the byte offset of the character at a position the parser
+     * reported, which must not be before the last forgotten position.
+     *
+     * @param position character position from the start of the file
+     * @return byte offset of that character from the start of the file
+     */
+    long byteOffsetOf(long position) {
+        for (Chunk chunk : chunks) {
+            if (position < chunk.startChar + chunk.length) {
+                int prefix = (int) Math.max(0, position - chunk.startChar);
+                return chunk.startByte + encodedLength(chunk.text, prefix);
+            }
+        }
+        return bytesRead;
+    }
+
+    /**
+     * Drops the chunks that end before a position; the parser never reports
+     * a position behind the token it is on.
+     *
+     * @param position character position of the parser's current token
+     */
+    void forget(long position) {
+        while (chunks.size() > 1 && chunks.peekFirst().startChar + chunks.peekFirst().length <= position) {
+            chunks.removeFirst();
+        }
+    }
+
+    private int encodedLength(char[] text, int count) {
+        if (singleByte) {
+            return count;
+        }
+        if (utf8) {
+            int bytes = 0;
+            for (int i = 0; i < count; i++) {
+                char c = text[i];
+                if (c < 0x80) {
+                    bytes++;
+                } else if (c < 0x800) {
+                    bytes += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(text[i + 1])) {
+                    bytes += 4;
+                    i++;
+                } else {
+                    bytes += 3;
+                }
+            }
+            return bytes;
+        }
+        return charset.encode(CharBuffer.wrap(text, 0, count)).remaining();
+    }
+
+    private static final class Chunk {
+        final long startChar;
+        final long startByte;
+        final char[] text;
+        final int length;
+
+        Chunk(long startChar, long startByte, char[] text, int length) {
+            this.startChar = startChar;
+            this.startByte = startByte;
+            this.text = text;
+            this.length = length;
+        }
+    }
+}
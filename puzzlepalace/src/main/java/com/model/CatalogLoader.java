@@ -0,0 +1,660 @@
+package com.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+/**
+ * This reads and writes {@link PuzzleCatalog} content files such as
+ * {@code json/rooms.json}.
+ *
+ * A content file is a JSON array of rooms. Each room has a {@code roomID},
+ * {@code name}, {@code description}, {@code difficulty},
+ * {@code estimatedTimeMinutes}, {@code exits} and a list of {@code puzzles};
+ * the difficulty must name a {@link Settings.Difficulty}, such as
+ * {@code easy}, and a room without one rejects the file;
+ * each puzzle has a {@code puzzleId}, {@code type}, {@code description},
+ * {@code answer} and {@code hints.availableHints}. A {@code MathPuzzle} has a
+ * numeric answer and may add an {@code equation} (shown after the
+ * description) and an {@code answerHint} (given out as its last hint); every
+ * other type is answered with text. Per-player fields such as {@code status}
+ * and {@code hintsUsed} are ignored.
+ *
+ * Equations are solved with {@link EquationSolver}, in parallel across the
+ * file. The solution becomes the puzzle's answer when none is given, and a
+ * given answer must satisfy the equation. A file with an equation that has
+ * no solution or several is rejected.
+ *
+ * A text puzzle may encode its logic in {@code statements}: the
+ * {@code candidates}, how many statements are {@code true}, and the
+ * {@code claims}, each naming a {@code speaker}, what it {@code says}
+ * ({@code is-answer}, {@code not-answer}, {@code truthful} or
+ * {@code lying}) and who it is {@code about}. The statements are solved with
+ * {@link TruthPuzzle}; they must single out exactly one candidate, which is
+ * the answer, and a puzzle without hints is given the elimination steps.
+ *
+ * The first load of a file compiles it into a compact binary cache kept next
+ * to it ({@code rooms.json.bin}). Later loads read the cache instead of
+ * parsing the JSON as long as the source file's size and CRC32 still match
+ * the ones recorded in the cache, so an edit is noticed even when it keeps
+ * the size and lands within the file system's timestamp precision.
+ */
+public final class CatalogLoader {
+
+    static final String CACHE_SUFFIX = ".bin";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int CACHE_MAGIC = 0x50504331;
+    private static final int CACHE_VERSION = 5;
+    private static final String MATH_TYPE = "MathPuzzle";
+    private static final String TEXT_TYPE = "WordPuzzle";
+
+    private CatalogLoader() {
+    }
+
+    /**
+     * This loads a catalog from a content file, reading its binary cache when
+     * the cache is current and refreshing the cache otherwise.
+     *
+     * @param filePath the path of the JSON content file
+     * @return the catalog, or null if the file is missing or invalid
+     */
+    public static PuzzleCatalog load(String filePath) {
+        if (filePath == null || filePath.isBlank()) {
+            return null;
+        }
+        Path source = Paths.get(filePath);
+        byte[] content;
+        try {
+            content = Files.readAllBytes(source);
+        } catch (IOException e) {
+            System.out.println("CatalogLoader: cannot read " + filePath + ": " + e.getMessage());
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        long checksum = crc.getValue();
+
+        Path cache = cachePathFor(source);
+        PuzzleCatalog cached = readCache(cache, content.length, checksum);
+        if (cached != null) {
+            return cached;
+        }
+
+        PuzzleCatalog parsed;
+        try (Reader reader = new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8)) {
+            parsed = parse(reader);
+        } catch (IOException | ParseException | IllegalArgumentException e) {
+            System.out.println("CatalogLoader: invalid catalog " + filePath + ": " + e.getMessage());
+            return null;
+        }
+        writeCache(parsed, cache, content.length, checksum);
+        return parsed;
+    }
+
+    /**
+     * This loads a catalog bundled with the game as a resource next to this class.
+     *
+     * @param name the resource name
+     * @return the catalog
+     * @throws IllegalStateException if the resource is missing or invalid
+     */
+    static PuzzleCatalog loadResource(String name) {
+        try (InputStream in = CatalogLoader.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing catalog resource " + name);
+            }
+            return parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException | ParseException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid catalog resource " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * This parses catalog JSON.
+     *
+     * @param reader the JSON to read
+     * @return the catalog
+     * @throws IllegalArgumentException if a room or puzzle is incomplete or a puzzle ID repeats
+     */
+    public static PuzzleCatalog parse(Reader reader) throws IOException, ParseException {
+        Object root = new JSONParser().parse(reader);
+        if (!(root instanceof JSONArray)) {
+            throw new IllegalArgumentException("expected an array of rooms");
+        }
+        Map<String, EquationSolver.Solution> solutions = EquationSolver.solveAll(equationsIn((JSONArray) root));
+        Map<Settings.Difficulty, List<RoomDefinition>> rooms = new EnumMap<>(Settings.Difficulty.class);
+        Set<Integer> puzzleIds = new HashSet<>();
+        for (Object element : (JSONArray) root) {
+            if (!(element instanceof JSONObject)) {
+                throw new IllegalArgumentException("expected a room object");
+            }
+            RoomDefinition room = parseRoom((JSONObject) element, puzzleIds, solutions);
+            rooms.computeIfAbsent(room.getDifficulty(), d -> new ArrayList<>()).add(room);
+        }
+        return new PuzzleCatalog(rooms);
+    }
+
+    /**
+     * This collects the equations of every math puzzle so they can be solved together.
+     */
+    private static List<String> equationsIn(JSONArray rooms) {
+        List<String> equations = new ArrayList<>();
+        for (Object room : rooms) {
+            Object puzzles = room instanceof JSONObject ? ((JSONObject) room).get("puzzles") : null;
+            if (!(puzzles instanceof JSONArray)) {
+                continue;
+            }
+            for (Object puzzle : (JSONArray) puzzles) {
+                if (puzzle instanceof JSONObject && MATH_TYPE.equals(((JSONObject) puzzle).get("type"))) {
+                    String equation = equationOf((JSONObject) puzzle);
+                    if (equation != null) {
+                        equations.add(equation);
+                    }
+                }
+            }
+        }
+        return equations;
+    }
+
+    private static String equationOf(JSONObject puzzle) {
+        Object equation = puzzle.get("equation");
+        return equation == null || equation.toString().isBlank() ? null : equation.toString().trim();
+    }
+
+    private static RoomDefinition parseRoom(JSONObject jo, Set<Integer> puzzleIds,
+            Map<String, EquationSolver.Solution> solutions) {
+        String roomId = requireString(jo, "roomID", "room");
+        List<PuzzleDefinition> puzzles = new ArrayList<>();
+        Object puzzleArray = jo.get("puzzles");
+        if (puzzleArray instanceof JSONArray) {
+            for (Object element : (JSONArray) puzzleArray) {
+                if (!(element instanceof JSONObject)) {
+                    throw new IllegalArgumentException("room " + roomId + ": expected a puzzle object");
+                }
+                PuzzleDefinition puzzle = parsePuzzle((JSONObject) element, roomId, solutions);
+                if (!puzzleIds.add(puzzle.getPuzzleId())) {
+                    throw new IllegalArgumentException("room " + roomId + ": duplicate puzzle " + puzzle.getPuzzleId());
+                }
+                puzzles.add(puzzle);
+            }
+        }
+        Object difficultyName = jo.get("difficulty");
+        if (difficultyName == null) {
+            throw new IllegalArgumentException("room " + roomId + ": missing difficulty");
+        }
+        Settings.Difficulty difficulty = Settings.Difficulty.find(difficultyName.toString());
+        if (difficulty == null) {
+            throw new IllegalArgumentException("room " + roomId + ": unknown difficulty \"" + difficultyName + "\"");
+        }
+        return new RoomDefinition(roomId, stringOrEmpty(jo.get("name")), stringOrEmpty(jo.get("description")),
+                difficulty,
+                intOrZero(jo.get("estimatedTimeMinutes")), puzzles, strings(jo.get("exits")));
+    }
+
+    private static PuzzleDefinition parsePuzzle(JSONObject jo, String roomId,
+            Map<String, EquationSolver.Solution> solutions) {
+        Object id = jo.get("puzzleId");
+        if (!(id instanceof Number)) {
+            throw new IllegalArgumentException("room " + roomId + ": puzzle without a numeric puzzleId");
+        }
+        int puzzleId = ((Number) id).intValue();
+        String where = "puzzle " + puzzleId;
+        String prompt = requireString(jo, "description", where);
+        Object hintsObject = jo.get("hints");
+        List<String> hints = hintsObject instanceof JSONObject
+                ? strings(((JSONObject) hintsObject).get("availableHints"))
+                : strings(hintsObject);
+        Object answer = jo.get("answer");
+
+        if (MATH_TYPE.equals(jo.get("type"))) {
+            Object answerHint = jo.get("answerHint");
+            if (answerHint != null && !answerHint.toString().isBlank()) {
+                hints.add(answerHint.toString().trim());
+            }
+            String equation = equationOf(jo);
+            if (equation == null) {
+                return PuzzleDefinition.math(puzzleId, prompt, numericAnswer(answer, where), hints);
+            }
+            EquationSolver.Solution solution = solutions.get(equation);
+            if (solution == null || !solution.isUnique()) {
+                throw new IllegalArgumentException(where + ": equation " + equation + " "
+                        + (solution == null ? "was not solved" : solution.getProblem()));
+            }
+            double value = solution.getValue();
+            if (answer != null) {
+                value = numericAnswer(answer, where);
+                if (!CompiledEquation.of(equation).isSatisfiedBy(new double[] {value})) {
+                    throw new IllegalArgumentException(where + ": answer " + answer + " does not satisfy " + equation);
+                }
+            }
+            return PuzzleDefinition.equation(puzzleId, prompt, equation, value, hints);
+        }
+        TruthPuzzle statements = statementsOf(jo.get("statements"), where);
+        if (statements != null) {
+            if (!statements.isUnique()) {
+                List<String> possible = statements.getPossibleAnswers();
+                throw new IllegalArgumentException(where + ": statements allow "
+                        + (possible.isEmpty() ? "no answer" : "several answers " + possible));
+            }
+            String solved = statements.getAnswer();
+            if (answer != null && !answer.toString().trim().equalsIgnoreCase(solved)) {
+                throw new IllegalArgumentException(where + ": answer " + answer + " is not " + solved
+                        + ", the candidate the statements single out");
+            }
+            return PuzzleDefinition.truth(puzzleId, prompt, statements, answer == null ? solved : answer.toString(),
+                    hints.isEmpty() ? statements.eliminationHints() : hints);
+        }
+        if (answer == null || answer.toString().isBlank()) {
+            throw new IllegalArgumentException(where + ": missing answer");
+        }
+        return PuzzleDefinition.text(puzzleId, prompt, answer.toString(), hints);
+    }
+
+    /**
+     * This reads the {@code statements} of a logic puzzle, or returns null if there are none.
+     */
+    private static TruthPuzzle statementsOf(Object value, String where) {
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof JSONObject)) {
+            throw new IllegalArgumentException(where + ": statements must be an object");
+        }
+        JSONObject jo = (JSONObject) value;
+        List<String> candidates = strings(jo.get("candidates"));
+        Object claims = jo.get("claims");
+        if (!(claims instanceof JSONArray)) {
+            throw new IllegalArgumentException(where + ": statements without claims");
+        }
+        try {
+            List<TruthPuzzle.Statement> parsed = new ArrayList<>();
+            for (Object element : (JSONArray) claims) {
+                JSONObject claim = element instanceof JSONObject ? (JSONObject) element : new JSONObject();
+                int speaker = TruthPuzzle.indexOf(candidates, stringOrEmpty(claim.get("speaker")));
+                int subject = TruthPuzzle.indexOf(candidates, stringOrEmpty(claim.get("about")));
+                TruthPuzzle.Claim says = TruthPuzzle.Claim.fromKey(stringOrEmpty(claim.get("says")));
+                if (speaker < 0 || subject < 0 || says == null) {
+                    throw new IllegalArgumentException("unknown speaker, claim or subject in " + claim);
+                }
+                parsed.add(new TruthPuzzle.Statement(speaker, says, subject));
+            }
+            Object trueCount = jo.get("true");
+            return new TruthPuzzle(candidates, parsed, trueCount instanceof Number ? ((Number) trueCount).intValue() : 1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(where + ": " + e.getMessage());
+        }
+    }
+
+    private static double numericAnswer(Object answer, String where) {
+        if (answer == null) {
+            throw new IllegalArgumentException(where + ": missing answer");
+        }
+        try {
+            return answer instanceof Number ? ((Number) answer).doubleValue()
+                    : Double.parseDouble(answer.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(where + ": answer is not a number");
+        }
+    }
+
+    private static String requireString(JSONObject jo, String key, String where) {
+        Object value = jo.get(key);
+        if (value == null || value.toString().isBlank()) {
+            throw new IllegalArgumentException(where + ": missing " + key);
+        }
+        return value.toString();
+    }
+
+    private static String stringOrEmpty(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static int intOrZero(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
+    private static List<String> strings(Object value) {
+        List<String> list = new ArrayList<>();
+        if (value instanceof JSONArray) {
+            for (Object element : (JSONArray) value) {
+                if (element != null) {
+                    list.add(element.toString());
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * This writes a catalog as JSON content that {@link #load(String)} reads
+     * back into the same definitions. The file is replaced atomically.
+     *
+     * @param catalog the catalog to write
+     * @param filePath the path of the JSON file to write
+     * @return true if the file was written, false if an IO error occurred
+     */
+    public static boolean save(PuzzleCatalog catalog, String filePath) {
+        if (catalog == null || filePath == null || filePath.isBlank()) {
+            return false;
+        }
+        Path target = Paths.get(filePath);
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try {
+            Path parent = target.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                writeJson(catalog, writer);
+                writer.flush();
+                out.getFD().sync();
+            }
+            replace(temp, target);
+        } catch (IOException e) {
+            System.out.println("CatalogLoader: IO error while writing " + filePath + ": " + e.getMessage());
+            deleteQuietly(temp);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * This writes a catalog as indented JSON, one room after another in difficulty order.
+     */
+    static void writeJson(PuzzleCatalog catalog, Writer writer) throws IOException {
+        writer.write("[");
+        boolean firstRoom = true;
+        for (Settings.Difficulty difficulty : Settings.Difficulty.values()) {
+            for (RoomDefinition room : catalog.getRooms(difficulty)) {
+                writer.write(firstRoom ? "\n" : ",\n");
+                firstRoom = false;
+                writer.write("  {\n");
+                writeField(writer, 4, "roomID", room.getRoomId());
+                writeField(writer, 4, "name", room.getName());
+                writeField(writer, 4, "description", room.getDescription());
+                writeField(writer, 4, "difficulty", room.getDifficulty().name().toLowerCase(Locale.ROOT));
+                writeField(writer, 4, "estimatedTimeMinutes", room.getEstimatedTimeMinutes());
+                writer.write("    \"puzzles\": [");
+                boolean firstPuzzle = true;
+                for (PuzzleDefinition puzzle : room.getCandidates()) {
+                    writer.write(firstPuzzle ? "\n" : ",\n");
+                    firstPuzzle = false;
+                    writePuzzle(writer, puzzle);
+                }
+                writer.write(firstPuzzle ? "],\n" : "\n    ],\n");
+                writer.write("    \"exits\": [");
+                List<String> exits = room.getExits();
+                for (int i = 0; i < exits.size(); i++) {
+                    writer.write((i == 0 ? "" : ", ") + quote(exits.get(i)));
+                }
+                writer.write("]\n");
+                writer.write("  }");
+            }
+        }
+        writer.write(firstRoom ? "]\n" : "\n]\n");
+    }
+
+    private static void writePuzzle(Writer writer, PuzzleDefinition puzzle) throws IOException {
+        boolean math = puzzle.getKind() == PuzzleDefinition.Kind.MATH;
+        writer.write("      {\n");
+        writeField(writer, 8, "puzzleId", puzzle.getPuzzleId());
+        writeField(writer, 8, "type", math ? MATH_TYPE : TEXT_TYPE);
+        writeField(writer, 8, "description", puzzle.getDescription());
+        if (puzzle.getEquation() != null) {
+            writeField(writer, 8, "equation", puzzle.getEquation());
+        }
+        double numeric = puzzle.getNumericAnswer();
+        Object answer = !math ? puzzle.getAnswer()
+                : numeric == Math.rint(numeric) && Math.abs(numeric) < 1e15 ? (Object) (long) numeric : numeric;
+        writeField(writer, 8, "answer", answer);
+        if (puzzle.getStatements() != null) {
+            writeStatements(writer, puzzle.getStatements());
+        }
+        writer.write("        \"hints\": { \"availableHints\": [");
+        List<String> hints = puzzle.getHints();
+        for (int i = 0; i < hints.size(); i++) {
+            writer.write(i == 0 ? "\n" : ",\n");
+            writer.write("          " + quote(hints.get(i)));
+        }
+        writer.write(hints.isEmpty() ? "] }\n" : "\n        ] }\n");
+        writer.write("      }");
+    }
+
+    private static void writeStatements(Writer writer, TruthPuzzle statements) throws IOException {
+        List<String> candidates = statements.getCandidates();
+        writer.write("        \"statements\": { \"candidates\": [");
+        for (int i = 0; i < candidates.size(); i++) {
+            writer.write((i == 0 ? "" : ", ") + quote(candidates.get(i)));
+        }
+        writer.write("], \"true\": " + statements.getTrueStatements() + ", \"claims\": [");
+        List<TruthPuzzle.Statement> claims = statements.getStatements();
+        for (int i = 0; i < claims.size(); i++) {
+            TruthPuzzle.Statement claim = claims.get(i);
+            writer.write(i == 0 ? "\n" : ",\n");
+            writer.write("          { \"speaker\": " + quote(candidates.get(claim.getSpeaker()))
+                    + ", \"says\": " + quote(claim.getClaim().getKey())
+                    + ", \"about\": " + quote(candidates.get(claim.getSubject())) + " }");
+        }
+        writer.write(claims.isEmpty() ? "] },\n" : "\n        ] },\n");
+    }
+
+    private static void writeField(Writer writer, int indent, String key, Object value) throws IOException {
+        String json = value instanceof String ? quote((String) value) : String.valueOf(value);
+        writer.write(" ".repeat(indent) + quote(key) + ": " + json + ",\n");
+    }
+
+    /**
+     * This quotes a JSON string, escaping only what JSON requires so that
+     * content files stay readable and editable by hand.
+     */
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * This returns the path of the binary cache kept next to a content file.
+     */
+    static Path cachePathFor(Path source) {
+        return source.resolveSibling(source.getFileName() + CACHE_SUFFIX);
+    }
+
+    /**
+     * This reads a binary cache if it was compiled from a source file of the given size and CRC32.
+     *
+     * @return the cached catalog, or null if the cache is missing, stale or unreadable
+     */
+    private static PuzzleCatalog readCache(Path cache, long sourceLength, long sourceChecksum) {
+        if (!Files.isRegularFile(cache)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cache)))) {
+            if (in.readInt() != CACHE_MAGIC || in.readInt() != CACHE_VERSION
+                    || in.readLong() != sourceLength || in.readLong() != sourceChecksum) {
+                return null;
+            }
+            Map<Settings.Difficulty, List<RoomDefinition>> rooms = new EnumMap<>(Settings.Difficulty.class);
+            Settings.Difficulty[] difficulties = Settings.Difficulty.values();
+            int roomCount = in.readInt();
+            for (int r = 0; r < roomCount; r++) {
+                String roomId = in.readUTF();
+                String name = in.readUTF();
+                String description = in.readUTF();
+                Settings.Difficulty difficulty = difficulties[in.readByte()];
+                int minutes = in.readInt();
+                int puzzleCount = in.readInt();
+                List<PuzzleDefinition> puzzles = new ArrayList<>(puzzleCount);
+                for (int p = 0; p < puzzleCount; p++) {
+                    int puzzleId = in.readInt();
+                    boolean math = in.readBoolean();
+                    String prompt = in.readUTF();
+                    String equation = in.readUTF();
+                    double numeric = in.readDouble();
+                    String answer = in.readUTF();
+                    List<String> hints = readStrings(in);
+                    TruthPuzzle statements = in.readBoolean() ? readStatements(in) : null;
+                    puzzles.add(statements != null ? PuzzleDefinition.truth(puzzleId, prompt, statements, answer, hints)
+                            : !math ? PuzzleDefinition.text(puzzleId, prompt, answer, hints)
+                            : equation.isEmpty() ? PuzzleDefinition.math(puzzleId, prompt, numeric, hints)
+                            : PuzzleDefinition.equation(puzzleId, prompt, equation, numeric, hints));
+                }
+                List<String> exits = readStrings(in);
+                rooms.computeIfAbsent(difficulty, d -> new ArrayList<>())
+                        .add(new RoomDefinition(roomId, name, description, difficulty, minutes, puzzles, exits));
+            }
+            return new PuzzleCatalog(rooms);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("CatalogLoader: ignoring unreadable cache " + cache + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static TruthPuzzle readStatements(DataInputStream in) throws IOException {
+        List<String> candidates = readStrings(in);
+        int trueCount = in.readInt();
+        int count = in.readInt();
+        TruthPuzzle.Claim[] claims = TruthPuzzle.Claim.values();
+        List<TruthPuzzle.Statement> statements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            statements.add(new TruthPuzzle.Statement(in.readByte(), claims[in.readByte()], in.readByte()));
+        }
+        return new TruthPuzzle(candidates, statements, trueCount);
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(in.readUTF());
+        }
+        return list;
+    }
+
+    /**
+     * This compiles a catalog into the binary cache. A cache that cannot be
+     * written is only reported; the next load parses the JSON again.
+     */
+    private static void writeCache(PuzzleCatalog catalog, Path cache, long sourceLength, long sourceChecksum) {
+        Path temp = cache.resolveSibling(cache.getFileName() + TEMP_SUFFIX);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(CACHE_MAGIC);
+                out.writeInt(CACHE_VERSION);
+                out.writeLong(sourceLength);
+                out.writeLong(sourceChecksum);
+                List<RoomDefinition> rooms = new ArrayList<>();
+                for (Settings.Difficulty difficulty : Settings.Difficulty.values()) {
+                    rooms.addAll(catalog.getRooms(difficulty));
+                }
+                out.writeInt(rooms.size());
+                for (RoomDefinition room : rooms) {
+                    out.writeUTF(room.getRoomId());
+                    out.writeUTF(room.getName());
+                    out.writeUTF(room.getDescription());
+                    out.writeByte(room.getDifficulty().ordinal());
+                    out.writeInt(room.getEstimatedTimeMinutes());
+                    List<PuzzleDefinition> puzzles = room.getCandidates();
+                    out.writeInt(puzzles.size());
+                    for (PuzzleDefinition puzzle : puzzles) {
+                        out.writeInt(puzzle.getPuzzleId());
+                        out.writeBoolean(puzzle.getKind() == PuzzleDefinition.Kind.MATH);
+                        out.writeUTF(puzzle.getDescription());
+                        out.writeUTF(puzzle.getEquation() == null ? "" : puzzle.getEquation());
+                        out.writeDouble(puzzle.getNumericAnswer());
+                        out.writeUTF(puzzle.getAnswer() == null ? "" : puzzle.getAnswer());
+                        writeStrings(out, puzzle.getHints());
+                        TruthPuzzle statements = puzzle.getStatements();
+                        out.writeBoolean(statements != null);
+                        if (statements != null) {
+                            writeStatements(out, statements);
+                        }
+                    }
+                    writeStrings(out, room.getExits());
+                }
+            }
+            replace(temp, cache);
+        } catch (IOException e) {
+            System.out.println("CatalogLoader: could not write cache " + cache + ": " + e.getMessage());
+            deleteQuietly(temp);
+        }
+    }
+
+    private static void writeStatements(DataOutputStream out, TruthPuzzle statements) throws IOException {
+        writeStrings(out, statements.getCandidates());
+        out.writeInt(statements.getTrueStatements());
+        out.writeInt(statements.getStatements().size());
+        for (TruthPuzzle.Statement statement : statements.getStatements()) {
+            out.writeByte(statement.getSpeaker());
+            out.writeByte(statement.getClaim().ordinal());
+            out.writeByte(statement.getSubject());
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String s : strings) {
+            out.writeUTF(s);
+        }
+    }
+
+    private static void replace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.model;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Reloads a catalog content file whenever it changes on disk.
+ *
+ * The watcher registers the file's directory with a {@link WatchService}
+ * and reloads on its own daemon thread, so game threads never wait for a
+ * reload. Changes are collected until the directory has been quiet for
+ * {@link #QUIET_PERIOD_MILLIS}, so an editor's several writes cause one
+ * reload. The file is read with {@link CatalogLoader}, and a catalog that
+ * does not load or holds no puzzles is rejected and the previous one is
+ * kept. An accepted catalog is handed to the publisher, typically
+ * {@link EscapeRoomManager#publishCatalog(PuzzleCatalog)} and
+ * {@link SessionRegistry#setCatalog(PuzzleCatalog)}, which swap it in for
+ * new games while sessions keep the rooms and puzzles they already hold.
+ *
+ * Reload counts and timings are kept for monitoring.
+ */
+public class CatalogWatcher implements AutoCloseable {
+
+    /** How long the directory must be quiet before a change is reloaded. */
+    static final long QUIET_PERIOD_MILLIS = 100;
+
+    private final Path file;
+    private final Consumer<PuzzleCatalog> publisher;
+    private final Object reloadLock = new Object();
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong failedReloads = new AtomicLong();
+    private final AtomicLong totalReloadNanos = new AtomicLong();
+    private volatile long lastReloadNanos;
+    private volatile long lastReloadAtMillis;
+    private volatile String lastError;
+    private volatile boolean running;
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * Create a watcher for {@code filePath} that hands each valid reload to
+     * {@code publisher}. Call {@link #start()} to begin watching.
+     */
+    public CatalogWatcher(String filePath, Consumer<PuzzleCatalog> publisher) {
+        this.file = Paths.get(filePath).toAbsolutePath();
+        this.publisher = publisher;
+    }
+
+    /**
+     * Start watching the file's directory on a background thread.
+     *
+     * @return true if watching started, false if the directory cannot be watched
+     */
+    public synchronized boolean start() {
+        if (running) {
+            return true;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            System.out.println("CatalogWatcher: cannot watch " + file + ": " + e.getMessage());
+            closeWatchService();
+            return false;
+        }
+        running = true;
+        WatchService service = watchService;
+        thread = new Thread(() -> watch(service), "catalog-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    private void watch(WatchService service) {
+        try {
+            while (running) {
+                WatchKey key = service.take();
+                boolean changed = concernsFile(key);
+                // Let a burst of writes settle so it is reloaded once.
+                while ((key = service.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= concernsFile(key);
+                }
+                if (changed && running) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // close() was called.
+        }
+    }
+
+    private boolean concernsFile(WatchKey key) {
+        boolean concerns = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || file.getFileName().equals(event.context())) {
+                concerns = true;
+            }
+        }
+        key.reset();
+        return concerns;
+    }
+
+    /**
+     * Load the file now on the calling thread and publish it if it is valid.
+     *
+     * @return true if a new catalog was published
+     */
+    public boolean reload() {
+        synchronized (reloadLock) {
+            return reloadLocked();
+        }
+    }
+
+    private boolean reloadLocked() {
+        long start = System.nanoTime();
+        PuzzleCatalog loaded = CatalogLoader.load(file.toString());
+        String problem = loaded == null ? "catalog could not be loaded"
+                : loaded.getPuzzleCount() == 0 ? "catalog holds no puzzles" : null;
+        if (problem == null) {
+            publisher.accept(loaded);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        lastReloadNanos = elapsed;
+        lastReloadAtMillis = System.currentTimeMillis();
+        totalReloadNanos.addAndGet(elapsed);
+        if (problem != null) {
+            failedReloads.incrementAndGet();
+            lastError = problem;
+            System.out.println("CatalogWatcher: kept previous catalog, " + problem + " from " + file);
+            return false;
+        }
+        reloads.incrementAndGet();
+        lastError = null;
+        System.out.printf("CatalogWatcher: reloaded %d puzzles from %s in %.2f ms%n",
+                loaded.getPuzzleCount(), file, elapsed / 1_000_000.0);
+        return true;
+    }
+
+    /**
+     * Stop watching. A reload already running finishes first.
+     */
+    @Override
+    public void close() {
+        Thread watcher;
+        synchronized (this) {
+            running = false;
+            closeWatchService();
+            watcher = thread;
+            thread = null;
+        }
+        if (watcher != null && watcher != Thread.currentThread()) {
+            try {
+                watcher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void closeWatchService() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+            }
+            watchService = null;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Return the number of catalogs published. */
+    public long getReloadCount() {
+        return reloads.get();
+    }
+
+    /** Return the number of reloads rejected because the file was invalid. */
+    public long getFailedReloadCount() {
+        return failedReloads.get();
+    }
+
+    /** Return how long the last reload attempt took, including publishing. */
+    public long getLastReloadNanos() {
+        return lastReloadNanos;
+    }
+
+    /** Return the time spent in all reload attempts. */
+    public long getTotalReloadNanos() {
+        return totalReloadNanos.get();
+    }
+
+    /** Return when the last reload attempt finished, or 0 if there was none. */
+    public long getLastReloadAtMillis() {
+        return lastReloadAtMillis;
+    }
+
+    /** Return why the last reload was rejected, or null if it was published. */
+    public String getLastError() {
+        return lastError;
+    }
+}
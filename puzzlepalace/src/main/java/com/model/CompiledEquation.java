@@ -0,0 +1,456 @@
+package com.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An equation of the form "expression = expression" compiled once into flat
+ * postfix programs for its two sides.
+ *
+ * Compiling strips whitespace, splits on {@code =} and parses each side with
+ * the grammar math puzzles have always used: {@code +}, {@code -},
+ * {@code *}, {@code /}, right-associative {@code ^}, unary signs,
+ * parentheses, decimal numbers and variables. Each variable gets a slot, and
+ * evaluation reads variable values from a {@code double[]} indexed by slot,
+ * so checking an answer neither re-parses the text nor boxes values. The
+ * evaluation methods do not allocate; the ones without a {@code stack}
+ * argument use a per-thread scratch stack.
+ *
+ * Instances are immutable and safe to share. {@link #of(String)} keeps the
+ * compiled form of each equation text so every puzzle compiles once.
+ */
+public final class CompiledEquation {
+
+    /** The message of the exception thrown for text without exactly one {@code =}. */
+    public static final String FORMAT_ERROR = "Invalid equation format — must contain '='.";
+
+    /** Sides closer than this are considered equal. */
+    public static final double TOLERANCE = 1e-6;
+
+    private static final int MAX_CACHED = 4096;
+    private static final Map<String, CompiledEquation> CACHE = new ConcurrentHashMap<>();
+    private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[16]);
+
+    private static final int PUSH_CONSTANT = 0;
+    private static final int PUSH_VARIABLE = 1;
+    private static final int ADD = 2;
+    private static final int SUBTRACT = 3;
+    private static final int MULTIPLY = 4;
+    private static final int DIVIDE = 5;
+    private static final int POWER = 6;
+    private static final int NEGATE = 7;
+    private static final int OPERAND_SHIFT = 3;
+    private static final int OPCODE_MASK = (1 << OPERAND_SHIFT) - 1;
+
+    private final String equation;
+    private final String[] variables;
+    private final double[] constants;
+    /** Postfix instructions: an opcode in the low bits, a constant or slot index above them. */
+    private final int[] code;
+    /** Index in {@link #code} where the right side's program starts. */
+    private final int rightStart;
+    private final int maxDepth;
+
+    private CompiledEquation(String equation, String[] variables, double[] constants, int[] code, int rightStart,
+            int maxDepth) {
+        this.equation = equation;
+        this.variables = variables;
+        this.constants = constants;
+        this.code = code;
+        this.rightStart = rightStart;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Compile an equation.
+     *
+     * @param equation the equation text
+     * @return the compiled equation
+     * @throws IllegalArgumentException if the text does not have exactly one
+     *         {@code =} (with the message {@link #FORMAT_ERROR}) or a side
+     *         cannot be parsed
+     */
+    public static CompiledEquation compile(String equation) {
+        if (equation == null) {
+            throw new IllegalArgumentException("No equation provided.");
+        }
+        String[] sides = equation.split("=");
+        if (sides.length != 2) {
+            throw new IllegalArgumentException(FORMAT_ERROR);
+        }
+        Compiler compiler = new Compiler();
+        compiler.compileSide(sides[0]);
+        int rightStart = compiler.codeLength;
+        int leftDepth = compiler.maxDepth;
+        compiler.depth = 0;
+        compiler.maxDepth = 0;
+        compiler.compileSide(sides[1]);
+        return new CompiledEquation(equation, compiler.variables.toArray(new String[0]),
+                Arrays.copyOf(compiler.constants, compiler.constantCount),
+                Arrays.copyOf(compiler.code, compiler.codeLength), rightStart,
+                Math.max(leftDepth, compiler.maxDepth));
+    }
+
+    /**
+     * Return the compiled form of an equation, compiling it on first use.
+     *
+     * @throws IllegalArgumentException if the equation cannot be compiled
+     */
+    public static CompiledEquation of(String equation) {
+        if (equation == null) {
+            throw new IllegalArgumentException("No equation provided.");
+        }
+        CompiledEquation compiled = CACHE.get(equation);
+        if (compiled == null) {
+            compiled = compile(equation);
+            if (CACHE.size() >= MAX_CACHED) {
+                CACHE.clear();
+            }
+            CACHE.putIfAbsent(equation, compiled);
+        }
+        return compiled;
+    }
+
+    public String getEquation() {
+        return equation;
+    }
+
+    /** Return the number of variable slots. */
+    public int getVariableCount() {
+        return variables.length;
+    }
+
+    /** Return the name of the variable in a slot. */
+    public String getVariable(int slot) {
+        return variables[slot];
+    }
+
+    /** Return the slot of a variable, or -1 if the equation does not use it. */
+    public int slotOf(String name) {
+        for (int i = 0; i < variables.length; i++) {
+            if (variables[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Return the number of stack entries evaluation needs. */
+    public int getStackSize() {
+        return maxDepth;
+    }
+
+    public double evaluateLeft(double[] values) {
+        return run(0, rightStart, values, scratch());
+    }
+
+    public double evaluateRight(double[] values) {
+        return run(rightStart, code.length, values, scratch());
+    }
+
+    /**
+     * Evaluate the left side with a caller-provided stack of at least
+     * {@link #getStackSize()} entries.
+     */
+    public double evaluateLeft(double[] values, double[] stack) {
+        return run(0, rightStart, values, stack);
+    }
+
+    /**
+     * Evaluate the right side with a caller-provided stack of at least
+     * {@link #getStackSize()} entries.
+     */
+    public double evaluateRight(double[] values, double[] stack) {
+        return run(rightStart, code.length, values, stack);
+    }
+
+    /**
+     * Return true if the two sides agree within {@link #TOLERANCE} for the
+     * given slot values.
+     */
+    public boolean isSatisfiedBy(double[] values) {
+        double[] stack = scratch();
+        return Math.abs(run(0, rightStart, values, stack) - run(rightStart, code.length, values, stack)) < TOLERANCE;
+    }
+
+    /**
+     * Return {@code {a, b}} such that left minus right equals {@code a * v + b}
+     * for the equation's only variable {@code v}, or null if the equation has
+     * more than one variable or is not linear in it. The coefficients are
+     * derived from the program symbolically, not by sampling.
+     */
+    double[] linearResidual() {
+        if (variables.length > 1) {
+            return null;
+        }
+        double[] left = linearForm(0, rightStart);
+        double[] right = left == null ? null : linearForm(rightStart, code.length);
+        if (right == null) {
+            return null;
+        }
+        return new double[] {left[0] - right[0], left[1] - right[1]};
+    }
+
+    /**
+     * Runs a side's program over linear forms {@code a * v + b}, returning
+     * {@code {a, b}}, or null as soon as an operation leaves that form.
+     */
+    private double[] linearForm(int from, int to) {
+        double[] a = new double[maxDepth];
+        double[] b = new double[maxDepth];
+        int top = -1;
+        for (int pc = from; pc < to; pc++) {
+            int instruction = code[pc];
+            int opcode = instruction & OPCODE_MASK;
+            if (opcode == PUSH_CONSTANT) {
+                top++;
+                a[top] = 0;
+                b[top] = constants[instruction >>> OPERAND_SHIFT];
+                continue;
+            }
+            if (opcode == PUSH_VARIABLE) {
+                top++;
+                a[top] = 1;
+                b[top] = 0;
+                continue;
+            }
+            if (opcode == NEGATE) {
+                a[top] = -a[top];
+                b[top] = -b[top];
+                continue;
+            }
+            double a1 = a[top - 1];
+            double b1 = b[top - 1];
+            double a2 = a[top];
+            double b2 = b[top];
+            top--;
+            switch (opcode) {
+                case ADD:
+                    a[top] = a1 + a2;
+                    b[top] = b1 + b2;
+                    break;
+                case SUBTRACT:
+                    a[top] = a1 - a2;
+                    b[top] = b1 - b2;
+                    break;
+                case MULTIPLY:
+                    if (a1 != 0 && a2 != 0) {
+                        return null;
+                    }
+                    a[top] = a1 * b2 + b1 * a2;
+                    b[top] = b1 * b2;
+                    break;
+                case DIVIDE:
+                    if (a2 != 0 || b2 == 0) {
+                        return null;
+                    }
+                    a[top] = a1 / b2;
+                    b[top] = b1 / b2;
+                    break;
+                default:
+                    if (a2 != 0) {
+                        return null;
+                    }
+                    if (a1 == 0) {
+                        a[top] = 0;
+                        b[top] = Math.pow(b1, b2);
+                    } else if (b2 == 0) {
+                        a[top] = 0;
+                        b[top] = 1;
+                    } else if (b2 != 1) {
+                        return null;
+                    }
+                    break;
+            }
+            if (!Double.isFinite(a[top]) || !Double.isFinite(b[top])) {
+                return null;
+            }
+        }
+        return new double[] {a[0], b[0]};
+    }
+
+    private double[] scratch() {
+        double[] stack = SCRATCH.get();
+        if (stack.length < maxDepth) {
+            stack = new double[maxDepth];
+            SCRATCH.set(stack);
+        }
+        return stack;
+    }
+
+    private double run(int from, int to, double[] values, double[] stack) {
+        int top = -1;
+        for (int pc = from; pc < to; pc++) {
+            int instruction = code[pc];
+            switch (instruction & OPCODE_MASK) {
+                case PUSH_CONSTANT:
+                    stack[++top] = constants[instruction >>> OPERAND_SHIFT];
+                    break;
+                case PUSH_VARIABLE:
+                    stack[++top] = values[instruction >>> OPERAND_SHIFT];
+                    break;
+                case ADD:
+                    stack[top - 1] += stack[top];
+                    top--;
+                    break;
+                case SUBTRACT:
+                    stack[top - 1] -= stack[top];
+                    top--;
+                    break;
+                case MULTIPLY:
+                    stack[top - 1] *= stack[top];
+                    top--;
+                    break;
+                case DIVIDE:
+                    stack[top - 1] /= stack[top];
+                    top--;
+                    break;
+                case POWER:
+                    stack[top - 1] = Math.pow(stack[top - 1], stack[top]);
+                    top--;
+                    break;
+                default:
+                    stack[top] = -stack[top];
+                    break;
+            }
+        }
+        return stack[0];
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledEquation{" + equation + ", variables=" + Arrays.toString(variables) + '}';
+    }
+
+    /**
+     * Recursive-descent compiler emitting postfix code. It follows the
+     * original evaluator exactly, including ignoring text after a complete
+     * expression and tolerating a missing closing parenthesis.
+     */
+    private static final class Compiler {
+        private final List<String> variables = new ArrayList<>();
+        private double[] constants = new double[8];
+        private int constantCount;
+        private int[] code = new int[16];
+        private int codeLength;
+        private int depth;
+        private int maxDepth;
+
+        private String input;
+        private int pos;
+        private int ch;
+
+        void compileSide(String side) {
+            input = side.replaceAll("\\s+", "");
+            pos = -1;
+            nextChar();
+            parseExpression();
+        }
+
+        private void nextChar() {
+            ch = (++pos < input.length()) ? input.charAt(pos) : -1;
+        }
+
+        private boolean eat(int charToEat) {
+            if (ch == charToEat) {
+                nextChar();
+                return true;
+            }
+            return false;
+        }
+
+        private void parseExpression() {
+            parseTerm();
+            for (;;) {
+                if (eat('+')) {
+                    parseTerm();
+                    emit(ADD, 0);
+                } else if (eat('-')) {
+                    parseTerm();
+                    emit(SUBTRACT, 0);
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private void parseTerm() {
+            parseFactor();
+            for (;;) {
+                if (eat('*')) {
+                    parseFactor();
+                    emit(MULTIPLY, 0);
+                } else if (eat('/')) {
+                    parseFactor();
+                    emit(DIVIDE, 0);
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private void parseFactor() {
+            if (eat('+')) {
+                parseFactor();
+                return;
+            }
+            if (eat('-')) {
+                parseFactor();
+                emit(NEGATE, 0);
+                return;
+            }
+
+            int startPos = pos;
+            if (eat('(')) {
+                parseExpression();
+                eat(')');
+            } else if ((ch >= '0' && ch <= '9') || ch == '.') {
+                while ((ch >= '0' && ch <= '9') || ch == '.') {
+                    nextChar();
+                }
+                emit(PUSH_CONSTANT, addConstant(Double.parseDouble(input.substring(startPos, pos))));
+            } else if (Character.isLetter(ch)) {
+                while (Character.isLetterOrDigit(ch)) {
+                    nextChar();
+                }
+                String name = input.substring(startPos, pos);
+                int slot = variables.indexOf(name);
+                if (slot < 0) {
+                    slot = variables.size();
+                    variables.add(name);
+                }
+                emit(PUSH_VARIABLE, slot);
+            } else {
+                throw new IllegalArgumentException("Unexpected: " + (char) ch);
+            }
+
+            if (eat('^')) {
+                parseFactor();
+                emit(POWER, 0);
+            }
+        }
+
+        private int addConstant(double value) {
+            if (constantCount == constants.length) {
+                constants = Arrays.copyOf(constants, constantCount * 2);
+            }
+            constants[constantCount] = value;
+            return constantCount++;
+        }
+
+        private void emit(int opcode, int operand) {
+            if (codeLength == code.length) {
+                code = Arrays.copyOf(code, codeLength * 2);
+            }
+            code[codeLength++] = opcode | (operand << OPERAND_SHIFT);
+            if (opcode == PUSH_CONSTANT || opcode == PUSH_VARIABLE) {
+                maxDepth = Math.max(maxDepth, ++depth);
+            } else if (opcode != NEGATE) {
+                depth--;
+            }
+        }
+    }
+}
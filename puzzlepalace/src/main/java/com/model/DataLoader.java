@@ -2,14 +2,34 @@
 
 package com.model;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
+import org.json.simple.parser.ContentHandler;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
@@ -22,96 +42,285 @@ public class DataLoader {
 
     /**
      * This loads all player data from a given JSON file path.
+     * The file is streamed: each player record is built as its tokens arrive
+     * and then released, so memory stays bounded by one record rather than by
+     * the whole file. Any journal written by {@link PlayerStore} next to the
+     * file is replayed on top of the snapshot, so the newest record for each
+     * player wins.
      *
      * @param filePath the path to the JSON file
      * @return a list of players loaded from the file
      */
     public static List<Player> loadUsers(String filePath) {
+        return loadUsers(filePath, false);
+    }
+
+    /**
+     * This loads all player data from a given JSON file path, optionally
+     * leaving each player's progress history on disk. In lazy mode only the
+     * identity and score fields are built; the position of each
+     * {@code progressLog} array is remembered and the history is parsed when
+     * the player logs in or the history is first read.
+     *
+     * A CRC32 of the file is computed while it is streamed. When it matches
+     * the checksum stored by {@link DataWriter#saveUsers(List, String)} the
+     * records are trusted as written; otherwise each player's solved and hint
+     * counters are reconciled with its progress history.
+     *
+     * @param filePath the path to the JSON file
+     * @param lazyHistory true to defer parsing of progress histories
+     * @return a list of players loaded from the file
+     */
+    public static List<Player> loadUsers(String filePath, boolean lazyHistory) {
         List<Player> players = new ArrayList<>();
         File f = new File(filePath);
         if (!f.exists()) {
             System.out.println("DataLoader: file not found at " + filePath + " -> returning empty list");
-            return players;
+        } else {
+            JSONParser parser = new JSONParser();
+            CRC32 crc = new CRC32();
+            boolean trusted = false;
+            List<LazyProgressHistory> deferred = new ArrayList<>();
+            try (FileInputStream in = new FileInputStream(f)) {
+                CheckedInputStream checked = new CheckedInputStream(in, crc);
+                Reader reader = new BufferedReader(new InputStreamReader(checked, Charset.defaultCharset()));
+                ByteOffsetReader offsets = lazyHistory ? new ByteOffsetReader(reader, Charset.defaultCharset()) : null;
+                RecordStreamHandler handler = new RecordStreamHandler(record -> players.add(parsePlayer(record, false)),
+                        lazyHistory ? parser : null, offsets, filePath, deferred);
+                parser.parse(offsets != null ? offsets : reader, handler);
+                byte[] rest = new byte[4096];
+                while (checked.read(rest) != -1) {
+                    // include any trailing bytes in the checksum
+                }
+                trusted = checksumMatches(filePath, crc.getValue(), in.getChannel().size());
+                if (handler.isRootArray()) {
+                    System.out.println("DataLoader: loaded " + players.size() + " players from " + filePath
+                            + (trusted ? " (checksum verified)" : ""));
+                } else {
+                    System.out.println("DataLoader: JSON root is not an array -> ignoring snapshot");
+                }
+            } catch (ParseException pe) {
+                System.out.println("DataLoader: parse error: " + pe.getMessage());
+            } catch (Exception e) {
+                System.out.println("DataLoader: IO error: " + e.getMessage());
+            }
+
+            if (trusted) {
+                for (LazyProgressHistory history : deferred) {
+                    history.markTrusted();
+                }
+            } else {
+                for (Player p : players) {
+                    if (p.isProgressHistoryLoaded()) {
+                        p.reconcileScoreWithHistory();
+                    }
+                }
+            }
+        }
+
+        replayJournal(PlayerStore.compactingPathFor(filePath), players);
+        replayJournal(PlayerStore.journalPathFor(filePath), players);
+        return players;
+    }
+
+    /**
+     * This checks a users file's CRC and length against its checksum file.
+     *
+     * @param filePath the path of the users file
+     * @param crc the CRC32 of the bytes that were read
+     * @param length the number of bytes in the file
+     * @return true if a checksum file exists and matches
+     */
+    private static boolean checksumMatches(String filePath, long crc, long length) {
+        Path checksumPath = Paths.get(DataWriter.checksumPathFor(filePath));
+        if (!Files.exists(checksumPath)) {
+            return false;
+        }
+        try {
+            String[] parts = Files.readString(checksumPath, StandardCharsets.US_ASCII).trim().split(" ");
+            return parts.length == 2
+                    && Long.parseLong(parts[0], 16) == crc
+                    && Long.parseLong(parts[1]) == length;
+        } catch (IOException | NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * This replays a player journal on top of already loaded players. Each line
+     * holds one complete player record; a record replaces the loaded player with
+     * the same ID (or username when no ID is stored) or is added as a new player.
+     * Lines that cannot be parsed, such as a torn final write, are skipped.
+     *
+     * @param journalPath the path of the journal file
+     * @param players the loaded players to update in place
+     */
+    private static void replayJournal(String journalPath, List<Player> players) {
+        File journal = new File(journalPath);
+        if (!journal.exists()) {
+            return;
         }
 
+        Map<String, Integer> indexByKey = new HashMap<>();
+        for (int i = 0; i < players.size(); i++) {
+            indexByKey.put(recordKey(players.get(i)), i);
+        }
+
+        int replayed = 0;
         JSONParser parser = new JSONParser();
-        try (FileReader reader = new FileReader(f)) {
-            Object parsed = parser.parse(reader);
-            if (!(parsed instanceof JSONArray)) {
-                System.out.println("DataLoader: JSON root is not an array -> returning empty list");
-                return players;
+        try (BufferedReader reader = new BufferedReader(new FileReader(journal))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Object parsed;
+                try {
+                    parsed = parser.parse(line);
+                } catch (ParseException pe) {
+                    System.out.println("DataLoader: skipping unreadable journal entry: " + pe.getMessage());
+                    continue;
+                }
+                if (!(parsed instanceof JSONObject)) {
+                    continue;
+                }
+                Player p = parsePlayer((JSONObject) parsed);
+                String key = recordKey(p);
+                Integer existing = indexByKey.get(key);
+                if (existing != null) {
+                    players.set(existing, p);
+                } else {
+                    indexByKey.put(key, players.size());
+                    players.add(p);
+                }
+                replayed++;
             }
+            System.out.println("DataLoader: replayed " + replayed + " journal entries from " + journalPath);
+        } catch (Exception e) {
+            System.out.println("DataLoader: IO error while replaying journal: " + e.getMessage());
+        }
+    }
 
-            JSONArray arr = (JSONArray) parsed;
-            for (Object o : arr) {
-                if (!(o instanceof JSONObject)) continue;
-                JSONObject jo = (JSONObject) o;
+    /**
+     * This returns the key used to match journal records with loaded players.
+     *
+     * @param p the player
+     * @return the player's ID, or its lower-cased username when no ID is set
+     */
+    private static String recordKey(Player p) {
+        if (p.getPlayerID() != null) {
+            return p.getPlayerID().toString();
+        }
+        return p.getUsername() == null ? "" : p.getUsername().toLowerCase(Locale.ROOT);
+    }
 
-                String username = jo.get("username") != null ? jo.get("username").toString() : "guest";
-                String email = jo.get("email") != null ? jo.get("email").toString() : null;
+    /**
+     * This builds one player from its JSON record, including score and progress history.
+     *
+     * @param jo the JSON object for the player
+     * @return the player described by the record
+     */
+    static Player parsePlayer(JSONObject jo) {
+        return parsePlayer(jo, true);
+    }
+
+    /**
+     * This builds one player from its JSON record.
+     *
+     * @param jo the JSON object for the player
+     * @param reconcile true to raise the score counters to the totals found in the history
+     * @return the player described by the record
+     */
+    private static Player parsePlayer(JSONObject jo, boolean reconcile) {
+        String username = jo.get("username") != null ? jo.get("username").toString() : "guest";
+        String email = jo.get("email") != null ? jo.get("email").toString() : null;
 
-                String rawPassword = jo.get("password") != null ? jo.get("password").toString() : null;
-                String passwordHash = jo.get("passwordHash") != null ? jo.get("passwordHash").toString() : null;
+        String rawPassword = jo.get("password") != null ? jo.get("password").toString() : null;
+        String passwordHash = jo.get("passwordHash") != null ? jo.get("passwordHash").toString() : null;
+        UUID playerId = parseUuid(jo.get("playerID"));
 
-                Player p = new Player(username, email, rawPassword);
-                if (passwordHash != null && !passwordHash.isEmpty()) {
-                    p.setStoredPasswordHash(passwordHash);
-                }
+        Player p = new Player(playerId, username, email, rawPassword);
+        if (passwordHash != null && !passwordHash.isEmpty()) {
+            p.setStoredPasswordHash(passwordHash);
+        }
 
-                JSONObject scoreObj = jo.get("score") instanceof JSONObject ? (JSONObject) jo.get("score") : null;
-                if (scoreObj != null) {
-                    int points = parseInt(scoreObj.get("points"));
-                    int puzzlesSolved = parseInt(scoreObj.get("puzzlesSolved"));
-                    int hintsUsed = parseInt(scoreObj.get("hintsUsed"));
-                    int timeTaken = parseInt(scoreObj.get("timeTaken"));
-                    p.applyScoreData(points, puzzlesSolved, hintsUsed, timeTaken);
+        JSONObject scoreObj = jo.get("score") instanceof JSONObject ? (JSONObject) jo.get("score") : null;
+        if (scoreObj != null) {
+            int points = parseInt(scoreObj.get("points"));
+            int puzzlesSolved = parseInt(scoreObj.get("puzzlesSolved"));
+            int hintsUsed = parseInt(scoreObj.get("hintsUsed"));
+            int timeTaken = parseInt(scoreObj.get("timeTaken"));
+            p.applyScoreData(points, puzzlesSolved, hintsUsed, timeTaken);
+            if (scoreObj.get("solvesByDifficulty") instanceof JSONObject) {
+                JSONObject solves = (JSONObject) scoreObj.get("solvesByDifficulty");
+                for (Settings.Difficulty level : Settings.Difficulty.values()) {
+                    p.getScoreDetails().setSolves(level, parseInt(solves.get(level.name().toLowerCase(Locale.ROOT))));
                 }
+            }
+        }
 
-                JSONArray historyArray = jo.get("progressLog") instanceof JSONArray ? (JSONArray) jo.get("progressLog") : null;
-                if (historyArray != null) {
-                    List<PuzzleProgressSnapshot> snapshots = new ArrayList<>();
-                    for (Object entryObj : historyArray) {
-                        if (!(entryObj instanceof JSONObject)) {
-                            continue;
-                        }
-                        JSONObject entry = (JSONObject) entryObj;
-                        int puzzleId = parseInt(entry.get("puzzleId"));
-                        String question = entry.get("question") != null ? entry.get("question").toString() : "";
-                        String status = entry.get("status") != null ? entry.get("status").toString() : null;
-                        String answer = entry.get("answer") != null ? entry.get("answer").toString() : "";
-                        LocalDateTime lastUpdated = parseDateTime(entry.get("lastUpdated"));
-                        List<String> hints = new ArrayList<>();
-                        Object hintsObj = entry.get("hintsUsed");
-                        if (hintsObj instanceof JSONArray) {
-                            JSONArray hintsArray = (JSONArray) hintsObj;
-                            for (Object hint : hintsArray) {
-                                if (hint != null) {
-                                    hints.add(hint.toString());
-                                }
-                            }
-                        }
-                        snapshots.add(new PuzzleProgressSnapshot(puzzleId, question, answer, status, hints, lastUpdated));
-                    }
-                    if (!snapshots.isEmpty()) {
-                        p.replaceProgressHistory(snapshots);
-                        Score score = p.getScoreDetails();
-                        if (score != null) {
-                            score.setPuzzlesSolved(Math.max(score.getPuzzlesSolved(), p.getSolvedPuzzleCountFromHistory()));
-                            score.setHintsUsed(Math.max(score.getHintsUsed(), p.getTotalHintsUsedFromHistory()));
-                        }
+        Object history = jo.get("progressLog");
+        if (history instanceof LazyProgressHistory) {
+            p.deferProgressHistory((LazyProgressHistory) history);
+        } else if (history instanceof JSONArray) {
+            List<PuzzleProgressSnapshot> snapshots = parseProgressLog((JSONArray) history);
+            if (reconcile) {
+                p.restoreProgressHistory(snapshots);
+            } else {
+                p.replaceProgressHistory(snapshots);
+            }
+        }
+        return p;
+    }
+
+    /**
+     * This builds progress snapshots from a {@code progressLog} array.
+     *
+     * @param historyArray the JSON array of history entries
+     * @return the snapshots in file order
+     */
+    static List<PuzzleProgressSnapshot> parseProgressLog(JSONArray historyArray) {
+        List<PuzzleProgressSnapshot> snapshots = new ArrayList<>();
+        for (Object entryObj : historyArray) {
+            if (!(entryObj instanceof JSONObject)) {
+                continue;
+            }
+            JSONObject entry = (JSONObject) entryObj;
+            int puzzleId = parseInt(entry.get("puzzleId"));
+            String question = entry.get("question") != null ? entry.get("question").toString() : "";
+            String status = entry.get("status") != null ? entry.get("status").toString() : null;
+            String answer = entry.get("answer") != null ? entry.get("answer").toString() : "";
+            LocalDateTime lastUpdated = parseDateTime(entry.get("lastUpdated"));
+            List<String> hints = new ArrayList<>();
+            Object hintsObj = entry.get("hintsUsed");
+            if (hintsObj instanceof JSONArray) {
+                JSONArray hintsArray = (JSONArray) hintsObj;
+                for (Object hint : hintsArray) {
+                    if (hint != null) {
+                        hints.add(hint.toString());
                     }
                 }
-                players.add(p);
             }
-
-            System.out.println("DataLoader: loaded " + players.size() + " players from " + filePath);
-        } catch (ParseException pe) {
-            System.out.println("DataLoader: parse error: " + pe.getMessage());
-        } catch (Exception e) {
-            System.out.println("DataLoader: IO error: " + e.getMessage());
+            snapshots.add(new PuzzleProgressSnapshot(puzzleId, question, answer, status, hints, lastUpdated));
         }
+        return snapshots;
+    }
 
-        return players;
+    /**
+     * This safely converts an object to a UUID.
+     *
+     * @param value the object to convert
+     * @return the UUID value, or null if missing or invalid
+     */
+    private static UUID parseUuid(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value.toString());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
     /**
@@ -153,4 +362,169 @@ public class DataLoader {
             return null;
         }
     }
+
+    /**
+     * This receives parser events for a users file whose root is an array and
+     * assembles one top-level record at a time. Each finished record is handed
+     * to the sink and not retained, so only the record being read is in memory.
+     * When a parser is supplied, each record's {@code progressLog} array is
+     * skipped and replaced by a {@link LazyProgressHistory} pointing at its
+     * bytes in the file.
+     */
+    private static final class RecordStreamHandler implements ContentHandler {
+        private static final int RECORD_DEPTH = 2;
+
+        private final Consumer<JSONObject> sink;
+        private final JSONParser lazyParser;
+        private final ByteOffsetReader offsets;
+        private final String filePath;
+        private final Deque<Object> containers = new ArrayDeque<>();
+        private final Deque<String> keys = new ArrayDeque<>();
+        private final List<LazyProgressHistory> deferred;
+        private int depth;
+        private boolean rootArray;
+        private boolean skipping;
+        private boolean skippedContent;
+        private long skipStart;
+
+        RecordStreamHandler(Consumer<JSONObject> sink, JSONParser lazyParser, ByteOffsetReader offsets,
+                String filePath, List<LazyProgressHistory> deferred) {
+            this.sink = sink;
+            this.lazyParser = lazyParser;
+            this.offsets = offsets;
+            this.filePath = filePath;
+            this.deferred = deferred;
+        }
+
+        boolean isRootArray() {
+            return rootArray;
+        }
+
+        @Override
+        public void startJSON() {
+            containers.clear();
+            keys.clear();
+            depth = 0;
+            rootArray = false;
+            skipping = false;
+        }
+
+        @Override
+        public void endJSON() {
+        }
+
+        @Override
+        public boolean startObject() {
+            depth++;
+            if (skipping) {
+                skippedContent = true;
+                return true;
+            }
+            containers.push(new JSONObject());
+            return true;
+        }
+
+        @Override
+        public boolean endObject() {
+            depth--;
+            if (skipping) {
+                return true;
+            }
+            if (offsets != null && depth == RECORD_DEPTH - 1) {
+                offsets.forget(lazyParser.getPosition());
+            }
+            addValue(containers.pop());
+            return true;
+        }
+
+        @Override
+        public boolean startObjectEntry(String key) {
+            if (skipping) {
+                return true;
+            }
+            keys.push(key);
+            return true;
+        }
+
+        @Override
+        public boolean endObjectEntry() {
+            if (skipping) {
+                return true;
+            }
+            keys.pop();
+            return true;
+        }
+
+        @Override
+        public boolean startArray() {
+            depth++;
+            if (depth == 1) {
+                rootArray = true;
+                return true;
+            }
+            if (skipping) {
+                skippedContent = true;
+                return true;
+            }
+            if (lazyParser != null && depth == RECORD_DEPTH + 1 && "progressLog".equals(keys.peek())) {
+                skipping = true;
+                skippedContent = false;
+                offsets.forget(lazyParser.getPosition());
+                skipStart = offsets.byteOffsetOf(lazyParser.getPosition());
+                return true;
+            }
+            containers.push(new JSONArray());
+            return true;
+        }
+
+        @Override
+        public boolean endArray() {
+            depth--;
+            if (depth == 0 && rootArray) {
+                return true;
+            }
+            if (skipping) {
+                if (depth == RECORD_DEPTH) {
+                    skipping = false;
+                    if (skippedContent) {
+                        int length = (int) (offsets.byteOffsetOf(lazyParser.getPosition() + 1) - skipStart);
+                        LazyProgressHistory history = new LazyProgressHistory(filePath, skipStart, length);
+                        deferred.add(history);
+                        addValue(history);
+                    } else {
+                        addValue(new JSONArray());
+                    }
+                }
+                return true;
+            }
+            addValue(containers.pop());
+            return true;
+        }
+
+        @Override
+        public boolean primitive(Object value) {
+            if (skipping) {
+                skippedContent = true;
+                return true;
+            }
+            addValue(value);
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void addValue(Object value) {
+            if (containers.isEmpty()) {
+                if (rootArray && value instanceof JSONObject) {
+                    sink.accept((JSONObject) value);
+                }
+                return;
+            }
+            Object parent = containers.peek();
+            if (parent instanceof JSONObject) {
+                ((JSONObject) parent).put(keys.peek(), value);
+            } else {
+                ((JSONArray) parent).add(value);
+            }
+        }
+    }
 }
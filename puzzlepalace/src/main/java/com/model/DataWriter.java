@@ -1,20 +1,40 @@
 package com.model;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
+import java.util.concurrent.locks.Lock;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 
 /**
  * This class saves player data to a JSON file.
  * This helps store user progress, scores, and account information.
  */
 public class DataWriter {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String CHECKSUM_SUFFIX = ".crc";
+
     /**
      * This prevents creating an instance of DataWriter.
      */
@@ -22,114 +42,289 @@ public class DataWriter {
     }
     /**
      * This saves all player data to a given JSON file path.
+     * The players are written to a temporary file next to the target, which
+     * is synced to disk and then moved over the target in one step, so a crash
+     * leaves either the old file or the new one. A CRC32 of the written bytes
+     * is stored in a {@code .crc} file next to the target so that
+     * {@link DataLoader} can trust an intact file without re-validating it.
+     * The directory is synced after each file is moved into place, so a
+     * finished save survives a crash. The two files are replaced one after
+     * the other; after a crash between the moves the old checksum does not
+     * match the new file, and the loader falls back to reconciling each
+     * player's score with its history, as for a file with no checksum.
+     *
+     * Histories that are still deferred to the target file are copied into the
+     * new file as raw text without being parsed, and their pointers are moved
+     * to the new offsets when the file is replaced, so rewriting the file does
+     * not load every player's history into memory.
      *
      * @param players the list of players to save
      * @param filePath the path of the JSON file to write to
+     * @return true if the file was written, false if an IO error occurred
      */
-    public static void saveUsers(List<Player> players, String filePath) {
-        JSONArray playerArray = new JSONArray();
-
-        for (Player p : players) {
-            String username = safeGetString(p, "getUsername", "username");
-            String email = safeGetString(p, "getEmail", "email");
-            String playerId = safeGetString(p, "getPlayerID", "playerID");
-            String passwordHash = safeGetString(p, "getPasswordHash", "passwordHash");
-            String guestFlag = safeGetString(p, "isGuest", "guest");
-
-            JSONObject playerObj = new JSONObject();
-            if (!playerId.isEmpty()) {
-                playerObj.put("playerID", playerId);
+    public static boolean saveUsers(List<Player> players, String filePath) {
+        File file = new File(filePath);
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        CRC32 crc = new CRC32();
+        long length;
+        List<LazyProgressHistory> moved = new ArrayList<>();
+        List<Long> movedOffsets = new ArrayList<>();
+        try (FileOutputStream out = new FileOutputStream(temp.toFile());
+                DeferredHistoryReader histories = new DeferredHistoryReader()) {
+            OutputStream buffered = new BufferedOutputStream(new CheckedOutputStream(out, crc), 1 << 16);
+            CountingOutputStream counting = new CountingOutputStream(buffered);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(counting, Charset.defaultCharset()));
+            writer.write('[');
+            boolean first = true;
+            for (Player p : players) {
+                if (p == null) {
+                    continue;
+                }
+                if (!first) {
+                    writer.write(',');
+                }
+                LazyProgressHistory history = p.deferredProgressHistoryIn(filePath);
+                byte[] raw = history == null ? null : histories.read(history);
+                if (raw == null) {
+                    PlayerCodec.writePlayer(p, writer);
+                } else {
+                    PlayerCodec.writePlayer(p, writer, log -> {
+                        log.flush();
+                        moved.add(history);
+                        movedOffsets.add(counting.getCount());
+                        counting.write(raw);
+                    });
+                }
+                first = false;
             }
-            playerObj.put("username", username);
-            playerObj.put("email", email);
-            if (!passwordHash.isEmpty()) {
-                playerObj.put("passwordHash", passwordHash);
+            writer.write(']');
+            writer.flush();
+            buffered.flush();
+            out.getFD().sync();
+            length = out.getChannel().size();
+        } catch (IOException e) {
+            System.out.println("DataWriter: IO error while writing file: " + e.getMessage());
+            deleteQuietly(temp);
+            return false;
+        }
+
+        Lock relocation = LazyProgressHistory.lockFor(file).writeLock();
+        relocation.lock();
+        try {
+            replace(temp, target);
+            for (int i = 0; i < moved.size(); i++) {
+                moved.get(i).moveTo(movedOffsets.get(i));
             }
-            if (!guestFlag.isEmpty()) {
-                playerObj.put("isGuest", Boolean.parseBoolean(guestFlag));
+        } catch (IOException e) {
+            System.out.println("DataWriter: IO error while replacing file: " + e.getMessage());
+            deleteQuietly(temp);
+            return false;
+        } finally {
+            relocation.unlock();
+        }
+        try {
+            writeChecksum(filePath, crc.getValue(), length);
+        } catch (IOException e) {
+            System.out.println("DataWriter: IO error while replacing file: " + e.getMessage());
+            deleteQuietly(temp);
+            return false;
+        }
+        System.out.println("DataWriter: wrote " + players.size() + " players to " + filePath);
+        return true;
+    }
+
+    /**
+     * This reads the raw bytes of deferred histories from the file they point
+     * into, each with one positional read, keeping the file open between
+     * histories in the same file.
+     */
+    private static final class DeferredHistoryReader implements Closeable {
+        private File file;
+        private FileChannel channel;
+
+        /**
+         * This returns the history's array bytes, or null if they cannot be
+         * read, in which case the caller writes the parsed history instead.
+         */
+        byte[] read(LazyProgressHistory history) {
+            byte[] raw;
+            try {
+                if (channel == null || !history.getFile().equals(file)) {
+                    close();
+                    file = history.getFile();
+                    channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                }
+                raw = history.readBytes(channel);
+            } catch (IOException e) {
+                System.out.println("DataWriter: unable to copy history from " + file + ": " + e.getMessage());
+                close();
+                return null;
             }
-            
-            Score score = p.getScoreDetails();
-            if (score != null) {
-                JSONObject scoreObj = new JSONObject();
-                scoreObj.put("points", score.getPoints());
-                scoreObj.put("puzzlesSolved", score.getPuzzlesSolved());
-                scoreObj.put("hintsUsed", score.getHintsUsed());
-                scoreObj.put("timeTaken", score.getTimeTaken());
-                playerObj.put("score", scoreObj);
+            if (raw.length < 2 || raw[0] != '[' || raw[raw.length - 1] != ']') {
+                return null;
             }
+            return raw;
+        }
 
-            JSONArray historyArray = new JSONArray();
-            for (PuzzleProgressSnapshot snapshot : p.getPuzzleProgressSnapshots()) {
-                if (snapshot == null) {
-                    continue;
-                }
-                JSONObject entry = new JSONObject();
-                entry.put("puzzleId", snapshot.getPuzzleId());
-                entry.put("question", snapshot.getQuestion());
-                entry.put("status", snapshot.getStatus());
-                entry.put("answer", snapshot.getAnswer());
-                entry.put("lastUpdated", snapshot.getLastUpdated().toString());
-                JSONArray hintsArray = new JSONArray();
-                for (String hint : snapshot.getHintsUsed()) {
-                    hintsArray.add(hint);
+        @Override
+        public void close() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
                 }
-                entry.put("hintsUsed", hintsArray);
-                historyArray.add(entry);
+                channel = null;
             }
-            playerObj.put("progressLog", historyArray);
+        }
+    }
+
+    /**
+     * This counts the bytes written through it, which are the offsets
+     * {@link DataLoader} finds when it reads the file back. Flushing it only
+     * hands the encoder's pending bytes through to be counted; the stream
+     * below is flushed by the caller.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
 
-            playerArray.add(playerObj);
+        CountingOutputStream(OutputStream out) {
+            super(out);
         }
 
-        File file = new File(filePath);
-        File parent = file.getParentFile();
-        if (parent != null && !parent.exists()) {
-            parent.mkdirs();
+        long getCount() {
+            return count;
         }
 
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write(playerArray.toJSONString());
-            writer.flush();
-            System.out.println("DataWriter: wrote " + players.size() + " players to " + filePath);
-        } catch (IOException e) {
-            System.out.println("DataWriter: IO error while writing file: " + e.getMessage());
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            out.write(bytes, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() {
         }
     }
+
     /**
-     * This safely gets a string value from a method or field.
+     * This returns the path of the checksum file kept next to a users file.
      *
-     * @param obj the object to inspect
-     * @param methodName the name of the getter method
-     * @param fieldName the name of the field
-     * @return the value as a string, or an empty string if not found
+     * @param filePath the path of the users file
+     * @return the path of its checksum file
      */
-    private static String safeGetString(Object obj, String methodName, String fieldName) {
-        if (obj == null) return "";
+    static String checksumPathFor(String filePath) {
+        return filePath + CHECKSUM_SUFFIX;
+    }
+
+    /**
+     * This atomically replaces the checksum file with the CRC and byte length of a users file.
+     */
+    private static void writeChecksum(String filePath, long crc, long length) throws IOException {
+        Path target = Paths.get(checksumPathFor(filePath));
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+            out.write((Long.toHexString(crc) + " " + length).getBytes(StandardCharsets.US_ASCII));
+            out.getFD().sync();
+        }
+        replace(temp, target);
+    }
 
+    /**
+     * This moves a finished temporary file over its target, atomically when the file system allows it,
+     * and syncs the directory so the move itself is on disk.
+     */
+    private static void replace(Path temp, Path target) throws IOException {
         try {
-            Method m = obj.getClass().getMethod(methodName);
-            Object val = m.invoke(obj);
-            return val == null ? "" : val.toString();
-        } catch (NoSuchMethodException ignored) {
-        } catch (Exception e) {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
         }
+        syncDirectory(target.toAbsolutePath().getParent());
+    }
 
+    /**
+     * This forces a directory's entries to disk. Platforms that cannot open a
+     * directory, such as Windows, are left to their file system.
+     */
+    private static void syncDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // not supported here
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
         try {
-            Field f = obj.getClass().getDeclaredField(fieldName);
-            f.setAccessible(true);
-            Object val = f.get(obj);
-            return val == null ? "" : val.toString();
-        } catch (NoSuchFieldException nsf) {
-            try {
-                Field alt = obj.getClass().getDeclaredField("_" + fieldName);
-                alt.setAccessible(true);
-                Object val = alt.get(obj);
-                return val == null ? "" : val.toString();
-            } catch (Exception ignored) {}
-        } catch (Exception e) {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * This appends a single player record as one line to a journal file.
+     * Only the given player is serialized, so the cost does not depend on
+     * how many other players exist. The journal is synced before returning.
+     *
+     * @param player the player to append
+     * @param journalPath the path of the journal file to append to
+     * @return true if the record was appended, false if an IO error occurred
+     */
+    public static boolean appendUser(Player player, String journalPath) {
+        if (player == null) {
+            return false;
+        }
+        return appendUsers(List.of(player), journalPath);
+    }
+
+    /**
+     * This appends one line per player to a journal file in a single write
+     * and syncs the journal once, so a batch of saves costs one sync.
+     *
+     * @param players the players to append
+     * @param journalPath the path of the journal file to append to
+     * @return true if every record was appended, false if an IO error occurred
+     */
+    public static boolean appendUsers(Collection<Player> players, String journalPath) {
+        if (players == null || players.isEmpty()) {
+            return false;
+        }
+        File file = new File(journalPath);
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
         }
 
-        return "";
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, Charset.defaultCharset()));
+            for (Player player : players) {
+                if (player == null) {
+                    continue;
+                }
+                PlayerCodec.writePlayer(player, writer);
+                writer.write(System.lineSeparator());
+            }
+            writer.flush();
+            out.getFD().sync();
+            return true;
+        } catch (IOException e) {
+            System.out.println("DataWriter: IO error while appending to journal: " + e.getMessage());
+            return false;
+        }
     }
 }
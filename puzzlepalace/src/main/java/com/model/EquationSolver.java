@@ -0,0 +1,309 @@
+package com.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Solves single-variable math puzzle equations such as {@code 2*x + 3 = 11}
+ * so a catalog can derive each puzzle's answer, and reject puzzles that have
+ * no answer or more than one.
+ *
+ * An equation that is linear in its variable is isolated symbolically from
+ * its compiled program. Any other equation is sampled at every integer in
+ * [-{@link #SEARCH_LIMIT}, {@link #SEARCH_LIMIT}], with the value and slope
+ * of left minus right taken at each end and the middle of every step. A step
+ * where either changes direction, and so may hide more than one root, is
+ * halved until each piece runs one way; this finds roots as close together
+ * as those of {@code (x - 0.3) * (x - 0.6) = 0}. Each sign change is narrowed
+ * with Newton steps kept inside the bracket by bisection, and each turn that
+ * does not cross zero, such as the double root of {@code x^2 - 4*x + 4 = 0},
+ * is searched for a touching root. Only roots that satisfy the equation
+ * within {@link CompiledEquation#TOLERANCE} count.
+ */
+public final class EquationSolver {
+
+    /** Roots of non-linear equations are searched for in [-SEARCH_LIMIT, SEARCH_LIMIT]. */
+    public static final double SEARCH_LIMIT = 10_000;
+
+    private static final int MAX_ITERATIONS = 200;
+
+    /** Intervals where the residual turns are halved until they are this narrow. */
+    private static final double MIN_WIDTH = 1e-6;
+
+    private EquationSolver() {
+    }
+
+    /**
+     * The result of solving one equation.
+     */
+    public static final class Solution {
+
+        /** Whether an equation has exactly one answer. */
+        public enum Outcome {
+            UNIQUE,
+            NONE,
+            SEVERAL,
+            INVALID
+        }
+
+        private final Outcome outcome;
+        private final double value;
+        private final String problem;
+
+        private Solution(Outcome outcome, double value, String problem) {
+            this.outcome = outcome;
+            this.value = value;
+            this.problem = problem;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public boolean isUnique() {
+            return outcome == Outcome.UNIQUE;
+        }
+
+        /** Return the answer of a {@link Outcome#UNIQUE} equation, or NaN. */
+        public double getValue() {
+            return value;
+        }
+
+        /** Return why the equation has no unique answer, or null. */
+        public String getProblem() {
+            return problem;
+        }
+
+        @Override
+        public String toString() {
+            return isUnique() ? "Solution{" + value + "}" : "Solution{" + outcome + ": " + problem + "}";
+        }
+    }
+
+    /**
+     * Solve an equation for its only variable.
+     *
+     * @param equation the equation text
+     * @return the solution; never null
+     */
+    public static Solution solve(String equation) {
+        CompiledEquation compiled;
+        try {
+            compiled = CompiledEquation.of(equation);
+        } catch (IllegalArgumentException e) {
+            return new Solution(Solution.Outcome.INVALID, Double.NaN, e.getMessage());
+        }
+        return solve(compiled);
+    }
+
+    public static Solution solve(CompiledEquation equation) {
+        if (equation.getVariableCount() != 1) {
+            return new Solution(Solution.Outcome.INVALID, Double.NaN, equation.getVariableCount() == 0
+                    ? "has no variable to solve for" : "has more than one variable");
+        }
+        double[] linear = equation.linearResidual();
+        if (linear != null) {
+            return solveLinear(equation, linear[0], linear[1]);
+        }
+        return solveNumerically(equation);
+    }
+
+    /**
+     * Solve many equations on the common fork-join pool.
+     *
+     * @param equations the equation texts
+     * @return the solution of each distinct equation
+     */
+    public static Map<String, Solution> solveAll(Collection<String> equations) {
+        Map<String, Solution> solutions = new ConcurrentHashMap<>();
+        new LinkedHashSet<>(equations).parallelStream()
+                .forEach(equation -> solutions.put(equation, solve(equation)));
+        return solutions;
+    }
+
+    private static Solution solveLinear(CompiledEquation equation, double a, double b) {
+        if (Math.abs(a) < 1e-12) {
+            return Math.abs(b) < CompiledEquation.TOLERANCE
+                    ? new Solution(Solution.Outcome.SEVERAL, Double.NaN, "holds for every value")
+                    : new Solution(Solution.Outcome.NONE, Double.NaN, "has no solution");
+        }
+        double root = clean(-b / a);
+        if (!equation.isSatisfiedBy(new double[] {root})) {
+            return new Solution(Solution.Outcome.NONE, Double.NaN, "has no solution within tolerance");
+        }
+        return new Solution(Solution.Outcome.UNIQUE, root, null);
+    }
+
+    private static Solution solveNumerically(CompiledEquation equation) {
+        double[] values = new double[1];
+        int steps = (int) (2 * SEARCH_LIMIT);
+        List<Double> roots = new ArrayList<>();
+        double lo = -SEARCH_LIMIT;
+        double fLo = residual(equation, values, lo);
+        double sLo = slope(equation, values, lo);
+        for (int i = 1; i <= steps; i++) {
+            double hi = -SEARCH_LIMIT + i;
+            double fHi = residual(equation, values, hi);
+            double sHi = slope(equation, values, hi);
+            scan(equation, values, roots, lo, hi, fLo, fHi, sLo, sHi);
+            lo = hi;
+            fLo = fHi;
+            sLo = sHi;
+        }
+
+        if (roots.isEmpty()) {
+            return new Solution(Solution.Outcome.NONE, Double.NaN,
+                    "has no solution in [-" + (long) SEARCH_LIMIT + ", " + (long) SEARCH_LIMIT + "]");
+        }
+        if (roots.size() > 1) {
+            return new Solution(Solution.Outcome.SEVERAL, Double.NaN, "has several solutions " + roots);
+        }
+        return new Solution(Solution.Outcome.UNIQUE, roots.get(0), null);
+    }
+
+    /**
+     * Looks for roots in [lo, hi], given the residual and its slope at both
+     * ends. An interval where the residual runs one way throughout holds at
+     * most one root, found from a sign change. Any other interval, where the
+     * residual or its slope changes direction, is halved until its pieces
+     * run one way or are narrower than {@link #MIN_WIDTH}; a piece that
+     * still turns is searched for a touching root.
+     */
+    private static void scan(CompiledEquation equation, double[] values, List<Double> roots,
+            double lo, double hi, double fLo, double fHi, double sLo, double sHi) {
+        boolean finiteLo = Double.isFinite(fLo);
+        boolean finiteHi = Double.isFinite(fHi);
+        if (!finiteLo && !finiteHi) {
+            return;
+        }
+        double mid = (lo + hi) / 2;
+        double fMid = residual(equation, values, mid);
+        double sMid = slope(equation, values, mid);
+        boolean oneWay = finiteLo && finiteHi && Double.isFinite(fMid)
+                && sameDirection(sLo, sMid) && sameDirection(sMid, sHi)
+                && (fHi - fLo == 0 || Math.signum(fHi - fLo) == Math.signum(sLo))
+                && fMid >= Math.min(fLo, fHi) && fMid <= Math.max(fLo, fHi);
+        if (!oneWay && hi - lo > MIN_WIDTH) {
+            scan(equation, values, roots, lo, mid, fLo, fMid, sLo, sMid);
+            scan(equation, values, roots, mid, hi, fMid, fHi, sMid, sHi);
+            return;
+        }
+        if (!finiteLo || !finiteHi) {
+            return;
+        }
+        if (fLo == 0) {
+            addRoot(roots, lo);
+        }
+        if (fHi == 0) {
+            addRoot(roots, hi);
+        }
+        if (Math.signum(fLo) == -Math.signum(fHi)) {
+            addIfRoot(equation, values, roots, bracketed(equation, values, lo, hi, fLo));
+        } else if (!oneWay) {
+            addIfRoot(equation, values, roots, minimizeAbs(equation, values, lo, hi));
+        }
+    }
+
+    /** Returns true if two slopes are finite, non-zero and of the same sign. */
+    private static boolean sameDirection(double a, double b) {
+        return Double.isFinite(a) && Double.isFinite(b) && a != 0 && Math.signum(a) == Math.signum(b);
+    }
+
+    private static double residual(CompiledEquation equation, double[] values, double x) {
+        values[0] = x;
+        return equation.evaluateLeft(values) - equation.evaluateRight(values);
+    }
+
+    /**
+     * Estimates the slope of the residual at x by a central difference.
+     */
+    private static double slope(CompiledEquation equation, double[] values, double x) {
+        double h = Math.max(1e-7, Math.abs(x) * 1e-7);
+        return (residual(equation, values, x + h) - residual(equation, values, x - h)) / (2 * h);
+    }
+
+    /**
+     * Narrows a sign change in [lo, hi] with Newton steps, falling back to
+     * bisection whenever a step would leave the bracket.
+     */
+    private static double bracketed(CompiledEquation equation, double[] values, double lo, double hi, double fLo) {
+        double x = (lo + hi) / 2;
+        for (int i = 0; i < MAX_ITERATIONS && hi - lo > Math.ulp(x) * 4; i++) {
+            double fx = residual(equation, values, x);
+            if (fx == 0) {
+                return x;
+            }
+            if (Math.signum(fx) == Math.signum(fLo)) {
+                lo = x;
+                fLo = fx;
+            } else {
+                hi = x;
+            }
+            double next = x - fx / slope(equation, values, x);
+            x = Double.isFinite(next) && next > lo && next < hi ? next : (lo + hi) / 2;
+        }
+        return x;
+    }
+
+    /**
+     * Finds the smallest |left - right| in [lo, hi] by golden-section search.
+     */
+    private static double minimizeAbs(CompiledEquation equation, double[] values, double lo, double hi) {
+        final double ratio = (Math.sqrt(5) - 1) / 2;
+        double c = hi - ratio * (hi - lo);
+        double d = lo + ratio * (hi - lo);
+        double fc = Math.abs(residual(equation, values, c));
+        double fd = Math.abs(residual(equation, values, d));
+        for (int i = 0; i < MAX_ITERATIONS && hi - lo > 1e-12; i++) {
+            if (fc <= fd) {
+                hi = d;
+                d = c;
+                fd = fc;
+                c = hi - ratio * (hi - lo);
+                fc = Math.abs(residual(equation, values, c));
+            } else {
+                lo = c;
+                c = d;
+                fc = fd;
+                d = lo + ratio * (hi - lo);
+                fd = Math.abs(residual(equation, values, d));
+            }
+        }
+        return (lo + hi) / 2;
+    }
+
+    private static void addIfRoot(CompiledEquation equation, double[] values, List<Double> roots, double x) {
+        double root = clean(x);
+        values[0] = root;
+        if (!equation.isSatisfiedBy(values)) {
+            values[0] = x;
+            if (!equation.isSatisfiedBy(values)) {
+                return;
+            }
+            root = x;
+        }
+        addRoot(roots, root);
+    }
+
+    private static void addRoot(List<Double> roots, double x) {
+        for (double known : roots) {
+            if (Math.abs(known - x) <= 1e-6 * Math.max(1, Math.abs(x))) {
+                return;
+            }
+        }
+        roots.add(x);
+    }
+
+    /**
+     * Snaps a root to the nearest multiple of 1e-9 so that answers such as 4
+     * are not stored as 3.9999999999999996.
+     */
+    private static double clean(double x) {
+        double rounded = Math.rint(x * 1e9) / 1e9;
+        return Double.isFinite(rounded) ? rounded : x;
+    }
+}
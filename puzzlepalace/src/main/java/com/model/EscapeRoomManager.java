@@ -1,5 +1,6 @@
 package com.model;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -8,11 +9,32 @@ import java.util.UUID;
 /**
  * This manages all the escape rooms in the game.
  * This handles adding, removing, loading, and tracking rooms.
+ *
+ * The rooms and the catalog they were built from are held in one immutable
+ * snapshot that changes are copied into and then published with a single
+ * volatile write. Readers never lock and always see a room list and catalog
+ * that belong together, so {@link #publishCatalog(PuzzleCatalog)} can swap in
+ * reloaded content while rooms are being read.
  */
 public class EscapeRoomManager {
-    private final List<EscapeRoom> rooms;
-    private EscapeRoom currentRoom;
-    private int totalRooms;
+
+    /**
+     * This holds one published state: the rooms and the catalog they came from.
+     */
+    private static final class Contents {
+        private static final Contents EMPTY = new Contents(List.of(), null);
+
+        private final List<EscapeRoom> rooms;
+        private final PuzzleCatalog catalog;
+
+        private Contents(List<EscapeRoom> rooms, PuzzleCatalog catalog) {
+            this.rooms = Collections.unmodifiableList(rooms);
+            this.catalog = catalog;
+        }
+    }
+
+    private volatile Contents contents;
+    private volatile EscapeRoom currentRoom;
 
     private static volatile EscapeRoomManager instance;
     /**
@@ -21,9 +43,8 @@ public class EscapeRoomManager {
      */
 
     private EscapeRoomManager() {
-        this.rooms = new ArrayList<>();
+        this.contents = Contents.EMPTY;
         this.currentRoom = null;
-        this.totalRooms = 0;
     }
     /**
      * This returns the single instance of EscapeRoomManager.
@@ -46,7 +67,7 @@ public class EscapeRoomManager {
      *
      * @param room the room to add
      */
-    public void addRoom(EscapeRoom room) {
+    public synchronized void addRoom(EscapeRoom room) {
         if (room == null) return;
 
         UUID id = room.getRoomID();
@@ -54,36 +75,44 @@ public class EscapeRoomManager {
             return;
         }
 
-        for (int i = 0; i < rooms.size(); i++) {
-            EscapeRoom r = rooms.get(i);
-            if (r != null && id.equals(r.getRoomID())) {
-                rooms.set(i, room);
-                return;
-            }
+        List<EscapeRoom> rooms = new ArrayList<>(contents.rooms);
+        int index = indexOf(rooms, id);
+        if (index >= 0) {
+            rooms.set(index, room);
+        } else {
+            rooms.add(room);
         }
-
-        rooms.add(room);
-        totalRooms = rooms.size();
+        contents = new Contents(rooms, contents.catalog);
     }
     /**
      * This removes a room using its ID.
      *
      * @param id the ID of the room to remove
      */
-    public void removeRoom(UUID id) {
-        if (id == null || rooms.isEmpty()) return;
+    public synchronized void removeRoom(UUID id) {
+        if (id == null) return;
 
+        int index = indexOf(contents.rooms, id);
+        if (index < 0) {
+            return;
+        }
+        List<EscapeRoom> rooms = new ArrayList<>(contents.rooms);
+        rooms.remove(index);
+        contents = new Contents(rooms, contents.catalog);
+        EscapeRoom current = currentRoom;
+        if (current != null && id.equals(current.getRoomID())) {
+            currentRoom = null;
+        }
+    }
+
+    private static int indexOf(List<EscapeRoom> rooms, UUID id) {
         for (int i = 0; i < rooms.size(); i++) {
             EscapeRoom r = rooms.get(i);
             if (r != null && id.equals(r.getRoomID())) {
-                rooms.remove(i);
-                if (currentRoom != null && id.equals(currentRoom.getRoomID())) {
-                    currentRoom = null;
-                }
-                totalRooms = rooms.size();
-                return;
+                return i;
             }
         }
+        return -1;
     }
 
     /**
@@ -93,22 +122,19 @@ public class EscapeRoomManager {
      * @return the EscapeRoom with the given ID, or null if not found
      */
     public EscapeRoom getRoom(UUID id) {
-        if (id == null || rooms.isEmpty()) return null;
-        for (EscapeRoom r : rooms) {
-            if (r != null && id.equals(r.getRoomID())) {
-                return r;
-            }
-        }
-        return null;
+        if (id == null) return null;
+        List<EscapeRoom> rooms = contents.rooms;
+        int index = indexOf(rooms, id);
+        return index < 0 ? null : rooms.get(index);
     }
 
     /**
      * This returns a list of all rooms.
      *
-     * @return an unmodifiable list of rooms
+     * @return an unmodifiable snapshot of the rooms
      */
     public List<EscapeRoom> getAllRooms() {
-        return Collections.unmodifiableList(new ArrayList<>(rooms));
+        return contents.rooms;
     }
 
      /**
@@ -146,34 +172,99 @@ public class EscapeRoomManager {
     /**
      * This clears all rooms from the manager.
      */
-    public void resetRooms() {
-        rooms.clear();
+    public synchronized void resetRooms() {
+        contents = Contents.EMPTY;
         currentRoom = null;
-        totalRooms = 0;
     }
     /**
-     * This loads rooms from a file.
+     * This loads rooms from a catalog content file such as {@code json/rooms.json}
+     * and publishes them with {@link #publishCatalog(PuzzleCatalog)}. A missing
+     * or invalid file leaves the current rooms and catalog unchanged.
      *
      * @param filePath the path to the file
      */
     public void loadRoomsFromFile(String filePath) {
         if (filePath == null || filePath.isBlank()) return;
+        PuzzleCatalog loaded = CatalogLoader.load(filePath);
+        if (loaded == null) return;
+        publishCatalog(loaded);
+        System.out.println("EscapeRoomManager: loaded " + getTotalRooms() + " rooms from " + filePath);
     }
 
     /**
-     * This saves rooms to a file.
+     * This replaces the managed rooms with the rooms of a catalog, one room per
+     * room definition holding every puzzle listed for it, and keeps the catalog
+     * for {@link #getCatalog()}. The rooms are built before anything changes and
+     * then published together with the catalog in one step. Rooms and puzzles
+     * handed out earlier are not touched, so players keep what they are playing.
+     *
+     * @param loaded the catalog to publish
+     */
+    public void publishCatalog(PuzzleCatalog loaded) {
+        if (loaded == null) return;
+
+        List<EscapeRoom> loadedRooms = new ArrayList<>();
+        for (Settings.Difficulty difficulty : Settings.Difficulty.values()) {
+            for (RoomDefinition definition : loaded.getRooms(difficulty)) {
+                List<Puzzle> puzzles = new ArrayList<>();
+                for (PuzzleDefinition puzzle : definition.getCandidates()) {
+                    puzzles.add(puzzle.newPuzzle());
+                }
+                EscapeRoom room = new EscapeRoom(roomUuid(definition.getRoomId()), definition.getName(),
+                        definition.getDescription(), puzzles, definition.getExits());
+                int index = indexOf(loadedRooms, room.getRoomID());
+                if (index >= 0) {
+                    loadedRooms.set(index, room);
+                } else {
+                    loadedRooms.add(room);
+                }
+            }
+        }
+        synchronized (this) {
+            contents = new Contents(loadedRooms, loaded);
+            currentRoom = null;
+        }
+    }
+
+    /**
+     * This returns the room ID as a UUID, deriving a stable one from IDs that are not UUIDs.
+     */
+    private static UUID roomUuid(String roomId) {
+        try {
+            return UUID.fromString(roomId);
+        } catch (IllegalArgumentException e) {
+            return UUID.nameUUIDFromBytes(roomId.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * This saves the loaded room catalog to a file in the format read by
+     * {@link #loadRoomsFromFile(String)}. Nothing is written if no catalog has been loaded.
      *
      * @param filePath the path to the file
      */
     public void saveRoomsToFile(String filePath) {
         if (filePath == null || filePath.isBlank()) return;
+        PuzzleCatalog current = contents.catalog;
+        if (current == null) return;
+        CatalogLoader.save(current, filePath);
     }
+
+    /**
+     * This returns the catalog from the last successful load.
+     *
+     * @return the loaded catalog, or null if no rooms file has been loaded
+     */
+    public PuzzleCatalog getCatalog() {
+        return contents.catalog;
+    }
+
     /**
      * This returns the total number of rooms.
      *
      * @return the total number of rooms
      */
     public int getTotalRooms() {
-        return totalRooms;
+        return contents.rooms.size();
     }
 }
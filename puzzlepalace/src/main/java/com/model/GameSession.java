@@ -0,0 +1,874 @@
+package com.model;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * The state of one player's game: the logged-in player, their rooms, the
+ * active puzzle and its timer and freeze-timer fields.
+ *
+ * Sessions are created by a {@link SessionRegistry}, which supplies the shared
+ * {@link PlayerManager}, {@link SaveQueue} and {@link PuzzleCatalog}. Each
+ * session builds its own {@link Room} and {@link Puzzle} instances, so any
+ * number of sessions can play at once. Methods hold the session's lock,
+ * which keeps concurrent requests for the same session in order without
+ * holding up other sessions. It is a {@link ReentrantLock} rather than the
+ * session's monitor, so a virtual thread that waits for a file or another
+ * lock while holding it does not pin its carrier thread.
+ */
+public class GameSession {
+
+    private static final int FREEZE_TIMER_DURATION_SECONDS = 10;
+    private final String sessionId;
+    private final SessionRegistry registry;
+    private final Supplier<Random> randomSource;
+    private final ReentrantLock sessionLock = new ReentrantLock();
+    private volatile long lastActivityMillis;
+    private Player currentPlayer;
+    private Progress progress;
+    private Settings settings;
+    private Room currentRoom;
+    private Puzzle activePuzzle;
+    private Instant puzzleStartTime;
+    private long lastCompletionSeconds;
+    private final List<Room> availableRooms;
+    private int currentRoomIndex;
+    private int consecutiveHintFreeSolves;
+    private boolean freezeTimerActive;
+    private Instant freezeEndTime;
+    private long freezeStartElapsedSeconds;
+    private long freezeCompensationSeconds;
+
+    /**
+     * Create a session that draws room picks from {@code randomSource}.
+     */
+    GameSession(String sessionId, SessionRegistry registry, Supplier<Random> randomSource) {
+        this.sessionId = sessionId;
+        this.registry = registry;
+        this.randomSource = randomSource;
+        this.settings = new Settings();
+        this.availableRooms = new ArrayList<>();
+        this.currentRoomIndex = -1;
+        this.lastActivityMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Return the id the registry knows this session by.
+     */
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Return when the session was last looked up through its registry.
+     */
+    public long getLastActivityMillis() {
+        return lastActivityMillis;
+    }
+
+    void touch() {
+        lastActivityMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Authenticate and log a user in to this session.
+     */
+    public Player login(String userName, String password) {
+        sessionLock.lock();
+        try {
+            Player authenticated = registry.getPlayerManager().authenticate(userName, password);
+            if (authenticated == null) {
+                return null;
+            }
+            this.currentPlayer = authenticated;
+            this.progress = currentPlayer.getProgress();
+            if (this.progress != null) {
+                this.progress.loadProgress();
+            }
+            startEscapeRoom();
+            return this.currentPlayer;
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    private Room summarisePlayerRoom(Player player) {
+        if (player == null) {
+            availableRooms.clear();
+            activePuzzle = null;
+            currentRoom = null;
+            currentRoomIndex = -1;
+            return null;
+        }
+        if (availableRooms.isEmpty() || currentRoom == null) {
+            buildRoomsFor(player);
+        }
+        return currentRoom;
+    }
+
+    private void buildRoomsFor(Player player) {
+        availableRooms.clear();
+        currentRoom = null;
+        activePuzzle = null;
+        currentRoomIndex = -1;
+        puzzleStartTime = null;
+        resetFreezeState();
+        consecutiveHintFreeSolves = 0;
+
+        if (player == null) {
+            lastCompletionSeconds = 0L;
+            return;
+        }
+
+        List<Room> rooms = registry.getCatalog().createRooms(getSelectedDifficulty(), randomSource.get());
+        availableRooms.addAll(rooms);
+
+        if (!availableRooms.isEmpty()) {
+            currentRoomIndex = 0;
+            currentRoom = availableRooms.get(0);
+            activePuzzle = currentRoom.getPuzzles().isEmpty() ? null : currentRoom.getPuzzles().get(0);
+        }
+
+        Score score = player.getScoreDetails();
+        lastCompletionSeconds = score != null ? Math.max(0, score.getTimeTaken()) : 0;
+    }
+
+    /**
+     * Log out the current player and persist their progress.
+     * After logout, the session has no current player.
+     *
+     * The save goes through the shared {@link SaveQueue}; drain the queue to
+     * wait for it. The account itself is left as it is, so the player logs
+     * back in with the same password.
+     *
+     * @return future completed with {@code true} once the save is written
+     */
+    public CompletableFuture<Boolean> logout() {
+        sessionLock.lock();
+        try {
+            CompletableFuture<Boolean> saved = saveCurrentPlayerProgress();
+            currentPlayer = null;
+            progress = null;
+            currentRoom = null;
+            activePuzzle = null;
+            availableRooms.clear();
+            currentRoomIndex = -1;
+            puzzleStartTime = null;
+            return saved;
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    public Settings getSettings() {
+        sessionLock.lock();
+        try {
+            return settings;
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    public void setDifficulty(String level) {
+        sessionLock.lock();
+        try {
+
+            setSelectedDifficulty(Settings.Difficulty.fromName(level));
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    public Settings.Difficulty getSelectedDifficulty() {
+        sessionLock.lock();
+        try {
+            if (settings == null) {
+                settings = new Settings();
+            }
+            Settings.Difficulty difficulty = settings.getDifficulty();
+            return difficulty == null ? Settings.Difficulty.EASY : difficulty;
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    public void setSelectedDifficulty(Settings.Difficulty difficulty) {
+        sessionLock.lock();
+        try {
+            if (settings == null) {
+                settings = new Settings();
+            }
+            Settings.Difficulty resolved = difficulty == null ? Settings.Difficulty.EASY : difficulty;
+            if (resolved == settings.getDifficulty()) {
+                return;
+            }
+            settings.setDifficulty(resolved);
+            if (currentPlayer != null) {
+                buildRoomsFor(currentPlayer);
+            }
+
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    public void enterRoom(int roomIndex) {
+        sessionLock.lock();
+        try {
+            if (roomIndex < 0 || roomIndex >= availableRooms.size()) {
+                return;
+            }
+            currentRoomIndex = roomIndex;
+            currentRoom = availableRooms.get(roomIndex);
+            activePuzzle = currentRoom.getPuzzles().isEmpty() ? null : currentRoom.getPuzzles().get(0);
+            puzzleStartTime = null;
+            resetFreezeState();
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    /**
+     * Get the currently active room (may be null if no player or no rooms).
+     */
+    public Room getCurrentRoom() {
+        sessionLock.lock();
+        try {
+            if (currentPlayer == null) {
+                return null;
+            }
+            if (currentRoom == null || availableRooms.isEmpty()) {
+                currentRoom = summarisePlayerRoom(currentPlayer);
+            }
+            return currentRoom;
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    /**
+     * Return the currently logged-in player (may be null).
+     */
+    public Player getCurrentPlayer() {
+        sessionLock.lock();
+        try {
+            return currentPlayer;
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    /**
+     * Get the currently active puzzle. Ensures the puzzle timer is started when appropriate.
+     */
+    public Puzzle getActivePuzzle() {
+        sessionLock.lock();
+        try {
+            if (activePuzzle == null) {
+                Room room = getCurrentRoom();
+                if (room != null) {
+                    activePuzzle = room.getPuzzles().isEmpty() ? null : room.getPuzzles().get(0);
+                }
+            }
+            ensureActivePuzzleTimerStarted();
+            return activePuzzle;
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    public void ensureActivePuzzleTimerStarted() {
+        sessionLock.lock();
+        try {
+            if (activePuzzle != null && puzzleStartTime == null && !"SOLVED".equalsIgnoreCase(activePuzzle.getStatus())) {
+                puzzleStartTime = Instant.now();
+            }
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    public void restartActivePuzzleTimer() {
+        sessionLock.lock();
+        try {
+            resetFreezeState();
+            if (activePuzzle == null) {
+                puzzleStartTime = null;
+                return;
+            }
+            if ("SOLVED".equalsIgnoreCase(activePuzzle.getStatus())) {
+                puzzleStartTime = null;
+            } else {
+                puzzleStartTime = Instant.now();
+            }
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    /**
+     * Get the elapsed seconds for the active puzzle (accounts for freeze compensation).
+     */
+    public long getActivePuzzleElapsedSeconds() {
+        sessionLock.lock();
+        try {
+            if (puzzleStartTime == null) {
+                return 0L;
+            }
+            Instant now = Instant.now();
+            long rawElapsed = Math.max(0L, Duration.between(puzzleStartTime, now).getSeconds());
+            if (freezeTimerActive && freezeEndTime != null) {
+                if (now.isBefore(freezeEndTime)) {
+                    return Math.max(0L, freezeStartElapsedSeconds);
+                }
+                freezeTimerActive = false;
+                freezeEndTime = null;
+            }
+            long adjusted = rawElapsed - freezeCompensationSeconds;
+            return Math.max(0L, adjusted);
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    public long getLastCompletionSeconds() {
+        sessionLock.lock();
+        try {
+            return Math.max(0L, lastCompletionSeconds);
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+    
+
+
+    public String describeCurrentPuzzleStatus() {
+        sessionLock.lock();
+        try {
+            Puzzle puzzle = getActivePuzzle();
+            if (puzzle == null) {
+                return "Difficulty: " + getSelectedDifficulty().getDisplayName() + ". No puzzle loaded.";
+            }
+            String status = puzzle.getStatus();
+            String prefix = "Difficulty: " + getSelectedDifficulty().getDisplayName() + ". ";
+
+            if ("SOLVED".equalsIgnoreCase(status)) {
+                return prefix + "You cracked the current puzzle!";
+            }
+            if ("ATTEMPTED".equalsIgnoreCase(status)) {
+                return prefix + "The keypad is still locked. Try another code.";
+            }
+            return prefix + "A puzzle is waiting for you.";
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    public List<Room> listAvailableRooms() {
+        sessionLock.lock();
+        try {
+            if (currentPlayer == null) {
+                return Collections.emptyList();
+            }
+            if (availableRooms.isEmpty()) {
+                summarisePlayerRoom(currentPlayer);
+            }
+            return Collections.unmodifiableList(new ArrayList<>(availableRooms));
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    public Puzzle getPuzzle(int puzzleId) {
+        sessionLock.lock();
+        try {
+            Room room = getCurrentRoom();
+            if (room == null) {
+                return null;
+            }
+            return room.getPuzzleById(puzzleId);
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    public boolean moveToNextRoom() {
+        sessionLock.lock();
+        try {
+            if (!hasNextRoom()) {
+                return false;
+            }
+            enterRoom(currentRoomIndex + 1);
+            return activePuzzle != null;
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    public boolean hasNextRoom() {
+        sessionLock.lock();
+        try {
+            return currentRoomIndex >= 0 && currentRoomIndex + 1 < availableRooms.size();
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    public boolean isNextRoomFinal() {
+        sessionLock.lock();
+        try {
+            return hasNextRoom() && currentRoomIndex + 1 == availableRooms.size() - 1;
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+    
+    public boolean isCurrentRoomFirst() {
+        sessionLock.lock();
+        try {
+            return currentRoomIndex == 0;
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    public boolean isCurrentRoomSecond() {
+        sessionLock.lock();
+        try {
+            return currentRoomIndex == 1;
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+
+    public String getCurrentRoomName() {
+        sessionLock.lock();
+        try {
+            Room room = getCurrentRoom();
+            if (room == null || room.getName() == null || room.getName().isBlank()) {
+                return "Mystery Room";
+            }
+            return room.getName();
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    public void resetProgressToFirstRoom() {
+        sessionLock.lock();
+        try {
+            if (currentPlayer == null) {
+                return;
+            }
+            if (availableRooms.isEmpty()) {
+                buildRoomsFor(currentPlayer);
+            }
+            for (Room room : availableRooms) {
+                for (Puzzle puzzle : room.getPuzzles()) {
+                    puzzle.resetPuzzle();
+                }
+            }
+            enterRoom(0);
+            puzzleStartTime = null;
+            resetFreezeState();
+            consecutiveHintFreeSolves = 0;
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+    /**
+     * Submit an answer for a puzzle.
+     */
+    public boolean submitPuzzleAnswer(int puzzleId, String answer) {
+        sessionLock.lock();
+        try {
+            return changingScore(() -> applyAnswer(puzzleId, answer));
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    private boolean applyAnswer(int puzzleId, String answer) {
+        Puzzle puzzle = getPuzzle(puzzleId);
+        if (puzzle == null) {
+            return false;
+        }
+        String previousStatus = puzzle.getStatus();
+        boolean solved = puzzle.trySolve(answer);
+        if (solved && (previousStatus == null || !"SOLVED".equalsIgnoreCase(previousStatus))) {
+            boolean newlySolved = false;
+            if (currentPlayer != null) {
+                newlySolved = currentPlayer.recordPuzzleCompletion(puzzle, answer);
+                if (newlySolved) {
+                    registry.getWindowedLeaderboard().recordSolve(currentPlayer.getPlayerID(),
+                            currentPlayer.getUsername(), getSelectedDifficulty(), puzzle.getHintsUsed(), null);
+                    currentPlayer.countSolveBonus(getSelectedDifficulty());
+                    if (puzzle != null && puzzle.getHintsUsed() == 0) {
+                        currentPlayer.addFreeHintToken();
+                        consecutiveHintFreeSolves++;
+                        if (consecutiveHintFreeSolves >= 2) {
+                            currentPlayer.addFreezeTimerCharge();
+                            consecutiveHintFreeSolves = 0;
+                        }
+                    } else {
+                        consecutiveHintFreeSolves = 0;
+                    }
+                }
+            }
+            long completionSeconds = getActivePuzzleElapsedSeconds();
+            lastCompletionSeconds = Math.max(0L, completionSeconds);
+            Score score = currentPlayer != null ? currentPlayer.getScoreDetails() : null;
+            if (score != null) {
+                int seconds = (int) Math.min(Integer.MAX_VALUE, Math.max(0L, lastCompletionSeconds));
+                score.setTimeTaken(seconds);
+            }
+            puzzleStartTime = null;
+            resetFreezeState();
+        }
+        if (solved && (puzzle == null || puzzle.getHintsUsed() != 0)) {
+            consecutiveHintFreeSolves = 0;
+        }
+        if (solved) {
+            registry.getLeaderboard().addEntry(currentPlayer);
+        }
+        return solved;    }
+
+    /**
+     * Runs a change to the player's score or leaderboard entries once the
+     * leaderboards are ready and while no scoring policy is being applied, so
+     * the change is neither lost nor counted twice by the startup ranking or
+     * {@link SessionRegistry#applyScoringPolicy(ScoringPolicy)}.
+     */
+    private <T> T changingScore(Supplier<T> change) {
+        registry.awaitLeaderboards();
+        Lock lock = registry.getScoreUpdateLock();
+        lock.lock();
+        try {
+            return change.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Return true if a wrong answer for a puzzle is close to its solution.
+     */
+    public boolean isCloseAnswer(int puzzleId, String answer) {
+        sessionLock.lock();
+        try {
+            Puzzle puzzle = getPuzzle(puzzleId);
+            return puzzle != null && puzzle.isCloseAnswer(answer);
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    /**
+     * Persist current player's progress and update their score metadata.
+     * Safe to call when no player is logged in (no-op).
+     *
+     * The write happens in the background through {@link SaveQueue}; repeated
+     * saves before the next flush are coalesced. Join the returned future to
+     * wait until the save has been written.
+     *
+     * @return future completed with {@code true} once the save is written
+     */
+    public CompletableFuture<Boolean> saveCurrentPlayerProgress() {
+        sessionLock.lock();
+        try {
+            if (currentPlayer == null) {
+                return CompletableFuture.completedFuture(false);
+            }
+            Score score = currentPlayer.getScoreDetails();
+            if (score != null) {
+                changingScore(() -> {
+                    score.setHintsUsed(currentPlayer.getTotalHintsUsedFromHistory());
+                    score.setPuzzlesSolved(Math.max(score.getPuzzlesSolved(), currentPlayer.getSolvedPuzzleCountFromHistory()));
+                    return null;
+                });
+            }
+            return registry.getSaveQueue().enqueue(currentPlayer);
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    /**
+     * Request the next hint for a puzzle and record usage for the current player.
+     */
+    public String requestHint(int puzzleId) {
+        sessionLock.lock();
+        try {
+            return changingScore(() -> recordHint(puzzleId));
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    private String recordHint(int puzzleId) {
+        Puzzle puzzle = getPuzzle(puzzleId);
+        if (puzzle == null) {
+            return "No puzzle loaded.";
+        }
+        String hint = puzzle.requestHint();
+        if (currentPlayer != null) {
+            currentPlayer.recordHintUsed(puzzle, hint);  
+            registry.getLeaderboard().addEntry(currentPlayer);
+        }
+        return hint;
+    }
+
+    /**
+     * Check whether the current player has any free hint tokens.
+     */
+    public boolean hasFreeHintToken() {
+        sessionLock.lock();
+        try {
+            return currentPlayer != null && currentPlayer.hasFreeHintTokens();
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+      /**
+     * Get the number of free hint tokens the current player has.
+     */
+    public int getFreeHintTokenCount() {
+        sessionLock.lock();
+        try {
+            return currentPlayer == null ? 0 : currentPlayer.getFreeHintTokenCount();
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    /**
+     * Consume one free hint token to get a hint without penalty.
+     */
+    public HintRequestResult useFreeHintToken(int puzzleId) {
+        sessionLock.lock();
+        try {
+            return changingScore(() -> recordFreeHint(puzzleId));
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    private HintRequestResult recordFreeHint(int puzzleId) {
+        if (currentPlayer == null) {
+            return new HintRequestResult(false, "No player logged in.", false);
+        }
+        if (!currentPlayer.consumeFreeHintToken()) {
+            return new HintRequestResult(false, "No extra hint tokens available.", false);
+        }
+        Puzzle puzzle = getPuzzle(puzzleId);
+        if (puzzle == null) {
+            currentPlayer.addFreeHintToken();
+            return new HintRequestResult(false, "No puzzle loaded.", false);
+        }
+        String hint = puzzle.requestHint();
+        if (hint == null || hint.isBlank()) {
+            currentPlayer.addFreeHintToken();
+            return new HintRequestResult(false, "No hints available.", false);
+        }
+        if (isHintUnavailableMessage(hint)) {
+            currentPlayer.addFreeHintToken();
+            return new HintRequestResult(false, hint, false);
+        }
+        puzzle.markLastHintFree();
+        currentPlayer.recordHintUsed(puzzle, hint);
+        registry.getLeaderboard().addEntry(currentPlayer);
+        return new HintRequestResult(true, hint, true);
+    }
+
+    /**
+     * Determine if the currently logged-in player has freeze timer charges.
+     */
+    public boolean hasFreezeTimerCharge() {
+        sessionLock.lock();
+        try {
+            return currentPlayer != null && currentPlayer.hasFreezeTimerCharges();
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    /**
+     * Count of freeze timer charges the current player holds.
+     */
+    public int getFreezeTimerChargeCount() {
+        sessionLock.lock();
+        try {
+            return currentPlayer == null ? 0 : Math.max(0, currentPlayer.getFreezeTimerCharges());
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    public boolean isFreezeTimerActive() {
+        sessionLock.lock();
+        try {
+            if (!freezeTimerActive || freezeEndTime == null) {
+                return false;
+            }
+            if (Instant.now().isBefore(freezeEndTime)) {
+                return true;
+            }
+            freezeTimerActive = false;
+            freezeEndTime = null;
+            return false;
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    public boolean isOnFinalPuzzle() {
+        sessionLock.lock();
+        try {
+            if (activePuzzle == null || "SOLVED".equalsIgnoreCase(activePuzzle.getStatus())) {
+                return false;
+            }
+            if (availableRooms.isEmpty()) {
+                return false;
+            }
+            return !hasNextRoom() && currentRoomIndex >= 0 && currentRoomIndex < availableRooms.size();
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    /**
+     * Check whether a freeze timer item is usable right now for the active puzzle.
+     */
+    public boolean canUseFreezeTimerItem() {
+        sessionLock.lock();
+        try {
+            if (!isOnFinalPuzzle()) {
+                return false;
+            }
+            if (currentPlayer == null || !currentPlayer.hasFreezeTimerCharges()) {
+                return false;
+            }
+            if (isFreezeTimerActive()) {
+                return false;
+            }
+            ensureActivePuzzleTimerStarted();
+            return puzzleStartTime != null;
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    /**
+     * Activate the freeze timer which pauses the active puzzle's elapsed time for a short window.
+     */
+    public boolean activateFreezeTimer() {
+        sessionLock.lock();
+        try {
+            if (!canUseFreezeTimerItem()) {
+                return false;
+            }
+            ensureActivePuzzleTimerStarted();
+            if (puzzleStartTime == null) {
+                return false;
+            }
+            if (!currentPlayer.consumeFreezeTimerCharge()) {
+                return false;
+            }
+            Instant now = Instant.now();
+            long rawElapsed = Math.max(0L, Duration.between(puzzleStartTime, now).getSeconds());
+            long currentElapsed = Math.max(0L, rawElapsed - freezeCompensationSeconds);
+            freezeStartElapsedSeconds = currentElapsed;
+            freezeTimerActive = true;
+            freezeEndTime = now.plusSeconds(FREEZE_TIMER_DURATION_SECONDS);
+            freezeCompensationSeconds += FREEZE_TIMER_DURATION_SECONDS;
+            return true;
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    private boolean isHintUnavailableMessage(String hintMessage) {
+        if (hintMessage == null) {
+            return true;
+        }
+        String normalized = hintMessage.trim();
+        return normalized.equalsIgnoreCase("No hints available.")
+                || normalized.equalsIgnoreCase("All hints have been used.");    }
+
+
+    /**
+     * Build and return a lightweight progress report for the current player.
+     */
+    public PlayerProgressReport getCurrentPlayerProgressReport() {
+        sessionLock.lock();
+        try {
+            if (currentPlayer == null) {
+                return PlayerProgressReport.empty();
+            }
+            List<PuzzleProgressSnapshot> snapshots = currentPlayer.getPuzzleProgressSnapshots();
+            int totalPuzzles = 0;
+            for (Room room : availableRooms) {
+                if (room == null) {
+                    continue;
+                }
+                totalPuzzles += room.getPuzzles().size();
+            }
+            if (totalPuzzles == 0 && !snapshots.isEmpty()) {
+                totalPuzzles = snapshots.size();
+            }
+            int solved = 0;
+            for (PuzzleProgressSnapshot snapshot : snapshots) {
+                if (snapshots != null && snapshot.isSolved()) {
+                    solved++;
+                }
+            }
+            int percent = totalPuzzles == 0 ? 0 : (int) Math.min(100,
+                    Math.round((solved * 100.0) / Math.max(1, totalPuzzles)));
+            return new PlayerProgressReport(percent, solved, totalPuzzles, snapshots);
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    /**
+     * Start or (re)build the available rooms for the currently logged-in player.
+     * If no player is logged in this clears available rooms/state.
+     */
+    public void startEscapeRoom() {
+        sessionLock.lock();
+        try {
+            if (currentPlayer == null) {
+                availableRooms.clear();
+                currentRoom = null;
+                activePuzzle = null;
+                currentRoomIndex = -1;
+                puzzleStartTime = null;
+                lastCompletionSeconds = 0L;
+                resetFreezeState();
+                consecutiveHintFreeSolves = 0;
+                return;
+            }
+
+            buildRoomsFor(currentPlayer);
+
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+    private void resetFreezeState() {
+        freezeTimerActive = false;
+        freezeEndTime = null;
+        freezeStartElapsedSeconds = 0L;
+        freezeCompensationSeconds = 0L;
+    }
+}
@@ -34,6 +34,19 @@ public class Hint
         setMaxHints(maxHints);
     }
 
+    /**
+     * This creates a Hint that reads from an immutable list owned by a
+     * {@link PuzzleDefinition}. The list is shared rather than copied; only
+     * the usage counters belong to this object.
+     *
+     * @param sharedHints an immutable list of hints
+     */
+    Hint(List<String> sharedHints)
+    {
+        this.availableHints = sharedHints;
+        this.maxHints = sharedHints.size();
+    }
+
     /**
      * This gives the next available hint.
      *
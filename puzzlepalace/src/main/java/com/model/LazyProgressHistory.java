@@ -0,0 +1,165 @@
+package com.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.json.simple.JSONArray;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+/**
+ * Points at a player's {@code progressLog} array inside a users file so the
+ * history can be parsed only when it is first needed.
+ *
+ * Offsets are byte positions, found from the JSON parser's positions while
+ * the file was streamed at startup, so a history is read with one positional
+ * read of its own bytes. When {@link DataWriter} rewrites the file it copies
+ * the array across unparsed and moves the pointer to the new offset;
+ * reads and moves of histories in one file are ordered by that file's
+ * {@link #lockFor(File) lock}, so a history is never read at an offset from
+ * the other version of the file.
+ */
+class LazyProgressHistory {
+
+    private static final ConcurrentMap<File, ReadWriteLock> FILE_LOCKS = new ConcurrentHashMap<>();
+
+    private final File file;
+    private final ReadWriteLock lock;
+    private final int length;
+    /** Guarded by {@link #lock}. */
+    private long offset;
+    private volatile boolean trusted;
+
+    /**
+     * Creates a pointer to a history array.
+     *
+     * @param filePath users file that holds the array
+     * @param offset   byte offset of the opening bracket
+     * @param length   number of bytes up to and including the closing bracket
+     */
+    LazyProgressHistory(String filePath, long offset, int length) {
+        this.file = new File(filePath).getAbsoluteFile();
+        this.lock = lockFor(file);
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Returns the lock shared by every history in a users file. Reads take
+     * the read lock; replacing the file and moving its histories takes the
+     * write lock.
+     *
+     * @param file users file
+     * @return the lock for that file
+     */
+    static ReadWriteLock lockFor(File file) {
+        return FILE_LOCKS.computeIfAbsent(file.getAbsoluteFile(), key -> new ReentrantReadWriteLock());
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    long getOffset() {
+        lock.readLock().lock();
+        try {
+            return offset;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    /**
+     * Points the history at the offset it was copied to in a rewritten file.
+     * The caller must hold the file's write lock.
+     *
+     * @param newOffset byte offset of the opening bracket in the new file
+     */
+    void moveTo(long newOffset) {
+        offset = newOffset;
+    }
+
+    /**
+     * Returns whether this history is read from the given users file.
+     *
+     * @param filePath path to compare against
+     * @return {@code true} if the history lives in that file
+     */
+    boolean isBackedBy(String filePath) {
+        return filePath != null && file.equals(new File(filePath).getAbsoluteFile());
+    }
+
+    /**
+     * Marks the history as coming from a file whose checksum matched, so the
+     * score does not need to be reconciled with it after loading.
+     */
+    void markTrusted() {
+        trusted = true;
+    }
+
+    /**
+     * Returns whether the backing file's checksum matched when it was loaded.
+     *
+     * @return {@code true} if the history can be used without reconciliation
+     */
+    boolean isTrusted() {
+        return trusted;
+    }
+
+    /**
+     * Reads the history array's bytes with positional reads.
+     *
+     * @param channel channel open on {@link #getFile()}
+     * @return the array's bytes
+     * @throws IOException if the file cannot be read or ends before the array does
+     */
+    byte[] readBytes(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        long start = getOffset();
+        long position = start;
+        while (buffer.hasRemaining()) {
+            int step = channel.read(buffer, position);
+            if (step < 0) {
+                throw new IOException("history at " + start + " runs past the end of the file");
+            }
+            position += step;
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Reads and parses the history array.
+     *
+     * @return parsed snapshots, or an empty list if the file can no longer be read
+     */
+    List<PuzzleProgressSnapshot> load() {
+        lock.readLock().lock();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            String text = new String(readBytes(channel), Charset.defaultCharset());
+            Object parsed = new JSONParser().parse(text);
+            if (!(parsed instanceof JSONArray)) {
+                return Collections.emptyList();
+            }
+            return DataLoader.parseProgressLog((JSONArray) parsed);
+        } catch (IOException | ParseException e) {
+            System.out.println("LazyProgressHistory: unable to load history from " + file + ": " + e.getMessage());
+            return Collections.emptyList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
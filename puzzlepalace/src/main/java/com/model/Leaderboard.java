@@ -1,35 +1,417 @@
 package com.model;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
 /**
  * This represents the leaderboard in the game.
- * This keeps track of top players and their scores.
+ * This keeps track of every player's score and rank.
+ *
+ * Players are ordered by score, highest first; equal scores go to the
+ * faster escape time, then to the lower player id, so every player has a
+ * distinct rank. The order is kept in an indexable skip list: each link
+ * records how many players it skips, so finding a player's rank, the player
+ * at a rank and moving a player after a score change all take O(log n)
+ * expected time, and the top k players take O(log n + k). Nothing is sorted
+ * when a rank is asked for.
+ *
+ * All methods are thread-safe; updates and queries are serialised on the
+ * leaderboard.
  */
-
 public class Leaderboard {
 
-    private List<Certificate> entries;
-    private List<Player> users;
+    /** How many players {@link #displayTopScores()} returns. */
+    public static final int DEFAULT_TOP = 10;
+
+    private static final int MAX_LEVEL = 16;
+
+    /**
+     * This is one player's place on the leaderboard at the time it was read.
+     */
+    public static final class Entry {
+        private final int rank;
+        private final UUID playerId;
+        private final String username;
+        private final int score;
+        private final int timeTaken;
+
+        Entry(int rank, UUID playerId, String username, int score, int timeTaken) {
+            this.rank = rank;
+            this.playerId = playerId;
+            this.username = username;
+            this.score = score;
+            this.timeTaken = timeTaken;
+        }
+
+        /** Return the player's 1-based rank. */
+        public int getRank() {
+            return rank;
+        }
+
+        public UUID getPlayerId() {
+            return playerId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        /** Return the player's escape time in seconds. */
+        public int getTimeTaken() {
+            return timeTaken;
+        }
+
+        @Override
+        public String toString() {
+            return rank + ". " + username + " " + score;
+        }
+    }
+
+    private static final class Node {
+        final UUID playerId;
+        final String username;
+        final int score;
+        final int timeTaken;
+        final Node[] next;
+        /** The number of level-0 steps each link in {@link #next} covers. */
+        final int[] width;
+
+        Node(UUID playerId, String username, int score, int timeTaken, int level) {
+            this.playerId = playerId;
+            this.username = username;
+            this.score = score;
+            this.timeTaken = timeTaken;
+            this.next = new Node[level];
+            this.width = new int[level];
+        }
+
+        /** Returns true if this node ranks above the given key. */
+        boolean before(int otherScore, int otherTime, UUID otherId) {
+            if (score != otherScore) {
+                return score > otherScore;
+            }
+            if (timeTaken != otherTime) {
+                return timeTaken < otherTime;
+            }
+            return playerId.compareTo(otherId) < 0;
+        }
+    }
+
+    private final Node head = new Node(null, null, 0, 0, MAX_LEVEL);
+    private final Map<UUID, Node> nodes = new HashMap<>();
+    private final Node[] update = new Node[MAX_LEVEL];
+    private final int[] positions = new int[MAX_LEVEL];
+    private long seed = 0x2545F4914F6CDD1DL;
+
+    /**
+     * This creates an empty leaderboard.
+     */
+    public Leaderboard() {
+        Arrays.fill(head.width, 1);
+    }
 
     /**
-     * This adds a new entry to the leaderboard.
+     * This creates a leaderboard ranking the given players by their current scores.
+     *
+     * @param players the players to rank
+     */
+    public Leaderboard(Collection<Player> players) {
+        this();
+        rankAll(players);
+    }
+
+    /**
+     * This replaces everyone on the leaderboard with the given players,
+     * ranked by their current scores. The players are sorted once rather
+     * than added one at a time.
+     *
+     * @param players the players to rank
+     */
+    public void rankAll(Collection<Player> players) {
+        List<Entry> entries = new ArrayList<>();
+        if (players != null) {
+            for (Player player : players) {
+                if (player != null && player.getPlayerID() != null) {
+                    entries.add(entryOf(player));
+                }
+            }
+        }
+        replaceAll(entries);
+    }
+
+    private static Entry entryOf(Player player) {
+        Score score = player.getScoreDetails();
+        return new Entry(0, player.getPlayerID(), player.getUsername(),
+                score == null ? 0 : score.calculateScore(), score == null ? 0 : score.getTimeTaken());
+    }
+
+    /**
+     * This adds a player to the leaderboard, or moves them to match their
+     * current score.
+     *
+     * @param player the player whose score changed
+     * @return true if the player was ranked
+     */
+    public synchronized boolean addEntry(Player player) {
+        if (player == null || player.getPlayerID() == null) {
+            return false;
+        }
+        Entry entry = entryOf(player);
+        update(entry.getPlayerId(), entry.getUsername(), entry.getScore(), entry.getTimeTaken());
+        return true;
+    }
+
+    /**
+     * This records a player's score and escape time, replacing any earlier
+     * entry for the same player.
+     *
+     * @param playerId the player's id
+     * @param username the name shown on the leaderboard
+     * @param score the player's total score
+     * @param timeTaken the player's escape time in seconds, which breaks ties
+     */
+    public synchronized void update(UUID playerId, String username, int score, int timeTaken) {
+        if (playerId == null) {
+            throw new IllegalArgumentException("playerId must not be null");
+        }
+        Node existing = nodes.get(playerId);
+        if (existing != null) {
+            if (existing.score == score && existing.timeTaken == timeTaken
+                    && Objects.equals(existing.username, username)) {
+                return;
+            }
+            unlink(existing);
+        }
+        Node node = new Node(playerId, username, score, timeTaken, randomLevel());
+        link(node);
+        nodes.put(playerId, node);
+    }
+
+    /**
+     * This removes a player from the leaderboard.
+     *
+     * @return true if the player was on it
      */
-    public void addEntry() { }
+    public synchronized boolean removeEntry(UUID playerId) {
+        Node node = playerId == null ? null : nodes.remove(playerId);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
 
     /**
      * This displays the top scores on the leaderboard.
      *
-     * @return a list of the top scores
+     * @return the top {@link #DEFAULT_TOP} entries, best first
+     */
+    public List<Entry> displayTopScores() {
+        return displayTopScores(DEFAULT_TOP);
+    }
+
+    /**
+     * This returns the best {@code count} entries, best first.
+     *
+     * @param count how many entries to return
+     * @return the entries
      */
-    public List displayTopScores() { 
-        return null; 
+    public synchronized List<Entry> displayTopScores(int count) {
+        return entriesFrom(1, count);
+    }
+
+    /**
+     * This returns up to {@code count} entries starting at a rank, for paging
+     * through the leaderboard.
+     *
+     * @param rank the 1-based rank of the first entry
+     * @param count how many entries to return
+     * @return the entries
+     */
+    public synchronized List<Entry> entriesFrom(int rank, int count) {
+        int wanted = Math.max(0, Math.min(count, nodes.size() - rank + 1));
+        List<Entry> entries = new ArrayList<>(wanted);
+        Node node = rank < 1 ? null : nodeAt(rank);
+        for (int i = 0; i < wanted && node != null; i++) {
+            entries.add(new Entry(rank + i, node.playerId, node.username, node.score, node.timeTaken));
+            node = node.next[0];
+        }
+        return entries;
     }
 
     /**
      * This finds and returns the rank of a specific user.
      *
-     * @return the rank of the user
+     * @param playerId the player's id
+     * @return the player's 1-based rank, or 0 if they are not on the leaderboard
+     */
+    public synchronized int findUserRank(UUID playerId) {
+        Node node = playerId == null ? null : nodes.get(playerId);
+        if (node == null) {
+            return 0;
+        }
+        Node x = head;
+        int position = 0;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            while (x.next[level] != null && x.next[level].before(node.score, node.timeTaken, node.playerId)) {
+                position += x.width[level];
+                x = x.next[level];
+            }
+        }
+        return position + 1;
+    }
+
+    /**
+     * This returns a player's entry, or null if they are not on the leaderboard.
+     */
+    public synchronized Entry getEntry(UUID playerId) {
+        Node node = playerId == null ? null : nodes.get(playerId);
+        return node == null ? null
+                : new Entry(findUserRank(playerId), node.playerId, node.username, node.score, node.timeTaken);
+    }
+
+    /**
+     * This saves the leaderboard in rank order to a file that
+     * {@link LeaderboardSnapshot#open(Path)} can map.
+     *
+     * @param file the snapshot file
+     * @return true if the snapshot was written
+     */
+    public boolean writeSnapshot(Path file) {
+        List<Entry> entries;
+        synchronized (this) {
+            entries = entriesFrom(1, nodes.size());
+        }
+        return LeaderboardSnapshot.write(entries, file);
+    }
+
+    /**
+     * Replaces everyone on the leaderboard with the given entries, whose
+     * ranks are ignored. The entries are sorted once and the skip list is
+     * built from front to back, which is much faster than adding players one
+     * at a time. A player listed twice keeps their last entry.
+     */
+    synchronized void replaceAll(Collection<Entry> entries) {
+        Map<UUID, Node> byId = new HashMap<>(Math.max(16, entries.size() * 4 / 3 + 1));
+        for (Entry entry : entries) {
+            byId.put(entry.getPlayerId(), new Node(entry.getPlayerId(), entry.getUsername(), entry.getScore(),
+                    entry.getTimeTaken(), randomLevel()));
+        }
+        Node[] sorted = byId.values().toArray(new Node[0]);
+        Arrays.parallelSort(sorted, (a, b) -> a == b ? 0 : a.before(b.score, b.timeTaken, b.playerId) ? -1 : 1);
+
+        nodes.clear();
+        nodes.putAll(byId);
+        Arrays.fill(head.next, null);
+        Node[] last = new Node[MAX_LEVEL];
+        int[] lastPosition = new int[MAX_LEVEL];
+        Arrays.fill(last, head);
+        for (int position = 1; position <= sorted.length; position++) {
+            Node node = sorted[position - 1];
+            for (int level = 0; level < node.next.length; level++) {
+                last[level].next[level] = node;
+                last[level].width[level] = position - lastPosition[level];
+                last[level] = node;
+                lastPosition[level] = position;
+            }
+        }
+        for (int level = 0; level < MAX_LEVEL; level++) {
+            last[level].width[level] = sorted.length + 1 - lastPosition[level];
+        }
+    }
+
+    /**
+     * Returns a player's score, or 0 if they are not on the leaderboard.
+     */
+    synchronized int scoreOf(UUID playerId) {
+        Node node = playerId == null ? null : nodes.get(playerId);
+        return node == null ? 0 : node.score;
+    }
+
+    /**
+     * This returns the number of players on the leaderboard.
+     */
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    private Node nodeAt(int rank) {
+        Node x = head;
+        int position = 0;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            while (x.next[level] != null && position + x.width[level] <= rank) {
+                position += x.width[level];
+                x = x.next[level];
+            }
+        }
+        return position == rank ? x : null;
+    }
+
+    /**
+     * Finds, on every level, the last node before the key and its position.
+     */
+    private void findPredecessors(int score, int timeTaken, UUID playerId) {
+        Node x = head;
+        int position = 0;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            while (x.next[level] != null && x.next[level].before(score, timeTaken, playerId)) {
+                position += x.width[level];
+                x = x.next[level];
+            }
+            update[level] = x;
+            positions[level] = position;
+        }
+    }
+
+    private void link(Node node) {
+        findPredecessors(node.score, node.timeTaken, node.playerId);
+        int position = positions[0] + 1;
+        for (int level = 0; level < MAX_LEVEL; level++) {
+            Node before = update[level];
+            if (level < node.next.length) {
+                int skipped = position - positions[level];
+                node.next[level] = before.next[level];
+                node.width[level] = before.width[level] - skipped + 1;
+                before.next[level] = node;
+                before.width[level] = skipped;
+            } else {
+                before.width[level]++;
+            }
+        }
+    }
+
+    private void unlink(Node node) {
+        findPredecessors(node.score, node.timeTaken, node.playerId);
+        for (int level = 0; level < MAX_LEVEL; level++) {
+            Node before = update[level];
+            if (before.next[level] == node) {
+                before.width[level] += node.width[level] - 1;
+                before.next[level] = node.next[level];
+            } else {
+                before.width[level]--;
+            }
+        }
+    }
+
+    /**
+     * Returns a level with probability 1/4 of each level above the first.
      */
-    public int findUserRank() { 
-        return 0; 
+    private int randomLevel() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        int level = 1 + Long.numberOfTrailingZeros(seed | (1L << 62)) / 2;
+        return Math.min(level, MAX_LEVEL);
     }
 }
@@ -0,0 +1,208 @@
+package com.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A leaderboard saved to disk in rank order, read by memory-mapping the file.
+ *
+ * The file is a header followed by one fixed-width record per player, best
+ * first, so the entry at any rank is read straight from its offset without
+ * parsing the rest of the file. Opening a snapshot maps it and checks the
+ * header; records are only read when they are asked for, so showing the top
+ * ten of a million players touches ten records.
+ *
+ * Record layout (big-endian, {@link #RECORD_SIZE} bytes): the player id as two
+ * longs, the score and the escape time as ints, then the username as a length
+ * byte and up to {@link #MAX_NAME_BYTES} bytes of UTF-8. Longer names are cut
+ * at a character boundary.
+ *
+ * A snapshot is a picture of the leaderboard when it was written; it is not
+ * updated as scores change.
+ */
+public final class LeaderboardSnapshot {
+
+    /** Appended to the users file name to name the snapshot saved next to it. */
+    public static final String FILE_SUFFIX = ".ranks";
+
+    static final int MAX_NAME_BYTES = 23;
+    static final int RECORD_SIZE = 8 + 8 + 4 + 4 + 1 + MAX_NAME_BYTES;
+
+    private static final int MAGIC = 0x50504C42;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 8 + 8;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final MappedByteBuffer records;
+    private final int count;
+    private final Instant savedAt;
+
+    private LeaderboardSnapshot(MappedByteBuffer records, int count, Instant savedAt) {
+        this.records = records;
+        this.count = count;
+        this.savedAt = savedAt;
+    }
+
+    /**
+     * This writes entries, already in rank order, to a snapshot file. The
+     * file is written beside the target and moved into place, so a reader
+     * never sees half a snapshot.
+     *
+     * @param entries the entries, best first
+     * @param file the snapshot file
+     * @return true if the snapshot was written
+     */
+    static boolean write(List<Leaderboard.Entry> entries, Path file) {
+        Path temp = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocate(Math.max(HEADER_SIZE, 1024 * RECORD_SIZE));
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(entries.size()).putInt(RECORD_SIZE)
+                        .putLong(System.currentTimeMillis()).putLong(0L);
+                for (Leaderboard.Entry entry : entries) {
+                    if (buffer.remaining() < RECORD_SIZE) {
+                        drain(channel, buffer);
+                    }
+                    putRecord(buffer, entry);
+                }
+                drain(channel, buffer);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            System.out.println("LeaderboardSnapshot: could not write " + file + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+            }
+            return false;
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void putRecord(ByteBuffer buffer, Leaderboard.Entry entry) {
+        UUID id = entry.getPlayerId();
+        buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits())
+                .putInt(entry.getScore()).putInt(entry.getTimeTaken());
+        byte[] name = truncatedName(entry.getUsername());
+        buffer.put((byte) name.length).put(name);
+        buffer.put(new byte[MAX_NAME_BYTES - name.length]);
+    }
+
+    /**
+     * Returns the UTF-8 bytes of a name, cut to at most {@link #MAX_NAME_BYTES}
+     * without splitting a character.
+     */
+    private static byte[] truncatedName(String username) {
+        String name = username == null ? "" : username;
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int end = name.length();
+        while (bytes.length > MAX_NAME_BYTES) {
+            end = Character.isLowSurrogate(name.charAt(end - 1)) && end > 1 ? end - 2 : end - 1;
+            bytes = name.substring(0, end).getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    /**
+     * This maps a snapshot file for reading.
+     *
+     * @param file the snapshot file
+     * @return the snapshot, or null if the file is missing or is not a snapshot
+     */
+    public static LeaderboardSnapshot open(Path file) {
+        if (file == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("file is too short");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int count = mapped.getInt(8);
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION || mapped.getInt(12) != RECORD_SIZE
+                    || count < 0 || size != HEADER_SIZE + (long) count * RECORD_SIZE) {
+                throw new IOException("not a leaderboard snapshot");
+            }
+            return new LeaderboardSnapshot(mapped, count, Instant.ofEpochMilli(mapped.getLong(16)));
+        } catch (IOException | RuntimeException e) {
+            System.out.println("LeaderboardSnapshot: ignoring unreadable snapshot " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Return the number of players in the snapshot. */
+    public int size() {
+        return count;
+    }
+
+    /** Return when the snapshot was written. */
+    public Instant getSavedAt() {
+        return savedAt;
+    }
+
+    /**
+     * Return the entry at a 1-based rank, or null if there is none.
+     */
+    public Leaderboard.Entry getEntry(int rank) {
+        if (rank < 1 || rank > count) {
+            return null;
+        }
+        int at = HEADER_SIZE + (rank - 1) * RECORD_SIZE;
+        UUID id = new UUID(records.getLong(at), records.getLong(at + 8));
+        int length = Math.min(records.get(at + 24) & 0xFF, MAX_NAME_BYTES);
+        byte[] name = new byte[length];
+        records.get(at + 25, name);
+        return new Leaderboard.Entry(rank, id, new String(name, StandardCharsets.UTF_8),
+                records.getInt(at + 16), records.getInt(at + 20));
+    }
+
+    /**
+     * Return up to {@code count} entries starting at a 1-based rank.
+     */
+    public List<Leaderboard.Entry> entriesFrom(int rank, int count) {
+        int first = Math.max(1, rank);
+        int last = (int) Math.min(this.count, (long) first + Math.max(0, count) - 1);
+        List<Leaderboard.Entry> entries = new ArrayList<>(Math.max(0, last - first + 1));
+        for (int r = first; r <= last; r++) {
+            entries.add(getEntry(r));
+        }
+        return entries;
+    }
+
+    /**
+     * Return the best {@code count} entries, best first.
+     */
+    public List<Leaderboard.Entry> topScores(int count) {
+        return entriesFrom(1, count);
+    }
+}
@@ -1,6 +1,5 @@
 package com.model;
 
-import java.nio.file.Files;
 import java.nio.file.Path;
 
 
@@ -32,10 +31,10 @@ public class LoginScenario {
             return false;
         }
 
-        facade.saveCurrentPlayerProgress();
+        facade.saveCurrentPlayerProgress().join();
 
-        Path progressFile = ProgressFileLocator.forPlayer(loggedIn);
-        boolean progressSaved = Files.exists(progressFile);
+        ProgressStore store = ProgressStore.forDirectory("data");
+        boolean progressSaved = store != null && store.contains(loggedIn.getPlayerID());
 
         facade.logout();
 
@@ -65,8 +64,8 @@ public class LoginScenario {
     }
 
     /**
-     * Helper to produce the  save path without duplicating the logic in
-     * {@link Progress}.
+     * Helper to produce the per-player progress file path used before
+     * {@link ProgressStore}; the store imports these files when it is opened.
      */
     private static final class ProgressFileLocator {
         private ProgressFileLocator() {
@@ -27,6 +27,14 @@ public class MathChallengePuzzle extends Puzzle {
                 hints == null ? Collections.emptyList() : Arrays.asList(hints));
     }
 
+    /**
+     * Creates a puzzle whose hints are read from a shared {@link Hint}.
+     */
+    MathChallengePuzzle(int puzzleId, String prompt, double solution, Hint hints) {
+        super(puzzleId, prompt, "UNSOLVED", hints);
+        this.solution = solution;
+    }
+
      /**
      * Attempts to solve the puzzle by comparing the user's guess to the solution.
      */
@@ -17,6 +17,7 @@ public class MathPuzzle
     private String answer;       
     private List<String> hints;
     private int hintsUsed;
+    private CompiledEquation compiled;
 
     /** 
      * Creates an empty MathPuzzle with no question or answer. 
@@ -50,21 +51,20 @@ public class MathPuzzle
 
     /**
      * Checks the puzzle solution using provided variable values.
+     * Variables without a value count as zero.
      */
     public boolean checkAnswer(Map<String, Double> variables) 
     {
-        try {
-            String[] sides = question.split("=");
-            if (sides.length != 2) return false;
+        CompiledEquation equation = compiledQuestion();
+        if (equation == null || variables == null) return false;
 
-            double left = evaluate(sides[0], variables);
-            double right = evaluate(sides[1], variables);
-
-            return Math.abs(left - right) < 1e-6;
-        } catch (Exception e) 
+        double[] values = new double[equation.getVariableCount()];
+        for (int slot = 0; slot < values.length; slot++) 
         {
-            return false;
+            Double value = variables.get(equation.getVariable(slot));
+            values[slot] = value == null ? 0.0 : value;
         }
+        return equation.isSatisfiedBy(values);
     }
 
     /**
@@ -77,97 +77,23 @@ public class MathPuzzle
     }
 
     /**
-     * Evaluates a mathematical expression using given variable values.
+     * Returns the question compiled into a {@link CompiledEquation}, compiling it
+     * on first use, or null if the question is not a valid equation.
      */
-    private double evaluate(String expr, Map<String, Double> vars) 
+    private CompiledEquation compiledQuestion() 
     {
-        expr = expr.replaceAll("\\s+", "");
-        return new Parser(expr, vars).parseExpression();
-    }
-
-    /**
-     * Simple mathematical expression parser for evaluating basic arithmetic with variables.
-     */
-    private static class Parser 
-    {
-        private final String input;
-        private final Map<String, Double> vars;
-        private int pos = -1, ch;
-
-        Parser(String input, Map<String, Double> vars) 
-        {
-            this.input = input;
-            this.vars = vars;
-            nextChar();
-        }
-
-        void nextChar() 
-        {
-            ch = (++pos < input.length()) ? input.charAt(pos) : -1;
-        }
-
-        boolean eat(int charToEat) 
-        {
-            while (ch == ' ') nextChar();
-            if (ch == charToEat) 
-            {
-                nextChar();
-                return true;
-            }
-            return false;
-        }
-
-        double parseExpression() 
+        CompiledEquation equation = compiled;
+        if (equation == null && question != null) 
         {
-            double x = parseTerm();
-            for (;;) 
-            {
-                if (eat('+')) x += parseTerm();
-                else if (eat('-')) x -= parseTerm();
-                else return x;
-            }
-        }
-
-        double parseTerm() 
-        {
-            double x = parseFactor();
-            for (;;) 
-            {
-                if (eat('*')) x *= parseFactor();
-                else if (eat('/')) x /= parseFactor();
-                else return x;
-            }
-        }
-
-        double parseFactor() 
-        {
-            if (eat('+')) return parseFactor();
-            if (eat('-')) return -parseFactor();
-
-            double x;
-            int startPos = this.pos;
-
-            if (eat('(')) 
-            {
-                x = parseExpression();
-                eat(')');
-            } else if ((ch >= '0' && ch <= '9') || ch == '.') 
-            {
-                while ((ch >= '0' && ch <= '9') || ch == '.') nextChar();
-                x = Double.parseDouble(input.substring(startPos, this.pos));
-            } else if (Character.isLetter(ch)) 
-            {
-                while (Character.isLetterOrDigit(ch)) nextChar();
-                String var = input.substring(startPos, this.pos);
-                x = vars.getOrDefault(var, 0.0);
-            } else 
+            try {
+                equation = CompiledEquation.of(question);
+                compiled = equation;
+            } catch (IllegalArgumentException e) 
             {
-                throw new RuntimeException("Unexpected: " + (char) ch);
+                return null;
             }
-
-            if (eat('^')) x = Math.pow(x, parseFactor());
-            return x;
         }
+        return equation;
     }
 
     /**
@@ -216,7 +142,7 @@ public class MathPuzzle
     
     /** return the puzzle question */
     public String getQuestion() { return question; }
-    public void setQuestion(String question) { this.question = question; }
+    public void setQuestion(String question) { this.question = question; this.compiled = null; }
     
     /** return the current answer */
     public String getAnswer() { return answer; }
@@ -5,6 +5,8 @@ import java.util.Map;
 /**
  * Evaluates whether a given answer (a number or variable assignments) satisfies
  * a mathematical equation of the form "expression = expression".
+ * Equations are compiled once into a {@link CompiledEquation} and reused for
+ * every later answer.
  */
 public class MathPuzzleEvaluateSolution 
 {
@@ -17,15 +19,33 @@ public class MathPuzzleEvaluateSolution
         if (equation == null || equation.isBlank()) return "No equation provided.";
         if (userAnswer == null || userAnswer.isBlank()) return "No answer provided.";
 
+        double value;
         try 
         {
-            double value = Double.parseDouble(userAnswer);
-            Map<String, Double> vars = Map.of("x", value);
-            return evaluateSolution(equation, vars);
+            value = Double.parseDouble(userAnswer);
         } catch (NumberFormatException e) 
         {
             return "Invalid number format for answer.";
         }
+
+        CompiledEquation compiled;
+        try 
+        {
+            compiled = CompiledEquation.of(equation);
+        } catch (IllegalArgumentException e) 
+        {
+            return compileError(e);
+        }
+        double[] values = new double[compiled.getVariableCount()];
+        for (int slot = 0; slot < values.length; slot++) 
+        {
+            if (!"x".equals(compiled.getVariable(slot))) 
+            {
+                return "Error evaluating: Unknown variable: " + compiled.getVariable(slot);
+            }
+            values[slot] = value;
+        }
+        return describe(compiled, values);
     }
 
     /**
@@ -36,118 +56,47 @@ public class MathPuzzleEvaluateSolution
         if (equation == null || equation.isBlank()) return "No equation provided.";
         if (variables == null || variables.isEmpty()) return "No variable assignments provided.";
 
+        CompiledEquation compiled;
         try 
         {
-            String[] sides = equation.split("=");
-            if (sides.length != 2) return "Invalid equation format — must contain '='.";
-
-            double left = evaluate(sides[0], variables);
-            double right = evaluate(sides[1], variables);
-
-            if (Math.abs(left - right) < 1e-6) 
-            {
-                return "Correct! Your answer satisfies the equation.";
-            } else 
+            compiled = CompiledEquation.of(equation);
+        } catch (IllegalArgumentException e) 
+        {
+            return compileError(e);
+        }
+        double[] values = new double[compiled.getVariableCount()];
+        for (int slot = 0; slot < values.length; slot++) 
+        {
+            Double value = variables.get(compiled.getVariable(slot));
+            if (value == null) 
             {
-                return String.format("Incorrect. Left = %.4f, Right = %.4f", left, right);
+                return "Error evaluating: Unknown variable: " + compiled.getVariable(slot);
             }
-        } catch (RuntimeException e) 
-        {
-            return "Error evaluating: " + e.getMessage();
+            values[slot] = value;
         }
+        return describe(compiled, values);
     }
 
     /**
-     * Helper to evaluate a numeric expression string using provided variables.
-     */
-    private double evaluate(String expr, Map<String, Double> vars) 
-    {
-        expr = expr.replaceAll("\\s+", "");
-        return new Parser(expr, vars).parseExpression();
-    }
-
-    /**
-     * Small recursive-descent parser for basic arithmetic expressions:
-     * supports +, -, *, /, ^, parentheses, numbers and variables.
+     * Builds the feedback for an equation evaluated with the given slot values.
      */
-    private static class Parser 
+    private static String describe(CompiledEquation compiled, double[] values) 
     {
-        private final String input;
-        private final Map<String, Double> vars;
-        private int pos = -1, ch;
-
-        Parser(String input, Map<String, Double> vars) 
-        {
-            this.input = input;
-            this.vars = vars;
-            nextChar();
-        }
+        double left = compiled.evaluateLeft(values);
+        double right = compiled.evaluateRight(values);
 
-        void nextChar() { ch = (++pos < input.length()) ? input.charAt(pos) : -1; }
-
-        boolean eat(int charToEat) 
-        {
-            while (ch == ' ') nextChar();
-            if (ch == charToEat) 
-            {
-                nextChar();
-                return true;
-            }
-            return false;
-        }
-
-        double parseExpression() 
+        if (Math.abs(left - right) < CompiledEquation.TOLERANCE) 
         {
-            double x = parseTerm();
-            for (;;) 
-            {
-                if (eat('+')) x += parseTerm();
-                else if (eat('-')) x -= parseTerm();
-                else return x;
-            }
-        }
-
-        double parseTerm() 
+            return "Correct! Your answer satisfies the equation.";
+        } else 
         {
-            double x = parseFactor();
-            for (;;) 
-            {
-                if (eat('*')) x *= parseFactor();
-                else if (eat('/')) x /= parseFactor();
-                else return x;
-            }
+            return String.format("Incorrect. Left = %.4f, Right = %.4f", left, right);
         }
+    }
 
-        double parseFactor() 
-        {
-            if (eat('+')) return parseFactor();
-            if (eat('-')) return -parseFactor();
-
-            double x;
-            int startPos = this.pos;
-
-            if (eat('(')) 
-            {
-                x = parseExpression();
-                eat(')');
-            } else if ((ch >= '0' && ch <= '9') || ch == '.') 
-            {
-                while ((ch >= '0' && ch <= '9') || ch == '.') nextChar();
-                x = Double.parseDouble(input.substring(startPos, this.pos));
-            } else if (Character.isLetter(ch)) 
-            {
-                while (Character.isLetterOrDigit(ch)) nextChar();
-                String var = input.substring(startPos, this.pos);
-                if (!vars.containsKey(var))
-                    throw new RuntimeException("Unknown variable: " + var);
-                x = vars.get(var);
-            } else 
-            {
-                throw new RuntimeException("Unexpected: " + (char) ch);
-            }
-
-            if (eat('^')) x = Math.pow(x, parseFactor());
-            return x;
-        }
+    private static String compileError(IllegalArgumentException e) 
+    {
+        if (CompiledEquation.FORMAT_ERROR.equals(e.getMessage())) return e.getMessage();
+        return "Error evaluating: " + e.getMessage();
     }
 }
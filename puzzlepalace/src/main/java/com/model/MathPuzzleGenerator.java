@@ -0,0 +1,371 @@
+package com.model;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Builds arithmetic puzzles from random expression trees, so math rooms are
+ * not limited to the candidates in the content file.
+ *
+ * Each difficulty has a {@link Profile}: the operators it may use, how deep
+ * the tree may grow and how large its numbers are. Every subexpression has a
+ * whole, non-negative value: subtraction never takes a larger value from a
+ * smaller one, division only divides exact multiples and powers use small
+ * bases. The prompt shows the expression the way the hand-written puzzles
+ * do ({@code 6 × (7 - 2) + 4^2 = ?}) and the hints walk through it one
+ * operation at a time, stopping short of the answer.
+ *
+ * A generator is immutable. Puzzle {@code n} of a difficulty depends only on
+ * the seed, the difficulty and {@code n}, so a seed reproduces the same
+ * puzzles in any order and on any number of threads, and {@link #generate}
+ * may be called concurrently without locking.
+ */
+public final class MathPuzzleGenerator {
+
+    /** The id of puzzle 0 at easy difficulty; generated ids never collide with the content file's. */
+    public static final int FIRST_PUZZLE_ID = 1_000_000;
+
+    /** Each difficulty's puzzles take a block of this many ids. */
+    public static final int IDS_PER_DIFFICULTY = 100_000_000;
+
+    private static final String[][] PROMPTS = {
+        {"A brass dial glows: ", "\nTurn it to the result to open the gate."},
+        {"Chalk marks cover the door: ", "\nWrite the answer beneath them."},
+        {"The lock's tumblers spell out: ", "\nEnter the result to release them."},
+        {"Gears grind to a halt on: ", "\nSet the counter to the answer."},
+    };
+
+    /**
+     * The shape of the expressions generated at one difficulty.
+     */
+    public static final class Profile {
+        private final String operators;
+        private final int maxDepth;
+        private final int maxOperand;
+        private final int maxFactor;
+
+        /**
+         * @param operators the operators that may appear, from {@code +-×/^}
+         * @param maxDepth the most operations between the root and a number
+         * @param maxOperand the largest number added or subtracted
+         * @param maxFactor the largest multiplier, divisor or power base
+         */
+        public Profile(String operators, int maxDepth, int maxOperand, int maxFactor) {
+            if (operators == null || operators.isEmpty()
+                    || operators.chars().anyMatch(c -> "+-×/^".indexOf(c) < 0)) {
+                throw new IllegalArgumentException("operators must be taken from +-×/^");
+            }
+            if (maxDepth < 1 || maxOperand < 1 || maxFactor < 2) {
+                throw new IllegalArgumentException("maxDepth and maxOperand must be positive and maxFactor at least 2");
+            }
+            this.operators = operators;
+            this.maxDepth = maxDepth;
+            this.maxOperand = maxOperand;
+            this.maxFactor = maxFactor;
+        }
+
+        public String getOperators() {
+            return operators;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+
+        public int getMaxOperand() {
+            return maxOperand;
+        }
+
+        public int getMaxFactor() {
+            return maxFactor;
+        }
+    }
+
+    /**
+     * Return the profiles used by {@link #MathPuzzleGenerator(long)}.
+     */
+    public static Map<Settings.Difficulty, Profile> defaultProfiles() {
+        Map<Settings.Difficulty, Profile> profiles = new EnumMap<>(Settings.Difficulty.class);
+        profiles.put(Settings.Difficulty.EASY, new Profile("+-", 1, 20, 5));
+        profiles.put(Settings.Difficulty.MEDIUM, new Profile("+-×/", 2, 30, 9));
+        profiles.put(Settings.Difficulty.HARD, new Profile("+-×/^", 3, 50, 12));
+        return profiles;
+    }
+
+    private final long seed;
+    private final Profile[] profiles;
+
+    /**
+     * Create a generator with the default profile for each difficulty.
+     */
+    public MathPuzzleGenerator(long seed) {
+        this(seed, defaultProfiles());
+    }
+
+    /**
+     * Create a generator; difficulties missing from {@code profiles} use the default profile.
+     */
+    public MathPuzzleGenerator(long seed, Map<Settings.Difficulty, Profile> profiles) {
+        Map<Settings.Difficulty, Profile> defaults = defaultProfiles();
+        this.seed = seed;
+        this.profiles = new Profile[Settings.Difficulty.values().length];
+        for (Settings.Difficulty difficulty : Settings.Difficulty.values()) {
+            Profile profile = profiles == null ? null : profiles.get(difficulty);
+            this.profiles[difficulty.ordinal()] = profile != null ? profile : defaults.get(difficulty);
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Profile getProfile(Settings.Difficulty difficulty) {
+        return profiles[orDefault(difficulty).ordinal()];
+    }
+
+    /**
+     * Generate one puzzle.
+     *
+     * @param difficulty the difficulty; {@code null} means easy
+     * @param index which puzzle of the difficulty, from 0 to {@link #IDS_PER_DIFFICULTY} - 1
+     * @return the puzzle, identical for every call with the same seed, difficulty and index
+     */
+    public PuzzleDefinition generate(Settings.Difficulty difficulty, int index) {
+        if (index < 0 || index >= IDS_PER_DIFFICULTY) {
+            throw new IllegalArgumentException("index out of range: " + index);
+        }
+        Settings.Difficulty level = orDefault(difficulty);
+        SplittableRandom random = new SplittableRandom(mix(seed + 0x9E3779B97F4A7C15L
+                * ((long) index * Settings.Difficulty.values().length + level.ordinal() + 1)));
+        Profile profile = profiles[level.ordinal()];
+
+        Node root = operation(random, profile, profile.maxDepth);
+        String[] prompt = PROMPTS[random.nextInt(PROMPTS.length)];
+        StringBuilder text = new StringBuilder(96).append(prompt[0]);
+        root.render(text);
+        text.append(" = ?").append(prompt[1]);
+
+        List<Node> steps = new ArrayList<>();
+        root.steps(steps);
+        List<String> hints = new ArrayList<>(steps.size());
+        for (int i = 0; i < steps.size(); i++) {
+            StringBuilder hint = new StringBuilder(40);
+            hint.append(i == steps.size() - 1 ? "Finish with " : i == 0 ? "Start with " : "Then ");
+            steps.get(i).step(hint, i < steps.size() - 1);
+            hints.add(hint.append('.').toString());
+        }
+        int puzzleId = FIRST_PUZZLE_ID + level.ordinal() * IDS_PER_DIFFICULTY + index;
+        return PuzzleDefinition.math(puzzleId, text.toString(), root.value, hints);
+    }
+
+    /**
+     * Generate puzzles 0 to {@code count - 1} of a difficulty on the common fork-join pool.
+     */
+    public PuzzleDefinition[] pool(Settings.Difficulty difficulty, int count) {
+        PuzzleDefinition[] pool = new PuzzleDefinition[count];
+        IntStream.range(0, count).parallel().forEach(index -> pool[index] = generate(difficulty, index));
+        return pool;
+    }
+
+    /**
+     * Return a catalog like {@code catalog} in which every room offering only
+     * math puzzles also offers {@code perRoom} generated ones.
+     */
+    public PuzzleCatalog extend(PuzzleCatalog catalog, int perRoom) {
+        Map<Settings.Difficulty, List<RoomDefinition>> rooms = new EnumMap<>(Settings.Difficulty.class);
+        for (Settings.Difficulty difficulty : Settings.Difficulty.values()) {
+            List<RoomDefinition> extended = new ArrayList<>();
+            int next = 0;
+            for (RoomDefinition room : catalog.getRooms(difficulty)) {
+                List<PuzzleDefinition> candidates = room.getCandidates();
+                if (perRoom <= 0 || candidates.isEmpty()
+                        || candidates.stream().anyMatch(p -> p.getKind() != PuzzleDefinition.Kind.MATH)) {
+                    extended.add(room);
+                    continue;
+                }
+                List<PuzzleDefinition> all = new ArrayList<>(candidates);
+                for (int i = 0; i < perRoom; i++) {
+                    all.add(generate(difficulty, next++));
+                }
+                extended.add(new RoomDefinition(room.getRoomId(), room.getName(), room.getDescription(),
+                        room.getDifficulty(), room.getEstimatedTimeMinutes(), all, room.getExits()));
+            }
+            rooms.put(difficulty, extended);
+        }
+        return new PuzzleCatalog(rooms);
+    }
+
+    private static Settings.Difficulty orDefault(Settings.Difficulty difficulty) {
+        return difficulty == null ? Settings.Difficulty.EASY : difficulty;
+    }
+
+    /** The 64-bit finalizer of MurmurHash3, so nearby seeds and indexes give unrelated streams. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    private static Node number(int value) {
+        return new Node((char) 0, null, null, value);
+    }
+
+    /**
+     * Builds a subtree with at most {@code depth} operations between its root and any number.
+     */
+    private static Node expression(SplittableRandom random, Profile profile, int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            return number(1 + random.nextInt(profile.maxOperand));
+        }
+        return operation(random, profile, depth);
+    }
+
+    private static Node operation(SplittableRandom random, Profile profile, int depth) {
+        char operator = profile.operators.charAt(random.nextInt(profile.operators.length()));
+        switch (operator) {
+            case '^': {
+                Node base = number(2 + random.nextInt(Math.min(profile.maxFactor, 5) - 1));
+                Node exponent = number(2 + random.nextInt(2));
+                return new Node('^', base, exponent, (int) Math.pow(base.value, exponent.value));
+            }
+            case '×': {
+                Node left = expression(random, profile, depth - 1);
+                Node factor = number(2 + random.nextInt(profile.maxFactor - 1));
+                return random.nextBoolean()
+                        ? new Node('×', left, factor, left.value * factor.value)
+                        : new Node('×', factor, left, left.value * factor.value);
+            }
+            case '/': {
+                Node left = expression(random, profile, depth - 1);
+                int divisor = divisorOf(left.value, random, profile.maxFactor);
+                if (divisor == 0) {
+                    // No divisor in range (a prime or zero): divide a multiple of a plain number instead.
+                    divisor = 2 + random.nextInt(profile.maxFactor - 1);
+                    left = number(divisor * (1 + random.nextInt(profile.maxFactor)));
+                }
+                return new Node('/', left, number(divisor), left.value / divisor);
+            }
+            case '-': {
+                Node left = expression(random, profile, depth - 1);
+                Node right = expression(random, profile, depth - 1);
+                if (left.value < right.value) {
+                    Node swap = left;
+                    left = right;
+                    right = swap;
+                }
+                return new Node('-', left, right, left.value - right.value);
+            }
+            default: {
+                Node left = expression(random, profile, depth - 1);
+                Node right = expression(random, profile, depth - 1);
+                return new Node('+', left, right, left.value + right.value);
+            }
+        }
+    }
+
+    /**
+     * Returns a random divisor of {@code value} in [2, maxFactor], or 0 if it has none.
+     */
+    private static int divisorOf(int value, SplittableRandom random, int maxFactor) {
+        if (value <= 0) {
+            return 0;
+        }
+        int start = random.nextInt(maxFactor - 1);
+        for (int i = 0; i < maxFactor - 1; i++) {
+            int candidate = 2 + (start + i) % (maxFactor - 1);
+            if (candidate < value && value % candidate == 0) {
+                return candidate;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * A number (operator 0) or an operation on two subtrees, with its value.
+     */
+    private static final class Node {
+        final char operator;
+        final Node left;
+        final Node right;
+        final int value;
+
+        Node(char operator, Node left, Node right, int value) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+            this.value = value;
+        }
+
+        int precedence() {
+            switch (operator) {
+                case '+':
+                case '-':
+                    return 1;
+                case '×':
+                case '/':
+                    return 2;
+                case '^':
+                    return 3;
+                default:
+                    return 4;
+            }
+        }
+
+        void render(StringBuilder text) {
+            if (operator == 0) {
+                text.append(value);
+                return;
+            }
+            renderChild(text, left, left.precedence() < precedence());
+            appendOperator(text);
+            renderChild(text, right, right.precedence() < precedence()
+                    || (right.precedence() == precedence() && (operator == '-' || operator == '/')));
+        }
+
+        private static void renderChild(StringBuilder text, Node child, boolean parenthesize) {
+            if (parenthesize) {
+                text.append('(');
+                child.render(text);
+                text.append(')');
+            } else {
+                child.render(text);
+            }
+        }
+
+        private void appendOperator(StringBuilder text) {
+            if (operator == '^') {
+                text.append('^');
+            } else {
+                text.append(' ').append(operator).append(' ');
+            }
+        }
+
+        /**
+         * Collects the operations in the order they are worked out.
+         */
+        void steps(List<Node> steps) {
+            if (operator == 0) {
+                return;
+            }
+            left.steps(steps);
+            right.steps(steps);
+            steps.add(this);
+        }
+
+        /**
+         * Appends this operation on its operands' values, and its own value if {@code withResult}.
+         */
+        void step(StringBuilder text, boolean withResult) {
+            text.append(left.value);
+            appendOperator(text);
+            text.append(right.value);
+            if (withResult) {
+                text.append(" = ").append(value);
+            }
+        }
+    }
+}
@@ -7,6 +7,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
 
 /**
  * Represents a player profile including authentication state, inventory,
@@ -73,22 +75,44 @@ public class Player {
 
     /**
      * Mapping of puzzleId to {@link PuzzleProgressSnapshot}. Access must be
-     * synchronized on {@link #progressLock}.
+     * guarded by {@link #progressLock}.
      */
     private final Map<Integer, PuzzleProgressSnapshot> puzzleProgress;
 
     /**
-     * Lock object for synchronizing access to {@link #puzzleProgress}.
+     * Lock guarding {@link #puzzleProgress}. A {@link ReentrantLock} rather
+     * than a monitor, since a deferred history is read from disk while it is
+     * held and a virtual thread must not pin its carrier meanwhile.
      */
-    private final Object progressLock = new Object();
+    private final ReentrantLock progressLock = new ReentrantLock();
+
+    /**
+     * History still stored on disk when the player was loaded lazily. It is
+     * parsed into {@link #puzzleProgress} on first access and then cleared.
+     * Access must be guarded by {@link #progressLock}.
+     */
+    private LazyProgressHistory pendingHistory;
+
+    /**
+     * Sum of the hint counts of every snapshot in {@link #puzzleProgress},
+     * kept up to date as hints are recorded so it never has to be re-summed.
+     * Access must be guarded by {@link #progressLock}.
+     */
+    private int historyHintCount;
+
     private final Object freezeTimerLock = new Object();
     private int freezeTimerCharges;
 
+    /**
+     * Notified when the username changes; see {@link #setUsernameListener(BiConsumer)}.
+     */
+    private volatile BiConsumer<Player, String> usernameListener;
+
     /**
      * Creates a new guest player with generated UUID and guest alias.
      */
     public Player() {
-        this(null, null, null, true);
+        this(null, null, null, null, true);
     }
 
     /**
@@ -104,19 +128,34 @@ public class Player {
      *                    to indicate a guest account
      */
     public Player(String username, String email, String rawPassword) {
-        this(username, email, rawPassword, false);
+        this(null, username, email, rawPassword, false);
+    }
+
+    /**
+     * Restores a player with a previously persisted identifier. Used by the
+     * loaders so that journal records and progress files keyed by the player's
+     * UUID continue to match across restarts.
+     *
+     * @param playerID    persisted identifier; a new one is generated if {@code null}
+     * @param username    initial username
+     * @param email       email address or {@code null}
+     * @param rawPassword raw password or {@code null}
+     */
+    Player(UUID playerID, String username, String email, String rawPassword) {
+        this(playerID, username, email, rawPassword, false);
     }
 
     /**
      * Internal constructor used by other constructors to initialize fields.
      *
+     * @param playerID     identifier to use, or {@code null} to generate one
      * @param username     initial username
      * @param email        initial email
      * @param rawPassword  raw password to store (may be {@code null})
      * @param guestAccount whether to force creation as a guest account
      */
-    private Player(String username, String email, String rawPassword, boolean guestAccount) {
-        this.playerID = UUID.randomUUID();
+    private Player(UUID playerID, String username, String email, String rawPassword, boolean guestAccount) {
+        this.playerID = playerID != null ? playerID : UUID.randomUUID();
         this.inventory = new ArrayList<>();
         this.progress = new Progress(this, null);
         this.score = progress.getScore();
@@ -207,7 +246,28 @@ public class Player {
         if (cleaned == null || cleaned.isEmpty()) {
             return;
         }
+        changeUsername(cleaned);
+    }
+
+    /**
+     * Registers a callback that is told the previous username whenever this
+     * player's username changes. Used by {@link PlayerManager} to keep its
+     * username index current.
+     *
+     * @param listener callback receiving this player and its previous username,
+     *                 or {@code null} to remove the callback
+     */
+    void setUsernameListener(BiConsumer<Player, String> listener) {
+        this.usernameListener = listener;
+    }
+
+    private void changeUsername(String cleaned) {
+        String previous = this.username;
         this.username = cleaned;
+        BiConsumer<Player, String> listener = usernameListener;
+        if (listener != null && !Objects.equals(previous, cleaned)) {
+            listener.accept(this, previous);
+        }
     }
 
     /**
@@ -484,10 +544,10 @@ public class Player {
     /**
      * Attempt to login with a username and password.
      *
-     * If the current account has no username or is a guest, a successful
+     * If the current account is a guest with no stored password, a successful
      * login will set the username to the supplied value and set the password.
-     * If a username is already set it must match the supplied username and
-     * the password must verify successfully.
+     * Any account with a stored password must be logged in to with its own
+     * username and that password.
      *
      * @param username username to authenticate with (trimmed)
      * @param password raw password to verify
@@ -502,28 +562,22 @@ public class Player {
         if (cleaned == null || cleaned.isEmpty()) {
             return false;
         }
-        if (this.username == null || this.guest) {
-            this.username = cleaned;
+        if (this.passwordHash == null && (this.username == null || this.guest)) {
+            changeUsername(cleaned);
             setPassword(password);
             return true;
         }
-        if (!this.username.equals(cleaned)) {
+        if (!cleaned.equals(this.username)) {
             return false;
         }
         boolean authenticated = verifyPassword(password);
         if (authenticated) {
             this.guest = false;
+            hydrateProgressHistory();
         }
         return authenticated;
     }
 
-    /**
-     * Logs the player out by marking the account as a guest.
-     */
-    public void logout() {
-        this.guest = true;
-    }
-
     /**
      * Allows setting a stored password hash directly (for example when loading
      * from persistent storage). Passing a null/blank value clears the hash and
@@ -541,6 +595,25 @@ public class Player {
         this.guest = false;
     }
 
+    /**
+     * Returns the stored password hash for persistence.
+     *
+     * @return stored hash, or {@code null} for guest accounts
+     */
+    final String getStoredPasswordHash() {
+        return passwordHash;
+    }
+
+    /**
+     * Returns the stored email for persistence. Unlike {@link #getEmail()} this
+     * cannot be overridden, so writers always see the value held by the player.
+     *
+     * @return stored email, or {@code null} if not set
+     */
+    final String getStoredEmail() {
+        return email;
+    }
+
     /**
      * Awards bonus points to the player's score. Points <= 0 are ignored.
      * Overflow above {@link Integer#MAX_VALUE} is clamped to
@@ -557,6 +630,20 @@ public class Player {
         score.setPoints(clamped);
     }
 
+    /**
+     * Counts a newly solved puzzle toward the solve bonus of its difficulty.
+     * The bonus itself comes from the current {@link ScoringPolicy} whenever
+     * the score is worked out, so a new policy re-prices every solve.
+     *
+     * @param difficulty difficulty the puzzle was solved at; null counts as easy
+     */
+    public void countSolveBonus(Settings.Difficulty difficulty) {
+        if (score == null) {
+            return;
+        }
+        score.addSolve(difficulty);
+    }
+
     /**
      * Grants one free hint token to the player, up to {@link Integer#MAX_VALUE}.
      * Does nothing if {@link #score} is {@code null}.
@@ -716,7 +803,9 @@ public class Player {
             recordPuzzleSolved();
             return true;
         }
-        synchronized (progressLock) {
+        progressLock.lock();
+        try {
+            hydrateProgressHistory();
             PuzzleProgressSnapshot snapshot = puzzleProgress.computeIfAbsent(
                 puzzle.getPuzzleId(),
                 id -> new PuzzleProgressSnapshot(id, puzzle.getDescription())
@@ -727,6 +816,8 @@ public class Player {
             }
             snapshot.recordAnswer(answer, true);
             return newlySolved;
+        } finally {
+            progressLock.unlock();
         }
     }
 
@@ -744,19 +835,19 @@ public class Player {
         if (puzzle == null) {
             return;
         }
-        synchronized (progressLock) {
+        progressLock.lock();
+        try {
+            hydrateProgressHistory();
             PuzzleProgressSnapshot snapshot = puzzleProgress.computeIfAbsent(
                 puzzle.getPuzzleId(),
                 id -> new PuzzleProgressSnapshot(id, puzzle.getDescription())
             );
+            int before = snapshot.getHintCount();
             snapshot.addHint(hintText);
-            int total = 0;
-            for (PuzzleProgressSnapshot entry : puzzleProgress.values()) {
-                if (entry != null) {
-                    total += entry.getHintCount();
-                }
-            }
-            score.setHintsUsed(total);
+            historyHintCount += snapshot.getHintCount() - before;
+            score.setHintsUsed(historyHintCount);
+        } finally {
+            progressLock.unlock();
         }
     }
 
@@ -764,13 +855,44 @@ public class Player {
      * Returns a list copy of the puzzle progress snapshots representing the
      * player's recorded history.
      *
-     * Snapshot is produced while synchronizing on {@link #progressLock}.
+     * Snapshot is produced while holding {@link #progressLock}.
      *
      * @return new {@link List} containing the snapshots
      */
     public List<PuzzleProgressSnapshot> getPuzzleProgressSnapshots() {
-        synchronized (progressLock) {
+        progressLock.lock();
+        try {
+            hydrateProgressHistory();
             return new ArrayList<>(puzzleProgress.values());
+        } finally {
+            progressLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the puzzle progress snapshots like
+     * {@link #getPuzzleProgressSnapshots()}, but reads a deferred history
+     * without keeping it, so the history stays deferred.
+     *
+     * Snapshot is produced while holding {@link #progressLock}.
+     *
+     * @return new {@link List} containing the snapshots
+     */
+    List<PuzzleProgressSnapshot> readProgressSnapshots() {
+        progressLock.lock();
+        try {
+            if (pendingHistory == null) {
+                return new ArrayList<>(puzzleProgress.values());
+            }
+            Map<Integer, PuzzleProgressSnapshot> latest = new LinkedHashMap<>();
+            for (PuzzleProgressSnapshot snapshot : pendingHistory.load()) {
+                if (snapshot != null) {
+                    latest.put(snapshot.getPuzzleId(), snapshot);
+                }
+            }
+            return new ArrayList<>(latest.values());
+        } finally {
+            progressLock.unlock();
         }
     }
 
@@ -778,14 +900,17 @@ public class Player {
      * Replaces the player's stored puzzle progress history with the supplied
      * snapshots. Null snapshots in the input list are ignored.
      *
-     * Operation is synchronized on {@link #progressLock}.
+     * Operation is guarded by {@link #progressLock}.
      *
      * @param snapshots list of snapshots to use as the new history, or {@code null}
      *                  to clear history
      */
     public void replaceProgressHistory(List<PuzzleProgressSnapshot> snapshots) {
-        synchronized (progressLock) {
+        progressLock.lock();
+        try {
+            pendingHistory = null;
             puzzleProgress.clear();
+            historyHintCount = 0;
             if (snapshots == null) {
                 return;
             }
@@ -793,19 +918,132 @@ public class Player {
                 if (snapshot == null) {
                     continue;
                 }
-                puzzleProgress.put(snapshot.getPuzzleId(), snapshot);
+                PuzzleProgressSnapshot replaced = puzzleProgress.put(snapshot.getPuzzleId(), snapshot);
+                historyHintCount += snapshot.getHintCount() - (replaced == null ? 0 : replaced.getHintCount());
+            }
+        } finally {
+            progressLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the stored history with snapshots read from persistent storage
+     * and raises the solved and hint counters in {@link Score} to at least the
+     * totals found in that history.
+     *
+     * @param snapshots restored snapshots; an empty list leaves the score untouched
+     */
+    void restoreProgressHistory(List<PuzzleProgressSnapshot> snapshots) {
+        progressLock.lock();
+        try {
+            replaceProgressHistory(snapshots);
+            if (snapshots == null || snapshots.isEmpty()) {
+                return;
+            }
+            reconcileScoreWithHistory();
+        } finally {
+            progressLock.unlock();
+        }
+    }
+
+    /**
+     * Raises the solved and hint counters in {@link Score} to at least the
+     * totals found in the stored history. Used when loading data that was not
+     * verified by a checksum.
+     */
+    void reconcileScoreWithHistory() {
+        progressLock.lock();
+        try {
+            if (score == null) {
+                return;
+            }
+            score.setPuzzlesSolved(Math.max(score.getPuzzlesSolved(), getSolvedPuzzleCountFromHistory()));
+            score.setHintsUsed(Math.max(score.getHintsUsed(), getTotalHintsUsedFromHistory()));
+        } finally {
+            progressLock.unlock();
+        }
+    }
+
+    /**
+     * Defers loading of the player's history until it is first needed. The
+     * history is parsed on a successful {@link #login(String, String)} or on
+     * the first call that reads or updates it.
+     *
+     * @param history pointer to the history on disk
+     */
+    void deferProgressHistory(LazyProgressHistory history) {
+        progressLock.lock();
+        try {
+            puzzleProgress.clear();
+            historyHintCount = 0;
+            pendingHistory = history;
+        } finally {
+            progressLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the history still deferred to the given users file, if any.
+     *
+     * @param filePath users file path
+     * @return the pending history, or {@code null} if it has been loaded or
+     *         lives in another file
+     */
+    LazyProgressHistory deferredProgressHistoryIn(String filePath) {
+        progressLock.lock();
+        try {
+            return pendingHistory != null && pendingHistory.isBackedBy(filePath) ? pendingHistory : null;
+        } finally {
+            progressLock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether the history has been loaded into memory.
+     *
+     * @return {@code false} while a deferred history is still pending
+     */
+    boolean isProgressHistoryLoaded() {
+        progressLock.lock();
+        try {
+            return pendingHistory == null;
+        } finally {
+            progressLock.unlock();
+        }
+    }
+
+    /**
+     * Parses a deferred history, if any, into {@link #puzzleProgress}.
+     * Holds {@link #progressLock}.
+     */
+    void hydrateProgressHistory() {
+        progressLock.lock();
+        try {
+            if (pendingHistory == null) {
+                return;
             }
+            LazyProgressHistory history = pendingHistory;
+            pendingHistory = null;
+            if (history.isTrusted()) {
+                replaceProgressHistory(history.load());
+            } else {
+                restoreProgressHistory(history.load());
+            }
+        } finally {
+            progressLock.unlock();
         }
     }
 
     /**
      * Computes the number of solved puzzles present in the stored progress
-     * history. Access is synchronized on {@link #progressLock}.
+     * history. Access is guarded by {@link #progressLock}.
      *
      * @return count of solved puzzles from history
      */
     public int getSolvedPuzzleCountFromHistory() {
-        synchronized (progressLock) {
+        progressLock.lock();
+        try {
+            hydrateProgressHistory();
             int solved = 0;
             for (PuzzleProgressSnapshot snapshot : puzzleProgress.values()) {
                 if (snapshot != null && snapshot.isSolved()) {
@@ -813,24 +1051,25 @@ public class Player {
                 }
             }
             return solved;
+        } finally {
+            progressLock.unlock();
         }
     }
 
     /**
-     * Computes the total hints used across all stored puzzle progress snapshots.
-     * Access is synchronized on {@link #progressLock}.
+     * Returns the total hints used across all stored puzzle progress snapshots.
+     * The total is kept as hints are recorded, so this does not walk the
+     * history. Access is guarded by {@link #progressLock}.
      *
      * @return total hint count from history
      */
     public int getTotalHintsUsedFromHistory() {
-        synchronized (progressLock) {
-            int total = 0;
-            for (PuzzleProgressSnapshot snapshot : puzzleProgress.values()) {
-                if (snapshot != null) {
-                    total += snapshot.getHintCount();
-                }
-            }
-            return total;
+        progressLock.lock();
+        try {
+            hydrateProgressHistory();
+            return historyHintCount;
+        } finally {
+            progressLock.unlock();
         }
     }
 
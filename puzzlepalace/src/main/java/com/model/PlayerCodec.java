@@ -0,0 +1,237 @@
+package com.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * This writes player records as JSON straight to a {@link Writer}.
+ * This replaces the reflective lookups in {@link DataWriter} with direct
+ * accessor calls and produces the same keys that {@link DataLoader} reads.
+ */
+public class PlayerCodec {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * This prevents creating an instance of PlayerCodec.
+     */
+    private PlayerCodec() {
+    }
+
+    /**
+     * This writes one player, including score and progress history, as a JSON object.
+     *
+     * @param p the player to write
+     * @param out the writer to write to
+     * @throws IOException if the writer fails
+     */
+    public static void writePlayer(Player p, Writer out) throws IOException {
+        writePlayer(p, out, null);
+    }
+
+    /**
+     * This copies a progress history that is still on disk into the record
+     * being written.
+     */
+    interface ProgressLogSource {
+        void copyTo(Writer out) throws IOException;
+    }
+
+    /**
+     * This writes one player, taking the {@code progressLog} array from
+     * {@code deferredLog} when it is given instead of from the player's
+     * loaded history.
+     *
+     * @param p the player to write
+     * @param out the writer to write to
+     * @param deferredLog source of the history array text, or null to write the player's history
+     * @throws IOException if the writer or the source fails
+     */
+    static void writePlayer(Player p, Writer out, ProgressLogSource deferredLog) throws IOException {
+        out.write('{');
+        UUID playerId = p.getPlayerID();
+        if (playerId != null) {
+            writeKey("playerID", out);
+            writeString(playerId.toString(), out);
+            out.write(',');
+        }
+        writeKey("username", out);
+        writeString(p.getUsername() == null ? "" : p.getUsername(), out);
+        out.write(',');
+        writeKey("email", out);
+        writeString(p.getStoredEmail() == null ? "" : p.getStoredEmail(), out);
+        String passwordHash = p.getStoredPasswordHash();
+        if (passwordHash != null && !passwordHash.isEmpty()) {
+            out.write(',');
+            writeKey("passwordHash", out);
+            writeString(passwordHash, out);
+        }
+        out.write(',');
+        writeKey("isGuest", out);
+        out.write(p.isGuest() ? "true" : "false");
+
+        Score score = p.getScoreDetails();
+        if (score != null) {
+            out.write(',');
+            writeKey("score", out);
+            writeScore(score, out);
+        }
+
+        out.write(',');
+        writeKey("progressLog", out);
+        if (deferredLog != null) {
+            deferredLog.copyTo(out);
+            out.write('}');
+            return;
+        }
+        out.write('[');
+        boolean first = true;
+        for (PuzzleProgressSnapshot snapshot : p.getPuzzleProgressSnapshots()) {
+            if (snapshot == null) {
+                continue;
+            }
+            if (!first) {
+                out.write(',');
+            }
+            writeSnapshot(snapshot, out);
+            first = false;
+        }
+        out.write(']');
+        out.write('}');
+    }
+
+    /**
+     * This writes the persisted score fields as a JSON object.
+     *
+     * @param score the score to write
+     * @param out the writer to write to
+     * @throws IOException if the writer fails
+     */
+    public static void writeScore(Score score, Writer out) throws IOException {
+        out.write('{');
+        writeKey("points", out);
+        out.write(Integer.toString(score.getPoints()));
+        out.write(',');
+        writeKey("puzzlesSolved", out);
+        out.write(Integer.toString(score.getPuzzlesSolved()));
+        out.write(',');
+        writeKey("hintsUsed", out);
+        out.write(Integer.toString(score.getHintsUsed()));
+        out.write(',');
+        writeKey("timeTaken", out);
+        out.write(Integer.toString(score.getTimeTaken()));
+        out.write(',');
+        writeKey("solvesByDifficulty", out);
+        out.write('{');
+        for (Settings.Difficulty level : Settings.Difficulty.values()) {
+            if (level.ordinal() > 0) {
+                out.write(',');
+            }
+            writeKey(level.name().toLowerCase(Locale.ROOT), out);
+            out.write(Integer.toString(score.getSolves(level)));
+        }
+        out.write('}');
+        out.write('}');
+    }
+
+    /**
+     * This writes one progress snapshot as a JSON object.
+     *
+     * @param snapshot the snapshot to write
+     * @param out the writer to write to
+     * @throws IOException if the writer fails
+     */
+    public static void writeSnapshot(PuzzleProgressSnapshot snapshot, Writer out) throws IOException {
+        out.write('{');
+        writeKey("puzzleId", out);
+        out.write(Integer.toString(snapshot.getPuzzleId()));
+        out.write(',');
+        writeKey("question", out);
+        writeString(snapshot.getQuestion(), out);
+        out.write(',');
+        writeKey("status", out);
+        writeString(snapshot.getStatus(), out);
+        out.write(',');
+        writeKey("answer", out);
+        writeString(snapshot.getAnswer(), out);
+        out.write(',');
+        writeKey("lastUpdated", out);
+        writeString(snapshot.getLastUpdated().toString(), out);
+        out.write(',');
+        writeKey("hintsUsed", out);
+        out.write('[');
+        List<String> hints = snapshot.getHintsUsed();
+        for (int i = 0; i < hints.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeString(hints.get(i), out);
+        }
+        out.write(']');
+        out.write('}');
+    }
+
+    /**
+     * This writes an object key followed by a colon. Keys are constants and need no escaping.
+     */
+    private static void writeKey(String key, Writer out) throws IOException {
+        out.write('"');
+        out.write(key);
+        out.write('"');
+        out.write(':');
+    }
+
+    /**
+     * This writes a quoted JSON string, escaping quotes, backslashes and control characters.
+     *
+     * @param value the text to write
+     * @param out the writer to write to
+     * @throws IOException if the writer fails
+     */
+    static void writeString(String value, Writer out) throws IOException {
+        out.write('"');
+        int runStart = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+            out.write(value, runStart, i - runStart);
+            runStart = i + 1;
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                case '\b':
+                    out.write("\\b");
+                    break;
+                case '\f':
+                    out.write("\\f");
+                    break;
+                default:
+                    out.write("\\u00");
+                    out.write(HEX[(c >> 4) & 0xF]);
+                    out.write(HEX[c & 0xF]);
+                    break;
+            }
+        }
+        out.write(value, runStart, length - runStart);
+        out.write('"');
+    }
+}
@@ -1,32 +1,56 @@
 package com.model;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
 
 /**
  * Thread-safe manager responsible for storing, authenticating, and retrieving
  * {@link Player} accounts within the application.
  *
  * The {@code PlayerManager} acts as a centralized registry for all active or
- * registered players. It provides synchronized methods to ensure safe access and
- * modification in concurrent environments.
+ * registered players and is safe to use from concurrent game sessions.
  *
- * All public methods are synchronized to guarantee thread safety when used in
- * multi-threaded game sessions.
+ * Lookups by UUID and by case-folded username read concurrent hash indexes
+ * without locking, so concurrent {@link #authenticate(String, String)} calls
+ * do not wait for each other. All mutations are serialized on one write lock,
+ * which keeps the username-uniqueness check and the index updates atomic.
+ * {@link #getAllPlayers()} returns an immutable snapshot that is rebuilt only
+ * after a mutation, so repeated calls do not copy the player list.
  */
 public class PlayerManager {
 
-    /** Internal thread-safe list of all managed players. */
-    private final List<Player> players;
+    /** All managed players by UUID, in registration order. Guarded by {@link #writeLock}. */
+    private final Map<UUID, Player> players;
+
+    /** Lock-free read index of managed players by UUID. */
+    private final ConcurrentMap<UUID, Player> playersById;
+
+    /** Lock-free read index of managed players by case-folded username. */
+    private final ConcurrentMap<String, Player> playersByUsername;
+
+    /** Serializes every mutation of the player indexes. */
+    private final Object writeLock = new Object();
+
+    /** Immutable view of {@link #players}, or {@code null} after a mutation until it is rebuilt. */
+    private volatile List<Player> snapshot = List.of();
+
+    /** Keeps {@link #playersByUsername} current when a managed player is renamed. */
+    private final BiConsumer<Player, String> usernameListener = this::onUsernameChanged;
 
     /**
      * Constructs an empty {@code PlayerManager} instance.
-     * Initializes the internal player list.
+     * Initializes the internal player indexes.
      */
     public PlayerManager() {
-        this.players = new ArrayList<>();
+        this.players = new LinkedHashMap<>();
+        this.playersById = new ConcurrentHashMap<>();
+        this.playersByUsername = new ConcurrentHashMap<>();
     }
 
     /**
@@ -35,22 +59,26 @@ public class PlayerManager {
      * @param player the player to add
      * @return {@code true} if the player was successfully added;
      *         {@code false} if the player is null, has an invalid username,
-     *         or the username already exists
+     *         or the username or player ID already exists
      */
-    public synchronized boolean addPlayer(Player player) {
+    public boolean addPlayer(Player player) {
         if (player == null || player.getUsername() == null || player.getUsername().isBlank()) {
             return false;
         }
 
-        String newName = player.getUsername().trim();
-        for (Player p : players) {
-            if (p != null && p.getUsername() != null && p.getUsername().equalsIgnoreCase(newName)) {
+        synchronized (writeLock) {
+            String key = usernameKey(player.getUsername());
+            if (playersByUsername.containsKey(key) || players.containsKey(player.getPlayerID())) {
                 return false;
             }
-        }
 
-        players.add(player);
-        return true;
+            players.put(player.getPlayerID(), player);
+            playersById.put(player.getPlayerID(), player);
+            playersByUsername.put(key, player);
+            player.setUsernameListener(usernameListener);
+            snapshot = null;
+            return true;
+        }
     }
 
     /**
@@ -59,23 +87,39 @@ public class PlayerManager {
      * @param id the player's UUID
      * @return the matching {@code Player}, or {@code null} if not found
      */
-    public synchronized Player getPlayerById(UUID id) {
+    public Player getPlayerById(UUID id) {
         if (id == null) return null;
-        for (Player p : players) {
-            if (p != null && id.equals(p.getPlayerID())) {
-                return p;
-            }
-        }
-        return null;
+        return playersById.get(id);
     }
 
     /**
      * Returns an unmodifiable snapshot of all managed players.
      *
+     * The same snapshot is returned until the players change; the first call
+     * after a change builds and publishes a new one.
+     *
      * @return an immutable {@link List} of players
      */
-    public synchronized List<Player> getAllPlayers() {
-        return Collections.unmodifiableList(new ArrayList<>(players));
+    public List<Player> getAllPlayers() {
+        List<Player> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (writeLock) {
+            if (snapshot == null) {
+                snapshot = List.copyOf(players.values());
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Returns the number of managed players without building a snapshot.
+     *
+     * @return player count
+     */
+    public int getPlayerCount() {
+        return playersById.size();
     }
 
     /**
@@ -87,15 +131,31 @@ public class PlayerManager {
      * @param filePath the file path to load player data from
      * @return an immutable list of loaded players
      */
-    public synchronized List<Player> loadPlayersFromFile(String filePath) {
-        List<Player> loadedPlayers = DataLoader.loadUsers(filePath);
-        players.clear();
-        if (loadedPlayers != null) {
-            for (Player player : loadedPlayers) {
-                addPlayer(player);
+    public List<Player> loadPlayersFromFile(String filePath) {
+        return loadPlayersFromFile(filePath, false);
+    }
+
+    /**
+     * Loads players from a specified file path and replaces the current player list.
+     *
+     * When {@code lazyHistory} is {@code true} each player's progress history is
+     * left on disk and parsed when that player logs in or the history is read.
+     *
+     * @param filePath the file path to load player data from
+     * @param lazyHistory whether to defer loading of progress histories
+     * @return an immutable list of loaded players
+     */
+    public List<Player> loadPlayersFromFile(String filePath, boolean lazyHistory) {
+        List<Player> loadedPlayers = DataLoader.loadUsers(filePath, lazyHistory);
+        synchronized (writeLock) {
+            clear();
+            if (loadedPlayers != null) {
+                for (Player player : loadedPlayers) {
+                    addPlayer(player);
+                }
             }
+            return getAllPlayers();
         }
-        return getAllPlayers();
     }
 
     /**
@@ -104,17 +164,11 @@ public class PlayerManager {
      * @param username the username to search for
      * @return the matching player, or {@code null} if not found or invalid
      */
-    public synchronized Player getPlayerByUsername(String username) {
+    public Player getPlayerByUsername(String username) {
         if (username == null) {
             return null;
         }
-        String cleaned = username.trim();
-        for (Player p : players) {
-            if (p != null && p.getUsername() != null && p.getUsername().equalsIgnoreCase(cleaned)) {
-                return p;
-            }
-        }
-        return null;
+        return playersByUsername.get(usernameKey(username));
     }
 
     /**
@@ -122,13 +176,13 @@ public class PlayerManager {
      * 
      * Delegates login verification to {@link Player#login(String, String)}.
      * Returns the authenticated {@link Player} if credentials are valid, or {@code null} otherwise.
-     * 
+     * The lookup takes no lock; only logins to the same player are serialized.
      *
      * @param username the username to authenticate
      * @param password the player's password
      * @return the authenticated player, or {@code null} if authentication fails
      */
-    public synchronized Player authenticate(String username, String password) {
+    public Player authenticate(String username, String password) {
         if (username == null || username.isBlank() || password == null || password.isBlank()) {
             return null;
         }
@@ -136,7 +190,9 @@ public class PlayerManager {
         if (candidate == null) {
             return null;
         }
-        return candidate.login(username, password) ? candidate : null;
+        synchronized (candidate) {
+            return candidate.login(username, password) ? candidate : null;
+        }
     }
 
     /**
@@ -145,9 +201,19 @@ public class PlayerManager {
      * @param player the player to remove
      * @return {@code true} if the player was successfully removed; {@code false} otherwise
      */
-    public synchronized boolean removePlayer(Player player) {
+    public boolean removePlayer(Player player) {
         if (player == null) return false;
-        return players.remove(player);
+        synchronized (writeLock) {
+            Player removed = players.remove(player.getPlayerID());
+            if (removed == null) {
+                return false;
+            }
+            playersById.remove(removed.getPlayerID());
+            unindexUsername(removed, removed.getUsername());
+            removed.setUsernameListener(null);
+            snapshot = null;
+            return true;
+        }
     }
 
     /**
@@ -160,18 +226,73 @@ public class PlayerManager {
      * @param updated the updated player instance
      * @return {@code true} if the player record was successfully updated; {@code false} otherwise
      */
-    public synchronized boolean updatePlayer(Player updated) {
+    public boolean updatePlayer(Player updated) {
         if (updated == null) return false;
         UUID id = updated.getPlayerID();
         if (id == null) return false;
-        for (int i = 0; i < players.size(); i++) {
-            Player p = players.get(i);
-            if (p != null && id.equals(p.getPlayerID())) {
-                players.set(i, updated);
-                return true;
+        synchronized (writeLock) {
+            Player previous = players.get(id);
+            if (previous == null) {
+                return false;
+            }
+            players.put(id, updated);
+            playersById.put(id, updated);
+            if (previous != updated) {
+                unindexUsername(previous, previous.getUsername());
+                previous.setUsernameListener(null);
+                updated.setUsernameListener(usernameListener);
+            }
+            if (updated.getUsername() != null) {
+                playersByUsername.putIfAbsent(usernameKey(updated.getUsername()), updated);
             }
+            snapshot = null;
+            return true;
         }
-        return false;
+    }
+
+    /**
+     * Removes every player and detaches the manager from them.
+     */
+    private void clear() {
+        for (Player player : players.values()) {
+            player.setUsernameListener(null);
+        }
+        players.clear();
+        playersById.clear();
+        playersByUsername.clear();
+        snapshot = null;
+    }
+
+    /**
+     * Moves a renamed player to its new username key. If another player already
+     * holds the new name, the earlier registration keeps it.
+     */
+    private void onUsernameChanged(Player player, String previousUsername) {
+        synchronized (writeLock) {
+            if (players.get(player.getPlayerID()) != player) {
+                return;
+            }
+            unindexUsername(player, previousUsername);
+            if (player.getUsername() != null) {
+                playersByUsername.putIfAbsent(usernameKey(player.getUsername()), player);
+            }
+        }
+    }
+
+    private void unindexUsername(Player player, String username) {
+        if (username != null) {
+            playersByUsername.remove(usernameKey(username), player);
+        }
+    }
+
+    /**
+     * Returns the index key for a username: trimmed and case-folded.
+     *
+     * @param username the username
+     * @return the lookup key
+     */
+    private static String usernameKey(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
     }
 }
 
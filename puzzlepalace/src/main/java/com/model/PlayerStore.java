@@ -0,0 +1,255 @@
+package com.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Journaled storage for player accounts.
+ *
+ * Saving a player appends only that player's record to a journal that sits
+ * next to the users snapshot ({@code users.json.journal}) instead of rewriting
+ * every account. Once the journal holds enough entries it is compacted on a
+ * background thread: the live players from {@link PlayerManager} are written
+ * as a fresh snapshot and the folded journal is discarded.
+ * {@link DataLoader#loadUsers(String)} replays snapshot plus journal on startup.
+ */
+public class PlayerStore {
+
+    /** Number of journal entries that triggers a background compaction. */
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 64;
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String COMPACTING_SUFFIX = ".journal.compacting";
+
+    private final String filePath;
+    private final PlayerManager playerManager;
+    private final int compactionThreshold;
+    private final ExecutorService compactor;
+
+    /** Guards appends to the journal and the journal rotation during compaction. */
+    private final Object journalLock = new Object();
+
+    /** Serializes whole compactions so two snapshots are never written at once. */
+    private final Object compactionLock = new Object();
+
+    private int journalEntries;
+    private boolean compactionScheduled;
+
+    /**
+     * Creates a store for the given snapshot path using the default compaction threshold.
+     *
+     * @param filePath path of the users snapshot file
+     * @param playerManager manager that holds the live players written on compaction
+     */
+    public PlayerStore(String filePath, PlayerManager playerManager) {
+        this(filePath, playerManager, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Creates a store for the given snapshot path.
+     *
+     * @param filePath path of the users snapshot file
+     * @param playerManager manager that holds the live players written on compaction
+     * @param compactionThreshold journal entries that trigger a background compaction
+     */
+    public PlayerStore(String filePath, PlayerManager playerManager, int compactionThreshold) {
+        this.filePath = filePath;
+        this.playerManager = playerManager;
+        this.compactionThreshold = Math.max(1, compactionThreshold);
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "player-store-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.journalEntries = countJournalEntries();
+    }
+
+    /**
+     * Returns the journal path used for a users snapshot path.
+     *
+     * @param filePath path of the users snapshot file
+     * @return path of the journal file
+     */
+    static String journalPathFor(String filePath) {
+        return filePath + JOURNAL_SUFFIX;
+    }
+
+    /**
+     * Returns the path a journal is moved to while it is being compacted.
+     *
+     * @param filePath path of the users snapshot file
+     * @return path of the journal that is being folded into the snapshot
+     */
+    static String compactingPathFor(String filePath) {
+        return filePath + COMPACTING_SUFFIX;
+    }
+
+    /**
+     * Persists one player by appending its record to the journal. Schedules a
+     * background compaction once the journal reaches the threshold.
+     *
+     * @param player the player to save
+     * @return true if the record reached the journal
+     */
+    public boolean savePlayer(Player player) {
+        if (player == null) {
+            return false;
+        }
+        return savePlayers(List.of(player));
+    }
+
+    /**
+     * Persists several players with one journal append and one sync.
+     * Schedules a background compaction once the journal reaches the threshold.
+     *
+     * @param players the players to save
+     * @return true if every record reached the journal
+     */
+    public boolean savePlayers(Collection<Player> players) {
+        if (players == null || players.isEmpty()) {
+            return false;
+        }
+        boolean scheduleCompaction = false;
+        synchronized (journalLock) {
+            if (!DataWriter.appendUsers(players, journalPathFor(filePath))) {
+                return false;
+            }
+            journalEntries += players.size();
+            if (journalEntries >= compactionTrigger() && !compactionScheduled) {
+                compactionScheduled = true;
+                scheduleCompaction = true;
+            }
+        }
+        if (scheduleCompaction) {
+            compactor.execute(this::compact);
+        }
+        return true;
+    }
+
+    /**
+     * Compaction rewrites every player, so with many players it waits until
+     * the journal is half the size of the snapshot; the cost of each
+     * compaction is then spread over as many saves as it writes.
+     */
+    private int compactionTrigger() {
+        return Math.max(compactionThreshold, playerManager.getPlayerCount() / 2);
+    }
+
+    /**
+     * Folds the journal into a fresh snapshot on the calling thread.
+     *
+     * The journal is first moved aside so saves made while the snapshot is
+     * written go to a new journal. The moved journal is only deleted once the
+     * snapshot has been written, so a failed compaction is replayed on the next load.
+     * A journal left aside by an earlier failed compaction is kept: the current
+     * journal is appended to it rather than moved over it.
+     */
+    public void compact() {
+        synchronized (compactionLock) {
+            Path journal = Paths.get(journalPathFor(filePath));
+            Path compacting = Paths.get(compactingPathFor(filePath));
+            List<Player> players;
+            synchronized (journalLock) {
+                compactionScheduled = false;
+                players = playerManager.getAllPlayers();
+                try {
+                    rotateJournal(journal, compacting);
+                } catch (IOException e) {
+                    System.out.println("PlayerStore: unable to rotate journal: " + e.getMessage());
+                    return;
+                }
+                journalEntries = 0;
+            }
+
+            if (!DataWriter.saveUsers(players, filePath)) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(compacting);
+            } catch (IOException e) {
+                System.out.println("PlayerStore: unable to remove compacted journal: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Moves the journal aside for compaction. When an earlier compaction
+     * failed and left its journal aside, the journal is appended to that one
+     * instead, after the entries already there, and then removed. A crash
+     * between the two steps leaves entries in both files, which replays to
+     * the same players.
+     */
+    private static void rotateJournal(Path journal, Path compacting) throws IOException {
+        if (!Files.exists(journal)) {
+            return;
+        }
+        if (!Files.exists(compacting)) {
+            Files.move(journal, compacting);
+            return;
+        }
+        try (FileChannel target = FileChannel.open(compacting, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                FileChannel source = FileChannel.open(journal, StandardOpenOption.READ)) {
+            if (target.size() > 0 && !endsWithNewline(compacting, target.size())) {
+                // The previous journal may end in a torn entry; keep it off the next line.
+                target.write(ByteBuffer.wrap(System.lineSeparator().getBytes(StandardCharsets.US_ASCII)));
+            }
+            long size = source.size();
+            for (long copied = 0; copied < size; ) {
+                copied += source.transferTo(copied, size - copied, target);
+            }
+            target.force(true);
+        }
+        Files.delete(journal);
+    }
+
+    private static boolean endsWithNewline(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            return channel.read(last, size - 1) == 1 && last.get(0) == '\n';
+        }
+    }
+
+    /**
+     * Returns the number of entries currently waiting in the journal.
+     *
+     * @return journal entry count
+     */
+    public int getJournalEntryCount() {
+        synchronized (journalLock) {
+            return journalEntries;
+        }
+    }
+
+    /**
+     * Returns the path of the users snapshot managed by this store.
+     *
+     * @return snapshot path
+     */
+    public String getFilePath() {
+        return filePath;
+    }
+
+    private int countJournalEntries() {
+        Path journal = Paths.get(journalPathFor(filePath));
+        if (!Files.exists(journal)) {
+            return 0;
+        }
+        try (Stream<String> lines = Files.lines(journal)) {
+            return (int) lines.filter(line -> !line.isBlank()).count();
+        } catch (IOException | UncheckedIOException e) {
+            return 0;
+        }
+    }
+}
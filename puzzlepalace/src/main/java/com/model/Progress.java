@@ -1,19 +1,14 @@
 package com.model;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Tracks the ongoing state of a player's session including timing, hint
- * management, and simple persistence to disk for resume functionality.
+ * management, and persistence through {@link ProgressStore} for resume functionality.
  * 
  * Timer is stored in milliseconds internally and converted to seconds for {@link Score}.
  */
@@ -74,21 +69,10 @@ public class Progress {
     private LocalDateTime endTime;
 
     /**
-     * Default directory used for storing progress files.
+     * Default directory that holds the {@link ProgressStore} files.
      */
     private static final String DEFAULT_SAVE_DIR = "data";
 
-    /**
-     * Filename used when no player ID is available.
-     */
-    private static final String DEFAULT_SAVE_FILE = "progress-default.txt";
-
-    /**
-     * Delimiter used to join multiple hints when writing to a single key/value
-     * line in the progress file.
-     */
-    private static final String HINT_DELIMITER = " ||";
-
     /**
      * Constructs a default {@code Progress} instance with no player and no
      * available hints.
@@ -235,158 +219,102 @@ public class Progress {
     }
 
     /**
-     * Persist the current progress to disk. The file name is derived from the
-     * owning player's UUID if available: {@code data/progress-<playerId>.txt},
-     * otherwise {@code data/progress-default.txt} is used.
+     * Persist the current progress to the shared {@link ProgressStore} in
+     * {@code data/}. The record is keyed by the owning player's UUID, or by
+     * {@link ProgressStore#DEFAULT_OWNER} when no player is set, and is
+     * overwritten in place on each save.
      */
     public void saveProgress() {
-        String filename;
-        if (player != null && player.getPlayerID() != null) {
-            filename = DEFAULT_SAVE_DIR + "/progress-" + player.getPlayerID() + ".txt";
-        } else {
-            filename = DEFAULT_SAVE_DIR + "/" + DEFAULT_SAVE_FILE;
-        }
-
-        Path savePath = Paths.get(filename);
-        try {
-            Path parent = savePath.getParent();
-            if (parent != null) {
-                Files.createDirectories(parent);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+        ProgressStore store = ProgressStore.forDirectory(DEFAULT_SAVE_DIR);
+        if (store == null) {
             return;
         }
 
-        List<String> hintsToWrite = new ArrayList<>();
+        ProgressStore.Record record = new ProgressStore.Record();
+        record.currentRoom = currentRoom;
+        record.timer = timer;
+        record.completed = isCompleted;
+        record.hintsUsed = hintsUsed;
+        record.hintsRemaining = hintsRemaining;
+        record.startTime = startTime;
+        record.endTime = endTime;
+        record.scorePoints = score.getPoints();
+        record.scorePuzzlesSolved = score.getPuzzlesSolved();
+        record.scoreHintsUsed = score.getHintsUsed();
+        record.scoreTimeTaken = score.getTimeTaken();
+        record.scoreFreeHintTokens = score.getFreeHintTokens();
+        for (Settings.Difficulty level : Settings.Difficulty.values()) {
+            record.scoreSolves[level.ordinal()] = score.getSolves(level);
+        }
         if (availableHints != null) {
             for (String hint : availableHints) {
                 if (hint != null) {
-                    hintsToWrite.add(hint);
+                    record.availableHints.add(hint);
                 }
             }
         }
-
-        try (BufferedWriter writer = Files.newBufferedWriter(savePath)) {
-            writer.write("playerId=" + (player != null && player.getPlayerID() != null ? player.getPlayerID() : ""));
-            writer.newLine();
-            writer.write("currentRoom=" + currentRoom);
-            writer.newLine();
-            writer.write("timer=" + timer);
-            writer.newLine();
-            writer.write("completed=" + isCompleted);
-            writer.newLine();
-            writer.write("hintsUsed=" + hintsUsed);
-            writer.newLine();
-            writer.write("hintsRemaining=" + hintsRemaining);
-            writer.newLine();
-            writer.write("startTime=" + (startTime != null ? startTime : ""));
-            writer.newLine();
-            writer.write("endTime=" + (endTime != null ? endTime : ""));
-            writer.newLine();
-            writer.write("scorePoints=" + score.getPoints());
-            writer.newLine();
-            writer.write("scorePuzzlesSolved=" + score.getPuzzlesSolved());
-            writer.newLine();
-            writer.write("scoreHintsUsed=" + score.getHintsUsed());
-            writer.newLine();
-            writer.write("scoreTimeTaken=" + score.getTimeTaken());
-            writer.newLine();
-            writer.write("scoreFreeHintTokens=" + score.getFreeHintTokens());
-            writer.newLine();
-            writer.write("availableHints=" + String.join(HINT_DELIMITER, hintsToWrite));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
+        store.write(ownerId(), record);
     }
 
     /**
-     * Loads a previously saved progress file if present. File name resolution is
-     * the same as {@link #saveProgress()}. The loader is resilient: unknown
-     * keys are ignored and parsing errors fall back to current values.
+     * Loads previously saved progress from the shared {@link ProgressStore} if
+     * present. The owner is resolved the same way as in {@link #saveProgress()}.
      *
      * After loading, the {@link #hintsRemaining} and the {@link Score} hint/time
      * fields are recomputed from loaded values.
      */
     public void loadProgress() {
-        String filename;
-        if (player != null && player.getPlayerID() != null) {
-            filename = DEFAULT_SAVE_DIR + "/progress-" + player.getPlayerID() + ".txt";
-        } else {
-            filename = DEFAULT_SAVE_DIR + "/" + DEFAULT_SAVE_FILE;
+        ProgressStore store = ProgressStore.forDirectory(DEFAULT_SAVE_DIR);
+        ProgressStore.Record record = store != null ? store.read(ownerId()) : null;
+        if (record == null) {
+            return;
         }
 
-        Path savePath = Paths.get(filename);
-        if (!Files.exists(savePath)) {
-            return;
+        this.currentRoom = record.currentRoom;
+        this.timer = record.timer;
+        this.isCompleted = record.completed;
+        this.hintsUsed = record.hintsUsed;
+        this.hintsRemaining = record.hintsRemaining;
+        this.startTime = record.startTime;
+        this.endTime = record.endTime;
+        this.score.setPoints(record.scorePoints);
+        this.score.setPuzzlesSolved(record.scorePuzzlesSolved);
+        this.score.setHintsUsed(record.scoreHintsUsed);
+        this.score.setTimeTaken(record.scoreTimeTaken);
+        this.score.setFreeHintTokens(record.scoreFreeHintTokens);
+        for (Settings.Difficulty level : Settings.Difficulty.values()) {
+            this.score.setSolves(level, record.scoreSolves[level.ordinal()]);
         }
+        this.availableHints = new ArrayList<>(record.availableHints);
 
-        try (BufferedReader reader = Files.newBufferedReader(savePath)) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                int idx = line.indexOf('=');
-                if (idx == -1) {
-                    continue;
-                }
-                String key = line.substring(0, idx);
-                String value = line.substring(idx + 1);
-                switch (key) {
-                    case "currentRoom":
-                        this.currentRoom = parseInt(value, currentRoom);
-                        break;
-                    case "timer":
-                        this.timer = parseLong(value, timer);
-                        break;
-                    case "completed":
-                        this.isCompleted = Boolean.parseBoolean(value);
-                        break;
-                    case "hintsUsed":
-                        this.hintsUsed = parseInt(value, hintsUsed);
-                        break;
-                    case "hintsRemaining":
-                        this.hintsRemaining = parseInt(value, hintsRemaining);
-                        break;
-                    case "startTime":
-                        this.startTime = parseDateTime(value);
-                        break;
-                    case "endTime":
-                        this.endTime = parseDateTime(value);
-                        break;
-                    case "scorePoints":
-                        this.score.setPoints(parseInt(value, score.getPoints()));
-                        break;
-                    case "scorePuzzlesSolved":
-                        this.score.setPuzzlesSolved(parseInt(value, score.getPuzzlesSolved()));
-                        break;
-                    case "scoreHintsUsed":
-                        this.score.setHintsUsed(parseInt(value, score.getHintsUsed()));
-                        break;
-                    case "scoreTimeTaken":
-                        this.score.setTimeTaken(parseInt(value, score.getTimeTaken()));
-                        break;
-                    case "scoreFreeHintTokens":
-                        this.score.setFreeHintTokens(parseInt(value, score.getFreeHintTokens()));
-                        break;
-                    case "availableHints":
-                        this.availableHints = parseHints(value);
-                        break;
-                    default:
-                        break;
-                }
+        hintsRemaining = Math.max(0, availableHints.size() - hintsUsed);
+        score.setHintsUsed(hintsUsed);
+        score.setTimeTaken((int) Math.min(Integer.MAX_VALUE, Math.max(0L, timer / 1000L)));
+    }
 
-            }
-            if (availableHints == null) {
-                availableHints = new ArrayList<>();
-            }
-            hintsRemaining = Math.max(0, availableHints.size() - hintsUsed);
-            score.setHintsUsed(hintsUsed);
-            score.setTimeTaken((int) Math.min(Integer.MAX_VALUE, Math.max(0L, timer / 1000L)));
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * Forces progress saved through {@link #saveProgress()} out to disk.
+     * Used by {@link SaveQueue} once per flushed batch instead of on every save.
+     */
+    static void syncSavedProgress() {
+        ProgressStore store = ProgressStore.forDirectory(DEFAULT_SAVE_DIR);
+        if (store != null) {
+            store.flush();
         }
     }
 
+    /**
+     * Returns the key under which this progress is stored.
+     *
+     * @return the owning player's UUID, or {@link ProgressStore#DEFAULT_OWNER}
+     */
+    private UUID ownerId() {
+        if (player != null && player.getPlayerID() != null) {
+            return player.getPlayerID();
+        }
+        return ProgressStore.DEFAULT_OWNER;
+    }
+
     /**
      * Returns the next available hint and updates counters. Hints are consumed
      * in order from {@link #availableHints}. If no hints are available or
@@ -455,71 +383,4 @@ public class Progress {
             }
         }
     }
-
-    /**
-     * Parse an integer value returning {@code defaultValue} on parse errors.
-     *
-     * @param value        string value to parse
-     * @param defaultValue fallback value if parsing fails
-     * @return parsed integer or {@code defaultValue}
-     */
-    private static int parseInt(String value, int defaultValue) {
-        try {
-            return Integer.parseInt(value);
-        } catch (NumberFormatException e) {
-            return defaultValue;
-        }
-    }
-
-    /**
-     * Parse a long value returning {@code defaultValue} on parse errors.
-     *
-     * @param value        string value to parse
-     * @param defaultValue fallback value if parsing fails
-     * @return parsed long or {@code defaultValue}
-     */
-    private static long parseLong(String value, long defaultValue) {
-        try {
-            return Long.parseLong(value);
-        } catch (NumberFormatException e) {
-            return defaultValue;
-        }
-    }
-
-    /**
-     * Parse a {@link LocalDateTime} from the supplied string, returning {@code null}
-     * if parsing fails.
-     *
-     * @param value string representation of a {@link LocalDateTime}
-     * @return parsed {@link LocalDateTime} or {@code null}
-     */
-    private static LocalDateTime parseDateTime(String value) {
-        try {
-            return LocalDateTime.parse(value);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    /**
-     * Parse an available-hints string written with {@link #HINT_DELIMITER} into a
-     * {@link List} of hints. Trims each part and ignores empty segments.
-     *
-     * @param value joined hint string value
-     * @return list of individual hint strings (never {@code null})
-     */
-    private List<String> parseHints(String value) {
-        List<String> hints = new ArrayList<>();
-        if (value == null || value.isEmpty()) {
-            return hints;
-        }
-        String[] parts = value.split(HINT_DELIMITER);
-        for (String part : parts) {
-            if (!part.trim().isEmpty()) {
-                hints.add(part.trim());
-            }
-        }
-        return hints;
-    }
 }
-
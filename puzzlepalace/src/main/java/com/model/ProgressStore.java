@@ -0,0 +1,848 @@
+package com.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Stores the saved {@link Progress} of every player in one memory-mapped file
+ * of fixed-size records keyed by player UUID ({@code progress.store}). Each
+ * save overwrites the player's record in place; hint lists are variable length
+ * and are appended to a side file ({@code progress.hints}) that the record
+ * points into. Each record ends with a CRC32 of its other bytes; a record
+ * torn by a crash fails the check and is treated as missing rather than
+ * loaded with mixed old and new values. A hint list that lies outside the
+ * hints file or does not decode is treated as empty.
+ *
+ * Replaced hint lists stay in the hints file until {@link #compact()}
+ * rewrites it, which happens when a store is opened with more dead bytes in
+ * the hints file than live ones. A compaction cut short by a crash is
+ * finished or abandoned when the store is next opened.
+ *
+ * The per-player {@code progress-<uuid>.txt} files written by earlier
+ * versions are imported the first time a directory is opened. Players that
+ * already have a record keep it, and the text files are left untouched.
+ *
+ * One store is shared per directory; all methods are synchronized.
+ */
+public class ProgressStore {
+
+    /** Key used for progress that is not owned by a player. */
+    public static final UUID DEFAULT_OWNER = new UUID(0L, 0L);
+
+    static final String STORE_FILE = "progress.store";
+    static final String HINTS_FILE = "progress.hints";
+    static final String COMPACTING_FILE = HINTS_FILE + ".compacting";
+    static final String REMAP_FILE = HINTS_FILE + ".remap";
+
+    private static final int MAGIC = 0x50505354;
+    private static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_CRC = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 128;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    /** Dead bytes the hints file may hold before opening the store compacts it. */
+    private static final long MIN_HINTS_WASTE = 64 * 1024;
+
+    private static final int OFF_MSB = 0;
+    private static final int OFF_LSB = 8;
+    private static final int OFF_CURRENT_ROOM = 16;
+    private static final int OFF_TIMER = 20;
+    private static final int OFF_COMPLETED = 28;
+    private static final int OFF_HINTS_USED = 32;
+    private static final int OFF_HINTS_REMAINING = 36;
+    private static final int OFF_START_SECONDS = 40;
+    private static final int OFF_START_NANOS = 48;
+    private static final int OFF_END_SECONDS = 52;
+    private static final int OFF_END_NANOS = 60;
+    private static final int OFF_SCORE_POINTS = 64;
+    private static final int OFF_SCORE_SOLVED = 68;
+    private static final int OFF_SCORE_HINTS = 72;
+    private static final int OFF_SCORE_TIME = 76;
+    private static final int OFF_SCORE_TOKENS = 80;
+    private static final int OFF_HINTS_POINTER = 84;
+    private static final int OFF_HINTS_LENGTH = 92;
+    /** One int per difficulty; records written before these were counted hold zeros here. */
+    private static final int OFF_SCORE_SOLVES = 96;
+    private static final int OFF_CRC = RECORD_SIZE - Integer.BYTES;
+
+    private static final String LEGACY_PREFIX = "progress-";
+    private static final String LEGACY_SUFFIX = ".txt";
+    private static final String LEGACY_DEFAULT = "default";
+    private static final String LEGACY_HINT_DELIMITER = " ||";
+
+    private static final Map<Path, ProgressStore> OPEN_STORES = new HashMap<>();
+
+    private final Path directory;
+    private final RandomAccessFile storeFile;
+    private final FileChannel storeChannel;
+    private RandomAccessFile hintsFile;
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private MappedByteBuffer map;
+    private int capacity;
+    private int count;
+
+    /**
+     * Saved state of one player's progress. Fields mirror {@link Progress}.
+     */
+    static final class Record {
+        int currentRoom;
+        long timer;
+        boolean completed;
+        int hintsUsed;
+        int hintsRemaining;
+        LocalDateTime startTime;
+        LocalDateTime endTime;
+        int scorePoints;
+        int scorePuzzlesSolved;
+        int scoreHintsUsed;
+        int scoreTimeTaken;
+        int scoreFreeHintTokens;
+        int[] scoreSolves = new int[Settings.Difficulty.values().length];
+        List<String> availableHints = new ArrayList<>();
+    }
+
+    /**
+     * Returns the shared store for a directory, opening it and importing
+     * legacy progress files on first use.
+     *
+     * @param directory directory that holds the store files
+     * @return the store, or {@code null} if it could not be opened
+     */
+    public static synchronized ProgressStore forDirectory(String directory) {
+        Path key = Paths.get(directory).toAbsolutePath().normalize();
+        ProgressStore store = OPEN_STORES.get(key);
+        if (store != null) {
+            return store;
+        }
+        try {
+            store = new ProgressStore(key);
+        } catch (IOException e) {
+            System.out.println("ProgressStore: unable to open store in " + key + ": " + e.getMessage());
+            return null;
+        }
+        OPEN_STORES.put(key, store);
+        store.migrateLegacyFiles();
+        store.compactIfWasteful();
+        return store;
+    }
+
+    private ProgressStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        Path storePath = directory.resolve(STORE_FILE);
+        setAsideIfUnreadable(storePath);
+        this.storeFile = new RandomAccessFile(storePath.toFile(), "rw");
+        this.storeChannel = storeFile.getChannel();
+        this.hintsFile = new RandomAccessFile(directory.resolve(HINTS_FILE).toFile(), "rw");
+
+        if (storeChannel.size() < HEADER_SIZE) {
+            remap(INITIAL_CAPACITY);
+            map.putInt(0, MAGIC);
+            map.putInt(4, VERSION);
+            map.putInt(8, RECORD_SIZE);
+            map.putInt(12, 0);
+        } else {
+            int stored = (int) ((storeChannel.size() - HEADER_SIZE) / RECORD_SIZE);
+            remap(Math.max(stored, INITIAL_CAPACITY));
+            count = Math.min(map.getInt(12), stored);
+            boolean upgrade = map.getInt(4) == VERSION_WITHOUT_CRC;
+            for (int slot = 0; slot < count; slot++) {
+                int base = recordBase(slot);
+                slots.put(new UUID(map.getLong(base + OFF_MSB), map.getLong(base + OFF_LSB)), slot);
+                if (upgrade) {
+                    map.putInt(base + OFF_CRC, recordChecksum(base));
+                }
+            }
+            if (upgrade) {
+                map.putInt(4, VERSION);
+            }
+        }
+        recoverCompaction();
+    }
+
+    /**
+     * Returns whether a record exists for the given owner.
+     *
+     * @param owner player UUID, or {@code null} for the default owner
+     * @return {@code true} if progress has been saved for the owner
+     */
+    public synchronized boolean contains(UUID owner) {
+        return slots.containsKey(keyFor(owner));
+    }
+
+    /**
+     * Returns the number of stored records.
+     *
+     * @return record count
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Reads the saved progress for an owner.
+     *
+     * @param owner player UUID, or {@code null} for the default owner
+     * @return the saved record, or {@code null} if none exists
+     */
+    synchronized Record read(UUID owner) {
+        Integer slot = slots.get(keyFor(owner));
+        if (slot == null) {
+            return null;
+        }
+        int base = recordBase(slot);
+        if (map.getInt(base + OFF_CRC) != recordChecksum(base)) {
+            System.out.println("ProgressStore: ignoring damaged progress record for " + keyFor(owner));
+            return null;
+        }
+        Record record = new Record();
+        record.currentRoom = map.getInt(base + OFF_CURRENT_ROOM);
+        record.timer = map.getLong(base + OFF_TIMER);
+        record.completed = map.get(base + OFF_COMPLETED) != 0;
+        record.hintsUsed = map.getInt(base + OFF_HINTS_USED);
+        record.hintsRemaining = map.getInt(base + OFF_HINTS_REMAINING);
+        record.startTime = readTime(base + OFF_START_SECONDS, base + OFF_START_NANOS);
+        record.endTime = readTime(base + OFF_END_SECONDS, base + OFF_END_NANOS);
+        record.scorePoints = map.getInt(base + OFF_SCORE_POINTS);
+        record.scorePuzzlesSolved = map.getInt(base + OFF_SCORE_SOLVED);
+        record.scoreHintsUsed = map.getInt(base + OFF_SCORE_HINTS);
+        record.scoreTimeTaken = map.getInt(base + OFF_SCORE_TIME);
+        record.scoreFreeHintTokens = map.getInt(base + OFF_SCORE_TOKENS);
+        for (int i = 0; i < record.scoreSolves.length; i++) {
+            record.scoreSolves[i] = map.getInt(base + OFF_SCORE_SOLVES + i * Integer.BYTES);
+        }
+        try {
+            record.availableHints = readHints(map.getLong(base + OFF_HINTS_POINTER), map.getInt(base + OFF_HINTS_LENGTH));
+        } catch (IOException e) {
+            System.out.println("ProgressStore: unable to read hints for " + owner + ": " + e.getMessage());
+        }
+        return record;
+    }
+
+    /**
+     * Saves an owner's progress, overwriting any existing record in place.
+     * The hint list is only appended to the hints file when it changed.
+     *
+     * @param owner player UUID, or {@code null} for the default owner
+     * @param record progress to store
+     * @return {@code true} if the record was written
+     */
+    synchronized boolean write(UUID owner, Record record) {
+        UUID key = keyFor(owner);
+        Integer slot = slots.get(key);
+        try {
+            if (slot == null) {
+                if (count == capacity) {
+                    remap(capacity * 2);
+                }
+                slot = count;
+            }
+            int base = recordBase(slot);
+            long hintsPointer = -1L;
+            int hintsLength = 0;
+            byte[] encodedHints = encodeHints(record.availableHints);
+            if (slots.containsKey(key)) {
+                hintsPointer = map.getLong(base + OFF_HINTS_POINTER);
+                hintsLength = map.getInt(base + OFF_HINTS_LENGTH);
+            }
+            if (!sameHints(hintsPointer, hintsLength, encodedHints)) {
+                hintsPointer = appendHints(encodedHints);
+                hintsLength = encodedHints.length;
+            }
+
+            map.putLong(base + OFF_MSB, key.getMostSignificantBits());
+            map.putLong(base + OFF_LSB, key.getLeastSignificantBits());
+            map.putInt(base + OFF_CURRENT_ROOM, record.currentRoom);
+            map.putLong(base + OFF_TIMER, record.timer);
+            map.put(base + OFF_COMPLETED, (byte) (record.completed ? 1 : 0));
+            map.putInt(base + OFF_HINTS_USED, record.hintsUsed);
+            map.putInt(base + OFF_HINTS_REMAINING, record.hintsRemaining);
+            writeTime(record.startTime, base + OFF_START_SECONDS, base + OFF_START_NANOS);
+            writeTime(record.endTime, base + OFF_END_SECONDS, base + OFF_END_NANOS);
+            map.putInt(base + OFF_SCORE_POINTS, record.scorePoints);
+            map.putInt(base + OFF_SCORE_SOLVED, record.scorePuzzlesSolved);
+            map.putInt(base + OFF_SCORE_HINTS, record.scoreHintsUsed);
+            map.putInt(base + OFF_SCORE_TIME, record.scoreTimeTaken);
+            map.putInt(base + OFF_SCORE_TOKENS, record.scoreFreeHintTokens);
+            for (int i = 0; i < record.scoreSolves.length; i++) {
+                map.putInt(base + OFF_SCORE_SOLVES + i * Integer.BYTES, record.scoreSolves[i]);
+            }
+            map.putLong(base + OFF_HINTS_POINTER, hintsPointer);
+            map.putInt(base + OFF_HINTS_LENGTH, hintsLength);
+            map.putInt(base + OFF_CRC, recordChecksum(base));
+
+            if (!slots.containsKey(key)) {
+                slots.put(key, slot);
+                count++;
+                map.putInt(12, count);
+            }
+            return true;
+        } catch (IOException e) {
+            System.out.println("ProgressStore: unable to save progress for " + key + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Rewrites the hints file with only the hint lists the records point to,
+     * in record order, and points each record at its list's new position.
+     * Lists that cannot be read are dropped and their records left with no
+     * hints; damaged records are left as they are.
+     *
+     * The new positions are saved in a {@code progress.hints.remap} file
+     * before the new hints file replaces the old one, and that file is only
+     * removed once the records point at them and are forced to disk. A store
+     * opened after a crash in between finishes pointing the records, so no
+     * record is read at an old position in the new file.
+     *
+     * @return {@code true} if the hints file was rewritten
+     */
+    public synchronized boolean compact() {
+        return replaceHintsFile() && repointRecords();
+    }
+
+    /**
+     * Writes the compacted hints file and the positions of its lists, then
+     * moves it over the old one. The records still point into the old file
+     * until {@link #repointRecords()} runs.
+     *
+     * @return {@code true} if the hints file was replaced
+     */
+    synchronized boolean replaceHintsFile() {
+        Path hintsPath = directory.resolve(HINTS_FILE);
+        Path compacting = directory.resolve(COMPACTING_FILE);
+        long[] pointers = new long[count];
+        int[] lengths = new int[count];
+        boolean[] intact = new boolean[count];
+        long before;
+        long after;
+        try (RandomAccessFile out = new RandomAccessFile(compacting.toFile(), "rw")) {
+            before = hintsFile.length();
+            out.setLength(0);
+            for (int slot = 0; slot < count; slot++) {
+                int base = recordBase(slot);
+                pointers[slot] = -1L;
+                if (map.getInt(base + OFF_CRC) != recordChecksum(base)) {
+                    continue;
+                }
+                intact[slot] = true;
+                byte[] hints = validHintBytes(map.getLong(base + OFF_HINTS_POINTER), map.getInt(base + OFF_HINTS_LENGTH));
+                if (hints != null) {
+                    pointers[slot] = out.getFilePointer();
+                    lengths[slot] = hints.length;
+                    out.write(hints);
+                }
+            }
+            after = out.getFilePointer();
+            out.getFD().sync();
+            writeRemap(pointers, lengths, intact);
+        } catch (IOException e) {
+            System.out.println("ProgressStore: unable to compact hints file: " + e.getMessage());
+            try {
+                Files.deleteIfExists(directory.resolve(REMAP_FILE));
+                Files.deleteIfExists(compacting);
+            } catch (IOException ignored) {
+                // left for the next compaction to overwrite
+            }
+            return false;
+        }
+        try {
+            hintsFile.close();
+            Files.move(compacting, hintsPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+        } catch (IOException e) {
+            System.out.println("ProgressStore: unable to replace hints file: " + e.getMessage());
+            reopenHints(hintsPath);
+            return false;
+        }
+        if (!reopenHints(hintsPath)) {
+            return false;
+        }
+        System.out.println("ProgressStore: compacted hints file from " + before + " to " + after + " bytes");
+        return true;
+    }
+
+    /**
+     * Points every record listed in the remap file at its list in the
+     * compacted hints file, forces the records to disk and removes the remap
+     * file. Running it again after a crash gives the same records.
+     *
+     * @return {@code true} if the records were repointed
+     */
+    private boolean repointRecords() {
+        Path remap = directory.resolve(REMAP_FILE);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(remap)))) {
+            int entries = in.readInt();
+            for (int i = 0; i < entries; i++) {
+                int slot = in.readInt();
+                long pointer = in.readLong();
+                int length = in.readInt();
+                if (slot < 0 || slot >= count) {
+                    continue;
+                }
+                int base = recordBase(slot);
+                if (map.getInt(base + OFF_CRC) != recordChecksum(base)) {
+                    continue;
+                }
+                map.putLong(base + OFF_HINTS_POINTER, pointer);
+                map.putInt(base + OFF_HINTS_LENGTH, length);
+                map.putInt(base + OFF_CRC, recordChecksum(base));
+            }
+            map.force();
+            Files.delete(remap);
+            return true;
+        } catch (IOException e) {
+            System.out.println("ProgressStore: unable to point records into the compacted hints file: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Saves the new position of every intact record's hint list, synced and
+     * moved into place in one step.
+     */
+    private void writeRemap(long[] pointers, int[] lengths, boolean[] intact) throws IOException {
+        Path remap = directory.resolve(REMAP_FILE);
+        Path temp = directory.resolve(REMAP_FILE + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            int entries = 0;
+            for (boolean kept : intact) {
+                entries += kept ? 1 : 0;
+            }
+            out.writeInt(entries);
+            for (int slot = 0; slot < pointers.length; slot++) {
+                if (intact[slot]) {
+                    out.writeInt(slot);
+                    out.writeLong(pointers[slot]);
+                    out.writeInt(lengths[slot]);
+                }
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, remap, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+    }
+
+    /**
+     * Finishes or abandons a compaction cut short by a crash. While the
+     * compacted file has not replaced the hints file the records still point
+     * into the old one, so the compaction is dropped; once it has, the
+     * records are pointed at the new positions.
+     */
+    private void recoverCompaction() throws IOException {
+        Path compacting = directory.resolve(COMPACTING_FILE);
+        Path remap = directory.resolve(REMAP_FILE);
+        if (Files.exists(compacting)) {
+            Files.deleteIfExists(remap);
+            Files.delete(compacting);
+        } else if (Files.exists(remap)) {
+            System.out.println("ProgressStore: finishing an interrupted hints compaction in " + directory);
+            if (!repointRecords()) {
+                throw new IOException("interrupted hints compaction could not be finished");
+            }
+        }
+    }
+
+    /**
+     * Forces the directory's entries to disk, so a file moved into it stays
+     * moved after a crash. Some platforms cannot open a directory; there the
+     * move is left to the file system.
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // not supported here
+        }
+    }
+
+    /**
+     * Forces pending record changes out to the storage device.
+     */
+    public synchronized void flush() {
+        map.force();
+        try {
+            hintsFile.getFD().sync();
+        } catch (IOException e) {
+            System.out.println("ProgressStore: unable to sync hints file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the store files and forgets the shared instance for its directory.
+     */
+    public void close() {
+        synchronized (ProgressStore.class) {
+            OPEN_STORES.remove(directory);
+        }
+        synchronized (this) {
+            map.force();
+            try {
+                storeChannel.close();
+                storeFile.close();
+                hintsFile.close();
+            } catch (IOException e) {
+                System.out.println("ProgressStore: error while closing store: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Compacts the hints file when it holds more dead bytes than live ones
+     * and at least {@link #MIN_HINTS_WASTE} of them.
+     */
+    private synchronized void compactIfWasteful() {
+        long live = 0;
+        for (int slot = 0; slot < count; slot++) {
+            int base = recordBase(slot);
+            if (map.getLong(base + OFF_HINTS_POINTER) >= 0) {
+                live += Math.max(0, map.getInt(base + OFF_HINTS_LENGTH));
+            }
+        }
+        try {
+            long waste = hintsFile.length() - live;
+            if (waste > live && waste >= MIN_HINTS_WASTE) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.out.println("ProgressStore: unable to size hints file: " + e.getMessage());
+        }
+    }
+
+    private boolean reopenHints(Path hintsPath) {
+        try {
+            hintsFile = new RandomAccessFile(hintsPath.toFile(), "rw");
+            return true;
+        } catch (IOException e) {
+            System.out.println("ProgressStore: unable to reopen hints file: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Imports {@code progress-<uuid>.txt} files for owners that have no record yet.
+     */
+    private synchronized void migrateLegacyFiles() {
+        int imported = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, LEGACY_PREFIX + "*" + LEGACY_SUFFIX)) {
+            for (Path file : files) {
+                UUID owner = legacyOwner(file.getFileName().toString());
+                if (owner == null || slots.containsKey(owner)) {
+                    continue;
+                }
+                Record record = readLegacyFile(file);
+                if (record != null && write(owner, record)) {
+                    imported++;
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("ProgressStore: unable to scan " + directory + " for progress files: " + e.getMessage());
+        }
+        if (imported > 0) {
+            System.out.println("ProgressStore: imported " + imported + " progress files from " + directory);
+        }
+    }
+
+    private static UUID legacyOwner(String fileName) {
+        String id = fileName.substring(LEGACY_PREFIX.length(), fileName.length() - LEGACY_SUFFIX.length());
+        if (LEGACY_DEFAULT.equals(id)) {
+            return DEFAULT_OWNER;
+        }
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads one key=value progress file. Unknown keys and bad values are
+     * ignored, matching the old loader.
+     */
+    static Record readLegacyFile(Path file) {
+        Record record = new Record();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int idx = line.indexOf('=');
+                if (idx == -1) {
+                    continue;
+                }
+                String value = line.substring(idx + 1);
+                switch (line.substring(0, idx)) {
+                    case "currentRoom":
+                        record.currentRoom = parseInt(value, record.currentRoom);
+                        break;
+                    case "timer":
+                        record.timer = parseLong(value, record.timer);
+                        break;
+                    case "completed":
+                        record.completed = Boolean.parseBoolean(value);
+                        break;
+                    case "hintsUsed":
+                        record.hintsUsed = parseInt(value, record.hintsUsed);
+                        break;
+                    case "hintsRemaining":
+                        record.hintsRemaining = parseInt(value, record.hintsRemaining);
+                        break;
+                    case "startTime":
+                        record.startTime = parseDateTime(value);
+                        break;
+                    case "endTime":
+                        record.endTime = parseDateTime(value);
+                        break;
+                    case "scorePoints":
+                        record.scorePoints = parseInt(value, record.scorePoints);
+                        break;
+                    case "scorePuzzlesSolved":
+                        record.scorePuzzlesSolved = parseInt(value, record.scorePuzzlesSolved);
+                        break;
+                    case "scoreHintsUsed":
+                        record.scoreHintsUsed = parseInt(value, record.scoreHintsUsed);
+                        break;
+                    case "scoreTimeTaken":
+                        record.scoreTimeTaken = parseInt(value, record.scoreTimeTaken);
+                        break;
+                    case "scoreFreeHintTokens":
+                        record.scoreFreeHintTokens = parseInt(value, record.scoreFreeHintTokens);
+                        break;
+                    case "availableHints":
+                        record.availableHints = parseLegacyHints(value);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return record;
+        } catch (IOException e) {
+            System.out.println("ProgressStore: unable to read " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static List<String> parseLegacyHints(String value) {
+        List<String> hints = new ArrayList<>();
+        if (value == null || value.isEmpty()) {
+            return hints;
+        }
+        for (String part : value.split(Pattern.quote(LEGACY_HINT_DELIMITER))) {
+            if (!part.trim().isEmpty()) {
+                hints.add(part.trim());
+            }
+        }
+        return hints;
+    }
+
+    private static UUID keyFor(UUID owner) {
+        return owner != null ? owner : DEFAULT_OWNER;
+    }
+
+    private static int recordBase(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    /**
+     * Maps the store file with room for {@code newCapacity} records, growing the file if needed.
+     */
+    private void remap(int newCapacity) throws IOException {
+        if (map != null) {
+            map.force();
+        }
+        map = storeChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) newCapacity * RECORD_SIZE);
+        capacity = newCapacity;
+    }
+
+    /**
+     * Moves a store file with an unknown header out of the way so a fresh store can be created.
+     */
+    private static void setAsideIfUnreadable(Path storePath) throws IOException {
+        if (!Files.exists(storePath) || Files.size(storePath) < HEADER_SIZE) {
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        try (FileChannel channel = FileChannel.open(storePath)) {
+            channel.read(header, 0);
+        }
+        header.flip();
+        int version = header.getInt(4);
+        if (header.getInt(0) == MAGIC && (version == VERSION || version == VERSION_WITHOUT_CRC)
+                && header.getInt(8) == RECORD_SIZE) {
+            return;
+        }
+        Path aside = storePath.resolveSibling(STORE_FILE + ".unreadable");
+        Files.move(storePath, aside, StandardCopyOption.REPLACE_EXISTING);
+        System.out.println("ProgressStore: unrecognised store moved to " + aside);
+    }
+
+    private int recordChecksum(int base) {
+        CRC32 crc = new CRC32();
+        crc.update(map.slice(base, OFF_CRC));
+        return (int) crc.getValue();
+    }
+
+    private LocalDateTime readTime(int secondsOffset, int nanosOffset) {
+        long seconds = map.getLong(secondsOffset);
+        if (seconds == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(seconds, map.getInt(nanosOffset), ZoneOffset.UTC);
+    }
+
+    private void writeTime(LocalDateTime time, int secondsOffset, int nanosOffset) {
+        map.putLong(secondsOffset, time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC));
+        map.putInt(nanosOffset, time == null ? 0 : time.getNano());
+    }
+
+    /**
+     * Encodes hints as a count followed by length-prefixed UTF-8 strings.
+     */
+    private static byte[] encodeHints(List<String> hints) {
+        List<byte[]> encoded = new ArrayList<>();
+        int size = Integer.BYTES;
+        if (hints != null) {
+            for (String hint : hints) {
+                if (hint != null) {
+                    byte[] bytes = hint.getBytes(StandardCharsets.UTF_8);
+                    encoded.add(bytes);
+                    size += Integer.BYTES + bytes.length;
+                }
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(encoded.size());
+        for (byte[] bytes : encoded) {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Reads the hint list at {@code pointer}. A missing list reads as empty;
+     * one that lies past the end of the hints file or does not decode fails.
+     */
+    private List<String> readHints(long pointer, int length) throws IOException {
+        if (pointer < 0 || length < Integer.BYTES) {
+            return new ArrayList<>();
+        }
+        if (pointer + length > hintsFile.length()) {
+            throw new IOException("hint list at " + pointer + " lies past the end of " + HINTS_FILE);
+        }
+        return decodeHints(readHintBytes(pointer, length));
+    }
+
+    /**
+     * Decodes a list written by {@link #encodeHints(List)}, which must fill {@code encoded} exactly.
+     */
+    private static List<String> decodeHints(byte[] encoded) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        int hintCount = buffer.getInt();
+        if (hintCount < 0 || hintCount > buffer.remaining() / Integer.BYTES) {
+            throw new IOException("bad hint count " + hintCount);
+        }
+        List<String> hints = new ArrayList<>(hintCount);
+        for (int i = 0; i < hintCount; i++) {
+            int size = buffer.remaining() >= Integer.BYTES ? buffer.getInt() : -1;
+            if (size < 0 || size > buffer.remaining()) {
+                throw new IOException("bad length for hint " + i);
+            }
+            byte[] bytes = new byte[size];
+            buffer.get(bytes);
+            hints.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        if (buffer.hasRemaining()) {
+            throw new IOException(buffer.remaining() + " bytes left after the last hint");
+        }
+        return hints;
+    }
+
+    /**
+     * Returns the bytes of a readable hint list, or {@code null} if there is none.
+     */
+    private byte[] validHintBytes(long pointer, int length) throws IOException {
+        if (pointer < 0 || length < Integer.BYTES || pointer + length > hintsFile.length()) {
+            return null;
+        }
+        byte[] bytes = readHintBytes(pointer, length);
+        try {
+            decodeHints(bytes);
+            return bytes;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private byte[] readHintBytes(long pointer, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        hintsFile.seek(pointer);
+        hintsFile.readFully(bytes);
+        return bytes;
+    }
+
+    private boolean sameHints(long pointer, int length, byte[] encoded) throws IOException {
+        if (pointer < 0 || length != encoded.length || pointer + length > hintsFile.length()) {
+            return false;
+        }
+        return Arrays.equals(readHintBytes(pointer, length), encoded);
+    }
+
+    private long appendHints(byte[] encoded) throws IOException {
+        long pointer = hintsFile.length();
+        hintsFile.seek(pointer);
+        hintsFile.write(encoded);
+        return pointer;
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -42,6 +42,15 @@ public abstract class Puzzle {
         return false;
     }
 
+    /**
+     * Returns true if a wrong attempt is close to the answer, so the player
+     * can be told they are on the right track. Default implementation never
+     * reports an attempt as close.
+     */
+    public boolean isCloseAnswer(String attempt) {
+        return false;
+    }
+
     /**
      * Marks the puzzle as solved.
      */
@@ -0,0 +1,109 @@
+package com.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The rooms and puzzle candidates offered at each difficulty.
+ *
+ * A catalog is immutable: its {@link RoomDefinition}s and
+ * {@link PuzzleDefinition}s are built once and shared by every
+ * {@link GameSession} in a {@link SessionRegistry}. Each call to
+ * {@link #createRooms(Settings.Difficulty, Random)} picks one candidate per
+ * room and returns new {@link Room} and {@link Puzzle} instances that hold
+ * only the calling session's progress.
+ */
+public final class PuzzleCatalog {
+
+    /** The content file bundled next to this class, in the format read by {@link CatalogLoader}. */
+    static final String BUILT_IN_RESOURCE = "rooms.json";
+
+    private static final class BuiltIn {
+        private static final PuzzleCatalog INSTANCE = CatalogLoader.loadResource(BUILT_IN_RESOURCE);
+    }
+
+    private final Map<Settings.Difficulty, List<RoomDefinition>> roomsByDifficulty;
+    private final Map<Integer, PuzzleDefinition> puzzlesById;
+    private final Map<Integer, Settings.Difficulty> difficultiesById;
+
+    /**
+     * Create a catalog from room definitions grouped by difficulty.
+     */
+    public PuzzleCatalog(Map<Settings.Difficulty, List<RoomDefinition>> rooms) {
+        Map<Settings.Difficulty, List<RoomDefinition>> byDifficulty = new EnumMap<>(Settings.Difficulty.class);
+        Map<Integer, PuzzleDefinition> byId = new HashMap<>();
+        Map<Integer, Settings.Difficulty> difficulties = new HashMap<>();
+        if (rooms != null) {
+            for (Map.Entry<Settings.Difficulty, List<RoomDefinition>> entry : rooms.entrySet()) {
+                List<RoomDefinition> definitions = List.copyOf(entry.getValue());
+                byDifficulty.put(entry.getKey(), definitions);
+                for (RoomDefinition room : definitions) {
+                    for (PuzzleDefinition puzzle : room.getCandidates()) {
+                        byId.put(puzzle.getPuzzleId(), puzzle);
+                        difficulties.put(puzzle.getPuzzleId(), entry.getKey());
+                    }
+                }
+            }
+        }
+        this.roomsByDifficulty = Collections.unmodifiableMap(byDifficulty);
+        this.puzzlesById = Collections.unmodifiableMap(byId);
+        this.difficultiesById = Collections.unmodifiableMap(difficulties);
+    }
+
+    /**
+     * Return the catalog of rooms that ship with the game. It is read from
+     * the bundled {@code rooms.json} on first use and shared from then on.
+     */
+    public static PuzzleCatalog builtIn() {
+        return BuiltIn.INSTANCE;
+    }
+
+    /**
+     * Builds the rooms for a difficulty, picking one candidate puzzle per room.
+     *
+     * @param difficulty the difficulty to build for; {@code null} means easy
+     * @param random source used to pick among the candidate puzzles
+     * @return the rooms in play order
+     */
+    public List<Room> createRooms(Settings.Difficulty difficulty, Random random) {
+        List<RoomDefinition> definitions = getRooms(difficulty);
+        List<Room> rooms = new ArrayList<>(definitions.size());
+        for (RoomDefinition definition : definitions) {
+            rooms.add(definition.newRoom(random));
+        }
+        return rooms;
+    }
+
+    /**
+     * Return the room definitions for a difficulty in play order.
+     *
+     * @param difficulty the difficulty; {@code null} means easy
+     */
+    public List<RoomDefinition> getRooms(Settings.Difficulty difficulty) {
+        List<RoomDefinition> rooms = roomsByDifficulty.get(difficulty == null ? Settings.Difficulty.EASY : difficulty);
+        return rooms == null ? List.of() : rooms;
+    }
+
+    /**
+     * Return the definition with the given puzzle id, or null.
+     */
+    public PuzzleDefinition getPuzzle(int puzzleId) {
+        return puzzlesById.get(puzzleId);
+    }
+
+    /**
+     * Return the difficulty of the room offering the given puzzle, or null.
+     */
+    public Settings.Difficulty getDifficulty(int puzzleId) {
+        return difficultiesById.get(puzzleId);
+    }
+
+    public int getPuzzleCount() {
+        return puzzlesById.size();
+    }
+}
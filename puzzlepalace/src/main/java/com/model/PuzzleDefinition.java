@@ -0,0 +1,151 @@
+package com.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The fixed content of one puzzle: its id, prompt, answer and hints.
+ *
+ * Definitions are immutable and shared by every session. A session plays a
+ * definition through the {@link Puzzle} returned by {@link #newPuzzle()},
+ * which carries only the per-session state (status and hint usage) and reads
+ * the prompt, answer and hint list from here.
+ */
+public final class PuzzleDefinition {
+
+    /** How a definition's answer is checked. */
+    public enum Kind {
+        /** The answer is a number, compared with a small tolerance. */
+        MATH,
+        /** The answer is text, compared ignoring case and surrounding spaces. */
+        TEXT
+    }
+
+    private final int puzzleId;
+    private final Kind kind;
+    private final String prompt;
+    private final String answer;
+    private final double numericAnswer;
+    private final String equation;
+    private final TruthPuzzle statements;
+    private final List<String> hints;
+
+    private PuzzleDefinition(int puzzleId, Kind kind, String prompt, String answer, double numericAnswer,
+            String equation, TruthPuzzle statements, List<String> hints) {
+        this.puzzleId = puzzleId;
+        this.kind = kind;
+        this.prompt = equation == null ? prompt : prompt + " " + equation;
+        this.answer = answer;
+        this.numericAnswer = numericAnswer;
+        this.equation = equation;
+        this.statements = statements;
+        this.hints = hints == null ? List.of() : List.copyOf(hints);
+    }
+
+    /**
+     * Define a puzzle answered with a number.
+     */
+    public static PuzzleDefinition math(int puzzleId, String prompt, double solution, String... hints) {
+        return math(puzzleId, prompt, solution, hints == null ? null : Arrays.asList(hints));
+    }
+
+    public static PuzzleDefinition math(int puzzleId, String prompt, double solution, List<String> hints) {
+        return new PuzzleDefinition(puzzleId, Kind.MATH, prompt, null, solution, null, null, hints);
+    }
+
+    /**
+     * Define a puzzle answered with the solution of a single-variable
+     * equation. The equation is shown after the description.
+     */
+    public static PuzzleDefinition equation(int puzzleId, String description, String equation, double solution,
+            List<String> hints) {
+        return new PuzzleDefinition(puzzleId, Kind.MATH, description, null, solution, equation, null, hints);
+    }
+
+    /**
+     * Define a puzzle answered with a word or phrase.
+     */
+    public static PuzzleDefinition text(int puzzleId, String prompt, String solution, String... hints) {
+        return text(puzzleId, prompt, solution, hints == null ? null : Arrays.asList(hints));
+    }
+
+    public static PuzzleDefinition text(int puzzleId, String prompt, String solution, List<String> hints) {
+        return new PuzzleDefinition(puzzleId, Kind.TEXT, prompt, solution == null ? "" : solution.trim(), 0, null,
+                null, hints);
+    }
+
+    /**
+     * Define a puzzle answered with the candidate that a {@link TruthPuzzle}'s
+     * statements single out.
+     */
+    public static PuzzleDefinition truth(int puzzleId, String prompt, TruthPuzzle statements, String solution,
+            List<String> hints) {
+        return new PuzzleDefinition(puzzleId, Kind.TEXT, prompt, solution == null ? "" : solution.trim(), 0, null,
+                statements, hints);
+    }
+
+    /**
+     * Create a fresh, unsolved puzzle for one session.
+     */
+    public Puzzle newPuzzle() {
+        Hint usage = new Hint(hints);
+        if (kind == Kind.MATH) {
+            return new MathChallengePuzzle(puzzleId, prompt, numericAnswer, usage);
+        }
+        return new SimplePuzzle(puzzleId, prompt, answer, usage);
+    }
+
+    public int getPuzzleId() {
+        return puzzleId;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getPrompt() {
+        return prompt;
+    }
+
+    /**
+     * Return the prompt without the equation of an {@link #equation} puzzle.
+     */
+    public String getDescription() {
+        return equation == null ? prompt : prompt.substring(0, prompt.length() - equation.length() - 1);
+    }
+
+    /**
+     * Return the equation whose solution answers this puzzle, or null.
+     */
+    public String getEquation() {
+        return equation;
+    }
+
+    /**
+     * Return the statements whose solution answers this puzzle, or null.
+     */
+    public TruthPuzzle getStatements() {
+        return statements;
+    }
+
+    /**
+     * Return the answer of a {@link Kind#TEXT} puzzle, or null for math puzzles.
+     */
+    public String getAnswer() {
+        return answer;
+    }
+
+    /**
+     * Return the answer of a {@link Kind#MATH} puzzle.
+     */
+    public double getNumericAnswer() {
+        return numericAnswer;
+    }
+
+    /**
+     * Return the hints in the order they are given out (immutable).
+     */
+    public List<String> getHints() {
+        return hints;
+    }
+}
@@ -0,0 +1,89 @@
+package com.model;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The fixed content of one room: its names, difficulty and the candidate
+ * puzzles a session may be given there.
+ *
+ * Definitions are immutable and shared; {@link #newRoom(Random)} builds the
+ * {@link Room} a single session plays, holding one puzzle picked from the
+ * candidates.
+ */
+public final class RoomDefinition {
+
+    private final String roomId;
+    private final String name;
+    private final String description;
+    private final Settings.Difficulty difficulty;
+    private final int estimatedTimeMinutes;
+    private final PuzzleDefinition[] candidates;
+    private final List<String> exits;
+
+    public RoomDefinition(String roomId, String name, String description, Settings.Difficulty difficulty,
+            int estimatedTimeMinutes, List<PuzzleDefinition> candidates) {
+        this(roomId, name, description, difficulty, estimatedTimeMinutes, candidates, null);
+    }
+
+    public RoomDefinition(String roomId, String name, String description, Settings.Difficulty difficulty,
+            int estimatedTimeMinutes, List<PuzzleDefinition> candidates, List<String> exits) {
+        this.roomId = roomId;
+        this.name = name;
+        this.description = description;
+        this.difficulty = difficulty == null ? Settings.Difficulty.EASY : difficulty;
+        this.estimatedTimeMinutes = estimatedTimeMinutes;
+        this.candidates = candidates == null ? new PuzzleDefinition[0] : candidates.toArray(new PuzzleDefinition[0]);
+        this.exits = exits == null ? List.of() : List.copyOf(exits);
+    }
+
+    /**
+     * Build a room for one session with a randomly picked candidate puzzle.
+     */
+    public Room newRoom(Random random) {
+        Room room = new Room();
+        room.setRoomId(roomId);
+        room.setName(name);
+        room.setDescription(description);
+        room.setDifficulty(difficulty.getDisplayName());
+        room.setEstimatedTimeMinutes(estimatedTimeMinutes);
+        if (candidates.length > 0) {
+            room.addPuzzle(candidates[random.nextInt(candidates.length)].newPuzzle());
+        }
+        return room;
+    }
+
+    public String getRoomId() {
+        return roomId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Settings.Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public int getEstimatedTimeMinutes() {
+        return estimatedTimeMinutes;
+    }
+
+    /**
+     * Return the candidate puzzles for this room (immutable).
+     */
+    public List<PuzzleDefinition> getCandidates() {
+        return List.of(candidates);
+    }
+
+    /**
+     * Return the names of the exits leading out of this room (immutable).
+     */
+    public List<String> getExits() {
+        return exits;
+    }
+}
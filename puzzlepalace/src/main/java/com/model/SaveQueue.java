@@ -0,0 +1,231 @@
+package com.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind queue for player saves.
+ *
+ * Callers enqueue a player and return immediately; a background thread later
+ * writes the player's {@link Progress} and appends the account to the
+ * {@link PlayerStore}. Saving the same player again before the next flush
+ * reuses the pending entry, so a burst of saves costs one write, and each flush
+ * appends its whole batch to the journal with a single sync. The queue is
+ * flushed every {@code flushIntervalMillis}, as soon as {@code maxDirty}
+ * players are waiting, on {@link #drain()} and when the JVM shuts down.
+ *
+ * Every queue shares one background thread and one shutdown hook, which
+ * drains the queues still open. A queue belongs to whatever created it, such
+ * as a {@link SessionRegistry}, and should be closed with it; a flush that
+ * fails is logged and the next one runs on schedule.
+ */
+public class SaveQueue {
+
+    /** Default time a save may wait before it is written. */
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 2_000L;
+
+    /** Default number of waiting players that triggers an early flush. */
+    public static final int DEFAULT_MAX_DIRTY = 32;
+
+    /**
+     * The flusher thread and shutdown hook shared by every queue, started on first use.
+     */
+    private static final class Shared {
+        private static final Set<SaveQueue> OPEN = ConcurrentHashMap.newKeySet();
+        private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "player-save-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        static {
+            try {
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    for (SaveQueue queue : OPEN) {
+                        queue.flushQuietly();
+                    }
+                }, "player-save-shutdown"));
+            } catch (IllegalStateException e) {
+                // first queue created while the JVM is shutting down; close() still drains it
+            }
+        }
+    }
+
+    private final PlayerStore playerStore;
+    private final int maxDirty;
+    private final ScheduledFuture<?> scheduledFlush;
+
+    /** Players waiting to be written, in first-enqueued order. Guarded by {@code this}. */
+    private Map<UUID, PendingSave> dirty = new LinkedHashMap<>();
+
+    /** Serializes flushes so entries are written in the order they were drained. */
+    private final Object flushLock = new Object();
+
+    private boolean flushScheduled;
+    private boolean closed;
+
+    private static final class PendingSave {
+        private final Player player;
+        private final CompletableFuture<Boolean> written = new CompletableFuture<>();
+
+        private PendingSave(Player player) {
+            this.player = player;
+        }
+    }
+
+    /**
+     * Creates a queue with the default flush interval and dirty limit.
+     *
+     * @param playerStore store that receives the player records
+     */
+    public SaveQueue(PlayerStore playerStore) {
+        this(playerStore, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_MAX_DIRTY);
+    }
+
+    /**
+     * Creates a queue.
+     *
+     * @param playerStore store that receives the player records
+     * @param flushIntervalMillis longest time a save waits before it is written
+     * @param maxDirty number of waiting players that triggers an immediate flush
+     */
+    public SaveQueue(PlayerStore playerStore, long flushIntervalMillis, int maxDirty) {
+        this.playerStore = playerStore;
+        this.maxDirty = Math.max(1, maxDirty);
+        long interval = Math.max(1L, flushIntervalMillis);
+        Shared.OPEN.add(this);
+        this.scheduledFlush = Shared.FLUSHER.scheduleWithFixedDelay(this::flushQuietly, interval, interval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a save of the player's progress and account record.
+     *
+     * @param player the player to save
+     * @return a future completed with {@code true} once the player has been
+     *         written and synced to disk, or {@code false} if a write failed
+     */
+    public CompletableFuture<Boolean> enqueue(Player player) {
+        if (player == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        boolean flushNow = false;
+        PendingSave pending;
+        synchronized (this) {
+            if (!closed) {
+                pending = dirty.computeIfAbsent(player.getPlayerID(), id -> new PendingSave(player));
+                if (dirty.size() >= maxDirty && !flushScheduled) {
+                    flushScheduled = true;
+                    flushNow = true;
+                }
+            } else {
+                pending = null;
+            }
+        }
+        if (pending == null) {
+            boolean written = write(player);
+            Progress.syncSavedProgress();
+            return CompletableFuture.completedFuture(written);
+        }
+        if (flushNow) {
+            Shared.FLUSHER.execute(this::flushQuietly);
+        }
+        return pending.written;
+    }
+
+    /**
+     * Writes every queued save on the calling thread and returns when they are done.
+     */
+    public void drain() {
+        flush();
+    }
+
+    /**
+     * Returns the number of players waiting to be written.
+     *
+     * @return pending save count
+     */
+    public synchronized int getPendingCount() {
+        return dirty.size();
+    }
+
+    /**
+     * Drains the queue and stops flushing it in the background. Saves
+     * enqueued after this call are written on the caller's thread.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        scheduledFlush.cancel(false);
+        Shared.OPEN.remove(this);
+        drain();
+    }
+
+    /**
+     * Flushes from the background thread or the shutdown hook. A failure is
+     * logged rather than thrown, so the periodic flush keeps running.
+     */
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.out.println("SaveQueue: flush failed: " + e.getMessage());
+        }
+    }
+
+    private void flush() {
+        synchronized (flushLock) {
+            List<PendingSave> batch;
+            synchronized (this) {
+                flushScheduled = false;
+                if (dirty.isEmpty()) {
+                    return;
+                }
+                batch = new ArrayList<>(dirty.values());
+                dirty = new LinkedHashMap<>();
+            }
+            boolean[] results = new boolean[batch.size()];
+            List<Player> progressSaved = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Player player = batch.get(i).player;
+                try {
+                    player.saveProgress();
+                    progressSaved.add(player);
+                    results[i] = true;
+                } catch (RuntimeException e) {
+                    System.out.println("SaveQueue: unable to save " + player.getUsername() + ": " + e.getMessage());
+                }
+            }
+            boolean appended = false;
+            try {
+                Progress.syncSavedProgress();
+                appended = !progressSaved.isEmpty() && playerStore.savePlayers(progressSaved);
+            } catch (RuntimeException e) {
+                System.out.println("SaveQueue: unable to write " + progressSaved.size() + " players: " + e.getMessage());
+            } finally {
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).written.complete(results[i] && appended);
+                }
+            }
+        }
+    }
+
+    private boolean write(Player player) {
+        player.saveProgress();
+        return playerStore.savePlayer(player);
+    }
+}
@@ -1,16 +1,20 @@
 package com.model;
 
 public class Score {
-    private static final int POINTS_PER_PUZZLE = 100;
-    private static final int PENALTY_PER_HINT = 15;
-    private static final int TIME_PENALTY_INTERVAL_SECONDS = 60;
-    private static final int PENALTY_PER_TIME_INTERVAL = 2;
     private int points;
     private int puzzlesSolved;
     private int hintsUsed;
     private int timeTaken;
     private Progress progress;
     private int freeHintTokens;
+    /** Puzzles solved at each difficulty, earning the current policy's solve bonus. */
+    private final int[] solvesByDifficulty = new int[Settings.Difficulty.values().length];
+    /** The last value of {@link #calculateScore()}, valid while {@link #dirty} is false. */
+    private int cachedScore;
+    /** Set whenever an input to the total changes. */
+    private boolean dirty = true;
+    /** The policy {@link #cachedScore} was worked out with. */
+    private ScoringPolicy cachedPolicy;
 
     /**
      * Represents a player's scoring state including accumulated points, penalties,
@@ -33,17 +37,19 @@ public class Score {
         this.freeHintTokens = 0;
     }
 
-    public int calculateScore() {
-        int total = Math.max(0, points);
-        total += Math.max(0, puzzlesSolved) * POINTS_PER_PUZZLE;
-        total -= Math.max(0, hintsUsed) * PENALTY_PER_HINT;
-
-        if(timeTaken > 0) {
-            int intervals = Math.max(0, timeTaken) / TIME_PENALTY_INTERVAL_SECONDS;
-            total -= intervals * PENALTY_PER_TIME_INTERVAL;
+    /**
+     * Returns the total score under {@link ScoringPolicy#current()}. It is
+     * worked out again only after one of the values it depends on or the
+     * policy has changed, so sorting or ranking players reads a stored value.
+     */
+    public synchronized int calculateScore() {
+        ScoringPolicy policy = ScoringPolicy.current();
+        if (dirty || policy != cachedPolicy) {
+            cachedScore = policy.totalScore(points, solvesByDifficulty, puzzlesSolved, hintsUsed, timeTaken);
+            cachedPolicy = policy;
+            dirty = false;
         }
-        
-        return Math.max(total, 0);
+        return cachedScore;
     }
 
     public int compare(Score other) {
@@ -57,32 +63,64 @@ public class Score {
         return points;
     }
 
-    public void setPoints(int points) {
+    public synchronized void setPoints(int points) {
         this.points = Math.max(0, points);
+        dirty = true;
     }
 
     public int getPuzzlesSolved() {
         return puzzlesSolved;
     }
 
-    public void setPuzzlesSolved(int puzzlesSolved) {
+    public synchronized void setPuzzlesSolved(int puzzlesSolved) {
         this.puzzlesSolved = Math.max(0, puzzlesSolved);
+        dirty = true;
+    }
+
+    /**
+     * Returns how many puzzles of a difficulty have earned a solve bonus.
+     * Bonuses earned before they were counted are part of the points.
+     */
+    public synchronized int getSolves(Settings.Difficulty difficulty) {
+        return solvesByDifficulty[orEasy(difficulty).ordinal()];
+    }
+
+    public synchronized void setSolves(Settings.Difficulty difficulty, int solves) {
+        solvesByDifficulty[orEasy(difficulty).ordinal()] = Math.max(0, solves);
+        dirty = true;
+    }
+
+    /**
+     * Counts one more puzzle solved at a difficulty; null counts as easy.
+     */
+    public synchronized void addSolve(Settings.Difficulty difficulty) {
+        int i = orEasy(difficulty).ordinal();
+        if (solvesByDifficulty[i] < Integer.MAX_VALUE) {
+            solvesByDifficulty[i]++;
+        }
+        dirty = true;
+    }
+
+    private static Settings.Difficulty orEasy(Settings.Difficulty difficulty) {
+        return difficulty == null ? Settings.Difficulty.EASY : difficulty;
     }
 
     public int getHintsUsed() {
         return hintsUsed;
     }   
 
-    public void setHintsUsed(int hintsUsed) {
+    public synchronized void setHintsUsed(int hintsUsed) {
         this.hintsUsed = Math.max(0, hintsUsed);
+        dirty = true;
     }   
 
     public int getTimeTaken() {
         return timeTaken;
     }   
 
-    public void setTimeTaken(int timeTaken) {
+    public synchronized void setTimeTaken(int timeTaken) {
         this.timeTaken = Math.max(0, timeTaken);
+        dirty = true;
     }   
 
     public Progress getProgress() {
@@ -0,0 +1,312 @@
+package com.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+/**
+ * Every rule that turns play into points, in one place.
+ *
+ * A policy has the rules for a player's total score, which
+ * {@link Score#calculateScore()} applies, and rules for each
+ * {@link Settings.Difficulty}: the bonus for solving a puzzle, what a solved
+ * puzzle is worth on the {@link WindowedLeaderboard}, and the certificate's
+ * difficulty multiplier and hint deduction. The game reads the rules from
+ * {@link #current()}; {@link SessionRegistry#applyScoringPolicy(ScoringPolicy)}
+ * swaps the policy and re-scores every player.
+ *
+ * Policies are read from JSON such as the bundled {@code scoring.json}:
+ * <pre>
+ * { "score": { "pointsPerPuzzle": 100, "hintPenalty": 15,
+ *              "timeIntervalSeconds": 60, "timePenalty": 2 },
+ *   "difficulties": { "easy": { "solveBonus": 100, "solvePoints": 100,
+ *              "solveHintPenalty": 15, "certificateMultiplier": 1,
+ *              "certificateHintPenalty": 10 }, ... } }
+ * </pre>
+ * Difficulties are named as {@link Settings.Difficulty#find(String)} reads
+ * them, and an unknown name rejects the policy. A difficulty that is left out
+ * uses the easy rules, and a rule that is left out keeps its default. When a policy is created its rules are compiled into
+ * plain int fields and arrays indexed by difficulty, so applying one is a few
+ * array reads and integer operations with no map lookups or boxing.
+ *
+ * Policies are immutable.
+ */
+public final class ScoringPolicy {
+
+    /** The policy file bundled next to this class. */
+    static final String BUILT_IN_RESOURCE = "scoring.json";
+
+    private static final class BuiltIn {
+        private static final ScoringPolicy INSTANCE = loadResource(BUILT_IN_RESOURCE);
+    }
+
+    private static volatile ScoringPolicy current;
+
+    private final int pointsPerPuzzle;
+    private final int hintPenalty;
+    private final int timeIntervalSeconds;
+    private final int timePenalty;
+    private final int[] solveBonus;
+    private final int[] solvePoints;
+    private final int[] solveHintPenalty;
+    private final int[] certificateMultiplier;
+    private final int[] certificateHintPenalty;
+
+    private ScoringPolicy(JSONObject json) {
+        JSONObject score = objectOf(json, "score");
+        this.pointsPerPuzzle = intOf(score, "pointsPerPuzzle", 100);
+        this.hintPenalty = intOf(score, "hintPenalty", 15);
+        this.timeIntervalSeconds = intOf(score, "timeIntervalSeconds", 60);
+        this.timePenalty = intOf(score, "timePenalty", 2);
+        if (timeIntervalSeconds <= 0) {
+            throw new IllegalArgumentException("timeIntervalSeconds must be positive");
+        }
+
+        Settings.Difficulty[] levels = Settings.Difficulty.values();
+        this.solveBonus = new int[levels.length];
+        this.solvePoints = new int[levels.length];
+        this.solveHintPenalty = new int[levels.length];
+        this.certificateMultiplier = new int[levels.length];
+        this.certificateHintPenalty = new int[levels.length];
+        JSONObject difficulties = objectOf(json, "difficulties");
+        Map<Settings.Difficulty, JSONObject> byLevel = new EnumMap<>(Settings.Difficulty.class);
+        for (Object key : difficulties.keySet()) {
+            Settings.Difficulty level = Settings.Difficulty.find(String.valueOf(key));
+            if (level == null) {
+                throw new IllegalArgumentException("unknown difficulty \"" + key + "\"");
+            }
+            Object rules = difficulties.get(key);
+            if (!(rules instanceof JSONObject)) {
+                throw new IllegalArgumentException("rules for " + key + " must be an object");
+            }
+            if (byLevel.put(level, (JSONObject) rules) != null) {
+                throw new IllegalArgumentException("difficulty " + key + " is given more than once");
+            }
+        }
+        JSONObject easy = byLevel.getOrDefault(Settings.Difficulty.EASY, new JSONObject());
+        for (Settings.Difficulty level : levels) {
+            JSONObject rules = byLevel.getOrDefault(level, easy);
+            int i = level.ordinal();
+            solveBonus[i] = intOf(rules, "solveBonus", 100);
+            solvePoints[i] = intOf(rules, "solvePoints", pointsPerPuzzle);
+            solveHintPenalty[i] = intOf(rules, "solveHintPenalty", hintPenalty);
+            certificateMultiplier[i] = intOf(rules, "certificateMultiplier", i + 1);
+            certificateHintPenalty[i] = intOf(rules, "certificateHintPenalty", 10);
+        }
+    }
+
+    private static JSONObject objectOf(JSONObject json, String key) {
+        Object value = json == null ? null : json.get(key);
+        return value instanceof JSONObject ? (JSONObject) value : new JSONObject();
+    }
+
+    private static int intOf(JSONObject json, String key, int fallback) {
+        Object value = json.get(key);
+        if (value == null) {
+            return fallback;
+        }
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException(key + " must be a number");
+        }
+        long number = ((Number) value).longValue();
+        if (number < 0 || number > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(key + " must be between 0 and " + Integer.MAX_VALUE);
+        }
+        return (int) number;
+    }
+
+    /**
+     * Return the policy the game scores with, the bundled one unless another
+     * has been made current.
+     */
+    public static ScoringPolicy current() {
+        ScoringPolicy policy = current;
+        return policy == null ? builtIn() : policy;
+    }
+
+    /**
+     * Make a policy the one the game scores with. Cached totals in
+     * {@link Score} notice the change on their next read; use
+     * {@link SessionRegistry#applyScoringPolicy(ScoringPolicy)} to also
+     * re-rank the players of every open registry.
+     *
+     * @param policy the new policy; null goes back to the bundled one
+     */
+    public static void setCurrent(ScoringPolicy policy) {
+        current = policy;
+    }
+
+    /**
+     * Return the policy bundled with the game.
+     */
+    public static ScoringPolicy builtIn() {
+        return BuiltIn.INSTANCE;
+    }
+
+    /**
+     * This reads a policy from a JSON file.
+     *
+     * @param filePath the policy file
+     * @return the policy, or null if the file is missing or invalid
+     */
+    public static ScoringPolicy load(String filePath) {
+        try (Reader reader = Files.newBufferedReader(Paths.get(filePath), StandardCharsets.UTF_8)) {
+            return parse(reader);
+        } catch (IOException | ParseException | RuntimeException e) {
+            System.out.println("ScoringPolicy: invalid policy " + filePath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads a policy bundled as a resource next to this class.
+     *
+     * @throws IllegalStateException if the resource is missing or invalid
+     */
+    static ScoringPolicy loadResource(String name) {
+        try (InputStream in = ScoringPolicy.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing scoring resource " + name);
+            }
+            return parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException | ParseException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid scoring resource " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parse policy JSON.
+     *
+     * @throws IllegalArgumentException if a rule is not a non-negative whole
+     *         number or a difficulty is unknown or given twice
+     */
+    public static ScoringPolicy parse(Reader reader) throws IOException, ParseException {
+        Object parsed = new JSONParser().parse(reader);
+        if (!(parsed instanceof JSONObject)) {
+            throw new IllegalArgumentException("a scoring policy must be a JSON object");
+        }
+        return new ScoringPolicy((JSONObject) parsed);
+    }
+
+    /**
+     * Return a player's total: bonus points plus the points for each solved
+     * puzzle, less the hint and time penalties, never below zero.
+     *
+     * @param points bonus points earned
+     * @param puzzlesSolved puzzles solved
+     * @param hintsUsed hints used
+     * @param timeTaken escape time in seconds
+     */
+    public int totalScore(int points, int puzzlesSolved, int hintsUsed, int timeTaken) {
+        return totalScore(points, null, puzzlesSolved, hintsUsed, timeTaken);
+    }
+
+    /**
+     * Return a player's total as {@link #totalScore(int, int, int, int)}
+     * does, plus this policy's solve bonus for every puzzle counted by
+     * difficulty, so the bonuses always follow the current rules.
+     *
+     * @param points bonus points earned
+     * @param solvesByDifficulty puzzles solved, indexed by {@link Settings.Difficulty#ordinal()}; null counts none
+     * @param puzzlesSolved puzzles solved
+     * @param hintsUsed hints used
+     * @param timeTaken escape time in seconds
+     */
+    public int totalScore(int points, int[] solvesByDifficulty, int puzzlesSolved, int hintsUsed, int timeTaken) {
+        long bonus = 0;
+        if (solvesByDifficulty != null) {
+            for (int i = 0; i < Math.min(solvesByDifficulty.length, solveBonus.length); i++) {
+                bonus += (long) Math.max(0, solvesByDifficulty[i]) * solveBonus[i];
+            }
+        }
+        long total = (long) Math.max(0, points) + bonus
+                + (long) Math.max(0, puzzlesSolved) * pointsPerPuzzle
+                - (long) Math.max(0, hintsUsed) * hintPenalty
+                - (long) (Math.max(0, timeTaken) / timeIntervalSeconds) * timePenalty;
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, total));
+    }
+
+    /**
+     * Return the bonus points for solving a puzzle for the first time. They
+     * are not kept in a player's points: {@link Score} counts solves by
+     * difficulty and {@link #totalScore(int, int[], int, int, int)} applies
+     * the bonus.
+     */
+    public int solveBonus(Settings.Difficulty difficulty) {
+        return solveBonus[index(difficulty)];
+    }
+
+    /**
+     * Return what a solved puzzle is worth on the windowed leaderboards,
+     * never below zero.
+     */
+    public int solvePoints(Settings.Difficulty difficulty, int hintsUsed) {
+        int i = index(difficulty);
+        return (int) Math.max(0, solvePoints[i] - (long) Math.max(0, hintsUsed) * solveHintPenalty[i]);
+    }
+
+    /** Return the factor the certificate multiplies the total score by. */
+    public int certificateMultiplier(Settings.Difficulty difficulty) {
+        return certificateMultiplier[index(difficulty)];
+    }
+
+    /** Return the points the certificate deducts for each hint. */
+    public int certificateHintPenalty(Settings.Difficulty difficulty) {
+        return certificateHintPenalty[index(difficulty)];
+    }
+
+    /**
+     * Return the certificate's final score: the total score times the
+     * difficulty multiplier, less the hint deduction, never below zero.
+     */
+    public int certificateScore(Settings.Difficulty difficulty, int totalScore, int hintsUsed) {
+        int i = index(difficulty);
+        long score = (long) Math.max(0, totalScore) * certificateMultiplier[i]
+                - (long) Math.max(0, hintsUsed) * certificateHintPenalty[i];
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, score));
+    }
+
+    private static int index(Settings.Difficulty difficulty) {
+        return (difficulty == null ? Settings.Difficulty.EASY : difficulty).ordinal();
+    }
+
+    /**
+     * This works out every player's total under the current policy, in
+     * parallel, so the cached totals are fresh before the players are ranked.
+     *
+     * @param players the players to re-score
+     * @return the sum of their new totals
+     */
+    public static long rescoreAll(Collection<Player> players) {
+        return players.parallelStream()
+                .filter(player -> player != null && player.getScoreDetails() != null)
+                .mapToLong(player -> player.getScoreDetails().calculateScore())
+                .sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(String.format(Locale.ROOT,
+                "ScoringPolicy{puzzle=%d, hint=-%d, -%d per %ds", pointsPerPuzzle, hintPenalty, timePenalty,
+                timeIntervalSeconds));
+        for (Settings.Difficulty level : Settings.Difficulty.values()) {
+            int i = level.ordinal();
+            text.append(String.format(Locale.ROOT, ", %s={bonus=%d, solve=%d-%d, certificate=x%d-%d}",
+                    level.name().toLowerCase(Locale.ROOT), solveBonus[i], solvePoints[i], solveHintPenalty[i],
+                    certificateMultiplier[i], certificateHintPenalty[i]));
+        }
+        return text.append('}').toString();
+    }
+}
@@ -0,0 +1,503 @@
+package com.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Headless entry point for hosting many players in one JVM.
+ *
+ * The registry owns what every player shares: the {@link PlayerManager}, the
+ * {@link PlayerStore} and {@link SaveQueue} behind it, the
+ * {@link PuzzleCatalog}, the {@link Leaderboard} and the {@link WindowedLeaderboard}. Each player plays in their own {@link GameSession},
+ * looked up by session id, so a network front-end can drive the game without
+ * JavaFX. {@link PuzzlePalaceFacade} is a single-session view over a registry.
+ *
+ * The leaderboards are ranked on a background thread once the players are
+ * loaded, and saved as a {@link LeaderboardSnapshot} next to the users file
+ * when that finishes and when the registry is closed. Until the live
+ * leaderboards are ready, {@link #getTopScores(int)} reads the snapshot left
+ * by the previous run, so a start screen can show the top players at once.
+ * The windowed leaderboards' tallies are saved next to the users file when
+ * the registry is closed, and read back at startup when neither the users
+ * file nor its journal has changed since; only otherwise are the players'
+ * progress histories read to rebuild them. The saved tallies are deleted
+ * once read, so a run that ends without closing leaves none behind.
+ *
+ * Every catalog the registry serves is extended with generated puzzles: each
+ * room of math puzzles gets a configured number of candidates from a
+ * {@link MathPuzzleGenerator}, and each room of word puzzles as many anagram
+ * puzzles from the built-in {@link WordIndex}, on top of the hand-written
+ * ones. Both use fixed seeds, which keep a generated puzzle's id and content
+ * the same from one run to the next, so stored histories still find the
+ * puzzles they name.
+ */
+public class SessionRegistry {
+
+    /** How many generated puzzles each math or word room offers unless told otherwise. */
+    public static final int DEFAULT_GENERATED_PUZZLES_PER_ROOM = 20;
+
+    /** The seed of the generator that extends every catalog. */
+    static final long GENERATED_PUZZLE_SEED = 0x5EED_BA55L;
+
+    /** The seed used to pick and scramble the anagram puzzles added to every catalog. */
+    static final long ANAGRAM_PUZZLE_SEED = 0xA9A6_7A35L;
+
+    /**
+     * Registries not yet closed, each re-scored when a scoring policy is
+     * applied. Weakly held, so a registry dropped without being closed does
+     * not stay reachable. Guarded by {@link #POLICY_CHANGE}.
+     */
+    private static final Map<SessionRegistry, Boolean> OPEN_REGISTRIES = new WeakHashMap<>();
+    /** Serializes scoring policy changes and registrations in {@link #OPEN_REGISTRIES}. */
+    private static final ReentrantLock POLICY_CHANGE = new ReentrantLock();
+
+    private final PlayerManager playerManager;
+    private final PlayerStore playerStore;
+    private final SaveQueue saveQueue;
+    private volatile PuzzleCatalog catalog;
+    private final MathPuzzleGenerator puzzleGenerator = new MathPuzzleGenerator(GENERATED_PUZZLE_SEED);
+    private final int generatedPuzzlesPerRoom;
+    private final String userDataPath;
+    private final Map<String, GameSession> sessions = new ConcurrentHashMap<>();
+    private final Leaderboard leaderboard = new Leaderboard();
+    private final WindowedLeaderboard windowedLeaderboard = new WindowedLeaderboard();
+    private final Path leaderboardSnapshotPath;
+    private final Path windowedTalliesPath;
+    /** The {@link #userFilesStamp()} taken before the players were loaded. */
+    private final long loadedStamp;
+    private final CompletableFuture<Void> leaderboardsReady = new CompletableFuture<>();
+    private final Object snapshotLock = new Object();
+    /**
+     * Read-held by sessions while they change a player's score or leaderboard
+     * entries; write-held while a scoring policy is applied.
+     */
+    private final ReadWriteLock scoringLock = new ReentrantReadWriteLock();
+    private LeaderboardSnapshot leaderboardSnapshot;
+    private boolean snapshotOpened;
+
+    /**
+     * Create a registry backed by the user data file at {@code userDataPath}
+     * and load the players stored there. Math and word rooms offer
+     * {@link #DEFAULT_GENERATED_PUZZLES_PER_ROOM} generated puzzles.
+     */
+    public SessionRegistry(String userDataPath) {
+        this(userDataPath, DEFAULT_GENERATED_PUZZLES_PER_ROOM);
+    }
+
+    /**
+     * Create a registry backed by the user data file at {@code userDataPath}
+     * and load the players stored there.
+     *
+     * @param generatedPuzzlesPerRoom how many generated puzzles each math or
+     *        word room offers besides its own; 0 or less serves the catalogs unchanged
+     */
+    public SessionRegistry(String userDataPath, int generatedPuzzlesPerRoom) {
+        this.playerManager = new PlayerManager();
+        this.generatedPuzzlesPerRoom = generatedPuzzlesPerRoom;
+        this.userDataPath = userDataPath;
+        this.loadedStamp = userFilesStamp();
+        this.playerStore = new PlayerStore(userDataPath, playerManager);
+        this.saveQueue = new SaveQueue(playerStore);
+        this.catalog = withGeneratedPuzzles(PuzzleCatalog.builtIn());
+        this.leaderboardSnapshotPath = Paths.get(userDataPath + LeaderboardSnapshot.FILE_SUFFIX);
+        this.windowedTalliesPath = Paths.get(userDataPath + WindowedLeaderboard.FILE_SUFFIX);
+        loadUsers();
+        Thread reconcile = new Thread(this::reconcileLeaderboards, "leaderboard-reconcile");
+        reconcile.setDaemon(true);
+        reconcile.start();
+        POLICY_CHANGE.lock();
+        try {
+            OPEN_REGISTRIES.put(this, Boolean.TRUE);
+        } finally {
+            POLICY_CHANGE.unlock();
+        }
+    }
+
+    /**
+     * Ranks every loaded player, restores the windowed leaderboards from the
+     * tallies saved by the last clean close or rebuilds them from the
+     * players' histories, and saves a fresh snapshot. Score changes wait
+     * until this is done, so none is lost or counted twice.
+     */
+    private void reconcileLeaderboards() {
+        Lock lock = scoringLock.writeLock();
+        lock.lock();
+        try {
+            // An account created meanwhile is ranked by createAccount once this lock is released.
+            List<Player> players = playerManager.getAllPlayers();
+            leaderboard.rankAll(players);
+            if (!windowedLeaderboard.restore(windowedTalliesPath, loadedStamp, players)) {
+                windowedLeaderboard.rebuild(players, catalog);
+            }
+            // Saved again by close(); a run that never closes must not leave stale tallies.
+            Files.deleteIfExists(windowedTalliesPath);
+            leaderboard.writeSnapshot(leaderboardSnapshotPath);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("SessionRegistry: could not rank players: " + e.getMessage());
+        } finally {
+            leaderboardsReady.complete(null);
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a value that changes whenever the users file or its journal
+     * is written: their sizes and modification times combined.
+     */
+    private long userFilesStamp() {
+        long stamp = 17;
+        for (Path file : List.of(Paths.get(userDataPath), Paths.get(PlayerStore.journalPathFor(userDataPath)))) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                stamp = stamp * 31 + attributes.size();
+                stamp = stamp * 31 + attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+            } catch (IOException e) {
+                stamp = stamp * 961 - 1;
+            }
+        }
+        return stamp;
+    }
+
+    private void loadUsers() {
+        try {
+            List<Player> loaded = playerManager.loadPlayersFromFile(userDataPath, true);
+            if (loaded == null || loaded.isEmpty()) {
+                seedDefaultPlayers();
+            }
+        } catch (NoClassDefFoundError error) {
+            System.out.println("SessionRegistry: JSON parser unavailable, using fallback players.");
+            seedDefaultPlayers();
+        }
+    }
+
+    private void seedDefaultPlayers() {
+        Player fallback = new Player("PlayerOne", "playerone@example.com", "SecretPass1!");
+        playerManager.addPlayer(fallback);
+    }
+
+    /**
+     * Open a new session with no player logged in.
+     */
+    public GameSession openSession() {
+        Random random = new Random();
+        return openSession(() -> random);
+    }
+
+    GameSession openSession(Supplier<Random> randomSource) {
+        String id = UUID.randomUUID().toString();
+        GameSession session = new GameSession(id, this, randomSource);
+        sessions.put(id, session);
+        return session;
+    }
+
+    /**
+     * Authenticate a player and open a session for them.
+     *
+     * @return the new session, or null if the credentials are wrong
+     */
+    public GameSession login(String userName, String password) {
+        GameSession session = openSession();
+        if (session.login(userName, password) == null) {
+            sessions.remove(session.getSessionId());
+            return null;
+        }
+        return session;
+    }
+
+    /**
+     * Return the session with the given id and mark it active, or null if
+     * there is no such session.
+     */
+    public GameSession getSession(String sessionId) {
+        if (sessionId == null) {
+            return null;
+        }
+        GameSession session = sessions.get(sessionId);
+        if (session != null) {
+            session.touch();
+        }
+        return session;
+    }
+
+    /**
+     * Log the session's player out, queue a save of their progress and forget
+     * the session.
+     *
+     * @return true if the session existed
+     */
+    public boolean closeSession(String sessionId) {
+        GameSession session = sessionId == null ? null : sessions.remove(sessionId);
+        if (session == null) {
+            return false;
+        }
+        session.logout();
+        return true;
+    }
+
+    /**
+     * Close every session that has not been looked up for {@code idleMillis}.
+     *
+     * @return the number of sessions closed
+     */
+    public int closeIdleSessions(long idleMillis) {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        List<String> idle = new ArrayList<>();
+        for (GameSession session : sessions.values()) {
+            if (session.getLastActivityMillis() < cutoff) {
+                idle.add(session.getSessionId());
+            }
+        }
+        int closed = 0;
+        for (String id : idle) {
+            if (closeSession(id)) {
+                closed++;
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * Close every session and write all queued saves before returning.
+     */
+    public void close() {
+        POLICY_CHANGE.lock();
+        try {
+            OPEN_REGISTRIES.remove(this);
+        } finally {
+            POLICY_CHANGE.unlock();
+        }
+        for (String id : new ArrayList<>(sessions.keySet())) {
+            closeSession(id);
+        }
+        saveQueue.close();
+        if (leaderboardsReady.isDone()) {
+            leaderboard.writeSnapshot(leaderboardSnapshotPath);
+            windowedLeaderboard.save(windowedTalliesPath, userFilesStamp());
+        }
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public Collection<GameSession> getSessions() {
+        return sessions.values();
+    }
+
+    /**
+     * Create a new player account and persist it.
+     */
+    public Player createAccount(String userName, String password) {
+        if (userName == null || userName.isBlank() || password == null || password.isBlank()) {
+            return null;
+        }
+
+        String trimmedUsername = userName.trim();
+        if (playerManager.getPlayerByUsername(trimmedUsername) != null) {
+            return null;
+        }
+
+        Player newPlayer = new Player(trimmedUsername, null, password);
+        boolean added = playerManager.addPlayer(newPlayer);
+        if (!added) {
+            return null;
+        }
+
+        playerStore.savePlayer(newPlayer);
+        Lock lock = getScoreUpdateLock();
+        lock.lock();
+        try {
+            leaderboard.addEntry(newPlayer);
+        } finally {
+            lock.unlock();
+        }
+        return newPlayer;
+    }
+
+    public PlayerManager getPlayerManager() {
+        return playerManager;
+    }
+
+    public PlayerStore getPlayerStore() {
+        return playerStore;
+    }
+
+    public SaveQueue getSaveQueue() {
+        return saveQueue;
+    }
+
+    /**
+     * Return the leaderboard of every player in the registry, waiting for it
+     * to be ranked if the registry has just been created. Sessions move
+     * their player on it whenever their score changes.
+     */
+    public Leaderboard getLeaderboard() {
+        leaderboardsReady.join();
+        return leaderboard;
+    }
+
+    /**
+     * Return the per-difficulty, daily and weekly leaderboards, waiting for
+     * them to be restored or rebuilt if the registry has just been created. Sessions add to them whenever their
+     * player solves a puzzle.
+     */
+    public WindowedLeaderboard getWindowedLeaderboard() {
+        leaderboardsReady.join();
+        return windowedLeaderboard;
+    }
+
+    /**
+     * Return true once the live leaderboards have been ranked.
+     */
+    public boolean isLeaderboardReady() {
+        return leaderboardsReady.isDone();
+    }
+
+    /**
+     * Run an action once the live leaderboards have been ranked, straight
+     * away if they already are. The action runs on the ranking thread
+     * otherwise.
+     */
+    public void whenLeaderboardReady(Runnable action) {
+        leaderboardsReady.thenRun(action);
+    }
+
+    /**
+     * Return the snapshot saved by the last registry on this users file, or
+     * null if there is none. It is mapped on first use.
+     */
+    public LeaderboardSnapshot getLeaderboardSnapshot() {
+        synchronized (snapshotLock) {
+            if (!snapshotOpened) {
+                leaderboardSnapshot = LeaderboardSnapshot.open(leaderboardSnapshotPath);
+                snapshotOpened = true;
+            }
+            return leaderboardSnapshot;
+        }
+    }
+
+    /**
+     * Return the best players, best first: from the live leaderboard once it
+     * is ranked, and from the saved snapshot until then.
+     *
+     * @param count how many entries to return
+     * @return the entries, empty if neither is available yet
+     */
+    public List<Leaderboard.Entry> getTopScores(int count) {
+        if (isLeaderboardReady()) {
+            return leaderboard.displayTopScores(count);
+        }
+        LeaderboardSnapshot snapshot = getLeaderboardSnapshot();
+        return snapshot == null ? List.of() : snapshot.topScores(count);
+    }
+
+    /**
+     * Make a scoring policy current and re-score every player with it. The
+     * policy is shared by the whole JVM, so every registry that has not been
+     * closed is re-scored, not just this one. The totals are worked out in
+     * parallel, then the leaderboards are ranked again and fresh snapshots
+     * are saved. Sessions of every registry wait to change any score until
+     * this is done, so every change is counted once, under one policy.
+     *
+     * @param policy the new policy; null goes back to the bundled one
+     */
+    public void applyScoringPolicy(ScoringPolicy policy) {
+        POLICY_CHANGE.lock();
+        try {
+            Set<SessionRegistry> registries = new LinkedHashSet<>(OPEN_REGISTRIES.keySet());
+            registries.add(this);
+            List<Lock> held = new ArrayList<>();
+            try {
+                for (SessionRegistry registry : registries) {
+                    registry.leaderboardsReady.join();
+                    Lock lock = registry.scoringLock.writeLock();
+                    lock.lock();
+                    held.add(lock);
+                }
+                ScoringPolicy.setCurrent(policy);
+                for (SessionRegistry registry : registries) {
+                    List<Player> players = registry.playerManager.getAllPlayers();
+                    ScoringPolicy.rescoreAll(players);
+                    registry.leaderboard.rankAll(players);
+                    registry.windowedLeaderboard.rescore();
+                }
+            } finally {
+                for (Lock lock : held) {
+                    lock.unlock();
+                }
+            }
+            for (SessionRegistry registry : registries) {
+                registry.leaderboard.writeSnapshot(registry.leaderboardSnapshotPath);
+            }
+        } finally {
+            POLICY_CHANGE.unlock();
+        }
+    }
+
+    /**
+     * Waits until the leaderboards have been ranked after the registry was created.
+     */
+    void awaitLeaderboards() {
+        leaderboardsReady.join();
+    }
+
+    /**
+     * Returns the lock a session holds while it changes a player's score or
+     * leaderboard entries. It is shared between sessions and excludes
+     * {@link #applyScoringPolicy(ScoringPolicy)}.
+     */
+    Lock getScoreUpdateLock() {
+        return scoringLock.readLock();
+    }
+
+    public PuzzleCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Replace the catalog new games are built from. Sessions already playing
+     * keep the rooms and puzzles they were given; a null catalog is ignored.
+     * Math and word rooms of the new catalog get their generated puzzles as well.
+     */
+    public void setCatalog(PuzzleCatalog catalog) {
+        if (catalog != null) {
+            this.catalog = withGeneratedPuzzles(catalog);
+        }
+    }
+
+    public int getGeneratedPuzzlesPerRoom() {
+        return generatedPuzzlesPerRoom;
+    }
+
+    private PuzzleCatalog withGeneratedPuzzles(PuzzleCatalog catalog) {
+        if (generatedPuzzlesPerRoom <= 0) {
+            return catalog;
+        }
+        PuzzleCatalog withMath = puzzleGenerator.extend(catalog, generatedPuzzlesPerRoom);
+        return WordIndex.builtIn().extend(withMath, generatedPuzzlesPerRoom, ANAGRAM_PUZZLE_SEED);
+    }
+
+    public String getUserDataPath() {
+        return userDataPath;
+    }
+}
@@ -39,8 +39,19 @@ public class Settings {
          * @return matching difficulty, or EASY if not found
          */
         public static Difficulty fromName(String value) {
+            Difficulty difficulty = find(value);
+            return difficulty == null ? EASY : difficulty;
+        }
+
+        /**
+         * Finds the difficulty with a given name or label, ignoring case.
+         *
+         * @param value name or label to match
+         * @return matching difficulty, or null if none matches
+         */
+        public static Difficulty find(String value) {
             if (value == null || value.isBlank()) {
-                return EASY;
+                return null;
             }
             String trimmed = value.trim();
             for (Difficulty difficulty : values()) {
@@ -49,7 +60,7 @@ public class Settings {
                     return difficulty;
                 }
             }
-            return EASY;
+            return null;
         }
     }
 
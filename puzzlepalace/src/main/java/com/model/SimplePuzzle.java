@@ -37,6 +37,19 @@ public class SimplePuzzle extends Puzzle {
         this(puzzleId, prompt, solution, hints == null ? null : Arrays.asList(hints), hints == null ? 0 : hints.length);
     }
 
+    /**
+     * Creates a puzzle whose hints are read from a shared {@link Hint}.
+     *
+     * @param puzzleId the puzzle ID
+     * @param prompt the puzzle question
+     * @param solution the correct answer
+     * @param hints hint tracker for this puzzle
+     */
+    SimplePuzzle(int puzzleId, String prompt, String solution, Hint hints) {
+        super(puzzleId, prompt, "UNSOLVED", hints);
+        this.solution = solution == null ? "" : solution.trim();
+    }
+
     /**
      * Checks if the user's answer is correct.
      *
@@ -51,6 +64,18 @@ public class SimplePuzzle extends Puzzle {
         return solved;
     }
 
+    /**
+     * Checks if a wrong answer is another dictionary word made of the
+     * solution's letters, such as "thorn" for "north".
+     *
+     * @param attempt the player's answer
+     * @return true if the answer is an anagram of the solution
+     */
+    @Override
+    public boolean isCloseAnswer(String attempt) {
+        return WordIndex.builtIn().isCloseTo(attempt, solution);
+    }
+
         /** Returns the correct solution. */
     public String getSolution() {
         return solution;
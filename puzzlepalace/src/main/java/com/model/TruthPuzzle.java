@@ -0,0 +1,355 @@
+package com.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * A "some statements are true" logic puzzle: each candidate says one thing
+ * about which candidate is the answer or about another candidate's honesty,
+ * and exactly {@link #getTrueStatements()} of the statements are true.
+ *
+ * The puzzle is solved by brute force over bitmasks. For each candidate
+ * answer, every assignment of true and false to the speakers is tried as a
+ * mask; an assignment is consistent when each speaker's bit equals the truth
+ * of its claim under that answer and that same assignment, and when the
+ * number of set bits is the required count. A candidate that has no
+ * consistent assignment is eliminated. With at most {@link #MAX_CANDIDATES}
+ * candidates this needs no search heuristics, and a three-candidate puzzle is
+ * solved in well under a microsecond.
+ *
+ * Instances are immutable; the solution is computed when one is created.
+ */
+public final class TruthPuzzle {
+
+    /** The most candidates a puzzle may have; the work doubles with each one. */
+    public static final int MAX_CANDIDATES = 12;
+
+    /** What a speaker claims about its subject. */
+    public enum Claim {
+        /** The subject is the answer. */
+        IS_ANSWER("is-answer"),
+        /** The subject is not the answer. */
+        NOT_ANSWER("not-answer"),
+        /** The subject's statement is true. */
+        TRUTHFUL("truthful"),
+        /** The subject's statement is false. */
+        LYING("lying");
+
+        private final String key;
+
+        Claim(String key) {
+            this.key = key;
+        }
+
+        /** Returns the name used for this claim in content files. */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Returns the claim with the given content-file name, or null.
+         */
+        public static Claim fromKey(String key) {
+            for (Claim claim : values()) {
+                if (claim.key.equalsIgnoreCase(key == null ? "" : key.trim())) {
+                    return claim;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One candidate's claim about a candidate, both given by index.
+     */
+    public static final class Statement {
+        private final int speaker;
+        private final Claim claim;
+        private final int subject;
+
+        public Statement(int speaker, Claim claim, int subject) {
+            this.speaker = speaker;
+            this.claim = claim;
+            this.subject = subject;
+        }
+
+        public int getSpeaker() {
+            return speaker;
+        }
+
+        public Claim getClaim() {
+            return claim;
+        }
+
+        public int getSubject() {
+            return subject;
+        }
+    }
+
+    private final List<String> candidates;
+    private final List<Statement> statements;
+    private final int trueStatements;
+    /** The claim each speaker makes, or null for a candidate that says nothing. */
+    private final Claim[] claims;
+    private final int[] subjects;
+    /** Bit {@code i} is set if candidate {@code i} can be the answer. */
+    private final int answers;
+
+    /**
+     * Create a puzzle and solve it.
+     *
+     * @param candidates the names of the candidates, who are also the speakers
+     * @param statements at most one statement per speaker
+     * @param trueStatements how many of the statements are true
+     * @throws IllegalArgumentException if the candidates or statements are malformed
+     */
+    public TruthPuzzle(List<String> candidates, List<Statement> statements, int trueStatements) {
+        int count = candidates == null ? 0 : candidates.size();
+        if (count < 2 || count > MAX_CANDIDATES) {
+            throw new IllegalArgumentException("a puzzle needs 2 to " + MAX_CANDIDATES + " candidates");
+        }
+        this.candidates = List.copyOf(candidates);
+        this.statements = statements == null ? List.of() : List.copyOf(statements);
+        this.trueStatements = trueStatements;
+        this.claims = new Claim[count];
+        this.subjects = new int[count];
+        for (Statement statement : this.statements) {
+            if (statement.speaker < 0 || statement.speaker >= count || statement.subject < 0
+                    || statement.subject >= count || statement.claim == null) {
+                throw new IllegalArgumentException("statement refers to an unknown candidate");
+            }
+            if (claims[statement.speaker] != null) {
+                throw new IllegalArgumentException(this.candidates.get(statement.speaker) + " makes more than one statement");
+            }
+            claims[statement.speaker] = statement.claim;
+            subjects[statement.speaker] = statement.subject;
+        }
+        int solved = 0;
+        for (int answer = 0; answer < count; answer++) {
+            if (consistentWorld(answer, true) >= 0) {
+                solved |= 1 << answer;
+            }
+        }
+        this.answers = solved;
+    }
+
+    /**
+     * Returns the first mask of true speakers that is consistent when
+     * {@code answer} is the answer, or -1. With {@code counted} the mask must
+     * also have {@link #trueStatements} bits set.
+     */
+    private int consistentWorld(int answer, boolean counted) {
+        int count = claims.length;
+        for (int world = 0; world < 1 << count; world++) {
+            if (counted && Integer.bitCount(world) != trueStatements) {
+                continue;
+            }
+            if (isFixedPoint(answer, world)) {
+                return world;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isFixedPoint(int answer, int world) {
+        for (int speaker = 0; speaker < claims.length; speaker++) {
+            boolean said = (world >>> speaker & 1) != 0;
+            if (said != holds(speaker, answer, world)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether a speaker's claim is true; a silent candidate's never is.
+     */
+    private boolean holds(int speaker, int answer, int world) {
+        Claim claim = claims[speaker];
+        if (claim == null) {
+            return false;
+        }
+        int subject = subjects[speaker];
+        switch (claim) {
+            case IS_ANSWER:
+                return subject == answer;
+            case NOT_ANSWER:
+                return subject != answer;
+            case TRUTHFUL:
+                return (world >>> subject & 1) != 0;
+            default:
+                return (world >>> subject & 1) == 0;
+        }
+    }
+
+    public List<String> getCandidates() {
+        return candidates;
+    }
+
+    public List<Statement> getStatements() {
+        return statements;
+    }
+
+    public int getTrueStatements() {
+        return trueStatements;
+    }
+
+    /** Return true if exactly one candidate can be the answer. */
+    public boolean isUnique() {
+        return Integer.bitCount(answers) == 1;
+    }
+
+    /**
+     * Return the candidates that can be the answer, in candidate order.
+     */
+    public List<String> getPossibleAnswers() {
+        List<String> possible = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            if ((answers >>> i & 1) != 0) {
+                possible.add(candidates.get(i));
+            }
+        }
+        return possible;
+    }
+
+    /**
+     * Return the answer of a puzzle with exactly one, or null.
+     */
+    public String getAnswer() {
+        return isUnique() ? candidates.get(Integer.numberOfTrailingZeros(answers)) : null;
+    }
+
+    /**
+     * Return one hint per eliminated candidate, in candidate order, saying
+     * why it cannot be the answer.
+     */
+    public List<String> eliminationHints() {
+        List<String> hints = new ArrayList<>();
+        for (int candidate = 0; candidate < candidates.size(); candidate++) {
+            if ((answers >>> candidate & 1) != 0) {
+                continue;
+            }
+            String name = candidates.get(candidate);
+            int world = consistentWorld(candidate, false);
+            if (world < 0) {
+                hints.add("Suppose " + name + " is the answer: the statements contradict each other, so it is not.");
+                continue;
+            }
+            List<String> honest = new ArrayList<>();
+            for (int speaker = 0; speaker < candidates.size(); speaker++) {
+                if ((world >>> speaker & 1) != 0) {
+                    honest.add(candidates.get(speaker));
+                }
+            }
+            hints.add("Suppose " + name + " is the answer: then "
+                    + (honest.isEmpty() ? "no one" : String.join(" and ", honest)) + " would be telling the truth, "
+                    + Integer.bitCount(world) + " true " + plural(Integer.bitCount(world)) + " instead of "
+                    + trueStatements + ". Rule out " + name + ".");
+        }
+        return hints;
+    }
+
+    private static String plural(int count) {
+        return count == 1 ? "statement" : "statements";
+    }
+
+    /**
+     * Return the statements and the rule as prompt text, such as
+     * "Ruby says 'Sapphire is the answer.' ... Only one statement is true."
+     */
+    public String describe() {
+        StringBuilder text = new StringBuilder();
+        for (Statement statement : statements) {
+            String speaker = candidates.get(statement.speaker);
+            boolean self = statement.subject == statement.speaker;
+            String subject = candidates.get(statement.subject);
+            text.append(speaker).append(" says '");
+            switch (statement.claim) {
+                case IS_ANSWER:
+                    text.append(self ? "I am the answer." : subject + " is the answer.");
+                    break;
+                case NOT_ANSWER:
+                    text.append(self ? "I am not the answer." : subject + " is not the answer.");
+                    break;
+                case TRUTHFUL:
+                    text.append(subject).append(" tells the truth.");
+                    break;
+                default:
+                    text.append(subject).append(" is lying.");
+                    break;
+            }
+            text.append("' ");
+        }
+        text.append(trueStatements == 1 ? "Only one statement is true."
+                : "Exactly " + trueStatements + " " + plural(trueStatements) + " are true.");
+        return text.toString();
+    }
+
+    /**
+     * Build a text puzzle answered with this puzzle's answer.
+     *
+     * @param puzzleId the id of the puzzle
+     * @param setting text shown before the statements
+     * @param question text shown after them
+     * @throws IllegalStateException if the puzzle does not have exactly one answer
+     */
+    public PuzzleDefinition toDefinition(int puzzleId, String setting, String question) {
+        if (!isUnique()) {
+            throw new IllegalStateException("puzzle has " + getPossibleAnswers().size() + " possible answers");
+        }
+        return PuzzleDefinition.truth(puzzleId, setting + " " + describe() + " " + question, this, getAnswer(),
+                eliminationHints());
+    }
+
+    /**
+     * Draw random statements for the candidates until the puzzle has exactly
+     * one answer. Every candidate speaks, and nobody vouches for or accuses
+     * themselves.
+     *
+     * @param candidates the names of the candidates
+     * @param trueStatements how many statements must be true
+     * @param random source of the statements
+     * @param maxAttempts how many random puzzles to try
+     * @return a puzzle with one answer, or null if none was found
+     */
+    public static TruthPuzzle generate(List<String> candidates, int trueStatements, Random random, int maxAttempts) {
+        int count = candidates.size();
+        Claim[] kinds = Claim.values();
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            List<Statement> statements = new ArrayList<>(count);
+            for (int speaker = 0; speaker < count; speaker++) {
+                Claim claim = kinds[random.nextInt(kinds.length)];
+                int subject = random.nextInt(count);
+                if ((claim == Claim.TRUTHFUL || claim == Claim.LYING) && subject == speaker) {
+                    subject = (subject + 1 + random.nextInt(count - 1)) % count;
+                }
+                statements.add(new Statement(speaker, claim, subject));
+            }
+            TruthPuzzle puzzle = new TruthPuzzle(candidates, statements, trueStatements);
+            if (puzzle.isUnique()) {
+                return puzzle;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return the index of the candidate with the given name, ignoring case, or -1.
+     */
+    public static int indexOf(List<String> candidates, String name) {
+        String wanted = name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+        for (int i = 0; i < candidates.size(); i++) {
+            if (candidates.get(i).toLowerCase(Locale.ROOT).equals(wanted)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "TruthPuzzle{" + describe() + " answers=" + getPossibleAnswers() + "}";
+    }
+}
@@ -0,0 +1,545 @@
+package com.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * This keeps leaderboards for each difficulty and for recent days, counting
+ * only the puzzles a player solved.
+ *
+ * Every solved puzzle is worth the points {@link ScoringPolicy#solvePoints}
+ * gives for its difficulty and the hints used on it, and is counted on the
+ * day it was solved. There is one board per
+ * {@link Settings.Difficulty} and one across all difficulties, each with an
+ * all-time ranking and the last {@link Window#WEEKLY} days kept as day buckets.
+ *
+ * The day buckets sit in a ring indexed by day, so a day expires when its
+ * slot is reused: starting a new day replaces one bucket and nothing older is
+ * scanned. Each bucket ranks players by their points that day in a
+ * {@link Leaderboard}, which is the daily ranking. The weekly ranking is
+ * merged from the buckets on the first weekly query of each day and then
+ * kept up to date as puzzles are solved, so a weekly top k costs the same as
+ * an all-time one for the rest of the day.
+ *
+ * Behind the rankings, each player's solves are tallied by day, difficulty
+ * and hints used. {@link #rescore()} ranks everyone again from the tallies
+ * when the scoring policy changes, and {@link #save(Path, long)} and
+ * {@link #restore(Path, long, Collection)} carry them from one run to the
+ * next, so the players' progress histories are only read by
+ * {@link #rebuild(Collection, PuzzleCatalog)} when no saved tallies are
+ * current. Days that have left the window are merged when tallies are saved.
+ *
+ * All methods are thread-safe.
+ */
+public class WindowedLeaderboard {
+
+    /**
+     * The span of time a ranking covers.
+     */
+    public enum Window {
+        /** Only puzzles solved today. */
+        DAILY(1),
+        /** Puzzles solved today and the six days before. */
+        WEEKLY(7),
+        /** Every puzzle solved. */
+        ALL_TIME(0);
+
+        private final int days;
+
+        Window(int days) {
+            this.days = days;
+        }
+
+        /** Return the number of days covered, or 0 for all time. */
+        public int getDays() {
+            return days;
+        }
+    }
+
+    /** Appended to the users file name to name the tallies saved next to it. */
+    public static final String FILE_SUFFIX = ".windows";
+
+    private static final int DAYS_KEPT = Window.WEEKLY.getDays();
+    /** The index of the board across all difficulties. */
+    private static final int ALL = Settings.Difficulty.values().length;
+    /** The day tallied solves are moved to once they leave the window. */
+    private static final int OLD_DAY = Integer.MIN_VALUE;
+    private static final int MAX_TALLIED_HINTS = 0xFFFFFF;
+
+    private static final int MAGIC = 0x5050574C;
+    private static final int VERSION = 1;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * This is one day of points on one board.
+     */
+    private static final class Bucket {
+        final long day;
+        final Leaderboard ranking = new Leaderboard();
+
+        Bucket(long day) {
+            this.day = day;
+        }
+    }
+
+    private final Clock clock;
+    private final Leaderboard[] allTime = new Leaderboard[ALL + 1];
+    private final Bucket[][] days = new Bucket[ALL + 1][DAYS_KEPT];
+    private final Leaderboard[] weekly = new Leaderboard[ALL + 1];
+    /** The day each weekly ranking was merged for; it is stale on any other day. */
+    private final long[] weeklyDay = new long[ALL + 1];
+    /** Each player's solves; the rankings are always the sum of these. */
+    private Map<UUID, Tally> tallies = new HashMap<>();
+
+    /**
+     * This creates empty leaderboards that tell the day from the system clock.
+     */
+    public WindowedLeaderboard() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * This creates empty leaderboards that tell the day from the given clock.
+     *
+     * @param clock the clock deciding which day is today
+     */
+    public WindowedLeaderboard(Clock clock) {
+        this.clock = clock == null ? Clock.systemDefaultZone() : clock;
+        for (int board = 0; board <= ALL; board++) {
+            allTime[board] = new Leaderboard();
+            weekly[board] = new Leaderboard();
+            weeklyDay[board] = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * This returns the points a solved puzzle is worth on these leaderboards
+     * under the current {@link ScoringPolicy}.
+     *
+     * @param difficulty the difficulty of the puzzle; null scores it as easy
+     * @param hintsUsed the hints used on the puzzle
+     * @return the points, never negative
+     */
+    public static int pointsFor(Settings.Difficulty difficulty, int hintsUsed) {
+        return ScoringPolicy.current().solvePoints(difficulty, hintsUsed);
+    }
+
+    /**
+     * This records that a player solved a puzzle.
+     *
+     * @param playerId the player's id
+     * @param username the name shown on the leaderboards
+     * @param difficulty the difficulty of the puzzle, or null to count it only across all difficulties
+     * @param hintsUsed the hints used on the puzzle
+     * @param solvedAt when the puzzle was solved; null means now
+     */
+    public synchronized void recordSolve(UUID playerId, String username, Settings.Difficulty difficulty,
+            int hintsUsed, LocalDateTime solvedAt) {
+        if (playerId == null) {
+            return;
+        }
+        int points = pointsFor(difficulty, hintsUsed);
+        long day = (solvedAt == null ? LocalDate.now(clock) : solvedAt.toLocalDate()).toEpochDay();
+        int board = difficulty == null ? ALL : difficulty.ordinal();
+        tallies.computeIfAbsent(playerId, id -> new Tally()).add(username, (int) day, board, hintsUsed, 1);
+        addPoints(ALL, playerId, username, points, day);
+        if (difficulty != null) {
+            addPoints(difficulty.ordinal(), playerId, username, points, day);
+        }
+    }
+
+    private void addPoints(int board, UUID playerId, String username, int points, long day) {
+        Leaderboard total = allTime[board];
+        total.update(playerId, username, total.scoreOf(playerId) + points, 0);
+
+        Bucket bucket = bucketFor(board, day);
+        if (bucket != null) {
+            bucket.ranking.update(playerId, username, bucket.ranking.scoreOf(playerId) + points, 0);
+            if (weeklyDay[board] == today()) {
+                Leaderboard week = weekly[board];
+                week.update(playerId, username, week.scoreOf(playerId) + points, 0);
+            }
+        }
+    }
+
+    /**
+     * Returns the bucket for a day, replacing the expired bucket in its slot,
+     * or null if the day is outside the window kept.
+     */
+    private Bucket bucketFor(int board, long day) {
+        long today = today();
+        if (day > today || day <= today - DAYS_KEPT) {
+            return null;
+        }
+        int slot = (int) Math.floorMod(day, (long) DAYS_KEPT);
+        Bucket bucket = days[board][slot];
+        if (bucket == null || bucket.day < day) {
+            bucket = new Bucket(day);
+            days[board][slot] = bucket;
+        } else if (bucket.day > day) {
+            return null;
+        }
+        return bucket;
+    }
+
+    private long today() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+
+    /**
+     * This returns the best players on a board, best first. Players with the
+     * same points are ordered by player id.
+     *
+     * @param difficulty the difficulty, or null for all difficulties
+     * @param window the span of time to count
+     * @param count how many entries to return
+     * @return the entries
+     */
+    public synchronized List<Leaderboard.Entry> topScores(Settings.Difficulty difficulty, Window window, int count) {
+        int board = difficulty == null ? ALL : difficulty.ordinal();
+        if (window == null || window == Window.ALL_TIME) {
+            return allTime[board].displayTopScores(count);
+        }
+        long today = today();
+        if (window == Window.DAILY) {
+            Bucket bucket = days[board][(int) Math.floorMod(today, (long) DAYS_KEPT)];
+            return bucket == null || bucket.day != today ? List.of() : bucket.ranking.displayTopScores(count);
+        }
+        if (weeklyDay[board] != today) {
+            weekly[board].replaceAll(weekTotals(board, today));
+            weeklyDay[board] = today;
+        }
+        return weekly[board].displayTopScores(count);
+    }
+
+    /**
+     * Sums each player's points over the buckets of the week ending today.
+     */
+    private List<Leaderboard.Entry> weekTotals(int board, long today) {
+        Map<UUID, Leaderboard.Entry> totals = new HashMap<>();
+        for (Bucket bucket : days[board]) {
+            if (bucket == null || bucket.day > today || bucket.day <= today - DAYS_KEPT) {
+                continue;
+            }
+            for (Leaderboard.Entry entry : bucket.ranking.entriesFrom(1, bucket.ranking.size())) {
+                totals.merge(entry.getPlayerId(), entry, (sum, day) -> new Leaderboard.Entry(0, sum.getPlayerId(),
+                        sum.getUsername(), sum.getScore() + day.getScore(), 0));
+            }
+        }
+        return new ArrayList<>(totals.values());
+    }
+
+    /**
+     * This clears the leaderboards and fills them from the solved puzzles in
+     * the players' progress histories, counting each on the day its snapshot
+     * was last updated. Histories are read and tallied per player in
+     * parallel, and each ranking is then built in one pass. A history still
+     * deferred to the users file is read for the tally and not kept in
+     * memory. Solves recorded while the histories are read are replaced by
+     * the tallies, so callers keep puzzles from being solved meanwhile.
+     *
+     * @param players the players to rank
+     * @param catalog the catalog giving each puzzle's difficulty; null counts puzzles only across all difficulties
+     * @return the number of solved puzzles counted
+     */
+    public int rebuild(Collection<Player> players, PuzzleCatalog catalog) {
+        Map<UUID, Tally> fresh = new HashMap<>();
+        int counted = 0;
+        List<Player> source = players == null ? List.of() : new ArrayList<>(players);
+        for (Map.Entry<UUID, Tally> tallied : source.parallelStream()
+                .map(player -> Tally.of(player, catalog))
+                .filter(Objects::nonNull)
+                .toList()) {
+            fresh.put(tallied.getKey(), tallied.getValue());
+            counted += tallied.getValue().solveCount();
+        }
+        synchronized (this) {
+            tallies = fresh;
+            rankTallies();
+        }
+        return counted;
+    }
+
+    /**
+     * This ranks every player again from their tallied solves, scoring each
+     * with the current {@link ScoringPolicy}. No progress history is read.
+     */
+    public synchronized void rescore() {
+        rankTallies();
+    }
+
+    /**
+     * This saves the tallied solves to a file, moved into place once it is
+     * complete. Days that have left the window are merged into one.
+     *
+     * @param file the file to write
+     * @param stamp a value the caller can check on {@link #restore} to tell whether the tallies are still current
+     * @return true if the file was written
+     */
+    public boolean save(Path file, long stamp) {
+        Map<UUID, Map<Long, Integer>> merged = new HashMap<>();
+        synchronized (this) {
+            int oldest = (int) (today() - DAYS_KEPT);
+            for (Map.Entry<UUID, Tally> entry : tallies.entrySet()) {
+                Map<Long, Integer> solves = new HashMap<>();
+                for (Map.Entry<Long, Integer> group : entry.getValue().solves.entrySet()) {
+                    long key = group.getKey();
+                    int day = Tally.day(key) <= oldest ? OLD_DAY : Tally.day(key);
+                    solves.merge(Tally.key(day, Tally.board(key), Tally.hints(key)), group.getValue(), Integer::sum);
+                }
+                merged.put(entry.getKey(), solves);
+            }
+        }
+        Path temp = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(stamp);
+                out.writeInt(merged.size());
+                for (Map.Entry<UUID, Map<Long, Integer>> entry : merged.entrySet()) {
+                    out.writeLong(entry.getKey().getMostSignificantBits());
+                    out.writeLong(entry.getKey().getLeastSignificantBits());
+                    out.writeInt(entry.getValue().size());
+                    for (Map.Entry<Long, Integer> group : entry.getValue().entrySet()) {
+                        out.writeLong(group.getKey());
+                        out.writeInt(group.getValue());
+                    }
+                }
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            System.out.println("WindowedLeaderboard: could not write " + file + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+            }
+            return false;
+        }
+    }
+
+    /**
+     * This replaces the tallies with ones saved by {@link #save(Path, long)}
+     * and ranks everyone from them. Players not in {@code players} are left
+     * out, and the others are shown under their current names.
+     *
+     * @param file the file to read
+     * @param stamp the stamp the file must have been saved with
+     * @param players the players to rank
+     * @return true if the file was current and read; otherwise nothing changes
+     */
+    public boolean restore(Path file, long stamp, Collection<Player> players) {
+        if (file == null || !Files.isRegularFile(file)) {
+            return false;
+        }
+        Map<UUID, String> names = new HashMap<>();
+        for (Player player : players == null ? List.<Player>of() : players) {
+            if (player != null && player.getPlayerID() != null) {
+                names.put(player.getPlayerID(), player.getUsername());
+            }
+        }
+        Map<UUID, Tally> restored = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != stamp) {
+                return false;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                UUID playerId = new UUID(in.readLong(), in.readLong());
+                String username = names.get(playerId);
+                int groups = in.readInt();
+                Tally tally = new Tally();
+                for (int g = 0; g < groups; g++) {
+                    long key = in.readLong();
+                    int solves = in.readInt();
+                    if (Tally.board(key) > ALL || solves <= 0) {
+                        throw new IOException("bad tally for " + playerId);
+                    }
+                    tally.add(username, Tally.day(key), Tally.board(key), Tally.hints(key), solves);
+                }
+                if (username != null) {
+                    restored.put(playerId, tally);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("WindowedLeaderboard: ignoring unreadable tallies " + file + ": " + e.getMessage());
+            return false;
+        }
+        synchronized (this) {
+            tallies = restored;
+            rankTallies();
+        }
+        return true;
+    }
+
+    /**
+     * Builds every ranking from the tallies in one pass per ranking.
+     */
+    private void rankTallies() {
+        long today = today();
+        List<List<Leaderboard.Entry>> allTimeEntries = new ArrayList<>();
+        List<List<List<Leaderboard.Entry>>> dayEntries = new ArrayList<>();
+        for (int board = 0; board <= ALL; board++) {
+            allTimeEntries.add(new ArrayList<>());
+            List<List<Leaderboard.Entry>> boardDays = new ArrayList<>();
+            for (int age = 0; age < DAYS_KEPT; age++) {
+                boardDays.add(new ArrayList<>());
+            }
+            dayEntries.add(boardDays);
+        }
+        Settings.Difficulty[] difficulties = Settings.Difficulty.values();
+        for (Map.Entry<UUID, Tally> tallied : tallies.entrySet()) {
+            Totals player = new Totals(tallied.getKey(), tallied.getValue().username);
+            for (Map.Entry<Long, Integer> group : tallied.getValue().solves.entrySet()) {
+                long key = group.getKey();
+                int board = Tally.board(key);
+                int solves = group.getValue();
+                int points = pointsFor(board == ALL ? null : difficulties[board], Tally.hints(key)) * solves;
+                long age = Tally.day(key) == OLD_DAY ? Long.MAX_VALUE : today - Tally.day(key);
+                player.add(ALL, age, points, solves);
+                if (board != ALL) {
+                    player.add(board, age, points, solves);
+                }
+            }
+            for (int board = 0; board <= ALL; board++) {
+                if (player.solves[board] > 0) {
+                    allTimeEntries.get(board).add(player.entry(player.points[board]));
+                }
+                for (int age = 0; age < DAYS_KEPT; age++) {
+                    if (player.daySolves[board][age] > 0) {
+                        dayEntries.get(board).get(age).add(player.entry(player.dayPoints[board][age]));
+                    }
+                }
+            }
+        }
+
+        for (int board = 0; board <= ALL; board++) {
+            Leaderboard total = new Leaderboard();
+            total.replaceAll(allTimeEntries.get(board));
+            allTime[board] = total;
+            days[board] = new Bucket[DAYS_KEPT];
+            weeklyDay[board] = Long.MIN_VALUE;
+            for (int age = 0; age < DAYS_KEPT; age++) {
+                long day = today - age;
+                Bucket bucket = new Bucket(day);
+                bucket.ranking.replaceAll(dayEntries.get(board).get(age));
+                days[board][(int) Math.floorMod(day, (long) DAYS_KEPT)] = bucket;
+            }
+        }
+    }
+
+    /**
+     * This is one player's solves, counted by day, board and hints used. The
+     * three are packed into one {@code long} key: the epoch day in the high
+     * half, then the board in a byte and the hints in the low 24 bits.
+     */
+    private static final class Tally {
+        String username;
+        final Map<Long, Integer> solves = new HashMap<>();
+
+        static long key(int day, int board, int hints) {
+            return ((long) day << 32) | ((long) board << 24) | Math.min(Math.max(hints, 0), MAX_TALLIED_HINTS);
+        }
+
+        static int day(long key) {
+            return (int) (key >> 32);
+        }
+
+        static int board(long key) {
+            return (int) ((key >>> 24) & 0xFF);
+        }
+
+        static int hints(long key) {
+            return (int) (key & MAX_TALLIED_HINTS);
+        }
+
+        void add(String name, int day, int board, int hints, int count) {
+            if (name != null) {
+                username = name;
+            }
+            solves.merge(key(day, board, hints), count, Integer::sum);
+        }
+
+        int solveCount() {
+            int count = 0;
+            for (int solved : solves.values()) {
+                count += solved;
+            }
+            return count;
+        }
+
+        /**
+         * Tallies the solved puzzles in a player's progress history, or returns null if there are none.
+         */
+        static Map.Entry<UUID, Tally> of(Player player, PuzzleCatalog catalog) {
+            if (player == null || player.getPlayerID() == null) {
+                return null;
+            }
+            Tally tally = new Tally();
+            tally.username = player.getUsername();
+            for (PuzzleProgressSnapshot snapshot : player.readProgressSnapshots()) {
+                if (snapshot == null || !snapshot.isSolved()) {
+                    continue;
+                }
+                Settings.Difficulty difficulty = catalog == null ? null : catalog.getDifficulty(snapshot.getPuzzleId());
+                int day = (int) snapshot.getLastUpdated().toLocalDate().toEpochDay();
+                tally.add(null, day, difficulty == null ? ALL : difficulty.ordinal(), snapshot.getHintCount(), 1);
+            }
+            return tally.solves.isEmpty() ? null : Map.entry(player.getPlayerID(), tally);
+        }
+    }
+
+    /**
+     * This is one player's points and solved puzzles on every board, all
+     * time and for each of the days kept, found while ranking.
+     */
+    private static final class Totals {
+        final UUID playerId;
+        final String username;
+        final int[] points = new int[ALL + 1];
+        final int[] solves = new int[ALL + 1];
+        /** Points by board and by how many days before today they were scored. */
+        final int[][] dayPoints = new int[ALL + 1][DAYS_KEPT];
+        final int[][] daySolves = new int[ALL + 1][DAYS_KEPT];
+
+        Totals(UUID playerId, String username) {
+            this.playerId = playerId;
+            this.username = username;
+        }
+
+        void add(int board, long age, int earned, int solved) {
+            points[board] += earned;
+            solves[board] += solved;
+            if (age >= 0 && age < DAYS_KEPT) {
+                dayPoints[board][(int) age] += earned;
+                daySolves[board][(int) age] += solved;
+            }
+        }
+
+        Leaderboard.Entry entry(int score) {
+            return new Leaderboard.Entry(0, playerId, username, score, 0);
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package com.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A dictionary indexed by the letters of each word, for building anagram
+ * puzzles and recognising answers that are anagrams of the solution.
+ *
+ * A word's signature is its letters in sorted order packed into a
+ * {@code long}, five bits per letter, so every anagram of a word has the
+ * same signature. Words are grouped by signature in one array, and an
+ * open-addressing table of signatures points at each group. Looking a word
+ * up hashes its signature and compares it with the few words of one group,
+ * with no boxing or per-lookup allocation beyond the lower-casing of the word.
+ * Only words of 1 to {@link #MAX_WORD_LENGTH} letters a-z are indexed.
+ *
+ * Dictionary files hold one word per line; blank lines and lines starting
+ * with {@code #} are skipped. {@link #load(String)} memory-maps the file
+ * rather than reading it through a stream.
+ */
+public final class WordIndex {
+
+    /** The longest word whose signature fits in a {@code long}. */
+    public static final int MAX_WORD_LENGTH = 12;
+
+    /** The id of the first anagram puzzle added at easy difficulty by {@link #extend}. */
+    public static final int FIRST_PUZZLE_ID = 500_000;
+
+    /** Each difficulty's anagram puzzles take a block of this many ids. */
+    public static final int IDS_PER_DIFFICULTY = 100_000;
+
+    /** The dictionary bundled next to this class. */
+    static final String BUILT_IN_RESOURCE = "words.txt";
+
+    private static final class BuiltIn {
+        private static final WordIndex INSTANCE = loadResource(BUILT_IN_RESOURCE);
+    }
+
+    /** The words, grouped so that each signature's words are adjacent. */
+    private final String[] words;
+    /** Hash table of signatures; 0 marks an empty slot. */
+    private final long[] keys;
+    /** The index in {@link #words} of the first word of each slot's group. */
+    private final int[] starts;
+    /** The number of words in each slot's group. */
+    private final int[] counts;
+    private final int mask;
+    /** Indexes in {@link #words} of the words that have no other anagram. */
+    private final int[] uniqueWords;
+
+    private WordIndex(Collection<String> source) {
+        Map<Long, List<String>> groups = new LinkedHashMap<>();
+        for (String word : source) {
+            String normalized = word == null ? "" : word.trim().toLowerCase(Locale.ROOT);
+            long signature = signature(normalized);
+            if (signature != 0) {
+                List<String> group = groups.computeIfAbsent(signature, key -> new ArrayList<>(1));
+                if (!group.contains(normalized)) {
+                    group.add(normalized);
+                }
+            }
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(2, groups.size()) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.starts = new int[capacity];
+        this.counts = new int[capacity];
+        this.mask = capacity - 1;
+        List<String> all = new ArrayList<>();
+        List<Integer> unique = new ArrayList<>();
+        for (Map.Entry<Long, List<String>> group : groups.entrySet()) {
+            int slot = slotFor(group.getKey());
+            keys[slot] = group.getKey();
+            starts[slot] = all.size();
+            counts[slot] = group.getValue().size();
+            if (group.getValue().size() == 1) {
+                unique.add(all.size());
+            }
+            all.addAll(group.getValue());
+        }
+        this.words = all.toArray(new String[0]);
+        this.uniqueWords = unique.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Build an index of the given words.
+     */
+    public static WordIndex of(Collection<String> words) {
+        return new WordIndex(words == null ? List.of() : words);
+    }
+
+    /**
+     * Return the dictionary that ships with the game. It is read on first use
+     * and shared from then on.
+     */
+    public static WordIndex builtIn() {
+        return BuiltIn.INSTANCE;
+    }
+
+    /**
+     * This memory-maps a dictionary file and indexes its words.
+     *
+     * @param filePath the dictionary file
+     * @return the index, or null if the file could not be read
+     */
+    public static WordIndex load(String filePath) {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new WordIndex(readWords(mapped));
+        } catch (IOException | RuntimeException e) {
+            System.out.println("WordIndex: could not load " + filePath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Indexes a dictionary bundled as a class-path resource. Resources may
+     * live inside a jar, so they are read into memory instead of mapped.
+     */
+    static WordIndex loadResource(String name) {
+        try (InputStream in = WordIndex.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException("missing dictionary resource " + name);
+            }
+            return new WordIndex(readWords(ByteBuffer.wrap(in.readAllBytes())));
+        } catch (IOException e) {
+            throw new IllegalStateException("could not read dictionary resource " + name, e);
+        }
+    }
+
+    /**
+     * Splits ASCII text into its words, one per line.
+     */
+    private static List<String> readWords(ByteBuffer buffer) {
+        List<String> words = new ArrayList<>();
+        byte[] line = new byte[64];
+        int length = 0;
+        boolean overflow = false;
+        while (true) {
+            boolean end = !buffer.hasRemaining();
+            byte b = end ? (byte) '\n' : buffer.get();
+            if (b == '\n') {
+                int from = 0;
+                int to = length;
+                while (from < to && line[from] <= ' ') {
+                    from++;
+                }
+                while (to > from && line[to - 1] <= ' ') {
+                    to--;
+                }
+                if (!overflow && from < to && line[from] != '#') {
+                    words.add(new String(line, from, to - from, StandardCharsets.US_ASCII));
+                }
+                length = 0;
+                overflow = false;
+                if (end) {
+                    return words;
+                }
+            } else if (length < line.length) {
+                line[length++] = b;
+            } else {
+                overflow = true;
+            }
+        }
+    }
+
+    /**
+     * Returns the sorted-letter signature of a lower-case word, or 0 if it
+     * is empty, too long or has characters other than a-z.
+     */
+    static long signature(CharSequence word) {
+        int length = word.length();
+        if (length == 0 || length > MAX_WORD_LENGTH) {
+            return 0;
+        }
+        // Letter counts, four bits each: a-m in the first long, n-z in the second.
+        long firstHalf = 0;
+        long secondHalf = 0;
+        for (int i = 0; i < length; i++) {
+            char c = word.charAt(i);
+            if (c < 'a' || c > 'z') {
+                return 0;
+            }
+            int letter = c - 'a';
+            if (letter < 13) {
+                firstHalf += 1L << (letter * 4);
+            } else {
+                secondHalf += 1L << ((letter - 13) * 4);
+            }
+        }
+        long signature = 0;
+        for (int letter = 0; letter < 26; letter++) {
+            long counts = letter < 13 ? firstHalf >>> (letter * 4) : secondHalf >>> ((letter - 13) * 4);
+            for (int n = (int) (counts & 0xF); n > 0; n--) {
+                signature = (signature << 5) | (letter + 1);
+            }
+        }
+        return signature;
+    }
+
+    private static long hash(long signature) {
+        long h = signature * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Returns the slot holding {@code signature}, or the empty slot where it would go.
+     */
+    private int slotFor(long signature) {
+        int slot = (int) hash(signature) & mask;
+        while (keys[slot] != 0 && keys[slot] != signature) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static String normalize(String word) {
+        return word == null ? "" : word.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Return the number of words in the index. */
+    public int size() {
+        return words.length;
+    }
+
+    /**
+     * Return true if the word is in the dictionary, ignoring case and surrounding spaces.
+     */
+    public boolean contains(String word) {
+        String normalized = normalize(word);
+        long signature = signature(normalized);
+        if (signature == 0) {
+            return false;
+        }
+        int slot = slotFor(signature);
+        for (int i = starts[slot], end = i + counts[slot]; i < end; i++) {
+            if (words[i].equals(normalized)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return the dictionary words spelled with exactly the given letters.
+     */
+    public List<String> anagramsOf(String letters) {
+        long signature = signature(normalize(letters));
+        if (signature == 0) {
+            return List.of();
+        }
+        int slot = slotFor(signature);
+        return List.of(Arrays.copyOfRange(words, starts[slot], starts[slot] + counts[slot]));
+    }
+
+    /**
+     * Return true if {@code attempt} is a dictionary word spelled with the
+     * letters of {@code answer} but is not the answer itself.
+     */
+    public boolean isCloseTo(String attempt, String answer) {
+        String guess = normalize(attempt);
+        String expected = normalize(answer);
+        long signature = signature(guess);
+        return signature != 0 && !guess.equals(expected) && signature == signature(expected) && contains(guess);
+    }
+
+    /**
+     * Build anagram puzzles whose scrambled letters spell exactly one
+     * dictionary word, such as "unscramble T L G H I" for {@code light}.
+     *
+     * @param firstPuzzleId the id of the first puzzle; the rest follow in order
+     * @param count how many puzzles to build; fewer are returned if the dictionary runs out
+     * @param minLength the shortest answer allowed
+     * @param random source used to pick and scramble the words
+     * @return the puzzles, each answered by a different word
+     */
+    public List<PuzzleDefinition> anagramPuzzles(int firstPuzzleId, int count, int minLength, Random random) {
+        int[] candidates = Arrays.stream(uniqueWords)
+                .filter(i -> words[i].length() >= minLength && !allSameLetter(words[i]))
+                .toArray();
+        int wanted = Math.min(count, candidates.length);
+        List<PuzzleDefinition> puzzles = new ArrayList<>(wanted);
+        for (int n = 0; n < wanted; n++) {
+            int pick = n + random.nextInt(candidates.length - n);
+            int chosen = candidates[pick];
+            candidates[pick] = candidates[n];
+            candidates[n] = chosen;
+
+            String word = words[chosen];
+            String prompt = "Unscramble the letters " + scramble(word, random) + " to reveal the password.";
+            puzzles.add(PuzzleDefinition.text(firstPuzzleId + n, prompt, word,
+                    "The password has " + word.length() + " letters.",
+                    "It begins with \"" + Character.toUpperCase(word.charAt(0)) + "\".",
+                    "It ends with \"" + Character.toUpperCase(word.charAt(word.length() - 1)) + "\"."));
+        }
+        return puzzles;
+    }
+
+    /**
+     * Return a catalog like {@code catalog} in which every room offering only
+     * plain word puzzles also offers {@code perRoom} anagram puzzles. Answers
+     * get longer with the difficulty, and no word answers two puzzles of one
+     * difficulty. The same dictionary and seed give the same puzzles and ids.
+     */
+    public PuzzleCatalog extend(PuzzleCatalog catalog, int perRoom, long seed) {
+        Random random = new Random(seed);
+        Map<Settings.Difficulty, List<RoomDefinition>> rooms = new EnumMap<>(Settings.Difficulty.class);
+        for (Settings.Difficulty difficulty : Settings.Difficulty.values()) {
+            List<RoomDefinition> source = catalog.getRooms(difficulty);
+            int wordRooms = perRoom <= 0 ? 0 : (int) source.stream().filter(WordIndex::isWordRoom).count();
+            List<PuzzleDefinition> anagrams = wordRooms == 0 ? List.of()
+                    : anagramPuzzles(FIRST_PUZZLE_ID + difficulty.ordinal() * IDS_PER_DIFFICULTY,
+                            Math.min(perRoom * wordRooms, IDS_PER_DIFFICULTY), 4 + difficulty.ordinal(), random);
+            List<RoomDefinition> extended = new ArrayList<>(source.size());
+            int next = 0;
+            for (RoomDefinition room : source) {
+                if (wordRooms == 0 || !isWordRoom(room) || next >= anagrams.size()) {
+                    extended.add(room);
+                    continue;
+                }
+                List<PuzzleDefinition> all = new ArrayList<>(room.getCandidates());
+                int end = Math.min(next + perRoom, anagrams.size());
+                all.addAll(anagrams.subList(next, end));
+                next = end;
+                extended.add(new RoomDefinition(room.getRoomId(), room.getName(), room.getDescription(),
+                        room.getDifficulty(), room.getEstimatedTimeMinutes(), all, room.getExits()));
+            }
+            rooms.put(difficulty, extended);
+        }
+        return new PuzzleCatalog(rooms);
+    }
+
+    /**
+     * Returns true if every candidate of a room is answered with a word and none is a truth puzzle.
+     */
+    private static boolean isWordRoom(RoomDefinition room) {
+        List<PuzzleDefinition> candidates = room.getCandidates();
+        return !candidates.isEmpty() && candidates.stream()
+                .allMatch(p -> p.getKind() == PuzzleDefinition.Kind.TEXT && p.getStatements() == null);
+    }
+
+    private static boolean allSameLetter(String word) {
+        return word.chars().allMatch(c -> c == word.charAt(0));
+    }
+
+    /**
+     * Shuffles a word's letters into an order other than the word itself and spaces them out in capitals.
+     */
+    private static String scramble(String word, Random random) {
+        char[] letters = word.toUpperCase(Locale.ROOT).toCharArray();
+        String original = new String(letters);
+        do {
+            for (int i = letters.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                char swap = letters[i];
+                letters[i] = letters[j];
+                letters[j] = swap;
+            }
+        } while (new String(letters).equals(original));
+        StringBuilder spaced = new StringBuilder(letters.length * 2);
+        for (char letter : letters) {
+            if (spaced.length() > 0) {
+                spaced.append(' ');
+            }
+            spaced.append(letter);
+        }
+        return spaced.toString();
+    }
+}
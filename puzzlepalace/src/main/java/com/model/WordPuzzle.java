@@ -2,8 +2,11 @@ package com.model;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Random;
+import java.util.Set;
 
 /**
  * Represents a single word puzzle.
@@ -15,6 +18,8 @@ public class WordPuzzle
     private int puzzleId;
     private String question;
     private List<String> wordList;
+    /** The words of {@link #wordList} in lower case, for checking answers without a scan. */
+    private Set<String> lowerCaseWords;
     private String correctAnswer;
     private List<String> hints;
     private int hintsUsed;
@@ -24,6 +29,7 @@ public class WordPuzzle
     public WordPuzzle() 
     {
         this.wordList = new ArrayList<>();
+        this.lowerCaseWords = new HashSet<>();
         this.hints = new ArrayList<>();
         this.hintsUsed = 0;
     }
@@ -34,6 +40,7 @@ public class WordPuzzle
         this.puzzleId = puzzleId;
         this.question = question;
         if (wordList != null) this.wordList = new ArrayList<>(wordList);
+        this.lowerCaseWords = lowerCase(this.wordList);
         this.correctAnswer = correctAnswer;
         if (hints != null) this.hints = new ArrayList<>(hints);
     }
@@ -43,10 +50,22 @@ public class WordPuzzle
     {
         this();
         if (wordList != null) this.wordList = new ArrayList<>(wordList);
+        this.lowerCaseWords = lowerCase(this.wordList);
         if (hints != null) this.hints = new ArrayList<>(hints);
         pickRandomAnswerAndBuildQuestion();
     }
 
+    /** Returns the words in lower case. */
+    private static Set<String> lowerCase(List<String> words)
+    {
+        Set<String> lower = new HashSet<>();
+        for (String word : words)
+        {
+            if (word != null) lower.add(word.toLowerCase(Locale.ROOT));
+        }
+        return lower;
+    }
+
     /** Picks a random answer and builds a question string. */
     private void pickRandomAnswerAndBuildQuestion() 
     {
@@ -96,9 +115,12 @@ public class WordPuzzle
             this.correctAnswer = correctAnswer.trim();
             return "Correct! Your answer is correct.";
         } else {
-            if (wordList != null && !wordList.isEmpty() && wordList.stream().anyMatch(w -> w.equalsIgnoreCase(attempt))) 
+            if (lowerCaseWords.contains(attempt.toLowerCase(Locale.ROOT))) 
             {
                 return String.format("Incorrect. \"%s\" is not the right word.", attempt);
+            } else if (WordIndex.builtIn().isCloseTo(attempt, correctAnswer)) 
+            {
+                return String.format("Close! \"%s\" uses the right letters, but it is not the word.", attempt);
             } else 
             {
                 return "Incorrect answer.";
@@ -134,6 +156,7 @@ public class WordPuzzle
     public void setWordList(List<String> wordList) 
     {
         this.wordList = wordList == null ? new ArrayList<>() : new ArrayList<>(wordList);
+        this.lowerCaseWords = lowerCase(this.wordList);
         pickRandomAnswerAndBuildQuestion();
     }
 
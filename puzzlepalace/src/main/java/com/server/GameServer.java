@@ -0,0 +1,433 @@
+package com.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.simple.JSONObject;
+
+import com.model.CatalogWatcher;
+import com.model.EscapeRoomManager;
+import com.model.GameSession;
+import com.model.Puzzle;
+import com.model.SessionRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Headless HTTP front-end for the game, built on the JDK's HTTP server.
+ *
+ * Every endpoint but {@code /metrics} is a {@code POST} that takes its
+ * parameters from a form body, never from the query string, so credentials
+ * stay out of URLs and access logs. Any other method gets a 405, and a body
+ * that is not valid form encoding gets a 400. Each endpoint answers with a
+ * JSON object:
+ * <ul>
+ *   <li>{@code POST /login} ({@code username}, {@code password}) opens a session
+ *       and returns its id with the first puzzle</li>
+ *   <li>{@code POST /answer} ({@code session}, {@code puzzleId}, {@code answer}) reports
+ *       whether it was {@code solved} or, if not, {@code close}</li>
+ *   <li>{@code POST /hint} ({@code session}, {@code puzzleId})</li>
+ *   <li>{@code POST /save} ({@code session}) answers once the save is written</li>
+ *   <li>{@code POST /logout} ({@code session})</li>
+ *   <li>{@code GET /metrics} reports open sessions and catalog reloads</li>
+ * </ul>
+ * Requests run on virtual threads when the JDK has them and on a fixed pool
+ * otherwise. {@code /save} does not hold a thread while the {@code SaveQueue}
+ * writes; the response is sent when the save future completes.
+ *
+ * While the server runs it closes sessions that have had no request for
+ * the idle timeout, so abandoned clients do not keep their sessions forever.
+ */
+public class GameServer {
+
+    /** Default number of pending connections the listening socket accepts. */
+    public static final int DEFAULT_BACKLOG = 4096;
+
+    /** Default time a session may go without a request before it is closed. */
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 30 * 60 * 1_000L;
+
+    static {
+        // The JDK server writes headers and body separately; with Nagle's
+        // algorithm on, every keep-alive response waits out a delayed ACK.
+        defaultProperty("sun.net.httpserver.nodelay", "true");
+        // Past 200 idle keep-alive connections the server closes the extra
+        // ones, which clients only notice when their next request fails.
+        defaultProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(DEFAULT_BACKLOG));
+    }
+
+    private final SessionRegistry registry;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService idleSweeper;
+    private final long idleTimeoutMillis;
+    private volatile CatalogWatcher catalogWatcher;
+
+    /**
+     * Create a server for {@code registry} listening on {@code port}
+     * (0 picks a free port). Call {@link #start()} to accept requests.
+     */
+    public GameServer(SessionRegistry registry, int port) throws IOException {
+        this(registry, new InetSocketAddress(port), DEFAULT_BACKLOG);
+    }
+
+    public GameServer(SessionRegistry registry, InetSocketAddress address, int backlog) throws IOException {
+        this(registry, address, backlog, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Create a server that closes sessions once they have gone
+     * {@code idleTimeoutMillis} without a request.
+     */
+    public GameServer(SessionRegistry registry, InetSocketAddress address, int backlog, long idleTimeoutMillis)
+            throws IOException {
+        if (idleTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("idleTimeoutMillis must be positive");
+        }
+        this.registry = registry;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.server = HttpServer.create(address, backlog);
+        this.executor = newRequestExecutor();
+        this.idleSweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-server-idle-sessions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/login", handler("POST", this::login));
+        server.createContext("/answer", handler("POST", this::answer));
+        server.createContext("/hint", handler("POST", this::hint));
+        server.createContext("/save", handler("POST", this::save));
+        server.createContext("/logout", handler("POST", this::logout));
+        server.createContext("/metrics", handler("GET", this::metrics));
+    }
+
+    public void start() {
+        server.start();
+        long period = Math.max(1_000L, Math.min(60_000L, idleTimeoutMillis / 2));
+        idleSweeper.scheduleWithFixedDelay(this::closeIdleSessions, period, period, TimeUnit.MILLISECONDS);
+        System.out.println("GameServer: listening on port " + getPort());
+    }
+
+    private void closeIdleSessions() {
+        try {
+            int closed = registry.closeIdleSessions(idleTimeoutMillis);
+            if (closed > 0) {
+                System.out.println("GameServer: closed " + closed + " idle sessions");
+            }
+        } catch (RuntimeException e) {
+            System.out.println("GameServer: could not close idle sessions: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stop accepting requests, close every session and write queued saves.
+     */
+    public void stop() {
+        CatalogWatcher watcher = catalogWatcher;
+        if (watcher != null) {
+            watcher.close();
+        }
+        idleSweeper.shutdownNow();
+        server.stop(0);
+        executor.shutdown();
+        registry.close();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public SessionRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Load rooms from a catalog content file and reload them whenever the file
+     * changes. Each valid version is published to the {@link EscapeRoomManager}
+     * and becomes the catalog new games are built from; players keep the rooms
+     * they are already in.
+     *
+     * @param roomsFile the catalog content file, such as json/rooms.json
+     * @return true if the file loaded and is being watched
+     */
+    public boolean watchCatalog(String roomsFile) {
+        CatalogWatcher watcher = new CatalogWatcher(roomsFile, catalog -> {
+            EscapeRoomManager.getInstance().publishCatalog(catalog);
+            registry.setCatalog(catalog);
+        });
+        if (!watcher.reload() || !watcher.start()) {
+            return false;
+        }
+        catalogWatcher = watcher;
+        return true;
+    }
+
+    public CatalogWatcher getCatalogWatcher() {
+        return catalogWatcher;
+    }
+
+    /**
+     * Start a server on the port given as the first argument (default 8080)
+     * backed by the user data file given as the second (default json/users.json).
+     * A third argument names a rooms file to play and watch for changes instead
+     * of the built-in rooms, and a fourth how many generated puzzles each math
+     * or word room offers (default {@link SessionRegistry#DEFAULT_GENERATED_PUZZLES_PER_ROOM}).
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        String userData = args.length > 1 ? args[1] : "json/users.json";
+        int generated = args.length > 3 ? Integer.parseInt(args[3]) : SessionRegistry.DEFAULT_GENERATED_PUZZLES_PER_ROOM;
+        GameServer gameServer = new GameServer(new SessionRegistry(userData, generated), port);
+        if (args.length > 2 && !gameServer.watchCatalog(args[2])) {
+            System.out.println("GameServer: using the built-in rooms.");
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(gameServer::stop, "game-server-shutdown"));
+        gameServer.start();
+    }
+
+    private interface Endpoint {
+        CompletableFuture<Response> handle(Map<String, String> params);
+    }
+
+    private static final class Response {
+        private final int status;
+        private final JSONObject body;
+
+        private Response(int status, JSONObject body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private CompletableFuture<Response> login(Map<String, String> params) {
+        GameSession session = registry.login(params.get("username"), params.get("password"));
+        if (session == null) {
+            return error(401, "Invalid username or password.");
+        }
+        JSONObject body = puzzleBody(session);
+        body.put("session", session.getSessionId());
+        return ok(body);
+    }
+
+    private CompletableFuture<Response> answer(Map<String, String> params) {
+        GameSession session = registry.getSession(params.get("session"));
+        if (session == null) {
+            return error(404, "Unknown session.");
+        }
+        Integer puzzleId = parseInt(params.get("puzzleId"));
+        if (puzzleId == null) {
+            return error(400, "puzzleId is required.");
+        }
+        boolean solved = session.submitPuzzleAnswer(puzzleId, params.get("answer"));
+        boolean close = !solved && session.isCloseAnswer(puzzleId, params.get("answer"));
+        if (solved && session.hasNextRoom()) {
+            session.moveToNextRoom();
+        }
+        JSONObject body = puzzleBody(session);
+        body.put("solved", solved);
+        body.put("close", close);
+        return ok(body);
+    }
+
+    private CompletableFuture<Response> hint(Map<String, String> params) {
+        GameSession session = registry.getSession(params.get("session"));
+        if (session == null) {
+            return error(404, "Unknown session.");
+        }
+        Integer puzzleId = parseInt(params.get("puzzleId"));
+        if (puzzleId == null) {
+            return error(400, "puzzleId is required.");
+        }
+        JSONObject body = new JSONObject();
+        body.put("hint", session.requestHint(puzzleId));
+        return ok(body);
+    }
+
+    private CompletableFuture<Response> save(Map<String, String> params) {
+        GameSession session = registry.getSession(params.get("session"));
+        if (session == null) {
+            return error(404, "Unknown session.");
+        }
+        return session.saveCurrentPlayerProgress().thenApply(saved -> {
+            JSONObject body = new JSONObject();
+            body.put("saved", saved);
+            return new Response(200, body);
+        });
+    }
+
+    private CompletableFuture<Response> logout(Map<String, String> params) {
+        if (!registry.closeSession(params.get("session"))) {
+            return error(404, "Unknown session.");
+        }
+        JSONObject body = new JSONObject();
+        body.put("loggedOut", true);
+        return ok(body);
+    }
+
+    private CompletableFuture<Response> metrics(Map<String, String> params) {
+        JSONObject body = new JSONObject();
+        body.put("sessions", registry.getSessionCount());
+        body.put("catalogPuzzles", registry.getCatalog().getPuzzleCount());
+        CatalogWatcher watcher = catalogWatcher;
+        if (watcher != null) {
+            body.put("catalogReloads", watcher.getReloadCount());
+            body.put("catalogReloadFailures", watcher.getFailedReloadCount());
+            body.put("catalogLastReloadMicros", watcher.getLastReloadNanos() / 1_000L);
+            body.put("catalogTotalReloadMicros", watcher.getTotalReloadNanos() / 1_000L);
+            body.put("catalogLastReloadAt", watcher.getLastReloadAtMillis());
+            body.put("catalogLastError", watcher.getLastError());
+        }
+        return ok(body);
+    }
+
+    private static JSONObject puzzleBody(GameSession session) {
+        JSONObject body = new JSONObject();
+        Puzzle puzzle = session.getActivePuzzle();
+        if (puzzle != null) {
+            body.put("puzzleId", puzzle.getPuzzleId());
+            body.put("question", puzzle.getDescription());
+            body.put("status", puzzle.getStatus());
+        }
+        body.put("room", session.getCurrentRoomName());
+        return body;
+    }
+
+    private static CompletableFuture<Response> ok(JSONObject body) {
+        return CompletableFuture.completedFuture(new Response(200, body));
+    }
+
+    private static CompletableFuture<Response> error(int status, String message) {
+        return CompletableFuture.completedFuture(new Response(status, errorBody(message)));
+    }
+
+    private static HttpHandler handler(String method, Endpoint endpoint) {
+        return exchange -> {
+            if (!method.equalsIgnoreCase(exchange.getRequestMethod())) {
+                exchange.getRequestBody().close();
+                exchange.getResponseHeaders().set("Allow", method);
+                send(exchange, new Response(405, errorBody("Use " + method + ".")));
+                return;
+            }
+            Map<String, String> params;
+            try {
+                params = readParams(exchange);
+            } catch (IllegalArgumentException e) {
+                send(exchange, new Response(400, errorBody("Malformed form data: " + e.getMessage())));
+                return;
+            }
+            CompletableFuture<Response> response;
+            try {
+                response = endpoint.handle(params);
+            } catch (RuntimeException e) {
+                System.out.println("GameServer: request to " + exchange.getRequestURI() + " failed: " + e.getMessage());
+                response = error(500, "Internal error.");
+            }
+            response.whenComplete((result, failure) -> {
+                Response sent = failure == null ? result : new Response(500, errorBody("Internal error."));
+                send(exchange, sent);
+            });
+        };
+    }
+
+    private static JSONObject errorBody(String message) {
+        JSONObject body = new JSONObject();
+        body.put("error", message);
+        return body;
+    }
+
+    private static void send(HttpExchange exchange, Response response) {
+        byte[] bytes = response.body.toJSONString().getBytes(StandardCharsets.UTF_8);
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            System.out.println("GameServer: unable to send response: " + e.getMessage());
+            exchange.close();
+        }
+    }
+
+    private static Map<String, String> readParams(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readAllBytes();
+            if (body.length > 0) {
+                parseForm(new String(body, StandardCharsets.UTF_8), params);
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Decode {@code application/x-www-form-urlencoded} pairs into {@code params}.
+     *
+     * @throws IllegalArgumentException if a pair has a bad percent-escape
+     */
+    static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Integer parseInt(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void defaultProperty(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    /**
+     * This returns a virtual-thread-per-task executor when the running JDK
+     * provides one (looked up reflectively so the code still builds for 17),
+     * and a fixed pool of daemon threads otherwise.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = Math.max(8, Runtime.getRuntime().availableProcessors() * 4);
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "game-server-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
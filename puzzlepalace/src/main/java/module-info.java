@@ -3,6 +3,7 @@ module com.puzzlepalace {
     requires javafx.fxml;
     requires json.simple;
     requires freetts;
+    requires jdk.httpserver;
 
 
     opens com.puzzlepalace to javafx.fxml;
@@ -0,0 +1,77 @@
+package com.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class BatchAnswerVerifierTest {
+
+    private static final List<String> EQUATIONS = Arrays.asList(
+            "2*x + 3 = 11",
+            "x^2 = 16",
+            "x + y = 3",
+            "x = ",
+            null,
+            "10 / 4 = 2.5");
+
+    @Test
+    public void matchesSingleAnswerEvaluationAcrossParallelRanges() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            BatchAnswerVerifier verifier = new BatchAnswerVerifier(EQUATIONS, pool);
+            int rows = BatchAnswerVerifier.SEQUENTIAL_THRESHOLD * 5 + 17;
+            int[] ids = new int[rows];
+            double[] answers = new double[rows];
+            for (int i = 0; i < rows; i++) {
+                ids[i] = (i * 7) % (EQUATIONS.size() + 1) - (i % 11 == 0 ? 1 : 0);
+                answers[i] = (i % 9) - 4;
+            }
+
+            BitSet satisfied = verifier.verify(ids, answers);
+            MathPuzzleEvaluateSolution single = new MathPuzzleEvaluateSolution();
+            int expectedCount = 0;
+            for (int i = 0; i < rows; i++) {
+                boolean expected = ids[i] >= 0 && ids[i] < EQUATIONS.size() && EQUATIONS.get(ids[i]) != null
+                        && single.evaluateSolution(EQUATIONS.get(ids[i]), String.valueOf(answers[i])).startsWith("Correct");
+                assertEquals("row " + i, expected, satisfied.get(i));
+                if (expected) {
+                    expectedCount++;
+                }
+            }
+            assertTrue(expectedCount > 0);
+            assertEquals(expectedCount, satisfied.cardinality());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void reportsWhichEquationsCanBeChecked() {
+        BatchAnswerVerifier verifier = new BatchAnswerVerifier(EQUATIONS);
+        assertEquals(6, verifier.getEquationCount());
+        assertTrue(verifier.isCheckable(0));
+        assertFalse(verifier.isCheckable(2));
+        assertFalse(verifier.isCheckable(3));
+        assertFalse(verifier.isCheckable(4));
+        assertTrue(verifier.isCheckable(5));
+        assertFalse(verifier.isCheckable(6));
+
+        boolean[] results = new boolean[3];
+        verifier.verify(new int[] {0, 1, 1}, new double[] {4, -4, 3}, results);
+        assertTrue(results[0]);
+        assertTrue(results[1]);
+        assertFalse(results[2]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsColumnsOfDifferentLengths() {
+        new BatchAnswerVerifier(EQUATIONS).verify(new int[2], new double[3]);
+    }
+}
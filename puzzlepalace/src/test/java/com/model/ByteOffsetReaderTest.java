@@ -0,0 +1,39 @@
+package com.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class ByteOffsetReaderTest {
+
+    @Test
+    public void charPositionsMapToUtf8ByteOffsetsAcrossSmallReads() throws Exception {
+        String text = "{\"name\": \"Zo\u00eb \u6f22 \ud83e\udde9\ud83e\udde9\", \"log\": [1, \"\u00e9\"]}";
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        Reader decoded = new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+        ByteOffsetReader reader = new ByteOffsetReader(decoded, StandardCharsets.UTF_8);
+
+        // Reads of three characters split both surrogate pairs across chunks.
+        char[] buffer = new char[3];
+        StringBuilder read = new StringBuilder();
+        for (int n; (n = reader.read(buffer, 0, buffer.length)) > 0; ) {
+            read.append(buffer, 0, n);
+        }
+        assertEquals(text, read.toString());
+
+        int bracket = text.indexOf('[');
+        int close = text.indexOf(']');
+        long start = reader.byteOffsetOf(bracket);
+        assertEquals(text.substring(0, bracket).getBytes(StandardCharsets.UTF_8).length, start);
+        reader.forget(bracket);
+        assertEquals(start, reader.byteOffsetOf(bracket));
+        assertEquals("[1, \"\u00e9\"]",
+                new String(bytes, (int) start, (int) (reader.byteOffsetOf(close + 1) - start), StandardCharsets.UTF_8));
+        assertEquals(bytes.length, reader.byteOffsetOf(text.length()));
+    }
+}
@@ -0,0 +1,162 @@
+package com.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CatalogLoaderTest {
+
+    static final String ROOMS_JSON = "[\n"
+            + "  {\"roomID\": \"ROOM_UUID_1\", \"name\": \"Haunted Library\", \"description\": \"Dark.\",\n"
+            + "   \"difficulty\": \"medium\", \"estimatedTimeMinutes\": 30, \"exits\": [\"north_hall\"],\n"
+            + "   \"puzzles\": [\n"
+            + "     {\"puzzleId\": 1001, \"type\": \"WordPuzzle\", \"description\": \"Find the word.\",\n"
+            + "      \"status\": \"unsolved\", \"answer\": \"book\",\n"
+            + "      \"hints\": {\"hintsUsed\": 0, \"maxHints\": 3, \"availableHints\": [\"Look at the shelf\"]},\n"
+            + "      \"wordList\": [\"lamp\", \"book\"]},\n"
+            + "     {\"puzzleId\": 1002, \"type\": \"MathPuzzle\", \"description\": \"Balance it.\",\n"
+            + "      \"answer\": 4, \"hints\": {\"availableHints\": [\"Coefficients\"]},\n"
+            + "      \"equation\": \"2*x + 3 = 11\", \"answerHint\": \"x is an integer\"}\n"
+            + "   ]},\n"
+            + "  {\"roomID\": \"ROOM_UUID_2\", \"name\": \"Lab\", \"description\": \"Wires.\",\n"
+            + "   \"difficulty\": \"hard\", \"estimatedTimeMinutes\": 40, \"exits\": [],\n"
+            + "   \"puzzles\": [\n"
+            + "     {\"puzzleId\": 1003, \"type\": \"LogicPuzzle\", \"description\": \"Re-route.\",\n"
+            + "      \"answer\": \"A-B, C-D\", \"hints\": {\"availableHints\": []}}\n"
+            + "   ]}\n"
+            + "]\n";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File write(String name, String json) throws Exception {
+        File file = temp.newFile(name);
+        Files.writeString(file.toPath(), json, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    public void loadIndexesRoomsByDifficultyAndPuzzleId() throws Exception {
+        File rooms = write("rooms.json", ROOMS_JSON);
+        PuzzleCatalog catalog = CatalogLoader.load(rooms.getPath());
+
+        assertNotNull(catalog);
+        assertEquals(3, catalog.getPuzzleCount());
+        assertTrue(catalog.getRooms(Settings.Difficulty.EASY).isEmpty());
+        RoomDefinition library = catalog.getRooms(Settings.Difficulty.MEDIUM).get(0);
+        assertEquals("Haunted Library", library.getName());
+        assertEquals(List.of("north_hall"), library.getExits());
+        assertEquals(2, library.getCandidates().size());
+
+        assertEquals("book", catalog.getPuzzle(1001).getAnswer());
+        PuzzleDefinition math = catalog.getPuzzle(1002);
+        assertEquals(PuzzleDefinition.Kind.MATH, math.getKind());
+        assertEquals("Balance it. 2*x + 3 = 11", math.getPrompt());
+        assertEquals(List.of("Coefficients", "x is an integer"), math.getHints());
+        assertTrue(math.newPuzzle().trySolve("4"));
+        assertTrue(catalog.getPuzzle(1003).newPuzzle().trySolve(" a-b, c-d "));
+    }
+
+    @Test
+    public void laterLoadsReadTheBinaryCacheUntilTheSourceChanges() throws Exception {
+        File rooms = write("rooms.json", ROOMS_JSON);
+        assertNotNull(CatalogLoader.load(rooms.getPath()));
+        File cache = new File(rooms.getPath() + CatalogLoader.CACHE_SUFFIX);
+        assertTrue(cache.isFile());
+
+        // An unchanged source is served from the cache, which is not rewritten.
+        FileTime compiled = FileTime.fromMillis(Files.getLastModifiedTime(cache.toPath()).toMillis() - 60_000);
+        Files.setLastModifiedTime(cache.toPath(), compiled);
+        PuzzleCatalog cached = CatalogLoader.load(rooms.getPath());
+        assertNotNull(cached);
+        assertEquals(compiled, Files.getLastModifiedTime(cache.toPath()));
+        assertEquals("book", cached.getPuzzle(1001).getAnswer());
+        assertEquals(4.0, cached.getPuzzle(1002).getNumericAnswer(), 0.0);
+        assertEquals(List.of("north_hall"), cached.getRooms(Settings.Difficulty.MEDIUM).get(0).getExits());
+
+        // Same size and timestamp, different content: the cache is stale.
+        FileTime modified = Files.getLastModifiedTime(rooms.toPath());
+        Files.writeString(rooms.toPath(), ROOMS_JSON.replace("\"book\"", "\"tome\""), StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(rooms.toPath(), modified);
+        assertEquals("tome", CatalogLoader.load(rooms.getPath()).getPuzzle(1001).getAnswer());
+    }
+
+    @Test
+    public void savedCatalogLoadsBackUnchanged() throws Exception {
+        File target = new File(temp.getRoot(), "copy/rooms.json");
+        assertTrue(CatalogLoader.save(PuzzleCatalog.builtIn(), target.getPath()));
+
+        PuzzleCatalog copy = CatalogLoader.load(target.getPath());
+        assertNotNull(copy);
+        assertEquals(PuzzleCatalog.builtIn().getPuzzleCount(), copy.getPuzzleCount());
+        PuzzleDefinition original = PuzzleCatalog.builtIn().getPuzzle(2001);
+        assertEquals(original.getPrompt(), copy.getPuzzle(2001).getPrompt());
+        assertEquals(original.getHints(), copy.getPuzzle(2001).getHints());
+        assertEquals(original.getNumericAnswer(), copy.getPuzzle(2001).getNumericAnswer(), 0.0);
+    }
+
+    @Test
+    public void invalidFilesAreRejected() throws Exception {
+        assertNull(CatalogLoader.load(new File(temp.getRoot(), "missing.json").getPath()));
+        assertNull(CatalogLoader.load(write("broken.json", "[{").getPath()));
+        assertNull(CatalogLoader.load(write("duplicate.json", ROOMS_JSON.replace("1003", "1001")).getPath()));
+        assertNull(CatalogLoader.load(write("unanswered.json", ROOMS_JSON.replace("\"answer\": \"book\",", "")).getPath()));
+        assertNull(CatalogLoader.load(write("misspelled.json", ROOMS_JSON.replace("\"hard\"", "\"hrad\"")).getPath()));
+        assertNull(CatalogLoader.load(write("undecided.json",
+                ROOMS_JSON.replace("\"difficulty\": \"hard\",", "")).getPath()));
+    }
+
+    @Test
+    public void logicStatementsMustSingleOutTheAnswer() throws Exception {
+        String statements = "\"answer\": \"A-B, C-D\", \"statements\": {\"candidates\": [\"A\", \"B\", \"C\"],"
+                + " \"true\": 1, \"claims\": [{\"speaker\": \"A\", \"says\": \"lying\", \"about\": \"B\"},"
+                + " {\"speaker\": \"B\", \"says\": \"is-answer\", \"about\": \"C\"},"
+                + " {\"speaker\": \"C\", \"says\": \"lying\", \"about\": \"B\"}]},";
+        String json = ROOMS_JSON.replace("\"answer\": \"A-B, C-D\",", statements);
+
+        assertNull(CatalogLoader.load(write("mismatch.json", json).getPath()));
+        PuzzleCatalog catalog = CatalogLoader.load(write("logic.json", json.replace("\"A-B, C-D\"", "\"c\"")).getPath());
+        assertNotNull(catalog);
+        PuzzleDefinition logic = catalog.getPuzzle(1003);
+        assertEquals("C", logic.getStatements().getAnswer());
+        assertEquals(2, logic.getHints().size());
+
+        File target = new File(temp.getRoot(), "copy/rooms.json");
+        assertTrue(CatalogLoader.save(catalog, target.getPath()));
+        assertEquals("C", CatalogLoader.load(target.getPath()).getPuzzle(1003).getStatements().getAnswer());
+
+        String ambiguous = json.replace("\"A-B, C-D\"", "\"c\"").replace("\"is-answer\"", "\"not-answer\"");
+        assertNull(CatalogLoader.load(write("ambiguous.json", ambiguous).getPath()));
+    }
+
+    @Test
+    public void equationAnswersAreDerivedAndChecked() throws Exception {
+        PuzzleCatalog derived = CatalogLoader.load(write("derived.json", ROOMS_JSON.replace("\"answer\": 4,", "")).getPath());
+        assertNotNull(derived);
+        PuzzleDefinition math = derived.getPuzzle(1002);
+        assertEquals(4.0, math.getNumericAnswer(), 0.0);
+        assertEquals("2*x + 3 = 11", math.getEquation());
+        assertEquals("Balance it.", math.getDescription());
+
+        File target = new File(temp.getRoot(), "copy/rooms.json");
+        assertTrue(CatalogLoader.save(derived, target.getPath()));
+        PuzzleDefinition copy = CatalogLoader.load(target.getPath()).getPuzzle(1002);
+        assertEquals(math.getPrompt(), copy.getPrompt());
+        assertEquals("2*x + 3 = 11", copy.getEquation());
+
+        assertNull(CatalogLoader.load(write("wrong.json", ROOMS_JSON.replace("\"answer\": 4,", "\"answer\": 5,")).getPath()));
+        assertNull(CatalogLoader.load(write("several.json", ROOMS_JSON.replace("2*x + 3 = 11", "x^2 = 16")).getPath()));
+        assertNull(CatalogLoader.load(write("none.json", ROOMS_JSON.replace("2*x + 3 = 11", "x^2 + 1 = 0")).getPath()));
+    }
+}
@@ -0,0 +1,104 @@
+package com.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CatalogWatcherTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private CatalogWatcher watcher;
+
+    @After
+    public void stopWatcher() {
+        if (watcher != null) {
+            watcher.close();
+        }
+        EscapeRoomManager.getInstance().resetRooms();
+    }
+
+    private static String roomsJson(String answer) {
+        return "[{\"roomID\": \"vault\", \"name\": \"Vault\", \"description\": \"Locked.\", \"difficulty\": \"easy\","
+                + " \"estimatedTimeMinutes\": 5, \"exits\": [], \"puzzles\": [{\"puzzleId\": 7,"
+                + " \"type\": \"WordPuzzle\", \"description\": \"Say the word.\", \"answer\": \"" + answer + "\","
+                + " \"hints\": {\"availableHints\": [\"It is a word.\"]}}]}]";
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue("timed out waiting for a reload", condition.getAsBoolean());
+    }
+
+    @Test
+    public void changedFileIsSwappedInWhileSessionsKeepTheirPuzzles() throws Exception {
+        File rooms = temp.newFile("rooms.json");
+        Files.writeString(rooms.toPath(), roomsJson("alpha"), StandardCharsets.UTF_8);
+        // No generated puzzles, so every session plays the file's only puzzle.
+        SessionRegistry registry = new SessionRegistry(temp.newFile("users.json").getAbsolutePath(), 0);
+        watcher = new CatalogWatcher(rooms.getPath(), catalog -> {
+            EscapeRoomManager.getInstance().publishCatalog(catalog);
+            registry.setCatalog(catalog);
+        });
+        assertTrue(watcher.reload());
+        assertTrue(watcher.start());
+
+        GameSession playing = registry.login("PlayerOne", "SecretPass1!");
+        Puzzle before = playing.getActivePuzzle();
+        assertEquals("Say the word.", before.getDescription());
+
+        Files.writeString(rooms.toPath(), roomsJson("bravo"), StandardCharsets.UTF_8);
+        await(() -> watcher.getReloadCount() == 2);
+
+        assertEquals("bravo", registry.getCatalog().getPuzzle(7).getAnswer());
+        assertEquals("bravo", EscapeRoomManager.getInstance().getCatalog().getPuzzle(7).getAnswer());
+        assertTrue(watcher.getLastReloadNanos() > 0);
+        assertTrue(watcher.getTotalReloadNanos() >= watcher.getLastReloadNanos());
+
+        assertSame(before, playing.getActivePuzzle());
+        assertTrue(before.trySolve("alpha"));
+
+        playing.logout().join();
+        GameSession next = registry.login("PlayerOne", "SecretPass1!");
+        assertNotNull(next);
+        assertTrue(next.getActivePuzzle().trySolve("bravo"));
+    }
+
+    @Test
+    public void invalidChangeKeepsThePreviousCatalog() throws Exception {
+        File rooms = temp.newFile("rooms.json");
+        Files.writeString(rooms.toPath(), roomsJson("alpha"), StandardCharsets.UTF_8);
+        EscapeRoomManager manager = EscapeRoomManager.getInstance();
+        watcher = new CatalogWatcher(rooms.getPath(), manager::publishCatalog);
+        assertTrue(watcher.reload());
+        assertTrue(watcher.start());
+        PuzzleCatalog published = manager.getCatalog();
+
+        Files.writeString(rooms.toPath(), "[{\"roomID\": ", StandardCharsets.UTF_8);
+        await(() -> watcher.getFailedReloadCount() > 0);
+
+        assertSame(published, manager.getCatalog());
+        assertEquals(1, manager.getTotalRooms());
+        assertEquals(1, watcher.getReloadCount());
+        assertNotNull(watcher.getLastError());
+
+        watcher.close();
+        assertFalse(watcher.isRunning());
+    }
+}
@@ -0,0 +1,69 @@
+package com.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class CompiledEquationTest {
+
+    private static double left(String equation, double... values) {
+        return CompiledEquation.compile(equation).evaluateLeft(values);
+    }
+
+    @Test
+    public void followsTheOriginalGrammar() {
+        assertEquals(14.0, left("2 + 3 * 4 = 0"), 0.0);
+        assertEquals(20.0, left("(2 + 3) * 4 = 0"), 0.0);
+        assertEquals(512.0, left("2^3^2 = 0"), 0.0);
+        assertEquals(-4.0, left("-2^2 = 0"), 0.0);
+        assertEquals(2.5, left("10 / 4 = 0"), 0.0);
+        assertEquals(5.0, left("8 - 2 - 1 = 0"), 0.0);
+        assertEquals(7.0, left("+ ( 3 + 4 = 0"), 0.0);
+        assertEquals(2.0, left("2x = 0", 9.0), 0.0);
+    }
+
+    @Test
+    public void resolvesVariablesToSlotsInOrderOfAppearance() {
+        CompiledEquation equation = CompiledEquation.compile("y * x + y = x1");
+        assertEquals(3, equation.getVariableCount());
+        assertEquals("y", equation.getVariable(0));
+        assertEquals(1, equation.slotOf("x"));
+        assertEquals(2, equation.slotOf("x1"));
+        assertEquals(-1, equation.slotOf("z"));
+
+        double[] values = {2, 5, 12};
+        assertEquals(12.0, equation.evaluateLeft(values), 0.0);
+        assertEquals(12.0, equation.evaluateRight(values, new double[equation.getStackSize()]), 0.0);
+        assertTrue(equation.isSatisfiedBy(values));
+        values[2] = 12.1;
+        assertFalse(equation.isSatisfiedBy(values));
+    }
+
+    @Test
+    public void rejectsMalformedEquations() {
+        assertCompileError("x + 1", CompiledEquation.FORMAT_ERROR);
+        assertCompileError("x = 1 = 2", CompiledEquation.FORMAT_ERROR);
+        assertCompileError("x * = 1", "Unexpected: ");
+        assertCompileError("1.2.3 = x", "multiple points");
+    }
+
+    private static void assertCompileError(String equation, String message) {
+        try {
+            CompiledEquation.compile(equation);
+            fail("expected " + equation + " to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith(message));
+        }
+    }
+
+    @Test
+    public void ofCompilesEachEquationOnce() {
+        CompiledEquation first = CompiledEquation.of("3*x - 1 = 8");
+        assertSame(first, CompiledEquation.of("3*x - 1 = 8"));
+        assertTrue(first.isSatisfiedBy(new double[] {3}));
+    }
+}
@@ -62,4 +62,133 @@ public class DataLoaderTest {
         assertEquals("Expected one progress snapshot", 1, snapshots.size());
         assertTrue("Snapshot should indicate solved puzzle", snapshots.get(0).isSolved());
     }
+
+    @Test
+    public void loadUsers_streamsEachRecordInOrder() throws Exception {
+        File jsonFile = temp.newFile("stream.json");
+
+        try (FileWriter writer = new FileWriter(jsonFile)) {
+            writer.write("[" +
+                    "{\"username\": \"First\", \"score\": {\"points\": 5}, \"progressLog\": [" +
+                    "{\"puzzleId\": 3, \"status\": \"SOLVED\", \"hintsUsed\": [\"a\", \"b\"]}]}," +
+                    "42," +
+                    "{\"username\": \"Second\", \"tags\": [[1, 2], {\"nested\": true}], \"progressLog\": []}" +
+                    "]");
+        }
+
+        List<Player> players = DataLoader.loadUsers(jsonFile.getAbsolutePath());
+        assertEquals(2, players.size());
+        assertEquals("First", players.get(0).getUsername());
+        assertEquals(5, players.get(0).getScoreDetails().getPoints());
+        assertEquals(2, players.get(0).getTotalHintsUsedFromHistory());
+        assertEquals("Second", players.get(1).getUsername());
+    }
+
+    @Test
+    public void loadUsers_ignoresNonArrayRoot() throws Exception {
+        File jsonFile = temp.newFile("object.json");
+        try (FileWriter writer = new FileWriter(jsonFile)) {
+            writer.write("{\"username\": \"Solo\"}");
+        }
+
+        assertTrue(DataLoader.loadUsers(jsonFile.getAbsolutePath()).isEmpty());
+    }
+
+    @Test
+    public void loadUsers_lazyModeDefersHistoryUntilRead() throws Exception {
+        File jsonFile = temp.newFile("lazy.json");
+        try (FileWriter writer = new FileWriter(jsonFile)) {
+            writer.write("[\n" +
+                    "{\"username\": \"Lazy\", \"score\": {\"points\": 7, \"hintsUsed\": 0},\n" +
+                    " \"progressLog\": [ {\"puzzleId\": 9, \"question\": \"q [x]\", \"status\": \"SOLVED\",\n" +
+                    "   \"hintsUsed\": [\"one\", \"two\"]} ], \"email\": \"lazy@example.com\"},\n" +
+                    "{\"username\": \"Empty\", \"progressLog\": []}\n" +
+                    "]");
+        }
+
+        List<Player> players = DataLoader.loadUsers(jsonFile.getAbsolutePath(), true);
+        assertEquals(2, players.size());
+        Player lazy = players.get(0);
+        assertEquals("Lazy", lazy.getUsername());
+        assertEquals(7, lazy.getScoreDetails().getPoints());
+        assertFalse(lazy.isProgressHistoryLoaded());
+        assertTrue(players.get(1).isProgressHistoryLoaded());
+
+        List<PuzzleProgressSnapshot> history = lazy.getPuzzleProgressSnapshots();
+        assertTrue(lazy.isProgressHistoryLoaded());
+        assertEquals(1, history.size());
+        assertEquals(9, history.get(0).getPuzzleId());
+        assertEquals("q [x]", history.get(0).getQuestion());
+        assertEquals(2, lazy.getScoreDetails().getHintsUsed());
+    }
+
+    @Test
+    public void loadUsers_lazyHistoriesAreFoundByByteOffsetPastMultiByteText() throws Exception {
+        File jsonFile = temp.newFile("multibyte.json");
+        Player first = new Player("Zo\u00eb \u00e9\u00e8\u00ea \u6f22\u5b57 \ud83e\udde9", null, "pw");
+        first.replaceProgressHistory(List.of(new PuzzleProgressSnapshot(
+                1, "\u00bfQu\u00e9? \ud83e\udde9", "s\u00ed", "SOLVED", List.of("\u00fc"), LocalDateTime.of(2024, 1, 2, 3, 4))));
+        Player second = new Player("Plain", null, "pw");
+        second.replaceProgressHistory(List.of(new PuzzleProgressSnapshot(
+                2, "two", "dos", "SOLVED", List.of("b"), LocalDateTime.of(2024, 2, 3, 4, 5))));
+        assertTrue(DataWriter.saveUsers(List.of(first, second), jsonFile.getAbsolutePath()));
+
+        List<Player> loaded = DataLoader.loadUsers(jsonFile.getAbsolutePath(), true);
+        assertTrue(DataWriter.saveUsers(List.of(loaded.get(1), loaded.get(0)), jsonFile.getAbsolutePath()));
+        assertFalse(loaded.get(0).isProgressHistoryLoaded());
+
+        assertEquals("dos", loaded.get(1).getPuzzleProgressSnapshots().get(0).getAnswer());
+        PuzzleProgressSnapshot mixed = loaded.get(0).getPuzzleProgressSnapshots().get(0);
+        // Compared with an eager load, since the default charset may not hold every character.
+        PuzzleProgressSnapshot eager = DataLoader.loadUsers(jsonFile.getAbsolutePath(), false).get(1)
+                .getPuzzleProgressSnapshots().get(0);
+        assertEquals(eager.getQuestion(), mixed.getQuestion());
+        assertEquals(eager.getAnswer(), mixed.getAnswer());
+        assertEquals(eager.getHintsUsed(), mixed.getHintsUsed());
+    }
+
+    @Test
+    public void saveUsers_keepsDeferredHistoryWhenRewritingSameFile() throws Exception {
+        File jsonFile = temp.newFile("rewrite.json");
+        Player player = new Player("Keeper", null, "pw");
+        player.replaceProgressHistory(List.of(new PuzzleProgressSnapshot(
+                4, "riddle", "echo", "SOLVED", List.of("listen"), LocalDateTime.of(2024, 5, 6, 7, 8))));
+        DataWriter.saveUsers(List.of(player), jsonFile.getAbsolutePath());
+
+        List<Player> loaded = DataLoader.loadUsers(jsonFile.getAbsolutePath(), true);
+        assertFalse(loaded.get(0).isProgressHistoryLoaded());
+        assertTrue(DataWriter.saveUsers(loaded, jsonFile.getAbsolutePath()));
+
+        List<Player> reloaded = DataLoader.loadUsers(jsonFile.getAbsolutePath());
+        List<PuzzleProgressSnapshot> history = reloaded.get(0).getPuzzleProgressSnapshots();
+        assertEquals(1, history.size());
+        assertEquals("echo", history.get(0).getAnswer());
+        assertEquals(List.of("listen"), history.get(0).getHintsUsed());
+    }
+
+    @Test
+    public void saveUsers_copiesDeferredHistoriesWithoutLoadingThem() throws Exception {
+        File jsonFile = temp.newFile("compact.json");
+        Player first = new Player("First", null, "pw");
+        first.replaceProgressHistory(List.of(new PuzzleProgressSnapshot(
+                1, "one", "uno", "SOLVED", List.of("a"), LocalDateTime.of(2024, 1, 2, 3, 4))));
+        Player second = new Player("Second", null, "pw");
+        second.replaceProgressHistory(List.of(new PuzzleProgressSnapshot(
+                2, "two", "dos", "SOLVED", List.of("b", "c"), LocalDateTime.of(2024, 2, 3, 4, 5))));
+        DataWriter.saveUsers(List.of(first, second), jsonFile.getAbsolutePath());
+
+        List<Player> loaded = DataLoader.loadUsers(jsonFile.getAbsolutePath(), true);
+        Player newcomer = new Player("Newcomer", null, "pw");
+        // Written in a different order, so the histories move to new offsets.
+        assertTrue(DataWriter.saveUsers(List.of(newcomer, loaded.get(1), loaded.get(0)), jsonFile.getAbsolutePath()));
+        assertFalse(loaded.get(0).isProgressHistoryLoaded());
+        assertFalse(loaded.get(1).isProgressHistoryLoaded());
+
+        assertEquals("dos", loaded.get(1).getPuzzleProgressSnapshots().get(0).getAnswer());
+        assertEquals("uno", loaded.get(0).getPuzzleProgressSnapshots().get(0).getAnswer());
+        List<Player> reloaded = DataLoader.loadUsers(jsonFile.getAbsolutePath(), false);
+        assertEquals(3, reloaded.size());
+        assertEquals(List.of("b", "c"), reloaded.get(1).getPuzzleProgressSnapshots().get(0).getHintsUsed());
+        assertEquals("uno", reloaded.get(2).getPuzzleProgressSnapshots().get(0).getAnswer());
+    }
 }
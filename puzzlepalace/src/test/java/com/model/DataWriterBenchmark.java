@@ -0,0 +1,162 @@
+package com.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * This compares the reflective player serialization that DataWriter used to
+ * run against {@link PlayerCodec}. Both paths write to a discarding writer so
+ * only serialization cost is measured.
+ *
+ * Usage: {@code DataWriterBenchmark [playerCount ...]} (defaults to 10000 and 1000000).
+ */
+public class DataWriterBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    /**
+     * This runs the benchmark for each requested player count.
+     *
+     * @param args optional player counts
+     * @throws IOException if writing fails
+     */
+    public static void main(String[] args) throws IOException {
+        int[] counts = args.length == 0 ? new int[] {10_000, 1_000_000} : parseCounts(args);
+        for (int count : counts) {
+            List<Player> players = buildPlayers(count);
+            long reflective = measure(players, true);
+            long codec = measure(players, false);
+            System.out.printf("%,d players: reflective %,d ms, codec %,d ms (%.1fx)%n",
+                    count, reflective, codec, codec == 0 ? 0.0 : (double) reflective / codec);
+        }
+    }
+
+    private static long measure(List<Player> players, boolean reflective) throws IOException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            write(players, reflective);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            write(players, reflective);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1_000_000L;
+    }
+
+    private static void write(List<Player> players, boolean reflective) throws IOException {
+        Writer out = Writer.nullWriter();
+        out.write('[');
+        for (int i = 0; i < players.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            if (reflective) {
+                out.write(reflectiveJson(players.get(i)).toJSONString());
+            } else {
+                PlayerCodec.writePlayer(players.get(i), out);
+            }
+        }
+        out.write(']');
+    }
+
+    private static List<Player> buildPlayers(int count) {
+        List<Player> players = new ArrayList<>(count);
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < count; i++) {
+            Player player = new Player("player" + i, "player" + i + "@example.com", "pw" + i);
+            player.applyScoreData(i % 500, i % 7, i % 3, i % 900);
+            List<PuzzleProgressSnapshot> history = new ArrayList<>();
+            history.add(new PuzzleProgressSnapshot(2001, "(12 + 8) / 4 + 3^2 = ?", "14", "SOLVED",
+                    List.of("Work from the inside out"), timestamp));
+            history.add(new PuzzleProgressSnapshot(2006, "Unscramble T L G H I", "", "ATTEMPTED",
+                    List.of(), timestamp));
+            player.replaceProgressHistory(history);
+            players.add(player);
+        }
+        return players;
+    }
+
+    private static int[] parseCounts(String[] args) {
+        int[] counts = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            counts[i] = Integer.parseInt(args[i].replace("_", ""));
+        }
+        return counts;
+    }
+
+    /**
+     * This reproduces the previous reflective DataWriter path for comparison.
+     */
+    @SuppressWarnings("unchecked")
+    private static JSONObject reflectiveJson(Player p) {
+        String username = safeGetString(p, "getUsername", "username");
+        String email = safeGetString(p, "getEmail", "email");
+        String playerId = safeGetString(p, "getPlayerID", "playerID");
+        String passwordHash = safeGetString(p, "getPasswordHash", "passwordHash");
+        String guestFlag = safeGetString(p, "isGuest", "guest");
+
+        JSONObject playerObj = new JSONObject();
+        if (!playerId.isEmpty()) {
+            playerObj.put("playerID", playerId);
+        }
+        playerObj.put("username", username);
+        playerObj.put("email", email);
+        if (!passwordHash.isEmpty()) {
+            playerObj.put("passwordHash", passwordHash);
+        }
+        if (!guestFlag.isEmpty()) {
+            playerObj.put("isGuest", Boolean.parseBoolean(guestFlag));
+        }
+
+        Score score = p.getScoreDetails();
+        JSONObject scoreObj = new JSONObject();
+        scoreObj.put("points", score.getPoints());
+        scoreObj.put("puzzlesSolved", score.getPuzzlesSolved());
+        scoreObj.put("hintsUsed", score.getHintsUsed());
+        scoreObj.put("timeTaken", score.getTimeTaken());
+        playerObj.put("score", scoreObj);
+
+        JSONArray historyArray = new JSONArray();
+        for (PuzzleProgressSnapshot snapshot : p.getPuzzleProgressSnapshots()) {
+            JSONObject entry = new JSONObject();
+            entry.put("puzzleId", snapshot.getPuzzleId());
+            entry.put("question", snapshot.getQuestion());
+            entry.put("status", snapshot.getStatus());
+            entry.put("answer", snapshot.getAnswer());
+            entry.put("lastUpdated", snapshot.getLastUpdated().toString());
+            JSONArray hintsArray = new JSONArray();
+            hintsArray.addAll(snapshot.getHintsUsed());
+            entry.put("hintsUsed", hintsArray);
+            historyArray.add(entry);
+        }
+        playerObj.put("progressLog", historyArray);
+        return playerObj;
+    }
+
+    private static String safeGetString(Object obj, String methodName, String fieldName) {
+        try {
+            Method m = obj.getClass().getMethod(methodName);
+            Object val = m.invoke(obj);
+            return val == null ? "" : val.toString();
+        } catch (Exception ignored) {
+        }
+        try {
+            Field f = obj.getClass().getDeclaredField(fieldName);
+            f.setAccessible(true);
+            Object val = f.get(obj);
+            return val == null ? "" : val.toString();
+        } catch (Exception ignored) {
+        }
+        return "";
+    }
+}
@@ -9,10 +9,16 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.CRC32;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -27,6 +33,65 @@ public class DataWriterTest {
     @Rule
     public TemporaryFolder temp = new TemporaryFolder();
 
+    @Test
+    public void saveUsersReplacesFileAtomicallyAndRecordsChecksum() throws IOException {
+        File file = temp.newFile("users.json");
+        Files.writeString(file.toPath(), "[]");
+        Player player = new Player("Atomic", null, "pw");
+
+        assertTrue(DataWriter.saveUsers(Arrays.asList(player), file.getAbsolutePath()));
+
+        assertFalse(new File(file.getAbsolutePath() + ".tmp").exists());
+        String[] checksum = Files.readString(Path.of(DataWriter.checksumPathFor(file.getAbsolutePath()))).split(" ");
+        byte[] written = Files.readAllBytes(file.toPath());
+        CRC32 crc = new CRC32();
+        crc.update(written);
+        assertEquals(Long.toHexString(crc.getValue()), checksum[0]);
+        assertEquals(Integer.toString(written.length), checksum[1]);
+    }
+
+    @Test
+    public void loadUsersTrustsMatchingChecksumAndReconcilesOtherwise() throws IOException {
+        File file = temp.newFile("users.json");
+        String json = "[{\"username\":\"Ledger\",\"score\":{\"points\":1,\"puzzlesSolved\":0,\"hintsUsed\":0},"
+                + "\"progressLog\":[{\"puzzleId\":1,\"status\":\"SOLVED\",\"hintsUsed\":[\"h\"]}]}]";
+        Files.writeString(file.toPath(), json, Charset.defaultCharset());
+
+        Player unverified = DataLoader.loadUsers(file.getAbsolutePath()).get(0);
+        assertEquals(1, unverified.getScoreDetails().getPuzzlesSolved());
+        assertEquals(1, unverified.getScoreDetails().getHintsUsed());
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        Files.writeString(Path.of(DataWriter.checksumPathFor(file.getAbsolutePath())),
+                Long.toHexString(crc.getValue()) + " " + bytes.length);
+
+        Player trusted = DataLoader.loadUsers(file.getAbsolutePath()).get(0);
+        assertEquals(0, trusted.getScoreDetails().getPuzzlesSolved());
+        assertEquals(1, trusted.getPuzzleProgressSnapshots().size());
+    }
+
+    @Test
+    public void crashBetweenTheFileAndChecksumMovesFallsBackToReconciling() throws IOException {
+        File file = temp.newFile("users.json");
+        Player first = new Player("Ledger", null, "pw");
+        assertTrue(DataWriter.saveUsers(List.of(first), file.getAbsolutePath()));
+
+        // The next save's data file reached the disk but its checksum did not.
+        Player second = new Player("Ledger", null, "pw");
+        second.replaceProgressHistory(List.of(new PuzzleProgressSnapshot(
+                1, "q", "a", "SOLVED", List.of("h"), LocalDateTime.of(2024, 1, 2, 3, 4))));
+        File next = temp.newFile("next.json");
+        assertTrue(DataWriter.saveUsers(List.of(second), next.getAbsolutePath()));
+        Files.copy(next.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        Player loaded = DataLoader.loadUsers(file.getAbsolutePath()).get(0);
+        assertEquals(1, loaded.getPuzzleProgressSnapshots().size());
+        assertEquals(1, loaded.getScoreDetails().getPuzzlesSolved());
+        assertEquals(1, loaded.getScoreDetails().getHintsUsed());
+    }
+
     @Test
     public void saveUsersWritesFullPlayerDetailsIncludingScoreAndProgress() throws IOException, ParseException {
         Player player = new Player("Explorer", "explorer@example.com", "secret");
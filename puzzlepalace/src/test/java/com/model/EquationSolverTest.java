@@ -0,0 +1,64 @@
+package com.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class EquationSolverTest {
+
+    @Test
+    public void linearEquationsAreIsolated() {
+        EquationSolver.Solution solution = EquationSolver.solve("2*x + 3 = 11");
+        assertTrue(solution.isUnique());
+        assertEquals(4.0, solution.getValue(), 0.0);
+        assertEquals(3.8, EquationSolver.solve("(x + 4) * 3 - x / 2 = 5 * (x - 1) + 7.5").getValue(), 1e-9);
+
+        assertEquals(EquationSolver.Solution.Outcome.SEVERAL, EquationSolver.solve("2*x = x + x").getOutcome());
+        assertEquals(EquationSolver.Solution.Outcome.NONE, EquationSolver.solve("x + 1 = x").getOutcome());
+    }
+
+    @Test
+    public void otherEquationsAreSolvedNumerically() {
+        assertEquals(2.0, EquationSolver.solve("x^2 - 4*x + 4 = 0").getValue(), 0.0);
+        assertEquals(3.0, EquationSolver.solve("x^3 = 27").getValue(), 1e-9);
+        assertEquals(0.5, EquationSolver.solve("(2*x - 1)^2 = 0").getValue(), 1e-6);
+
+        assertEquals(EquationSolver.Solution.Outcome.SEVERAL, EquationSolver.solve("x^2 = 16").getOutcome());
+        assertEquals(EquationSolver.Solution.Outcome.NONE, EquationSolver.solve("x^2 + 1 = 0").getOutcome());
+    }
+
+    @Test
+    public void rootsWithinOneStepAreAllFound() {
+        EquationSolver.Solution pair = EquationSolver.solve("(x - 0.3) * (x - 0.6) = 0");
+        assertEquals(EquationSolver.Solution.Outcome.SEVERAL, pair.getOutcome());
+        assertTrue(pair.getProblem(), pair.getProblem().contains("0.3") && pair.getProblem().contains("0.6"));
+
+        EquationSolver.Solution three = EquationSolver.solve("(x - 2) * (x - 2.5) * (x - 7) = 0");
+        assertEquals(EquationSolver.Solution.Outcome.SEVERAL, three.getOutcome());
+        assertTrue(three.getProblem(), three.getProblem().contains("2.5"));
+
+        assertEquals(EquationSolver.Solution.Outcome.SEVERAL,
+                EquationSolver.solve("(x - 2) * (x - 2.3) * (x - 2.6) = 0").getOutcome());
+        assertEquals(0.45, EquationSolver.solve("(x - 0.45)^2 = 0").getValue(), 1e-6);
+    }
+
+    @Test
+    public void equationsWithoutOneVariableAreInvalid() {
+        assertEquals(EquationSolver.Solution.Outcome.INVALID, EquationSolver.solve("x + y = 3").getOutcome());
+        assertEquals(EquationSolver.Solution.Outcome.INVALID, EquationSolver.solve("1 + 2 = 3").getOutcome());
+        assertEquals(EquationSolver.Solution.Outcome.INVALID, EquationSolver.solve("x + 2").getOutcome());
+    }
+
+    @Test
+    public void solveAllSolvesEachDistinctEquation() {
+        Map<String, EquationSolver.Solution> solutions =
+                EquationSolver.solveAll(List.of("2*x + 3 = 11", "x^2 = 16", "2*x + 3 = 11"));
+        assertEquals(2, solutions.size());
+        assertEquals(4.0, solutions.get("2*x + 3 = 11").getValue(), 0.0);
+        assertEquals(EquationSolver.Solution.Outcome.SEVERAL, solutions.get("x^2 = 16").getOutcome());
+    }
+}
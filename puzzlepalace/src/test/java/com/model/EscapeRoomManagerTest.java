@@ -1,5 +1,8 @@
 package com.model;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -7,15 +10,21 @@ import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 
 public class EscapeRoomManagerTest {
 
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
     private EscapeRoomManager manager;
 
     @Before
@@ -84,4 +93,34 @@ public class EscapeRoomManagerTest {
         manager.addRoom(solvedRoom);
         assertTrue("Room with solved puzzle should be completed", manager.isRoomCompleted(id));
     }
+
+    @Test
+    public void loadRoomsFromFile_buildsRooms_and_saveRoomsToFile_writesThemBack() throws Exception {
+        File source = temp.newFile("rooms.json");
+        Files.writeString(source.toPath(), CatalogLoaderTest.ROOMS_JSON, StandardCharsets.UTF_8);
+
+        manager.loadRoomsFromFile(source.getPath());
+        assertEquals("Both rooms should be loaded", 2, manager.getTotalRooms());
+        assertNotNull("Catalog should be kept", manager.getCatalog());
+        EscapeRoom library = manager.getAllRooms().get(0);
+        assertEquals("Haunted Library", library.getName());
+        assertEquals("Every listed puzzle belongs to the room", 2, library.getPuzzles().size());
+        assertSame(library, manager.getRoom(library.getRoomID()));
+
+        File copy = new File(temp.getRoot(), "saved.json");
+        manager.saveRoomsToFile(copy.getPath());
+        manager.resetRooms();
+        manager.loadRoomsFromFile(copy.getPath());
+        assertEquals(2, manager.getTotalRooms());
+        assertEquals("Same ID should be derived again", library.getRoomID(), manager.getAllRooms().get(0).getRoomID());
+        assertEquals("book", manager.getCatalog().getPuzzle(1001).getAnswer());
+    }
+
+    @Test
+    public void loadRoomsFromFile_keepsRooms_whenFileIsInvalid() {
+        manager.addRoom(buildRoom(UUID.randomUUID()));
+        manager.loadRoomsFromFile(new File(temp.getRoot(), "missing.json").getPath());
+        assertEquals(1, manager.getTotalRooms());
+        assertNull(manager.getCatalog());
+    }
 }
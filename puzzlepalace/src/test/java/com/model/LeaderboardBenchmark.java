@@ -0,0 +1,87 @@
+package com.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * This measures {@link Leaderboard} with a large number of ranked players:
+ * the time to rank them all, score updates from several threads at once, and
+ * rank and top-10 queries made while those updates run. A full sort of the
+ * same scores is timed as the reference for ranking by sorting on every query.
+ *
+ * Usage: {@code LeaderboardBenchmark [playerCount [threads]]} (defaults to 1000000 and 4).
+ */
+public class LeaderboardBenchmark {
+
+    private static final int UPDATES_PER_THREAD = 250_000;
+    private static final int QUERIES = 200_000;
+
+    /**
+     * This runs the benchmark.
+     *
+     * @param args optional player count and number of updating threads
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0].replace("_", "")) : 1_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        UUID[] ids = new UUID[count];
+        SplittableRandom random = new SplittableRandom(21);
+        Leaderboard leaderboard = new Leaderboard();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            ids[i] = new UUID(random.nextLong(), random.nextLong());
+            leaderboard.update(ids[i], "player" + i, random.nextInt(5_000), random.nextInt(3_600));
+        }
+        long loadMillis = (System.nanoTime() - start) / 1_000_000L;
+
+        List<Thread> updaters = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom local = random.split();
+            updaters.add(new Thread(() -> {
+                for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                    int player = local.nextInt(count);
+                    leaderboard.update(ids[player], "player" + player, local.nextInt(5_000), local.nextInt(3_600));
+                }
+            }));
+        }
+        start = System.nanoTime();
+        updaters.forEach(Thread::start);
+
+        long queryStart = System.nanoTime();
+        long rankSum = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            rankSum += leaderboard.findUserRank(ids[(int) ((i * 2_654_435_761L) % count)]);
+        }
+        long rankNanos = (System.nanoTime() - queryStart) / QUERIES;
+
+        queryStart = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            rankSum += leaderboard.displayTopScores().size();
+        }
+        long topNanos = (System.nanoTime() - queryStart) / QUERIES;
+
+        for (Thread updater : updaters) {
+            updater.join();
+        }
+        long updateNanos = (System.nanoTime() - start) / Math.max(1L, (long) UPDATES_PER_THREAD * threads);
+
+        int[] scores = new int[count];
+        for (int i = 0; i < count; i++) {
+            scores[i] = random.nextInt(5_000);
+        }
+        start = System.nanoTime();
+        Arrays.sort(scores);
+        long sortMillis = (System.nanoTime() - start) / 1_000_000L;
+
+        if (rankSum <= 0 || leaderboard.size() != count) {
+            System.out.println("LeaderboardBenchmark: unexpected leaderboard state");
+        }
+        System.out.printf("%,d players: load %,d ms, %d threads updating %d ns/op, rank %d ns/op,"
+                + " top %d %d ns/op, full sort %,d ms%n", count, loadMillis, threads, updateNanos, rankNanos,
+                Leaderboard.DEFAULT_TOP, topNanos, sortMillis);
+    }
+}
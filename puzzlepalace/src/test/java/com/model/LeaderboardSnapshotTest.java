@@ -0,0 +1,86 @@
+package com.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LeaderboardSnapshotTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void snapshotReadsBackInRankOrder() throws Exception {
+        Leaderboard leaderboard = new Leaderboard();
+        for (int i = 0; i < 500; i++) {
+            leaderboard.update(new UUID(7, i), "player" + i, (i * 37) % 1_000, i % 60);
+        }
+        Path file = temp.getRoot().toPath().resolve("users.json" + LeaderboardSnapshot.FILE_SUFFIX);
+        assertTrue(leaderboard.writeSnapshot(file));
+        assertEquals(32 + 500L * LeaderboardSnapshot.RECORD_SIZE, Files.size(file));
+
+        LeaderboardSnapshot snapshot = LeaderboardSnapshot.open(file);
+        assertNotNull(snapshot);
+        assertEquals(500, snapshot.size());
+        assertEquals(leaderboard.displayTopScores().toString(), snapshot.topScores(Leaderboard.DEFAULT_TOP).toString());
+        Leaderboard.Entry entry = snapshot.getEntry(250);
+        Leaderboard.Entry live = leaderboard.entriesFrom(250, 1).get(0);
+        assertEquals(live.getPlayerId(), entry.getPlayerId());
+        assertEquals(live.getTimeTaken(), entry.getTimeTaken());
+        assertEquals(2, snapshot.entriesFrom(499, 10).size());
+        assertNull(snapshot.getEntry(501));
+    }
+
+    @Test
+    public void longNamesAreCutWithoutSplittingCharacters() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.update(new UUID(0, 1), "é".repeat(20), 10, 0);
+        leaderboard.update(new UUID(0, 2), "short", 5, 0);
+        Path file = temp.getRoot().toPath().resolve("names.ranks");
+        assertTrue(leaderboard.writeSnapshot(file));
+
+        List<Leaderboard.Entry> entries = LeaderboardSnapshot.open(file).topScores(5);
+        assertEquals("é".repeat(11), entries.get(0).getUsername());
+        assertEquals("short", entries.get(1).getUsername());
+    }
+
+    @Test
+    public void missingOrDamagedFilesAreIgnored() throws Exception {
+        Path file = temp.getRoot().toPath().resolve("bad.ranks");
+        assertNull(LeaderboardSnapshot.open(file));
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20,
+            21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32});
+        assertNull(LeaderboardSnapshot.open(file));
+    }
+
+    @Test
+    public void registrySavesASnapshotTheNextRunCanShow() throws Exception {
+        File users = temp.newFile("users.json");
+        SessionRegistry first = new SessionRegistry(users.getAbsolutePath());
+        Player created = first.createAccount("Snapper", "Passw0rd!");
+        created.awardBonusPoints(300);
+        first.getLeaderboard().addEntry(created);
+        first.close();
+
+        SessionRegistry second = new SessionRegistry(users.getAbsolutePath());
+        LeaderboardSnapshot snapshot = second.getLeaderboardSnapshot();
+        assertNotNull(snapshot);
+        assertEquals("Snapper", snapshot.getEntry(1).getUsername());
+        assertEquals(300, snapshot.getEntry(1).getScore());
+
+        second.getLeaderboard();
+        assertTrue(second.isLeaderboardReady());
+        assertEquals(second.getLeaderboard().displayTopScores(3).toString(), second.getTopScores(3).toString());
+    }
+}
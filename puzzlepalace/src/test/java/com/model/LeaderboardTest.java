@@ -1,16 +1,121 @@
 package com.model;
 
-import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class LeaderboardTest {
 
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static UUID id(int n) {
+        return new UUID(0, n);
+    }
+
     @Test
-    public void stubMethodsReturnDefaults() {
+    public void emptyLeaderboardHasNoRanks() {
         Leaderboard leaderboard = new Leaderboard();
 
-        leaderboard.addEntry();
-        assertNull(leaderboard.displayTopScores());
-        org.junit.Assert.assertEquals(0, leaderboard.findUserRank());
+        assertFalse(leaderboard.addEntry(null));
+        assertTrue(leaderboard.displayTopScores().isEmpty());
+        assertEquals(0, leaderboard.findUserRank(id(1)));
+    }
+
+    @Test
+    public void playersAreRankedByScoreThenTimeThenId() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.update(id(1), "slow", 300, 500);
+        leaderboard.update(id(2), "fast", 300, 200);
+        leaderboard.update(id(3), "best", 450, 900);
+        leaderboard.update(id(4), "twin", 300, 200);
+
+        assertEquals(List.of("best", "fast", "twin", "slow"),
+                leaderboard.displayTopScores().stream().map(Leaderboard.Entry::getUsername).toList());
+        assertEquals(4, leaderboard.findUserRank(id(1)));
+
+        leaderboard.update(id(1), "slow", 500, 500);
+        assertEquals(1, leaderboard.findUserRank(id(1)));
+        assertEquals(2, leaderboard.getEntry(id(3)).getRank());
+        assertEquals("twin", leaderboard.entriesFrom(4, 10).get(0).getUsername());
+
+        assertTrue(leaderboard.removeEntry(id(3)));
+        assertEquals(3, leaderboard.size());
+        assertEquals(3, leaderboard.findUserRank(id(4)));
+    }
+
+    @Test
+    public void ranksMatchASortedCopyAfterRandomUpdates() {
+        Leaderboard leaderboard = new Leaderboard();
+        int[] scores = new int[2_000];
+        Random random = new Random(3);
+        for (int round = 0; round < 20_000; round++) {
+            int player = random.nextInt(scores.length);
+            scores[player] = random.nextInt(1_000);
+            leaderboard.update(id(player), "p" + player, scores[player], 0);
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int player = 0; player < scores.length; player++) {
+            if (leaderboard.getEntry(id(player)) != null) {
+                expected.add(player);
+            }
+        }
+        expected.sort(Comparator.comparingInt((Integer p) -> -scores[p]).thenComparing(p -> id(p)));
+        for (int rank = 1; rank <= expected.size(); rank++) {
+            assertEquals(rank, leaderboard.findUserRank(id(expected.get(rank - 1))));
+        }
+        assertEquals(expected.size(), leaderboard.displayTopScores(Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    public void bulkLoadedLeaderboardRanksLikeOneBuiltAnEntryAtATime() {
+        Random random = new Random(5);
+        List<Leaderboard.Entry> entries = new ArrayList<>();
+        Leaderboard incremental = new Leaderboard();
+        for (int player = 0; player < 3_000; player++) {
+            int score = random.nextInt(50) * 10;
+            int time = random.nextInt(20);
+            entries.add(new Leaderboard.Entry(0, id(player), "p" + player, score, time));
+            incremental.update(id(player), "p" + player, score, time);
+        }
+        Leaderboard bulk = new Leaderboard();
+        bulk.replaceAll(entries);
+        bulk.update(id(7), "p7", 9_999, 0);
+        incremental.update(id(7), "p7", 9_999, 0);
+
+        assertEquals(incremental.size(), bulk.size());
+        for (int player = 0; player < 3_000; player++) {
+            assertEquals(incremental.findUserRank(id(player)), bulk.findUserRank(id(player)));
+        }
+        assertEquals(incremental.entriesFrom(1_500, 5).toString(), bulk.entriesFrom(1_500, 5).toString());
+    }
+
+    @Test
+    public void solvingAPuzzleMovesThePlayerUp() throws Exception {
+        SessionRegistry registry = new SessionRegistry(temp.newFile("users.json").getAbsolutePath());
+        GameSession session = registry.login("PlayerOne", "SecretPass1!");
+        Player player = session.getCurrentPlayer();
+        Leaderboard leaderboard = registry.getLeaderboard();
+        assertEquals(0, leaderboard.getEntry(player.getPlayerID()).getScore());
+
+        Puzzle puzzle = session.getActivePuzzle();
+        PuzzleDefinition definition = registry.getCatalog().getPuzzle(puzzle.getPuzzleId());
+        String answer = definition.getKind() == PuzzleDefinition.Kind.MATH
+                ? Double.toString(definition.getNumericAnswer()) : definition.getAnswer();
+        assertTrue(session.submitPuzzleAnswer(puzzle.getPuzzleId(), answer));
+
+        assertEquals(player.getScoreDetails().calculateScore(), leaderboard.getEntry(player.getPlayerID()).getScore());
+        assertTrue(leaderboard.getEntry(player.getPlayerID()).getScore() > 0);
+        assertEquals(1, leaderboard.findUserRank(player.getPlayerID()));
     }
-}
\ No newline at end of file
+}
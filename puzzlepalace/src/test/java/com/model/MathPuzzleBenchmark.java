@@ -0,0 +1,194 @@
+package com.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This compares the recursive-descent evaluator math puzzles used to run on
+ * every answer against {@link CompiledEquation}. The reference path strips
+ * whitespace, splits on {@code =} and re-parses both sides with boxed
+ * variables each time, as {@code MathPuzzle} and
+ * {@link MathPuzzleEvaluateSolution} did; the compiled path evaluates the
+ * cached postfix programs over a {@code double[]} of slot values. The same
+ * checks are then run as one columnar batch through {@link BatchAnswerVerifier}.
+ *
+ * Usage: {@code MathPuzzleBenchmark [checksPerRound]} (defaults to 2000000).
+ */
+public class MathPuzzleBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private static final String[] EQUATIONS = {
+        "2*x + 3 = 11",
+        "x^2 - 4*x + 4 = 0",
+        "(x + 4) * 3 - x / 2 = 5 * (x - 1) + 7.5",
+        "-(x - 10) ^ 2 + 3 * x = x * x / 4 - 12",
+    };
+
+    private static double sink;
+
+    /**
+     * This runs the benchmark.
+     *
+     * @param args optional number of answer checks per round
+     */
+    public static void main(String[] args) {
+        int checks = args.length > 0 ? Integer.parseInt(args[0].replace("_", "")) : 2_000_000;
+        CompiledEquation[] compiled = new CompiledEquation[EQUATIONS.length];
+        for (int i = 0; i < EQUATIONS.length; i++) {
+            compiled[i] = CompiledEquation.of(EQUATIONS[i]);
+        }
+
+        long legacy = measure(checks, i -> legacyCheck(EQUATIONS[i % EQUATIONS.length], Map.of("x", (double) (i & 15))));
+        double[] values = new double[1];
+        long compiledNanos = measure(checks, i -> {
+            values[0] = i & 15;
+            return compiled[i % EQUATIONS.length].isSatisfiedBy(values);
+        });
+        System.out.printf("%,d checks: recursive descent %.1f ns/op, compiled %.1f ns/op (%.1fx)%n",
+                checks, (double) legacy / checks, (double) compiledNanos / checks,
+                compiledNanos == 0 ? 0.0 : (double) legacy / compiledNanos);
+
+        BatchAnswerVerifier verifier = new BatchAnswerVerifier(Arrays.asList(EQUATIONS));
+        int[] ids = new int[checks];
+        double[] answers = new double[checks];
+        for (int i = 0; i < checks; i++) {
+            ids[i] = i % EQUATIONS.length;
+            answers[i] = i & 15;
+        }
+        long batch = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            sink += verifier.verify(ids, answers).cardinality();
+            if (round >= WARMUP_ROUNDS) {
+                batch = Math.min(batch, System.nanoTime() - start);
+            }
+        }
+        System.out.printf("%,d checks: batch verifier %.1f ns/op on %d threads%n",
+                checks, (double) batch / checks, ForkJoinPool.commonPool().getParallelism());
+        System.out.println("MathPuzzleBenchmark: " + (long) sink + " checks satisfied");
+    }
+
+    private interface Check {
+        boolean run(int index);
+    }
+
+    private static long measure(int checks, Check check) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            int satisfied = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < checks; i++) {
+                if (check.run(i)) {
+                    satisfied++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            sink += satisfied;
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * This is the answer check math puzzles ran before equations were compiled.
+     */
+    private static boolean legacyCheck(String equation, Map<String, Double> variables) {
+        String[] sides = equation.split("=");
+        if (sides.length != 2) {
+            return false;
+        }
+        double left = new LegacyParser(sides[0].replaceAll("\\s+", ""), variables).parseExpression();
+        double right = new LegacyParser(sides[1].replaceAll("\\s+", ""), variables).parseExpression();
+        return Math.abs(left - right) < 1e-6;
+    }
+
+    private static final class LegacyParser {
+        private final String input;
+        private final Map<String, Double> vars;
+        private int pos = -1;
+        private int ch;
+
+        LegacyParser(String input, Map<String, Double> vars) {
+            this.input = input;
+            this.vars = vars;
+            nextChar();
+        }
+
+        void nextChar() {
+            ch = (++pos < input.length()) ? input.charAt(pos) : -1;
+        }
+
+        boolean eat(int charToEat) {
+            while (ch == ' ') {
+                nextChar();
+            }
+            if (ch == charToEat) {
+                nextChar();
+                return true;
+            }
+            return false;
+        }
+
+        double parseExpression() {
+            double x = parseTerm();
+            for (;;) {
+                if (eat('+')) {
+                    x += parseTerm();
+                } else if (eat('-')) {
+                    x -= parseTerm();
+                } else {
+                    return x;
+                }
+            }
+        }
+
+        double parseTerm() {
+            double x = parseFactor();
+            for (;;) {
+                if (eat('*')) {
+                    x *= parseFactor();
+                } else if (eat('/')) {
+                    x /= parseFactor();
+                } else {
+                    return x;
+                }
+            }
+        }
+
+        double parseFactor() {
+            if (eat('+')) {
+                return parseFactor();
+            }
+            if (eat('-')) {
+                return -parseFactor();
+            }
+            double x;
+            int startPos = this.pos;
+            if (eat('(')) {
+                x = parseExpression();
+                eat(')');
+            } else if ((ch >= '0' && ch <= '9') || ch == '.') {
+                while ((ch >= '0' && ch <= '9') || ch == '.') {
+                    nextChar();
+                }
+                x = Double.parseDouble(input.substring(startPos, this.pos));
+            } else if (Character.isLetter(ch)) {
+                while (Character.isLetterOrDigit(ch)) {
+                    nextChar();
+                }
+                x = vars.getOrDefault(input.substring(startPos, this.pos), 0.0);
+            } else {
+                throw new RuntimeException("Unexpected: " + (char) ch);
+            }
+            if (eat('^')) {
+                x = Math.pow(x, parseFactor());
+            }
+            return x;
+        }
+    }
+}
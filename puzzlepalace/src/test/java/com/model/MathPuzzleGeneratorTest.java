@@ -0,0 +1,77 @@
+package com.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class MathPuzzleGeneratorTest {
+
+    /** Returns the expression shown in a generated prompt, written with the operators equations use. */
+    private static String expressionOf(PuzzleDefinition puzzle) {
+        String prompt = puzzle.getPrompt();
+        return prompt.substring(prompt.indexOf(": ") + 2, prompt.indexOf(" = ?")).replace('×', '*');
+    }
+
+    @Test
+    public void theSameSeedReproducesThePuzzles() {
+        MathPuzzleGenerator generator = new MathPuzzleGenerator(42);
+        PuzzleDefinition first = generator.generate(Settings.Difficulty.MEDIUM, 7);
+        PuzzleDefinition again = new MathPuzzleGenerator(42).generate(Settings.Difficulty.MEDIUM, 7);
+
+        assertEquals(first.getPrompt(), again.getPrompt());
+        assertEquals(first.getHints(), again.getHints());
+        assertEquals(MathPuzzleGenerator.FIRST_PUZZLE_ID + MathPuzzleGenerator.IDS_PER_DIFFICULTY + 7,
+                first.getPuzzleId());
+        assertNotEquals(first.getPrompt(), new MathPuzzleGenerator(43).generate(Settings.Difficulty.MEDIUM, 7).getPrompt());
+
+        PuzzleDefinition[] pool = generator.pool(Settings.Difficulty.HARD, 20_000);
+        assertEquals(generator.generate(Settings.Difficulty.HARD, 12_345).getPrompt(), pool[12_345].getPrompt());
+    }
+
+    @Test
+    public void answersAreWholeNumbersThatMatchTheExpression() {
+        MathPuzzleGenerator generator = new MathPuzzleGenerator(2024);
+        for (Settings.Difficulty difficulty : Settings.Difficulty.values()) {
+            for (PuzzleDefinition puzzle : generator.pool(difficulty, 2_000)) {
+                double answer = puzzle.getNumericAnswer();
+                assertEquals(Math.rint(answer), answer, 0.0);
+                assertTrue(answer >= 0);
+                String equation = expressionOf(puzzle) + " = " + (long) answer;
+                assertTrue(equation, CompiledEquation.compile(equation).isSatisfiedBy(new double[0]));
+                assertTrue(puzzle.newPuzzle().trySolve(Long.toString((long) answer)));
+            }
+        }
+    }
+
+    @Test
+    public void profilesLimitTheOperators() {
+        MathPuzzleGenerator generator = new MathPuzzleGenerator(7);
+        for (PuzzleDefinition puzzle : generator.pool(Settings.Difficulty.EASY, 500)) {
+            String expression = expressionOf(puzzle);
+            assertFalse(expression, expression.matches(".*[*/^(].*"));
+            assertEquals(1, puzzle.getHints().size());
+        }
+        PuzzleDefinition hard = generator.generate(Settings.Difficulty.HARD, 3);
+        List<String> hints = hard.getHints();
+        assertTrue(hints.get(hints.size() - 1).startsWith("Finish with "));
+        assertFalse(hints.get(hints.size() - 1).contains(" = "));
+    }
+
+    @Test
+    public void extendAddsGeneratedCandidatesToMathRooms() {
+        PuzzleCatalog builtIn = PuzzleCatalog.builtIn();
+        PuzzleCatalog extended = new MathPuzzleGenerator(1).extend(builtIn, 10);
+
+        assertEquals(builtIn.getPuzzleCount() + 3 * 10, extended.getPuzzleCount());
+        RoomDefinition gate = extended.getRooms(Settings.Difficulty.EASY).get(0);
+        assertEquals("math-gate", gate.getRoomId());
+        assertEquals(15, gate.getCandidates().size());
+        assertEquals(5, extended.getRooms(Settings.Difficulty.EASY).get(1).getCandidates().size());
+    }
+}
@@ -0,0 +1,63 @@
+package com.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.Test;
+
+public class PlayerCodecTest {
+
+    @Test
+    public void writePlayerProducesJsonReadableByDataLoader() throws Exception {
+        Player player = new Player("Quoted \"Name\"", "line\nbreak@example.com", "pw");
+        player.applyScoreData(12, 1, 2, 30);
+        LocalDateTime timestamp = LocalDateTime.of(2024, 3, 4, 5, 6, 7);
+        player.replaceProgressHistory(Arrays.asList(new PuzzleProgressSnapshot(
+                7, "Path C:\\vault\\door", "answer\tone", "SOLVED", Arrays.asList("bell\u0007hint"), timestamp)));
+
+        StringWriter out = new StringWriter();
+        PlayerCodec.writePlayer(player, out);
+        JSONObject parsed = (JSONObject) new JSONParser().parse(out.toString());
+
+        assertEquals(player.getPlayerID().toString(), parsed.get("playerID"));
+        assertEquals("Quoted \"Name\"", parsed.get("username"));
+        assertEquals("line\nbreak@example.com", parsed.get("email"));
+        assertFalse((Boolean) parsed.get("isGuest"));
+        JSONObject score = (JSONObject) parsed.get("score");
+        assertEquals(12L, score.get("points"));
+        assertEquals(30L, score.get("timeTaken"));
+
+        JSONObject entry = (JSONObject) ((JSONArray) parsed.get("progressLog")).get(0);
+        assertEquals("Path C:\\vault\\door", entry.get("question"));
+        assertEquals("answer\tone", entry.get("answer"));
+        assertEquals(timestamp.toString(), entry.get("lastUpdated"));
+        assertEquals("bell\u0007hint", ((JSONArray) entry.get("hintsUsed")).get(0));
+
+        Player restored = DataLoader.parsePlayer(parsed);
+        assertEquals(player.getPlayerID(), restored.getPlayerID());
+        List<PuzzleProgressSnapshot> history = restored.getPuzzleProgressSnapshots();
+        assertEquals(1, history.size());
+        assertEquals(timestamp, history.get(0).getLastUpdated());
+    }
+
+    @Test
+    public void writePlayerOmitsPasswordHashForGuests() throws Exception {
+        Player guest = new Player();
+        StringWriter out = new StringWriter();
+        PlayerCodec.writePlayer(guest, out);
+        JSONObject parsed = (JSONObject) new JSONParser().parse(out.toString());
+
+        assertNull(parsed.get("passwordHash"));
+        assertEquals(Boolean.TRUE, parsed.get("isGuest"));
+        assertEquals("", parsed.get("email"));
+    }
+}
@@ -0,0 +1,97 @@
+package com.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * This measures {@link PlayerManager} bulk registration and lookups by
+ * username and UUID. A linear scan over the same players is timed for a
+ * small sample of lookups as the reference for the old list-backed manager.
+ *
+ * Usage: {@code PlayerManagerBenchmark [playerCount ...]} (defaults to 100000 and 1000000).
+ */
+public class PlayerManagerBenchmark {
+
+    private static final int LOOKUPS = 1_000_000;
+    private static final int SCAN_LOOKUPS = 200;
+
+    /**
+     * This runs the benchmark for each requested player count.
+     *
+     * @param args optional player counts
+     */
+    public static void main(String[] args) {
+        int[] counts = args.length == 0 ? new int[] {100_000, 1_000_000} : parseCounts(args);
+        for (int count : counts) {
+            List<Player> players = buildPlayers(count);
+
+            PlayerManager manager = new PlayerManager();
+            long start = System.nanoTime();
+            for (Player player : players) {
+                manager.addPlayer(player);
+            }
+            long loadMillis = (System.nanoTime() - start) / 1_000_000L;
+
+            long byName = timeLookups(count, i -> manager.getPlayerByUsername("PLAYER" + i));
+            long byId = timeLookups(count, i -> manager.getPlayerById(players.get(i).getPlayerID()));
+            double scan = timeLinearScan(players);
+
+            System.out.printf("%,d players: load %,d ms, username lookup %d ns/op, id lookup %d ns/op,"
+                    + " linear scan %,.0f ns/op%n", count, loadMillis, byName, byId, scan);
+        }
+    }
+
+    private interface Lookup {
+        Player find(int index);
+    }
+
+    private static long timeLookups(int count, Lookup lookup) {
+        long misses = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (lookup.find((int) ((i * 2_654_435_761L) % count)) == null) {
+                misses++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (misses > 0) {
+            System.out.println("PlayerManagerBenchmark: " + misses + " lookups missed");
+        }
+        return elapsed / LOOKUPS;
+    }
+
+    private static double timeLinearScan(List<Player> players) {
+        long start = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < SCAN_LOOKUPS; i++) {
+            UUID target = players.get((int) ((i * 2_654_435_761L) % players.size())).getPlayerID();
+            for (Player p : players) {
+                if (target.equals(p.getPlayerID())) {
+                    found++;
+                    break;
+                }
+            }
+        }
+        if (found != SCAN_LOOKUPS) {
+            System.out.println("PlayerManagerBenchmark: linear scan missed players");
+        }
+        return (System.nanoTime() - start) / (double) SCAN_LOOKUPS;
+    }
+
+    private static List<Player> buildPlayers(int count) {
+        List<Player> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            players.add(new Player("player" + i, null, "pw" + i));
+        }
+        return players;
+    }
+
+    private static int[] parseCounts(String[] args) {
+        int[] counts = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            counts[i] = Integer.parseInt(args[i].replace("_", ""));
+        }
+        return counts;
+    }
+}
@@ -1,13 +1,20 @@
 package com.model;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import org.junit.Rule;
@@ -96,4 +103,64 @@ public class PlayerManagerTest {
         manager.removePlayer(playerToRemove);
         assertNull(manager.getPlayerById(id));
     }
+
+    @Test
+    public void usernameIndexFollowsRenamesAndRemovals() {
+        PlayerManager manager = new PlayerManager();
+        Player player = new Player("Quinn", null, "pw");
+        manager.addPlayer(player);
+
+        player.setUsername("Rowan");
+        assertNull(manager.getPlayerByUsername("quinn"));
+        assertEquals(player, manager.getPlayerByUsername("  ROWAN "));
+        assertTrue(manager.addPlayer(new Player("Quinn", null, "pw")));
+
+        assertTrue(manager.removePlayer(player));
+        assertNull(manager.getPlayerByUsername("Rowan"));
+        assertNull(manager.getPlayerById(player.getPlayerID()));
+        player.setUsername("Sage");
+        assertNull(manager.getPlayerByUsername("Sage"));
+    }
+
+    @Test
+    public void getAllPlayersReusesSnapshotUntilPlayersChange() {
+        PlayerManager manager = new PlayerManager();
+        manager.addPlayer(new Player("First", null, "pw"));
+
+        List<Player> before = manager.getAllPlayers();
+        assertSame(before, manager.getAllPlayers());
+
+        manager.addPlayer(new Player("Second", null, "pw"));
+        List<Player> after = manager.getAllPlayers();
+        assertEquals(1, before.size());
+        assertEquals(2, after.size());
+        assertEquals("Second", after.get(1).getUsername());
+    }
+
+    @Test
+    public void concurrentAddsKeepUsernamesUnique() throws Exception {
+        PlayerManager manager = new PlayerManager();
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String name = i % 2 == 0 ? "Shared" : "shared";
+            results.add(pool.submit(() -> {
+                start.await();
+                return manager.addPlayer(new Player(name, null, "pw"));
+            }));
+        }
+        start.countDown();
+        int added = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(5, TimeUnit.SECONDS)) {
+                added++;
+            }
+        }
+        pool.shutdown();
+
+        assertEquals(1, added);
+        assertEquals(1, manager.getAllPlayers().size());
+    }
 }
@@ -0,0 +1,104 @@
+package com.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PlayerStoreTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void savePlayerAppendsToJournalWithoutRewritingSnapshot() throws Exception {
+        File snapshot = temp.newFile("users.json");
+        PlayerManager manager = new PlayerManager();
+        Player existing = new Player("Existing", null, "pw");
+        manager.addPlayer(existing);
+        DataWriter.saveUsers(manager.getAllPlayers(), snapshot.getAbsolutePath());
+        long snapshotLength = snapshot.length();
+
+        PlayerStore store = new PlayerStore(snapshot.getAbsolutePath(), manager);
+        Player added = new Player("Added", null, "pw");
+        manager.addPlayer(added);
+        assertTrue(store.savePlayer(added));
+
+        assertEquals(snapshotLength, snapshot.length());
+        assertEquals(1, store.getJournalEntryCount());
+
+        List<Player> loaded = DataLoader.loadUsers(snapshot.getAbsolutePath());
+        assertEquals(2, loaded.size());
+        assertEquals(added.getPlayerID(), loaded.get(1).getPlayerID());
+    }
+
+    @Test
+    public void replayKeepsNewestRecordForEachPlayer() throws Exception {
+        File snapshot = temp.newFile("users.json");
+        PlayerManager manager = new PlayerManager();
+        Player player = new Player("Riley", null, "pw");
+        manager.addPlayer(player);
+        DataWriter.saveUsers(manager.getAllPlayers(), snapshot.getAbsolutePath());
+
+        PlayerStore store = new PlayerStore(snapshot.getAbsolutePath(), manager);
+        player.awardBonusPoints(40);
+        store.savePlayer(player);
+        player.awardBonusPoints(60);
+        store.savePlayer(player);
+
+        List<Player> loaded = DataLoader.loadUsers(snapshot.getAbsolutePath());
+        assertEquals(1, loaded.size());
+        assertEquals(player.getPlayerID(), loaded.get(0).getPlayerID());
+        assertEquals(100, loaded.get(0).getScoreDetails().getPoints());
+    }
+
+    @Test
+    public void compactFoldsJournalIntoSnapshot() throws Exception {
+        File snapshot = temp.newFile("users.json");
+        PlayerManager manager = new PlayerManager();
+        PlayerStore store = new PlayerStore(snapshot.getAbsolutePath(), manager);
+        Player player = new Player("Morgan", null, "pw");
+        manager.addPlayer(player);
+        store.savePlayer(player);
+
+        store.compact();
+
+        assertEquals(0, store.getJournalEntryCount());
+        assertFalse(new File(PlayerStore.journalPathFor(snapshot.getAbsolutePath())).exists());
+        List<Player> loaded = DataLoader.loadUsers(snapshot.getAbsolutePath());
+        assertEquals(1, loaded.size());
+        assertEquals("Morgan", loaded.get(0).getUsername());
+    }
+
+    @Test
+    public void compactKeepsJournalLeftByFailedCompaction() throws Exception {
+        File snapshot = temp.newFile("users.json");
+        String path = snapshot.getAbsolutePath();
+        PlayerManager manager = new PlayerManager();
+        PlayerStore store = new PlayerStore(path, manager);
+        Player leftOver = new Player("LeftOver", null, "pw");
+        assertTrue(DataWriter.appendUser(leftOver, PlayerStore.compactingPathFor(path)));
+        Player saved = new Player("Saved", null, "pw");
+        manager.addPlayer(saved);
+        store.savePlayer(saved);
+
+        // Block the snapshot write so this compaction fails too.
+        File blocker = new File(path + ".tmp");
+        assertTrue(blocker.mkdir());
+        store.compact();
+        assertEquals(0, snapshot.length());
+        blocker.delete();
+
+        assertFalse(new File(PlayerStore.journalPathFor(path)).exists());
+        List<Player> loaded = DataLoader.loadUsers(path);
+        assertEquals(2, loaded.size());
+        assertEquals("LeftOver", loaded.get(0).getUsername());
+        assertEquals("Saved", loaded.get(1).getUsername());
+    }
+}
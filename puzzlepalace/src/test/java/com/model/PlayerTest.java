@@ -75,6 +75,24 @@ public class PlayerTest {
         assertEquals(1, player.getScoreDetails().getHintsUsed());
     }
 
+    @Test
+    public void recordHintUsed_keepsRunningTotalAcrossReplacedHistory() {
+        Player player = new Player("Gwen", "g@example.com", "pw");
+        player.replaceProgressHistory(List.of(
+                new PuzzleProgressSnapshot(1, "q", "", "ATTEMPTED", List.of("a", "b"), null),
+                new PuzzleProgressSnapshot(2, "q", "", "ATTEMPTED", List.of("c"), null),
+                new PuzzleProgressSnapshot(2, "q", "", "ATTEMPTED", List.of("d", "e", "f"), null)));
+        assertEquals(5, player.getTotalHintsUsedFromHistory());
+
+        player.recordHintUsed(new SolvablePuzzle(2, "open"), "g");
+        player.recordHintUsed(new SolvablePuzzle(9, "open"), "h");
+        assertEquals(7, player.getTotalHintsUsedFromHistory());
+        assertEquals(7, player.getScoreDetails().getHintsUsed());
+
+        player.replaceProgressHistory(null);
+        assertEquals(0, player.getTotalHintsUsedFromHistory());
+    }
+
     @Test
     public void tokenAndFreezeTimer_managementWorks() {
         Player player = new Player("Fran", "f@example.com", "pw");
@@ -0,0 +1,234 @@
+package com.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ProgressStoreTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void writeThenReopenRestoresRecord() throws Exception {
+        File dir = temp.newFolder("data");
+        UUID owner = UUID.randomUUID();
+        ProgressStore store = ProgressStore.forDirectory(dir.getPath());
+
+        ProgressStore.Record record = new ProgressStore.Record();
+        record.currentRoom = 3;
+        record.timer = 45_000L;
+        record.completed = true;
+        record.hintsUsed = 1;
+        record.startTime = LocalDateTime.of(2024, 2, 3, 4, 5, 6, 789);
+        record.scorePoints = 120;
+        record.scoreFreeHintTokens = 2;
+        record.availableHints.addAll(List.of("first", "zweite ü"));
+        assertTrue(store.write(owner, record));
+        store.close();
+
+        ProgressStore reopened = ProgressStore.forDirectory(dir.getPath());
+        ProgressStore.Record loaded = reopened.read(owner);
+        assertEquals(3, loaded.currentRoom);
+        assertEquals(45_000L, loaded.timer);
+        assertTrue(loaded.completed);
+        assertEquals(record.startTime, loaded.startTime);
+        assertNull(loaded.endTime);
+        assertEquals(120, loaded.scorePoints);
+        assertEquals(2, loaded.scoreFreeHintTokens);
+        assertEquals(List.of("first", "zweite ü"), loaded.availableHints);
+        assertNull(reopened.read(UUID.randomUUID()));
+        reopened.close();
+    }
+
+    @Test
+    public void rewritingRecordUpdatesInPlace() throws Exception {
+        File dir = temp.newFolder("data");
+        UUID owner = UUID.randomUUID();
+        ProgressStore store = ProgressStore.forDirectory(dir.getPath());
+
+        ProgressStore.Record record = new ProgressStore.Record();
+        record.availableHints.add("same");
+        store.write(owner, record);
+        long hintsLength = new File(dir, ProgressStore.HINTS_FILE).length();
+
+        record.scorePoints = 50;
+        store.write(owner, record);
+
+        assertEquals(1, store.size());
+        assertEquals(50, store.read(owner).scorePoints);
+        assertEquals(hintsLength, new File(dir, ProgressStore.HINTS_FILE).length());
+        store.close();
+    }
+
+    @Test
+    public void openImportsLegacyFilesWithoutOverwritingRecords() throws Exception {
+        File dir = temp.newFolder("data");
+        UUID legacyOnly = UUID.randomUUID();
+        UUID alreadyStored = UUID.randomUUID();
+
+        ProgressStore store = ProgressStore.forDirectory(dir.getPath());
+        ProgressStore.Record existing = new ProgressStore.Record();
+        existing.scorePoints = 999;
+        store.write(alreadyStored, existing);
+        store.close();
+
+        Files.writeString(new File(dir, "progress-" + legacyOnly + ".txt").toPath(),
+                "currentRoom=2\ntimer=1500\ncompleted=true\nscorePoints=40\navailableHints=A || B\n");
+        Files.writeString(new File(dir, "progress-" + alreadyStored + ".txt").toPath(), "scorePoints=1\n");
+        Files.writeString(new File(dir, "progress-default.txt").toPath(), "currentRoom=7\n");
+
+        ProgressStore reopened = ProgressStore.forDirectory(dir.getPath());
+        ProgressStore.Record imported = reopened.read(legacyOnly);
+        assertEquals(2, imported.currentRoom);
+        assertEquals(1500L, imported.timer);
+        assertEquals(40, imported.scorePoints);
+        assertEquals(List.of("A", "B"), imported.availableHints);
+        assertEquals(999, reopened.read(alreadyStored).scorePoints);
+        assertEquals(7, reopened.read(null).currentRoom);
+        assertFalse(reopened.contains(UUID.randomUUID()));
+        assertTrue(new File(dir, "progress-" + legacyOnly + ".txt").exists());
+        reopened.close();
+    }
+
+    @Test
+    public void damagedRecordIsTreatedAsMissing() throws Exception {
+        File dir = temp.newFolder("data");
+        UUID owner = UUID.randomUUID();
+        ProgressStore store = ProgressStore.forDirectory(dir.getPath());
+        ProgressStore.Record record = new ProgressStore.Record();
+        record.scorePoints = 10;
+        store.write(owner, record);
+        store.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(new File(dir, ProgressStore.STORE_FILE), "rw")) {
+            file.seek(16 + 64);
+            file.writeInt(9999);
+        }
+
+        ProgressStore reopened = ProgressStore.forDirectory(dir.getPath());
+        assertTrue(reopened.contains(owner));
+        assertNull(reopened.read(owner));
+        reopened.close();
+    }
+
+    @Test
+    public void unreadableHintListIsTreatedAsEmpty() throws Exception {
+        File dir = temp.newFolder("data");
+        UUID truncated = UUID.randomUUID();
+        UUID mangled = UUID.randomUUID();
+        ProgressStore store = ProgressStore.forDirectory(dir.getPath());
+        ProgressStore.Record record = new ProgressStore.Record();
+        record.scorePoints = 30;
+        record.availableHints.add("kept only while readable");
+        store.write(mangled, record);
+        long mangledEnd = new File(dir, ProgressStore.HINTS_FILE).length();
+        record.availableHints.add("second");
+        store.write(truncated, record);
+        store.close();
+
+        try (RandomAccessFile hints = new RandomAccessFile(new File(dir, ProgressStore.HINTS_FILE), "rw")) {
+            hints.seek(Integer.BYTES);
+            hints.writeInt(-5);
+            hints.setLength(mangledEnd);
+        }
+
+        ProgressStore reopened = ProgressStore.forDirectory(dir.getPath());
+        assertEquals(30, reopened.read(truncated).scorePoints);
+        assertTrue(reopened.read(truncated).availableHints.isEmpty());
+        assertEquals(30, reopened.read(mangled).scorePoints);
+        assertTrue(reopened.read(mangled).availableHints.isEmpty());
+        reopened.close();
+    }
+
+    @Test
+    public void compactKeepsOnlyTheHintListsInUse() throws Exception {
+        File dir = temp.newFolder("data");
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        File hintsFile = new File(dir, ProgressStore.HINTS_FILE);
+        ProgressStore store = ProgressStore.forDirectory(dir.getPath());
+        ProgressStore.Record record = new ProgressStore.Record();
+        for (int i = 0; i < 50; i++) {
+            record.availableHints.clear();
+            record.availableHints.add("hint " + i);
+            store.write(first, record);
+        }
+        record.availableHints.clear();
+        record.availableHints.addAll(List.of("a", "b"));
+        store.write(second, record);
+        long grown = hintsFile.length();
+
+        assertTrue(store.compact());
+        assertTrue(hintsFile.length() < grown);
+        assertEquals(List.of("hint 49"), store.read(first).availableHints);
+        assertEquals(List.of("a", "b"), store.read(second).availableHints);
+        store.close();
+
+        ProgressStore reopened = ProgressStore.forDirectory(dir.getPath());
+        assertEquals(List.of("hint 49"), reopened.read(first).availableHints);
+        assertEquals(List.of("a", "b"), reopened.read(second).availableHints);
+        assertFalse(new File(dir, ProgressStore.COMPACTING_FILE).exists());
+        reopened.close();
+    }
+
+    @Test
+    public void compactionCutShortAfterTheSwapIsFinishedOnReopen() throws Exception {
+        File dir = temp.newFolder("data");
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        ProgressStore store = ProgressStore.forDirectory(dir.getPath());
+        ProgressStore.Record record = new ProgressStore.Record();
+        for (int i = 0; i < 50; i++) {
+            record.availableHints.clear();
+            record.availableHints.add("hint " + i);
+            store.write(first, record);
+            store.write(second, record);
+        }
+        record.availableHints.clear();
+        record.availableHints.addAll(List.of("a", "b"));
+        store.write(second, record);
+
+        // The new hints file is in place but no record points into it yet.
+        assertTrue(store.replaceHintsFile());
+        assertTrue(new File(dir, ProgressStore.REMAP_FILE).exists());
+        store.close();
+
+        ProgressStore reopened = ProgressStore.forDirectory(dir.getPath());
+        assertEquals(List.of("hint 49"), reopened.read(first).availableHints);
+        assertEquals(List.of("a", "b"), reopened.read(second).availableHints);
+        assertFalse(new File(dir, ProgressStore.REMAP_FILE).exists());
+        reopened.close();
+    }
+
+    @Test
+    public void compactionCutShortBeforeTheSwapIsDropped() throws Exception {
+        File dir = temp.newFolder("data");
+        UUID owner = UUID.randomUUID();
+        ProgressStore store = ProgressStore.forDirectory(dir.getPath());
+        ProgressStore.Record record = new ProgressStore.Record();
+        record.availableHints.add("kept");
+        store.write(owner, record);
+        store.close();
+        Files.write(new File(dir, ProgressStore.COMPACTING_FILE).toPath(), new byte[] {1, 2, 3});
+        Files.write(new File(dir, ProgressStore.REMAP_FILE).toPath(), new byte[] {0, 0, 0, 1, 0, 0, 0, 0});
+
+        ProgressStore reopened = ProgressStore.forDirectory(dir.getPath());
+        assertEquals(List.of("kept"), reopened.read(owner).availableHints);
+        assertFalse(new File(dir, ProgressStore.COMPACTING_FILE).exists());
+        assertFalse(new File(dir, ProgressStore.REMAP_FILE).exists());
+        reopened.close();
+    }
+}
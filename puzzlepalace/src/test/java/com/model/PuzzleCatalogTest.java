@@ -0,0 +1,70 @@
+package com.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PuzzleCatalogTest {
+
+    @Test
+    public void builtInCatalogIsSharedAndIndexesEveryCandidate() {
+        PuzzleCatalog catalog = PuzzleCatalog.builtIn();
+        assertSame(catalog, PuzzleCatalog.builtIn());
+        assertEquals(45, catalog.getPuzzleCount());
+        for (Settings.Difficulty difficulty : Settings.Difficulty.values()) {
+            List<RoomDefinition> rooms = catalog.getRooms(difficulty);
+            assertEquals(3, rooms.size());
+            for (RoomDefinition room : rooms) {
+                assertEquals(difficulty, room.getDifficulty());
+                assertEquals(5, room.getCandidates().size());
+            }
+        }
+        PuzzleDefinition light = catalog.getPuzzle(2006);
+        assertEquals(PuzzleDefinition.Kind.TEXT, light.getKind());
+        assertEquals("light", light.getAnswer());
+    }
+
+    @Test
+    public void sessionsGetTheirOwnPuzzleStateOverSharedContent() {
+        PuzzleCatalog catalog = PuzzleCatalog.builtIn();
+        List<Room> first = catalog.createRooms(Settings.Difficulty.EASY, new Random(3));
+        List<Room> second = catalog.createRooms(Settings.Difficulty.EASY, new Random(3));
+
+        Puzzle a = first.get(0).getPuzzles().get(0);
+        Puzzle b = second.get(0).getPuzzles().get(0);
+        assertNotSame(a, b);
+        assertEquals(a.getPuzzleId(), b.getPuzzleId());
+        assertSame(a.getDescription(), b.getDescription());
+
+        PuzzleDefinition definition = catalog.getPuzzle(a.getPuzzleId());
+        assertNotNull(definition);
+        assertEquals(definition.getHints().get(0), a.requestHint());
+        assertTrue(a.trySolve(String.valueOf(definition.getNumericAnswer())));
+
+        assertEquals("SOLVED", a.getStatus());
+        assertEquals(1, a.getHintsUsed());
+        assertEquals("UNSOLVED", b.getStatus());
+        assertEquals(0, b.getHintsUsed());
+        assertEquals(definition.getHints(), b.getAvailableHints());
+    }
+
+    @Test
+    public void customCatalogBuildsRoomsFromDefinitions() {
+        RoomDefinition room = new RoomDefinition("r1", "Only Room", "desc", Settings.Difficulty.MEDIUM, 4,
+                List.of(PuzzleDefinition.text(1, "Say hi", " Hi ", "It's a greeting.")));
+        PuzzleCatalog catalog = new PuzzleCatalog(java.util.Map.of(Settings.Difficulty.MEDIUM, List.of(room)));
+
+        List<Room> rooms = catalog.createRooms(Settings.Difficulty.MEDIUM, new Random());
+        assertEquals(1, rooms.size());
+        assertEquals("Medium", rooms.get(0).getDifficulty());
+        assertTrue(rooms.get(0).getPuzzles().get(0).trySolve("hi"));
+        assertTrue(catalog.createRooms(Settings.Difficulty.HARD, new Random()).isEmpty());
+    }
+}
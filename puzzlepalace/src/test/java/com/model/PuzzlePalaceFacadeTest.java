@@ -6,8 +6,6 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.lang.reflect.Field;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.List;
 import java.util.Random;
 
@@ -22,7 +20,8 @@ public class PuzzlePalaceFacadeTest {
 
     private PuzzlePalaceFacade newFacade() throws Exception {
         File store = temp.newFile("users.json");
-        PuzzlePalaceFacade facade = new PuzzlePalaceFacade(store.getAbsolutePath());
+        // No generated puzzles, so the seeded random picks a bundled puzzle with several hints.
+        PuzzlePalaceFacade facade = new PuzzlePalaceFacade(store.getAbsolutePath(), 0);
         Field randomField = PuzzlePalaceFacade.class.getDeclaredField("random");
         randomField.setAccessible(true);
         randomField.set(facade, new Random(0));
@@ -35,9 +34,8 @@ public class PuzzlePalaceFacadeTest {
         Player created = facade.createAccount("NewUser", "Password1!");
         assertNotNull(created);
 
-        Path path = Path.of(facade.getUserDataPath());
-        String json = Files.readString(path);
-        assertTrue(json.contains("NewUser"));
+        List<Player> reloaded = DataLoader.loadUsers(facade.getUserDataPath());
+        assertTrue(reloaded.stream().anyMatch(p -> "NewUser".equals(p.getUsername())));
         assertTrue(facade.readUserDataFileContents().contains("NewUser"));
 
         Player duplicate = facade.createAccount("NewUser", "AnotherPass1!");
@@ -0,0 +1,91 @@
+package com.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SaveQueueTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void repeatedSavesOfOnePlayerAreCoalesced() throws Exception {
+        File snapshot = temp.newFile("users.json");
+        PlayerStore store = new PlayerStore(snapshot.getAbsolutePath(), new PlayerManager());
+        SaveQueue queue = new SaveQueue(store, TimeUnit.HOURS.toMillis(1), 100);
+        Player player = new Player("Coalesce", null, "pw");
+
+        CompletableFuture<Boolean> first = queue.enqueue(player);
+        CompletableFuture<Boolean> second = queue.enqueue(player);
+        assertSame(first, second);
+        assertEquals(1, queue.getPendingCount());
+        assertEquals(0, store.getJournalEntryCount());
+
+        queue.drain();
+
+        assertTrue(first.get(1, TimeUnit.SECONDS));
+        assertEquals(0, queue.getPendingCount());
+        assertEquals(1, store.getJournalEntryCount());
+        queue.close();
+    }
+
+    @Test
+    public void reachingDirtyLimitFlushesInBackground() throws Exception {
+        File snapshot = temp.newFile("users.json");
+        PlayerStore store = new PlayerStore(snapshot.getAbsolutePath(), new PlayerManager());
+        SaveQueue queue = new SaveQueue(store, TimeUnit.HOURS.toMillis(1), 2);
+
+        CompletableFuture<Boolean> first = queue.enqueue(new Player("One", null, "pw"));
+        CompletableFuture<Boolean> second = queue.enqueue(new Player("Two", null, "pw"));
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+        assertEquals(2, store.getJournalEntryCount());
+        queue.close();
+    }
+
+    @Test
+    public void intervalFlushWritesPendingSave() throws Exception {
+        File snapshot = temp.newFile("users.json");
+        PlayerStore store = new PlayerStore(snapshot.getAbsolutePath(), new PlayerManager());
+        SaveQueue queue = new SaveQueue(store, 20, 100);
+
+        CompletableFuture<Boolean> saved = queue.enqueue(new Player("Timed", null, "pw"));
+
+        assertTrue(saved.get(5, TimeUnit.SECONDS));
+        assertEquals(1, DataLoader.loadUsers(snapshot.getAbsolutePath()).size());
+        queue.close();
+    }
+
+    @Test
+    public void failedFlushDoesNotStopTheIntervalFlush() throws Exception {
+        File snapshot = temp.newFile("users.json");
+        AtomicBoolean fail = new AtomicBoolean(true);
+        PlayerStore store = new PlayerStore(snapshot.getAbsolutePath(), new PlayerManager()) {
+            @Override
+            public boolean savePlayers(Collection<Player> players) {
+                if (fail.getAndSet(false)) {
+                    throw new IllegalStateException("disk gone");
+                }
+                return super.savePlayers(players);
+            }
+        };
+        SaveQueue queue = new SaveQueue(store, 20, 100);
+
+        assertFalse(queue.enqueue(new Player("First", null, "pw")).get(5, TimeUnit.SECONDS));
+        assertTrue(queue.enqueue(new Player("Second", null, "pw")).get(5, TimeUnit.SECONDS));
+        queue.close();
+    }
+}
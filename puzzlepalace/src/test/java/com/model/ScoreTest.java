@@ -61,4 +61,20 @@ public class ScoreTest {
         Score b = new Score(200, 3, 0, 20);
         assertTrue(a.compare(b) < 0);
     }
+
+    @Test
+    public void calculateScore_followsEveryChange() {
+        Score score = new Score(50, 2, 0, 0);
+        assertEquals(250, score.calculateScore());
+
+        score.setHintsUsed(2);
+        assertEquals(220, score.calculateScore());
+        score.setTimeTaken(125);
+        assertEquals(216, score.calculateScore());
+        score.setPuzzlesSolved(3);
+        assertEquals(316, score.calculateScore());
+        score.setPoints(0);
+        assertEquals(266, score.calculateScore());
+        assertEquals(266, score.calculateScore());
+    }
 }
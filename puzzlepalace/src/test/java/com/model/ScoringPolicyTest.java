@@ -0,0 +1,147 @@
+package com.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ScoringPolicyTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @After
+    public void restoreBuiltInPolicy() {
+        ScoringPolicy.setCurrent(null);
+    }
+
+    @Test
+    public void builtInPolicyKeepsTheGamesFormulas() {
+        ScoringPolicy policy = ScoringPolicy.builtIn();
+
+        assertEquals(50 + 300 - 30 - 4, policy.totalScore(50, 3, 2, 150));
+        assertEquals(0, policy.totalScore(0, 0, 9, 6_000));
+        assertEquals(100, policy.solveBonus(Settings.Difficulty.HARD));
+        assertEquals(70, policy.solvePoints(Settings.Difficulty.MEDIUM, 2));
+        assertEquals(0, policy.solvePoints(Settings.Difficulty.EASY, 9));
+        assertEquals(3, policy.certificateMultiplier(Settings.Difficulty.HARD));
+        assertEquals(2, policy.certificateMultiplier(Settings.Difficulty.MEDIUM));
+        assertEquals(1, policy.certificateMultiplier(null));
+        assertEquals(400 * 2 - 30, policy.certificateScore(Settings.Difficulty.MEDIUM, 400, 3));
+    }
+
+    @Test
+    public void missingRulesFallBackToEasyAndDefaults() throws Exception {
+        ScoringPolicy policy = ScoringPolicy.parse(new StringReader(
+                "{\"score\": {\"pointsPerPuzzle\": 50},"
+                + " \"difficulties\": {\"Easy\": {\"solveBonus\": 25, \"certificateMultiplier\": 4}}}"));
+
+        assertEquals(50 * 2 - 15, policy.totalScore(0, 2, 1, 30));
+        assertEquals(25, policy.solveBonus(Settings.Difficulty.HARD));
+        assertEquals(4, policy.certificateMultiplier(Settings.Difficulty.HARD));
+        assertEquals(50 - 15, policy.solvePoints(Settings.Difficulty.MEDIUM, 1));
+    }
+
+    @Test
+    public void invalidPolicyFilesAreRejected() throws Exception {
+        File file = temp.newFile("scoring.json");
+        Files.write(file.toPath(), "{\"score\": {\"hintPenalty\": -3}}".getBytes(StandardCharsets.UTF_8));
+        assertNull(ScoringPolicy.load(file.getAbsolutePath()));
+        Files.write(file.toPath(), "{\"score\": {\"timeIntervalSeconds\": 0}}".getBytes(StandardCharsets.UTF_8));
+        assertNull(ScoringPolicy.load(file.getAbsolutePath()));
+        assertNull(ScoringPolicy.load(temp.getRoot() + "/missing.json"));
+    }
+
+    @Test
+    public void unknownDifficultiesAreRejected() throws Exception {
+        String rules = "{\"solveBonus\": 1}";
+        for (String difficulties : new String[] {"{\"expert\": " + rules + "}",
+                "{\"easy\": " + rules + ", \"EASY\": " + rules + "}", "{\"hard\": 7}"}) {
+            try {
+                ScoringPolicy.parse(new StringReader("{\"difficulties\": " + difficulties + "}"));
+                fail("accepted " + difficulties);
+            } catch (IllegalArgumentException expected) {
+                // rejected
+            }
+        }
+        File file = temp.newFile("typo.json");
+        Files.write(file.toPath(), "{\"difficulties\": {\"meduim\": {\"solveBonus\": 5}}}".getBytes(StandardCharsets.UTF_8));
+        assertNull(ScoringPolicy.load(file.getAbsolutePath()));
+    }
+
+    @Test
+    public void applyingAPolicyRescoresAndReranksEveryPlayer() throws Exception {
+        SessionRegistry registry = new SessionRegistry(temp.newFile("users.json").getAbsolutePath());
+        Player solver = registry.createAccount("Solver", "Passw0rd!");
+        solver.getScoreDetails().setPuzzlesSolved(3);
+        Player hoarder = registry.createAccount("Hoarder", "Passw0rd!");
+        hoarder.awardBonusPoints(250);
+        registry.getLeaderboard().addEntry(solver);
+        registry.getLeaderboard().addEntry(hoarder);
+        assertEquals("Solver", registry.getLeaderboard().displayTopScores(1).get(0).getUsername());
+
+        ScoringPolicy.setCurrent(null);
+        registry.applyScoringPolicy(ScoringPolicy.parse(new StringReader("{\"score\": {\"pointsPerPuzzle\": 10}}")));
+
+        assertEquals(30, solver.getScore());
+        assertEquals("Hoarder", registry.getLeaderboard().displayTopScores(1).get(0).getUsername());
+        assertEquals(2, registry.getLeaderboard().findUserRank(solver.getPlayerID()));
+        registry.close();
+    }
+
+    @Test
+    public void applyingAPolicyRepricesSolveBonusesAlreadyEarned() throws Exception {
+        File users = temp.newFile("users.json");
+        SessionRegistry registry = new SessionRegistry(users.getAbsolutePath());
+        Player solver = registry.createAccount("Solver", "Passw0rd!");
+        solver.getScoreDetails().setPuzzlesSolved(2);
+        solver.countSolveBonus(Settings.Difficulty.HARD);
+        solver.countSolveBonus(Settings.Difficulty.EASY);
+        ScoringPolicy builtIn = ScoringPolicy.builtIn();
+        assertEquals(builtIn.totalScore(0, 2, 0, 0) + builtIn.solveBonus(Settings.Difficulty.HARD)
+                + builtIn.solveBonus(Settings.Difficulty.EASY), solver.getScore());
+
+        registry.applyScoringPolicy(ScoringPolicy.parse(new StringReader("{\"score\": {\"pointsPerPuzzle\": 10},"
+                + " \"difficulties\": {\"easy\": {\"solveBonus\": 1}, \"hard\": {\"solveBonus\": 7}}}")));
+
+        assertEquals(2 * 10 + 7 + 1, solver.getScore());
+        assertEquals(0, solver.getScoreDetails().getPoints());
+        String copy = temp.getRoot() + "/copy.json";
+        assertTrue(DataWriter.saveUsers(registry.getPlayerManager().getAllPlayers(), copy));
+        Player reloaded = DataLoader.loadUsers(copy).stream()
+                .filter(player -> "Solver".equals(player.getUsername())).findFirst().orElseThrow();
+        assertEquals(1, reloaded.getScoreDetails().getSolves(Settings.Difficulty.HARD));
+        assertEquals(2 * 10 + 7 + 1, reloaded.getScore());
+        registry.close();
+    }
+
+    @Test
+    public void applyingAPolicyReranksEveryOpenRegistry() throws Exception {
+        SessionRegistry applying = new SessionRegistry(temp.newFile("users.json").getAbsolutePath());
+        SessionRegistry other = new SessionRegistry(temp.newFile("other.json").getAbsolutePath());
+        Player solver = other.createAccount("Solver", "Passw0rd!");
+        solver.getScoreDetails().setPuzzlesSolved(3);
+        Player hoarder = other.createAccount("Hoarder", "Passw0rd!");
+        hoarder.awardBonusPoints(250);
+        other.getLeaderboard().addEntry(solver);
+        other.getLeaderboard().addEntry(hoarder);
+        assertEquals("Solver", other.getLeaderboard().displayTopScores(1).get(0).getUsername());
+
+        applying.applyScoringPolicy(ScoringPolicy.parse(new StringReader("{\"score\": {\"pointsPerPuzzle\": 10}}")));
+
+        assertEquals("Hoarder", other.getLeaderboard().displayTopScores(1).get(0).getUsername());
+        assertEquals(30, other.getLeaderboard().displayTopScores(2).get(1).getScore());
+        other.close();
+        applying.close();
+    }
+}
@@ -0,0 +1,169 @@
+package com.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SessionRegistryTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private SessionRegistry newRegistry() throws Exception {
+        File store = temp.newFile("users.json");
+        return new SessionRegistry(store.getAbsolutePath());
+    }
+
+    @Test
+    public void sessionsKeepSeparateRoomsAndTimers() throws Exception {
+        SessionRegistry registry = newRegistry();
+        assertNotNull(registry.createAccount("Second", "Password2!"));
+
+        GameSession first = registry.login("PlayerOne", "SecretPass1!");
+        GameSession second = registry.login("Second", "Password2!");
+        assertNotNull(first);
+        assertNotNull(second);
+        assertEquals(2, registry.getSessionCount());
+
+        Puzzle firstPuzzle = first.getActivePuzzle();
+        Puzzle secondPuzzle = second.getActivePuzzle();
+        assertNotSame(firstPuzzle, secondPuzzle);
+
+        first.requestHint(firstPuzzle.getPuzzleId());
+        assertEquals(1, firstPuzzle.getHintsUsed());
+        assertEquals(0, secondPuzzle.getHintsUsed());
+
+        second.setSelectedDifficulty(Settings.Difficulty.HARD);
+        assertEquals(Settings.Difficulty.EASY, first.getSelectedDifficulty());
+        assertEquals("PlayerOne", first.getCurrentPlayer().getUsername());
+        assertEquals("Second", second.getCurrentPlayer().getUsername());
+    }
+
+    @Test
+    public void loginWithWrongPasswordOpensNoSession() throws Exception {
+        SessionRegistry registry = newRegistry();
+        assertNull(registry.login("PlayerOne", "wrong"));
+        assertEquals(0, registry.getSessionCount());
+    }
+
+    @Test
+    public void closingSessionsLogsOutAndForgetsThem() throws Exception {
+        SessionRegistry registry = newRegistry();
+        GameSession session = registry.login("PlayerOne", "SecretPass1!");
+        assertSame(session, registry.getSession(session.getSessionId()));
+
+        assertTrue(registry.closeSession(session.getSessionId()));
+        assertNull(session.getCurrentPlayer());
+        assertNull(registry.getSession(session.getSessionId()));
+        assertFalse(registry.closeSession(session.getSessionId()));
+
+        registry.login("PlayerOne", "SecretPass1!");
+        Thread.sleep(5);
+        assertEquals(1, registry.closeIdleSessions(0));
+        assertEquals(0, registry.getSessionCount());
+    }
+
+    @Test
+    public void loggingOutKeepsThePasswordRequired() throws Exception {
+        SessionRegistry registry = newRegistry();
+        GameSession session = registry.login("PlayerOne", "SecretPass1!");
+        assertTrue(registry.closeSession(session.getSessionId()));
+        registry.getSaveQueue().drain();
+
+        assertNull(registry.login("PlayerOne", "anything"));
+        assertNotNull(registry.login("PlayerOne", "SecretPass1!"));
+        assertFalse(registry.getPlayerManager().getPlayerByUsername("PlayerOne").isGuest());
+    }
+
+    @Test
+    public void scoringPolicyWaitsForScoreUpdatesInFlight() throws Exception {
+        SessionRegistry registry = newRegistry();
+        Lock update = registry.getScoreUpdateLock();
+        update.lock();
+        Thread apply = new Thread(() -> registry.applyScoringPolicy(null));
+        try {
+            apply.start();
+            apply.join(200);
+            assertTrue(apply.isAlive());
+        } finally {
+            update.unlock();
+        }
+        apply.join(5000);
+        assertFalse(apply.isAlive());
+    }
+
+    @Test
+    public void loadedSessionsSeeGeneratedMathPuzzles() throws Exception {
+        SessionRegistry registry = new SessionRegistry(temp.newFile("users.json").getAbsolutePath(), 3);
+        RoomDefinition mathRoom = registry.getCatalog().getRooms(Settings.Difficulty.EASY).get(0);
+        int written = PuzzleCatalog.builtIn().getRooms(Settings.Difficulty.EASY).get(0).getCandidates().size();
+        assertEquals(written + 3, mathRoom.getCandidates().size());
+
+        Random lastCandidate = new Random() {
+            @Override
+            public int nextInt(int bound) {
+                return bound - 1;
+            }
+        };
+        GameSession session = registry.openSession(() -> lastCandidate);
+        assertNotNull(session.login("PlayerOne", "SecretPass1!"));
+        Puzzle puzzle = session.getActivePuzzle();
+        assertEquals(MathPuzzleGenerator.FIRST_PUZZLE_ID + 2, puzzle.getPuzzleId());
+        PuzzleDefinition generated = new MathPuzzleGenerator(SessionRegistry.GENERATED_PUZZLE_SEED)
+                .generate(Settings.Difficulty.EASY, 2);
+        assertTrue(session.submitPuzzleAnswer(puzzle.getPuzzleId(),
+                String.valueOf((int) generated.getNumericAnswer())));
+    }
+
+    @Test
+    public void windowedTalliesSavedOnCloseAreRestoredByTheNextRegistry() throws Exception {
+        File store = temp.newFile("users.json");
+        SessionRegistry registry = new SessionRegistry(store.getAbsolutePath());
+        Player player = registry.createAccount("Tallied", "Passw0rd!");
+        registry.getWindowedLeaderboard().recordSolve(player.getPlayerID(), "Tallied",
+                Settings.Difficulty.HARD, 0, null);
+        registry.close();
+        File tallies = new File(store.getAbsolutePath() + WindowedLeaderboard.FILE_SUFFIX);
+        assertTrue(tallies.isFile());
+
+        // The solve is in no progress history, so only the saved tallies can bring it back.
+        SessionRegistry reopened = new SessionRegistry(store.getAbsolutePath());
+        assertEquals("Tallied", reopened.getWindowedLeaderboard()
+                .topScores(null, WindowedLeaderboard.Window.DAILY, 1).get(0).getUsername());
+        assertFalse(tallies.exists());
+        reopened.close();
+    }
+
+    @Test
+    public void rebuildingTheWindowedLeaderboardsLeavesHistoriesDeferred() throws Exception {
+        File store = temp.newFile("users.json");
+        int puzzleId = PuzzleCatalog.builtIn().getRooms(Settings.Difficulty.HARD).get(0).getCandidates().get(0).getPuzzleId();
+        Player solver = new Player("Solver", null, "pw");
+        solver.replaceProgressHistory(List.of(new PuzzleProgressSnapshot(
+                puzzleId, "q", "a", "SOLVED", List.of(), LocalDateTime.now())));
+        assertTrue(DataWriter.saveUsers(List.of(solver), store.getAbsolutePath()));
+
+        SessionRegistry registry = new SessionRegistry(store.getAbsolutePath());
+        List<Leaderboard.Entry> daily = registry.getWindowedLeaderboard()
+                .topScores(Settings.Difficulty.HARD, WindowedLeaderboard.Window.DAILY, 1);
+
+        assertEquals("Solver", daily.get(0).getUsername());
+        for (Player player : registry.getPlayerManager().getAllPlayers()) {
+            assertFalse(player.getUsername(), player.isProgressHistoryLoaded());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import org.junit.Test;
 
@@ -12,6 +13,10 @@ public class SettingsTest {
         assertEquals(Settings.Difficulty.HARD, Settings.Difficulty.fromName("Hard"));
         assertEquals(Settings.Difficulty.EASY, Settings.Difficulty.fromName("unknown"));
         assertEquals(Settings.Difficulty.EASY, Settings.Difficulty.fromName(null));
+
+        assertEquals(Settings.Difficulty.HARD, Settings.Difficulty.find(" HARD "));
+        assertNull(Settings.Difficulty.find("unknown"));
+        assertNull(Settings.Difficulty.find(null));
     }
 
     @Test
@@ -0,0 +1,110 @@
+package com.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class TruthPuzzleTest {
+
+    private static TruthPuzzle.Statement says(int speaker, TruthPuzzle.Claim claim, int subject) {
+        return new TruthPuzzle.Statement(speaker, claim, subject);
+    }
+
+    @Test
+    public void gemstonesHaveOneAnswerAndExplainTheOthers() {
+        TruthPuzzle gems = new TruthPuzzle(List.of("Ruby", "Sapphire", "Emerald"), List.of(
+                says(0, TruthPuzzle.Claim.IS_ANSWER, 1),
+                says(1, TruthPuzzle.Claim.NOT_ANSWER, 1),
+                says(2, TruthPuzzle.Claim.LYING, 0)), 1);
+
+        assertTrue(gems.isUnique());
+        assertEquals("Sapphire", gems.getAnswer());
+        assertEquals(List.of(
+                "Suppose Ruby is the answer: then Sapphire and Emerald would be telling the truth,"
+                        + " 2 true statements instead of 1. Rule out Ruby.",
+                "Suppose Emerald is the answer: then Sapphire and Emerald would be telling the truth,"
+                        + " 2 true statements instead of 1. Rule out Emerald."),
+                gems.eliminationHints());
+        assertEquals("Ruby says 'Sapphire is the answer.' Sapphire says 'I am not the answer.'"
+                + " Emerald says 'Ruby is lying.' Only one statement is true.", gems.describe());
+    }
+
+    @Test
+    public void everyBuiltInTruthPuzzleHasOneSolutionMatchingItsAnswer() {
+        PuzzleCatalog catalog = PuzzleCatalog.builtIn();
+        Set<Integer> encoded = new TreeSet<>();
+        for (Settings.Difficulty difficulty : Settings.Difficulty.values()) {
+            for (RoomDefinition room : catalog.getRooms(difficulty)) {
+                for (PuzzleDefinition puzzle : room.getCandidates()) {
+                    TruthPuzzle statements = puzzle.getStatements();
+                    if (statements == null) {
+                        continue;
+                    }
+                    encoded.add(puzzle.getPuzzleId());
+                    assertEquals("puzzle " + puzzle.getPuzzleId(), 1, statements.getPossibleAnswers().size());
+                    assertTrue("puzzle " + puzzle.getPuzzleId(),
+                            statements.getAnswer().equalsIgnoreCase(puzzle.getAnswer()));
+                }
+            }
+        }
+        assertEquals(Set.of(2011, 2012, 2013, 2014, 2015, 2111, 2112, 2113, 2114, 2115, 2211), encoded);
+    }
+
+    @Test
+    public void ambiguousAndImpossiblePuzzlesAreReported() {
+        TruthPuzzle levers = new TruthPuzzle(List.of("Lever A", "Lever B", "Lever C"), List.of(
+                says(0, TruthPuzzle.Claim.TRUTHFUL, 1),
+                says(1, TruthPuzzle.Claim.IS_ANSWER, 2),
+                says(2, TruthPuzzle.Claim.LYING, 0)), 1);
+        assertFalse(levers.isUnique());
+        assertEquals(List.of("Lever A", "Lever B"), levers.getPossibleAnswers());
+        assertNull(levers.getAnswer());
+
+        TruthPuzzle safes = new TruthPuzzle(List.of("Alpha", "Beta", "Gamma"), List.of(
+                says(0, TruthPuzzle.Claim.IS_ANSWER, 1),
+                says(1, TruthPuzzle.Claim.NOT_ANSWER, 2),
+                says(2, TruthPuzzle.Claim.TRUTHFUL, 0)), 2);
+        assertEquals(List.of(), safes.getPossibleAnswers());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aSpeakerMakesOneStatement() {
+        new TruthPuzzle(List.of("A", "B"), List.of(
+                says(0, TruthPuzzle.Claim.IS_ANSWER, 1),
+                says(0, TruthPuzzle.Claim.LYING, 1)), 1);
+    }
+
+    @Test
+    public void generatedPuzzlesHaveExactlyOneAnswer() {
+        Random random = new Random(5);
+        List<String> candidates = List.of("North", "East", "South", "West");
+        for (int i = 0; i < 500; i++) {
+            TruthPuzzle puzzle = TruthPuzzle.generate(candidates, 1 + i % 2, random, 1000);
+            assertNotNull(puzzle);
+            assertTrue(puzzle.isUnique());
+
+            PuzzleDefinition definition = puzzle.toDefinition(9000 + i, "Four guardians speak.", "Whom do you follow?");
+            assertEquals(puzzle.getAnswer(), definition.getAnswer());
+            assertEquals(3, definition.getHints().size());
+            assertTrue(definition.getPrompt().contains(puzzle.describe()));
+            assertTrue(definition.newPuzzle().trySolve(puzzle.getAnswer().toLowerCase()));
+        }
+    }
+
+    @Test
+    public void builtInLogicPuzzlesAreVerified() {
+        PuzzleDefinition statues = PuzzleCatalog.builtIn().getPuzzle(2015);
+        assertNotNull(statues.getStatements());
+        assertEquals("Hare", statues.getStatements().getAnswer());
+        assertEquals("hare", statues.getAnswer());
+    }
+}
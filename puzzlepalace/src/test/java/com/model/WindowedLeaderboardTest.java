@@ -0,0 +1,195 @@
+package com.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.nio.file.Path;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class WindowedLeaderboardTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 3, 4, 12, 0);
+
+    /** A clock that stays on one day until the test moves it. */
+    private static final class DayClock extends Clock {
+        private LocalDateTime now = MONDAY;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now.toInstant(ZoneOffset.UTC);
+        }
+    }
+
+    private static UUID id(int n) {
+        return new UUID(0, n);
+    }
+
+    private static List<String> names(List<Leaderboard.Entry> entries) {
+        return entries.stream().map(Leaderboard.Entry::getUsername).toList();
+    }
+
+    @Test
+    public void boardsAreKeptPerDifficultyAndWindow() {
+        DayClock clock = new DayClock();
+        WindowedLeaderboard boards = new WindowedLeaderboard(clock);
+        boards.recordSolve(id(1), "ann", Settings.Difficulty.EASY, 0, MONDAY.minusDays(3));
+        boards.recordSolve(id(1), "ann", Settings.Difficulty.EASY, 0, MONDAY.minusDays(2));
+        boards.recordSolve(id(2), "bob", Settings.Difficulty.HARD, 1, MONDAY);
+        boards.recordSolve(id(3), "cat", Settings.Difficulty.HARD, 0, MONDAY.minusDays(30));
+
+        assertEquals(List.of("ann", "cat", "bob"), names(boards.topScores(null, WindowedLeaderboard.Window.ALL_TIME, 10)));
+        assertEquals(List.of("cat", "bob"), names(boards.topScores(Settings.Difficulty.HARD, WindowedLeaderboard.Window.ALL_TIME, 10)));
+        assertEquals(List.of("ann", "bob"), names(boards.topScores(null, WindowedLeaderboard.Window.WEEKLY, 10)));
+        assertEquals(200, boards.topScores(null, WindowedLeaderboard.Window.WEEKLY, 1).get(0).getScore());
+        assertEquals(List.of("bob"), names(boards.topScores(null, WindowedLeaderboard.Window.DAILY, 10)));
+        assertEquals(85, boards.topScores(null, WindowedLeaderboard.Window.DAILY, 10).get(0).getScore());
+        assertTrue(boards.topScores(Settings.Difficulty.MEDIUM, WindowedLeaderboard.Window.WEEKLY, 10).isEmpty());
+    }
+
+    @Test
+    public void oldDaysExpireAsTheClockMoves() {
+        DayClock clock = new DayClock();
+        WindowedLeaderboard boards = new WindowedLeaderboard(clock);
+        boards.recordSolve(id(1), "ann", Settings.Difficulty.EASY, 0, MONDAY);
+
+        clock.now = MONDAY.plusDays(6);
+        boards.recordSolve(id(2), "bob", Settings.Difficulty.EASY, 0, clock.now);
+        assertEquals(List.of("ann", "bob"), names(boards.topScores(null, WindowedLeaderboard.Window.WEEKLY, 10)));
+
+        clock.now = MONDAY.plusDays(7);
+        assertEquals(List.of("bob"), names(boards.topScores(null, WindowedLeaderboard.Window.WEEKLY, 10)));
+        assertTrue(boards.topScores(null, WindowedLeaderboard.Window.DAILY, 10).isEmpty());
+
+        boards.recordSolve(id(3), "cat", Settings.Difficulty.EASY, 0, clock.now);
+        assertEquals(List.of("bob", "cat"), names(boards.topScores(null, WindowedLeaderboard.Window.WEEKLY, 10)));
+        assertEquals(1, boards.topScores(Settings.Difficulty.EASY, WindowedLeaderboard.Window.DAILY, 10).size());
+        assertEquals(3, boards.topScores(null, WindowedLeaderboard.Window.ALL_TIME, 10).size());
+    }
+
+    @Test
+    public void weeklyTopMatchesSummingEveryDay() {
+        DayClock clock = new DayClock();
+        WindowedLeaderboard boards = new WindowedLeaderboard(clock);
+        Map<UUID, Integer> totals = new HashMap<>();
+        Random random = new Random(8);
+        for (int i = 0; i < 5_000; i++) {
+            UUID player = id(random.nextInt(400));
+            int hints = random.nextInt(8);
+            boards.recordSolve(player, "p", Settings.Difficulty.MEDIUM, hints, MONDAY.minusDays(random.nextInt(7)));
+            totals.merge(player, WindowedLeaderboard.pointsFor(Settings.Difficulty.MEDIUM, hints), Integer::sum);
+        }
+        List<Map.Entry<UUID, Integer>> expected = new ArrayList<>(totals.entrySet());
+        expected.sort(Map.Entry.<UUID, Integer>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        List<Leaderboard.Entry> top = boards.topScores(Settings.Difficulty.MEDIUM, WindowedLeaderboard.Window.WEEKLY, 25);
+        assertEquals(25, top.size());
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(i + 1, top.get(i).getRank());
+            assertEquals(expected.get(i).getKey(), top.get(i).getPlayerId());
+            assertEquals(expected.get(i).getValue().intValue(), top.get(i).getScore());
+        }
+    }
+
+    @Test
+    public void rebuildCountsSolvedPuzzlesOnTheDayTheyWereUpdated() {
+        DayClock clock = new DayClock();
+        PuzzleCatalog catalog = PuzzleCatalog.builtIn();
+        int easyPuzzle = catalog.getRooms(Settings.Difficulty.EASY).get(0).getCandidates().get(0).getPuzzleId();
+        int hardPuzzle = catalog.getRooms(Settings.Difficulty.HARD).get(0).getCandidates().get(0).getPuzzleId();
+
+        Player ann = new Player("ann", null, "pw");
+        ann.replaceProgressHistory(List.of(
+                new PuzzleProgressSnapshot(easyPuzzle, "q", "a", "SOLVED", List.of("h"), MONDAY),
+                new PuzzleProgressSnapshot(hardPuzzle, "q", "a", "SOLVED", List.of(), MONDAY.minusDays(10)),
+                new PuzzleProgressSnapshot(42, "q", "", "ATTEMPTED", List.of(), MONDAY)));
+        Player bob = new Player("bob", null, "pw");
+
+        WindowedLeaderboard boards = new WindowedLeaderboard(clock);
+        assertEquals(2, boards.rebuild(List.of(ann, bob), catalog));
+
+        assertEquals(185, boards.topScores(null, WindowedLeaderboard.Window.ALL_TIME, 10).get(0).getScore());
+        assertEquals(85, boards.topScores(null, WindowedLeaderboard.Window.DAILY, 10).get(0).getScore());
+        assertEquals(100, boards.topScores(Settings.Difficulty.HARD, WindowedLeaderboard.Window.ALL_TIME, 10).get(0).getScore());
+        assertTrue(boards.topScores(Settings.Difficulty.HARD, WindowedLeaderboard.Window.WEEKLY, 10).isEmpty());
+        assertEquals(1, boards.topScores(null, WindowedLeaderboard.Window.ALL_TIME, 10).size());
+    }
+
+    @Test
+    public void savedTalliesAreRestoredOnlyWithTheirStamp() throws Exception {
+        DayClock clock = new DayClock();
+        Player ann = new Player("ann", null, "pw");
+        Player bob = new Player("bob", null, "pw");
+        WindowedLeaderboard boards = new WindowedLeaderboard(clock);
+        boards.recordSolve(ann.getPlayerID(), "ann", Settings.Difficulty.EASY, 0, MONDAY);
+        boards.recordSolve(ann.getPlayerID(), "ann", Settings.Difficulty.HARD, 1, MONDAY.minusDays(30));
+        boards.recordSolve(bob.getPlayerID(), "bob", Settings.Difficulty.EASY, 2, MONDAY.minusDays(1));
+        Path file = folder.getRoot().toPath().resolve("users.json" + WindowedLeaderboard.FILE_SUFFIX);
+        assertTrue(boards.save(file, 7));
+
+        WindowedLeaderboard restored = new WindowedLeaderboard(clock);
+        assertFalse(restored.restore(file, 8, List.of(ann, bob)));
+        assertTrue(restored.topScores(null, WindowedLeaderboard.Window.ALL_TIME, 10).isEmpty());
+
+        assertTrue(restored.restore(file, 7, List.of(ann, bob)));
+        for (WindowedLeaderboard.Window window : WindowedLeaderboard.Window.values()) {
+            assertEquals(boards.topScores(null, window, 10).stream().map(Leaderboard.Entry::getScore).toList(),
+                    restored.topScores(null, window, 10).stream().map(Leaderboard.Entry::getScore).toList());
+        }
+        assertEquals(List.of("ann", "bob"), names(restored.topScores(null, WindowedLeaderboard.Window.ALL_TIME, 10)));
+
+        assertTrue(restored.restore(file, 7, List.of(bob)));
+        assertEquals(List.of("bob"), names(restored.topScores(null, WindowedLeaderboard.Window.ALL_TIME, 10)));
+    }
+
+    @Test
+    public void rescoreRanksTheTalliedSolvesUnderTheCurrentPolicy() throws Exception {
+        WindowedLeaderboard boards = new WindowedLeaderboard(new DayClock());
+        boards.recordSolve(id(1), "ann", Settings.Difficulty.EASY, 0, MONDAY);
+        boards.recordSolve(id(2), "bob", Settings.Difficulty.HARD, 0, MONDAY);
+        boards.recordSolve(id(2), "bob", Settings.Difficulty.HARD, 0, MONDAY);
+        try {
+            ScoringPolicy.setCurrent(ScoringPolicy.parse(new StringReader(
+                    "{\"difficulties\": {\"easy\": {\"solvePoints\": 500}, \"hard\": {\"solvePoints\": 10}}}")));
+            boards.rescore();
+        } finally {
+            ScoringPolicy.setCurrent(null);
+        }
+
+        List<Leaderboard.Entry> daily = boards.topScores(null, WindowedLeaderboard.Window.DAILY, 10);
+        assertEquals(List.of("ann", "bob"), names(daily));
+        assertEquals(500, daily.get(0).getScore());
+        assertEquals(20, daily.get(1).getScore());
+    }
+}
@@ -0,0 +1,106 @@
+package com.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class WordIndexTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void wordsAreGroupedByTheirLetters() {
+        WordIndex index = WordIndex.of(List.of("listen", "Silent", "enlist", "tinsel", "stone", "notes", "don't"));
+
+        assertEquals(6, index.size());
+        assertTrue(index.contains(" LISTEN "));
+        assertFalse(index.contains("don't"));
+        assertFalse(index.contains("inlets"));
+        assertEquals(List.of("listen", "silent", "enlist", "tinsel"), index.anagramsOf("NLISTE"));
+        assertEquals(List.of(), index.anagramsOf("stones"));
+
+        assertTrue(index.isCloseTo("notes", "Stone"));
+        assertFalse(index.isCloseTo("stone", "stone"));
+        assertFalse(index.isCloseTo("tones", "stone"));
+    }
+
+    @Test
+    public void loadMapsADictionaryFile() throws Exception {
+        File file = temp.newFile("words.txt");
+        Files.writeString(file.toPath(), "# comment\r\nnorth\r\n\r\n  thorn  \nabcdefghijklmnopqrstuvwxyz\nlight",
+                StandardCharsets.US_ASCII);
+
+        WordIndex index = WordIndex.load(file.getPath());
+        assertNotNull(index);
+        assertEquals(3, index.size());
+        assertEquals(List.of("north", "thorn"), index.anagramsOf("rhont"));
+        assertTrue(index.contains("light"));
+        assertNull(WordIndex.load(new File(temp.getRoot(), "missing.txt").getPath()));
+    }
+
+    @Test
+    public void anagramPuzzlesHaveExactlyOneAnswer() {
+        WordIndex index = WordIndex.builtIn();
+        List<PuzzleDefinition> puzzles = index.anagramPuzzles(5000, 50, 5, new Random(11));
+
+        assertEquals(50, puzzles.size());
+        for (PuzzleDefinition puzzle : puzzles) {
+            String answer = puzzle.getAnswer();
+            assertTrue(answer.length() >= 5);
+            assertEquals(List.of(answer), index.anagramsOf(answer));
+            String letters = puzzle.getPrompt().replaceAll(".*letters (.*) to reveal.*", "$1").replace(" ", "");
+            assertFalse(letters.equalsIgnoreCase(answer));
+            char[] scrambled = letters.toLowerCase().toCharArray();
+            char[] sorted = answer.toCharArray();
+            Arrays.sort(scrambled);
+            Arrays.sort(sorted);
+            assertEquals(new String(sorted), new String(scrambled));
+            assertTrue(puzzle.newPuzzle().trySolve(answer.toUpperCase()));
+        }
+        assertEquals(5049, puzzles.get(49).getPuzzleId());
+    }
+
+    @Test
+    public void puzzlesReportOtherAnagramsAsClose() {
+        Puzzle puzzle = new SimplePuzzle(1, "Which way?", "north");
+        assertTrue(puzzle.isCloseAnswer("Thorn"));
+        assertFalse(puzzle.isCloseAnswer("south"));
+        assertFalse(puzzle.isCloseAnswer("hnort"));
+
+        WordPuzzle words = new WordPuzzle(2, "Pick one", List.of("stone", "moon"), "stone", List.of());
+        assertEquals("Close! \"notes\" uses the right letters, but it is not the word.", words.evaluateSolution("notes"));
+        assertEquals("Incorrect. \"MOON\" is not the right word.", words.evaluateSolution("MOON"));
+    }
+
+    @Test
+    public void extendAddsAnagramPuzzlesToWordRooms() {
+        PuzzleCatalog builtIn = PuzzleCatalog.builtIn();
+        PuzzleCatalog extended = WordIndex.builtIn().extend(builtIn, 3, 7L);
+        List<RoomDefinition> before = builtIn.getRooms(Settings.Difficulty.EASY);
+        List<RoomDefinition> after = extended.getRooms(Settings.Difficulty.EASY);
+
+        assertEquals(before.get(0).getCandidates(), after.get(0).getCandidates());
+        List<PuzzleDefinition> added = after.get(1).getCandidates().subList(before.get(1).getCandidates().size(),
+                after.get(1).getCandidates().size());
+        assertEquals(3, added.size());
+        assertEquals(WordIndex.FIRST_PUZZLE_ID, added.get(0).getPuzzleId());
+        assertEquals(before.get(2).getCandidates(), after.get(2).getCandidates());
+        assertEquals(added.get(0).getAnswer(), WordIndex.builtIn().extend(builtIn, 3, 7L)
+                .getPuzzle(WordIndex.FIRST_PUZZLE_ID).getAnswer());
+        assertEquals(builtIn.getPuzzleCount(), WordIndex.builtIn().extend(builtIn, 0, 7L).getPuzzleCount());
+    }
+}
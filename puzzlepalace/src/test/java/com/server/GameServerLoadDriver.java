@@ -0,0 +1,194 @@
+package com.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import com.model.Player;
+import com.model.SessionRegistry;
+
+/**
+ * This starts a {@link GameServer} on a free port and drives it with simulated
+ * players that all play at once. Every player logs in before any logs out;
+ * each then asks for a hint, submits an answer, saves and logs out, waiting
+ * for each response before sending the next request. The players share a
+ * bounded number of in-flight requests, the way real players between moves
+ * share a server's connections, which also keeps the client and server
+ * sockets of one JVM under the open-file limit. Players are registered in
+ * memory so the run measures request handling rather than account creation.
+ *
+ * Usage: {@code GameServerLoadDriver [players [maxInFlight]]} (defaults to 10000 and 256).
+ */
+public class GameServerLoadDriver {
+
+    private static final String PASSWORD = "LoadTest1!";
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final SessionRegistry registry;
+    private final Semaphore inFlight;
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger peakSessions = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicReference<String> firstFailure = new AtomicReference<>();
+
+    private GameServerLoadDriver(String baseUrl, SessionRegistry registry, int maxInFlight) {
+        this.baseUrl = baseUrl;
+        this.registry = registry;
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    /**
+     * This runs the load test.
+     *
+     * @param args optional number of simulated players and request concurrency
+     */
+    public static void main(String[] args) throws IOException {
+        int players = args.length > 0 ? Integer.parseInt(args[0].replace("_", "")) : 10_000;
+        int maxInFlight = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        File users = File.createTempFile("load-users", ".json");
+        users.deleteOnExit();
+
+        SessionRegistry registry = new SessionRegistry(users.getAbsolutePath());
+        for (int i = 0; i < players; i++) {
+            registry.getPlayerManager().addPlayer(new Player("load" + i, null, PASSWORD));
+        }
+        GameServer server = new GameServer(registry, 0);
+        server.start();
+        try {
+            new GameServerLoadDriver("http://127.0.0.1:" + server.getPort(), registry, maxInFlight).run(players);
+        } finally {
+            server.stop();
+        }
+    }
+
+    private void run(int players) {
+        long[] latencies = new long[players];
+        List<CompletableFuture<Void>> sessions = new ArrayList<>(players);
+        CompletableFuture<Void> allLoggedIn = new CompletableFuture<>();
+        AtomicInteger loginsLeft = new AtomicInteger(players);
+        long start = System.nanoTime();
+        for (int i = 0; i < players; i++) {
+            sessions.add(simulatePlayer(i, latencies, loginsLeft, allLoggedIn));
+        }
+        CompletableFuture.allOf(sessions.toArray(new CompletableFuture[0])).join();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+
+        Arrays.sort(latencies);
+        System.out.printf("%,d players, %,d requests in %,d ms (%,.0f req/s), %d failed;"
+                + " %,d sessions open at peak; per-player p50 %d ms, p99 %d ms, max %d ms%n",
+                players, requests.get(), elapsedMillis, requests.get() * 1000.0 / Math.max(1, elapsedMillis),
+                failures.get(), peakSessions.get(), latencies[players / 2], latencies[(int) (players * 0.99)],
+                latencies[players - 1]);
+        if (firstFailure.get() != null) {
+            System.out.println("GameServerLoadDriver: first failure: " + firstFailure.get());
+        }
+    }
+
+    private CompletableFuture<Void> simulatePlayer(int index, long[] latencies, AtomicInteger loginsLeft,
+            CompletableFuture<Void> allLoggedIn) {
+        long start = System.nanoTime();
+        return post("/login", "username", "load" + index, "password", PASSWORD).whenComplete((login, error) -> {
+            peakSessions.accumulateAndGet(registry.getSessionCount(), Math::max);
+            if (loginsLeft.decrementAndGet() == 0) {
+                allLoggedIn.complete(null);
+            }
+        }).thenCompose(login -> {
+            Object session = login.get("session");
+            if (session == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            String id = session.toString();
+            String puzzleId = String.valueOf(login.get("puzzleId"));
+            return post("/hint", "session", id, "puzzleId", puzzleId)
+                    .thenCompose(hint -> post("/answer", "session", id, "puzzleId", puzzleId, "answer", "42"))
+                    .thenCompose(answer -> post("/save", "session", id))
+                    .thenCompose(save -> allLoggedIn)
+                    .thenCompose(ready -> post("/logout", "session", id));
+        }).handle((ignored, error) -> {
+            if (error != null) {
+                failures.incrementAndGet();
+                firstFailure.compareAndSet(null, String.valueOf(error.getCause() != null ? error.getCause() : error));
+            }
+            latencies[index] = (System.nanoTime() - start) / 1_000_000L;
+            return null;
+        });
+    }
+
+    private CompletableFuture<JSONObject> post(String path, String... params) {
+        StringBuilder form = new StringBuilder();
+        for (int i = 0; i + 1 < params.length; i += 2) {
+            if (form.length() > 0) {
+                form.append('&');
+            }
+            form.append(URLEncoder.encode(params[i], StandardCharsets.UTF_8)).append('=')
+                    .append(URLEncoder.encode(params[i + 1], StandardCharsets.UTF_8));
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(120))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form.toString()))
+                .build();
+        requests.incrementAndGet();
+        CompletableFuture<JSONObject> result = new CompletableFuture<>();
+        waiting.add(() -> client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+            inFlight.release();
+            sendWaiting();
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            if (response.statusCode() != 200) {
+                failures.incrementAndGet();
+                firstFailure.compareAndSet(null, path + " returned " + response.statusCode() + ": " + response.body());
+            }
+            result.complete(parse(response.body()));
+        }));
+        sendWaiting();
+        return result;
+    }
+
+    private void sendWaiting() {
+        while (!waiting.isEmpty() && inFlight.tryAcquire()) {
+            Runnable send = waiting.poll();
+            if (send == null) {
+                inFlight.release();
+                return;
+            }
+            send.run();
+        }
+    }
+
+    private static JSONObject parse(String body) {
+        try {
+            Object parsed = new JSONParser().parse(body);
+            return parsed instanceof JSONObject ? (JSONObject) parsed : new JSONObject();
+        } catch (ParseException e) {
+            return new JSONObject();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.model.SessionRegistry;
+
+public class GameServerTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private GameServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Before
+    public void startServer() throws Exception {
+        File store = temp.newFile("users.json");
+        // No generated puzzles, so a watched catalog serves only its own puzzles.
+        server = new GameServer(new SessionRegistry(store.getAbsolutePath(), 0), 0);
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop();
+    }
+
+    private HttpResponse<String> post(String path, String form) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static JSONObject json(HttpResponse<String> response) throws Exception {
+        return (JSONObject) new JSONParser().parse(response.body());
+    }
+
+    @Test
+    public void playsASessionOverHttp() throws Exception {
+        HttpResponse<String> login = post("/login", "username=PlayerOne&password=SecretPass1%21");
+        assertEquals(200, login.statusCode());
+        JSONObject body = json(login);
+        String session = (String) body.get("session");
+        assertNotNull(session);
+        assertNotNull(body.get("question"));
+        long puzzleId = (Long) body.get("puzzleId");
+        assertEquals(1, server.getRegistry().getSessionCount());
+
+        JSONObject hint = json(post("/hint", "session=" + session + "&puzzleId=" + puzzleId));
+        assertNotNull(hint.get("hint"));
+
+        JSONObject answer = json(post("/answer", "session=" + session + "&puzzleId=" + puzzleId + "&answer=wrong"));
+        assertEquals(Boolean.FALSE, answer.get("solved"));
+
+        JSONObject saved = json(post("/save", "session=" + session));
+        assertEquals(Boolean.TRUE, saved.get("saved"));
+
+        assertEquals(200, post("/logout", "session=" + session).statusCode());
+        assertEquals(0, server.getRegistry().getSessionCount());
+    }
+
+    @Test
+    public void rejectsBadCredentialsAndUnknownSessions() throws Exception {
+        assertEquals(401, post("/login", "username=PlayerOne&password=nope").statusCode());
+        assertEquals(404, post("/hint", "session=missing&puzzleId=1").statusCode());
+        HttpResponse<String> logout = post("/logout", "session=missing");
+        assertEquals(404, logout.statusCode());
+        assertTrue(json(logout).containsKey("error"));
+    }
+
+    @Test
+    public void acceptsCredentialsOnlyInAPostBody() throws Exception {
+        String query = "/login?username=PlayerOne&password=SecretPass1%21";
+        HttpRequest get = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + query)).build();
+        HttpResponse<String> rejected = client.send(get, HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, rejected.statusCode());
+        assertEquals("POST", rejected.headers().firstValue("Allow").orElse(null));
+
+        assertEquals(401, post(query, "").statusCode());
+        assertEquals(0, server.getRegistry().getSessionCount());
+    }
+
+    @Test
+    public void closesIdleSessions() throws Exception {
+        File store = temp.newFile("idle-users.json");
+        GameServer idle = new GameServer(new SessionRegistry(store.getAbsolutePath()),
+                new InetSocketAddress("127.0.0.1", 0), 16, 50);
+        idle.start();
+        try {
+            assertNotNull(idle.getRegistry().login("PlayerOne", "SecretPass1!"));
+            long deadline = System.currentTimeMillis() + 10_000L;
+            while (idle.getRegistry().getSessionCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(0, idle.getRegistry().getSessionCount());
+        } finally {
+            idle.stop();
+        }
+    }
+
+    @Test
+    public void parseFormDecodesPairs() {
+        Map<String, String> params = new HashMap<>();
+        GameServer.parseForm("a=1&b=two+words&c=%21&flag", params);
+        assertEquals("1", params.get("a"));
+        assertEquals("two words", params.get("b"));
+        assertEquals("!", params.get("c"));
+        assertEquals("", params.get("flag"));
+    }
+
+    @Test
+    public void rejectsMalformedPercentEncodingAsABadRequest() throws Exception {
+        HttpResponse<String> response = post("/login", "username=%zz&password=SecretPass1%21");
+        assertEquals(400, response.statusCode());
+        assertTrue(json(response).containsKey("error"));
+        assertEquals(0, server.getRegistry().getSessionCount());
+    }
+
+    @Test
+    public void metricsReportCatalogReloads() throws Exception {
+        File rooms = temp.newFile("rooms.json");
+        Files.writeString(rooms.toPath(), "[{\"roomID\": \"vault\", \"name\": \"Vault\", \"difficulty\": \"easy\","
+                + " \"puzzles\": [{\"puzzleId\": 7, \"type\": \"WordPuzzle\", \"description\": \"Say it.\","
+                + " \"answer\": \"word\"}]}]", StandardCharsets.UTF_8);
+        assertTrue(server.watchCatalog(rooms.getPath()));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/metrics")).build();
+        JSONObject metrics = json(client.send(request, HttpResponse.BodyHandlers.ofString()));
+        assertEquals(1L, metrics.get("catalogPuzzles"));
+        assertEquals(1L, metrics.get("catalogReloads"));
+        assertEquals(0L, metrics.get("catalogReloadFailures"));
+        assertNotNull(metrics.get("catalogLastReloadMicros"));
+
+        JSONObject login = json(post("/login", "username=PlayerOne&password=SecretPass1%21"));
+        assertEquals(7L, login.get("puzzleId"));
+    }
+}